@@ -0,0 +1,161 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.ConcurrentBuffer4j;
+import org.alpha4j.ds.MpscRingBuffer4j;
+import org.alpha4j.ds.SpscRingBuffer4j;
+import org.alpha4j.ds.StripedBuffer4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Throughput of the buffers of {@code org.alpha4j.ds} against {@link ArrayBlockingQueue} and
+ * {@link ConcurrentLinkedQueue}, with producers and a consumer running concurrently. The score of
+ * the offer method counts attempted offers, the score of the poll method the polls, and the score
+ * of the drain method the batches of up to 64 elements.
+ * <p>
+ * {@link ConcurrentLinkedQueue} is unbounded, so when its consumer falls behind the queue grows
+ * for the whole iteration. Run with {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentBuffer4jBenchmark {
+    static final int CAPACITY = 1024;
+    static final int DRAIN_LIMIT = 64;
+    static final Integer ELEMENT = 1;
+
+    @State(Scope.Group)
+    public static class ManyProducers {
+        @Param({"mpsc", "striped", "ArrayBlockingQueue", "ConcurrentLinkedQueue"})
+        String buffer;
+        ConcurrentBuffer4j<Integer> instance;
+
+        @Setup
+        public void setUp() {
+            instance = create(buffer);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class OneProducer {
+        @Param({"spsc", "mpsc", "ArrayBlockingQueue", "ConcurrentLinkedQueue"})
+        String buffer;
+        ConcurrentBuffer4j<Integer> instance;
+
+        @Setup
+        public void setUp() {
+            instance = create(buffer);
+        }
+    }
+
+    @Benchmark
+    @Group("manyToOne")
+    @GroupThreads(3)
+    public boolean manyToOneOffer(ManyProducers state) {
+        return state.instance.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("manyToOne")
+    @GroupThreads(1)
+    public Integer manyToOnePoll(ManyProducers state) {
+        return state.instance.poll();
+    }
+
+    @Benchmark
+    @Group("manyToOneDrain")
+    @GroupThreads(3)
+    public boolean manyToOneDrainOffer(ManyProducers state) {
+        return state.instance.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("manyToOneDrain")
+    @GroupThreads(1)
+    public int manyToOneDrain(ManyProducers state, Blackhole blackhole) {
+        return state.instance.drain(blackhole::consume, DRAIN_LIMIT);
+    }
+
+    @Benchmark
+    @Group("oneToOne")
+    @GroupThreads(1)
+    public boolean oneToOneOffer(OneProducer state) {
+        return state.instance.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("oneToOne")
+    @GroupThreads(1)
+    public Integer oneToOnePoll(OneProducer state) {
+        return state.instance.poll();
+    }
+
+    static ConcurrentBuffer4j<Integer> create(String buffer) {
+        switch (buffer) {
+            case "mpsc":
+                return new MpscRingBuffer4j<>(CAPACITY);
+            case "spsc":
+                return new SpscRingBuffer4j<>(CAPACITY);
+            case "striped":
+                return new StripedBuffer4j<>(CAPACITY / Runtime.getRuntime().availableProcessors());
+            case "ArrayBlockingQueue":
+                return new QueueBuffer(new ArrayBlockingQueue<>(CAPACITY), CAPACITY);
+            case "ConcurrentLinkedQueue":
+                return new QueueBuffer(new ConcurrentLinkedQueue<>(), Integer.MAX_VALUE);
+            default:
+                throw new IllegalArgumentException("unknown buffer: " + buffer);
+        }
+    }
+
+    /**
+     * Adapts a {@link Queue} of the JDK to the buffer interface.
+     */
+    static final class QueueBuffer implements ConcurrentBuffer4j<Integer> {
+        private final Queue<Integer> queue;
+        private final int capacity;
+
+        QueueBuffer(Queue<Integer> queue, int capacity) {
+            this.queue = queue;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(Integer element) {
+            return queue.offer(element);
+        }
+
+        @Override
+        public Integer poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public int drain(Consumer<? super Integer> action, int limit) {
+            int drained = 0;
+            Integer element;
+            while (drained < limit && (element = queue.poll()) != null) {
+                action.accept(element);
+                drained++;
+            }
+            return drained;
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public int capacity() {
+            return capacity;
+        }
+    }
+}
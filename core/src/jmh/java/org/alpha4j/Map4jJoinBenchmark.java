@@ -0,0 +1,69 @@
+package org.alpha4j;
+
+import org.alpha4j.common.Map4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of the relational operations of {@link Map4j} on two maps of a million keys overlapping by
+ * half, against the sequential loop over {@code entrySet()} they replace. Run with
+ * {@code ./gradlew :core:jmh -Pjmh.includes=Map4jJoin}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Map4jJoinBenchmark {
+    static final int KEYS = 1_000_000;
+
+    Map4j<Integer, Integer> left;
+    Map4j<Integer, Integer> right;
+
+    @Setup
+    public void setUp() {
+        left = new Map4j<>(KEYS);
+        right = new Map4j<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            left.put(i, i);
+            right.put(i + KEYS / 2, i);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Long> sequentialJoin() {
+        Map<Integer, Long> joined = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : left.entrySet()) {
+            Integer value = right.get(entry.getKey());
+            if (value != null) {
+                joined.put(entry.getKey(), (long) entry.getValue() + value);
+            }
+        }
+        return joined;
+    }
+
+    @Benchmark
+    public Map4j<Integer, Long> innerJoin() {
+        return left.innerJoin(right, (l, r) -> (long) l + r);
+    }
+
+    @Benchmark
+    public Map4j<Integer, Long> leftJoin() {
+        return left.leftJoin(right, (l, r) -> r == null ? l : (long) l + r);
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupBy() {
+        return left.groupBy(entry -> entry.getValue() & 1023, Collectors.counting());
+    }
+
+    @Benchmark
+    public Map<Boolean, Map<Integer, Integer>> partitionBy() {
+        return left.partitionBy(entry -> (entry.getValue() & 1) == 0);
+    }
+}
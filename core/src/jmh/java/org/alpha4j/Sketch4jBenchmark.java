@@ -0,0 +1,99 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.sketch.BloomFilter4j;
+import org.alpha4j.ds.sketch.CountMinSketch4j;
+import org.alpha4j.ds.sketch.HyperLogLog4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the updates and queries of the sketches of {@code org.alpha4j.ds.sketch}, sized for a
+ * million keys, from one thread and from four threads updating the same sketch concurrently.
+ * Run with {@code ./gradlew :core:jmh -Pjmh.includes=Sketch4j}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Sketch4jBenchmark {
+    static final int KEYS = 1 << 20;
+
+    BloomFilter4j bloomFilter;
+    CountMinSketch4j countMinSketch;
+    HyperLogLog4j hyperLogLog;
+    Integer[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        Integer key(Integer[] keys) {
+            return keys[next++ & (KEYS - 1)];
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        bloomFilter = new BloomFilter4j(KEYS, 0.01);
+        countMinSketch = new CountMinSketch4j(0.0001, 0.01, 10L * KEYS);
+        hyperLogLog = new HyperLogLog4j();
+        keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i * 31 + 7;
+            if ((i & 1) == 0) {
+                bloomFilter.put(keys[i]); // Half of the queries hit
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean bloomFilterPut(Cursor cursor) {
+        return bloomFilter.put(cursor.key(keys));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean bloomFilterPutConcurrent(Cursor cursor) {
+        return bloomFilter.put(cursor.key(keys));
+    }
+
+    @Benchmark
+    public boolean bloomFilterMightContain(Cursor cursor) {
+        return bloomFilter.mightContain(cursor.key(keys));
+    }
+
+    @Benchmark
+    public void countMinSketchAdd(Cursor cursor) {
+        countMinSketch.add(cursor.key(keys));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void countMinSketchAddConcurrent(Cursor cursor) {
+        countMinSketch.add(cursor.key(keys));
+    }
+
+    @Benchmark
+    public int countMinSketchEstimate(Cursor cursor) {
+        return countMinSketch.estimate(cursor.key(keys));
+    }
+
+    @Benchmark
+    public void hyperLogLogAdd(Cursor cursor) {
+        hyperLogLog.add(cursor.key(keys));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void hyperLogLogAddConcurrent(Cursor cursor) {
+        hyperLogLog.add(cursor.key(keys));
+    }
+
+    @Benchmark
+    public long hyperLogLogCardinality() {
+        return hyperLogLog.cardinality();
+    }
+}
@@ -0,0 +1,124 @@
+package org.alpha4j;
+
+import org.alpha4j.common.Map4j;
+import org.alpha4j.ds.LFUCache4j;
+import org.alpha4j.ds.LRUCache;
+import org.alpha4j.ds.LRUCache4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the first use of the core classes in a fresh JVM, that is class loading and
+ * initialization, which dominates short-lived jobs. Every measurement runs once in its own fork.
+ * {@code map4jJson} adds the first {@link Map4j#writeTo} call, which loads Jackson, to show what an
+ * integration costs on top of the dependency-free core.
+ * <p>
+ * {@code firstUse} compares the core with the plugin module before the split: the same first use of
+ * the caches runs in a class loader holding either the core classes alone, or the core classes
+ * followed by the former runtime classpath of the plugin (logback, SLF4J, Jackson, JAXB, json-path
+ * and the rest), plus the SLF4J logger the static initializer of {@link LRUCache} used to create.
+ * The build passes both classpaths to the forks, see {@code preSplit} in {@code core/build.gradle}.
+ * Logback 1.4 needs Java 11, so on Java 8 SLF4J falls back to its no-op logger and the pre-split
+ * figures are a lower bound. Run with
+ * {@code ./gradlew :core:jmh -Pjmh.includes=Startup4j -Pjmh.profilers=cl} to also count the loaded
+ * classes, reported as {@code class.load} next to the time to first use.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class Startup4jBenchmark {
+
+    @Benchmark
+    public Object caches() {
+        LRUCache4j<String, Integer> lru = new LRUCache4j<>(16);
+        LFUCache4j<String, Integer> lfu = new LFUCache4j<>(16);
+        lru.put("key", 1);
+        lfu.put("key", 1);
+        return lru.get("key") + lfu.get("key");
+    }
+
+    @Benchmark
+    public Object map4j() {
+        return new Map4j<String, Integer>().put("key", 1).get("key");
+    }
+
+    @Benchmark
+    public Object map4jJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Map4j<String, Integer>().put("key", 1).writeTo(out);
+        return out.size();
+    }
+
+    @Benchmark
+    public Object firstUse(Classpath classpath) throws ReflectiveOperationException {
+        return classpath.firstUse.invoke(null, classpath.preSplit());
+    }
+
+    /**
+     * The class loader of a {@code firstUse} fork, created before the measurement so that only the
+     * loading of the classes the first use needs is timed.
+     */
+    @State(Scope.Benchmark)
+    public static class Classpath {
+        @Param({"core", "preSplit"})
+        public String classpath;
+
+        Method firstUse; // FirstUse.run, as loaded by the class loader of the classpath
+
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException, MalformedURLException {
+            String property = "alpha4j.startup." + classpath;
+            String paths = System.getProperty(property);
+            if (paths == null) {
+                throw new IllegalStateException(property + " is not set, run the benchmark with ./gradlew :core:jmh");
+            }
+            List<URL> urls = new ArrayList<>();
+            for (String path : paths.split(File.pathSeparator)) {
+                urls.add(new File(path).toURI().toURL());
+            }
+            // The parent only sees the JDK, so the benchmark classpath does not leak into the measurement
+            ClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), ClassLoader.getSystemClassLoader().getParent());
+            firstUse = loader.loadClass(FirstUse.class.getName()).getMethod("run", boolean.class);
+        }
+
+        boolean preSplit() {
+            return "preSplit".equals(classpath);
+        }
+    }
+
+    /**
+     * The first use of the caches by a short-lived job, loaded by the class loader of a
+     * {@link Classpath} rather than by the benchmark.
+     */
+    public static final class FirstUse {
+        private FirstUse() {
+        }
+
+        public static Object run(boolean preSplit) throws ReflectiveOperationException {
+            if (preSplit) {
+                // Before the split, loading LRUCache created an SLF4J logger, which binds logback
+                Class.forName("org.slf4j.LoggerFactory").getMethod("getLogger", Class.class).invoke(null, LRUCache.class);
+            }
+            LRUCache<String, Integer> legacy = new LRUCache<>(16);
+            LRUCache4j<String, Integer> lru = new LRUCache4j<>(16);
+            LFUCache4j<String, Integer> lfu = new LFUCache4j<>(16);
+            legacy.put("key", 1);
+            lru.put("key", 1);
+            lfu.put("key", 1);
+            return legacy.get("key") + lru.get("key") + lfu.get("key");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.alpha4j.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Streaming JSON support shared by {@link Map4j} and the caches in {@code org.alpha4j.ds}.
+ * Entries are written one at a time through a {@link JsonGenerator} and read one at a time
+ * through a {@link JsonParser}, so only a single value is ever materialized in memory. The
+ * document is a single JSON object whose field names are the string form of the keys.
+ * Streams passed in are flushed but never closed.
+ */
+public final class Json4j {
+    // Shared mapper, configured so that each value write does not flush the underlying stream
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private Json4j() {
+    }
+
+    /**
+     * Writes the given entries as a JSON object to the output stream.
+     *
+     * @param out     the stream to write to
+     * @param entries the entries to be written, iterated exactly once
+     * @param <K>     the type of keys
+     * @param <V>     the type of values
+     * @throws IOException if writing to the stream fails
+     */
+    public static <K, V> void write(OutputStream out, Iterable<? extends Map.Entry<K, V>> entries) throws IOException {
+        try (JsonGenerator generator = MAPPER.createGenerator(out)) {
+            generator.writeStartObject();
+            for (Map.Entry<K, V> entry : entries) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                generator.writeObject(entry.getValue());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a JSON object from the input stream and hands every field to the sink as soon as
+     * its value has been parsed.
+     *
+     * @param in        the stream to read from
+     * @param keyMapper the function converting field names back into keys
+     * @param valueType the type values are bound to
+     * @param sink      the consumer receiving each parsed key-value pair
+     * @param <K>       the type of keys
+     * @param <V>       the type of values
+     * @throws IOException if reading from the stream fails or the document is not a JSON object
+     */
+    public static <K, V> void read(InputStream in, Function<String, ? extends K> keyMapper, Class<V> valueType,
+                                   BiConsumer<? super K, ? super V> sink) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object but found " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                K key = keyMapper.apply(parser.getCurrentName());
+                parser.nextToken();
+                sink.accept(key, parser.readValueAs(valueType));
+            }
+        }
+    }
+}
@@ -0,0 +1,1129 @@
+package org.alpha4j.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A fluent API wrapper for {@link ConcurrentHashMap} providing chaining methods for
+ * map operations.
+ * <p>
+ * Secondary indexes registered through {@link #addIndex} are kept up to date by every mutating
+ * method. Mutations of the same key are serialized by a striped lock so that the index always
+ * observes the old and the new value of a key in order. The same mechanism feeds the
+ * change-data-capture stream of {@link #subscribe}, which delivers mutation events in batches on
+ * a dispatcher thread.
+ * <p>
+ * The stripes are created when the first index or subscriber is attached. While nothing observes
+ * the map, mutations go straight to the backing map without locking, so maps that are never
+ * indexed nor subscribed to, such as the results of {@link #mapKeys} or {@link #innerJoin}, cost
+ * no more than a plain {@link ConcurrentHashMap}. A mutation racing with the first subscription
+ * may not be published.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+public class Map4j<K, V> {
+    protected final Map<K, V> map;
+    protected final Map<String, Map4jIndex<K, V>> indexes = new ConcurrentHashMap<>(); // Secondary indexes by name
+    protected volatile ReentrantLock[] stripes; // Locks serializing mutations of keys sharing a stripe, null until observed
+    protected volatile Map4jPublisher<K, V> publisher; // Change-data-capture publisher, null until subscribed
+
+    public Map4j() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Constructor for a map presized to hold the given number of mappings without resizing.
+     *
+     * @param initialCapacity the expected number of mappings
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public Map4j(int initialCapacity) {
+        this(new ConcurrentHashMap<>(initialCapacity));
+    }
+
+    /**
+     * Constructor for subclasses backed by another concurrent map implementation.
+     *
+     * @param map the concurrent map backing this instance
+     */
+    protected Map4j(Map<K, V> map) {
+        this.map = map;
+    }
+
+    /**
+     * Adds a key-value pair to the map.
+     *
+     * @param key   the key to be added
+     * @param value the value associated with the key
+     * @return {@code this} instance for method chaining
+     */
+    @SuppressWarnings({"UnusedReturnValue"})
+    public Map4j<K, V> put(K key, V value) {
+        this.mutate(key, () -> map.put(key, value));
+        return this;
+    }
+
+    /**
+     * Adds all key-value pairs from another map to this map.
+     *
+     * @param m the map containing key-value pairs to be added
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> putAll(Map<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+        return this;
+    }
+
+    /**
+     * Inserts every entry supplied by the iterator into this map. The iterator is consumed in
+     * batches that are handed to the common fork-join pool, so a sequential source (for example,
+     * lines read from a file) is still inserted using every available core and without building
+     * an intermediate map.
+     *
+     * @param iterator the source of entries to be inserted
+     * @param fnc      the function used to merge a new value with an existing one, or {@code null}
+     *                 to let the new value replace the existing one
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> ingest(Iterator<? extends Map.Entry<? extends K, ? extends V>> iterator,
+                              BiFunction<? super V, ? super V, ? extends V> fnc) {
+        // spliteratorUnknownSize splits into array batches of growing size
+        return this.ingest(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), fnc);
+    }
+
+    /**
+     * Inserts every entry supplied by the spliterator into this map, splitting it into batches
+     * that are inserted in parallel directly into the backing map.
+     *
+     * @param spliterator the source of entries to be inserted
+     * @param fnc         the function used to merge a new value with an existing one, or {@code null}
+     *                    to let the new value replace the existing one
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> ingest(Spliterator<? extends Map.Entry<? extends K, ? extends V>> spliterator,
+                              BiFunction<? super V, ? super V, ? extends V> fnc) {
+        StreamSupport.stream(spliterator, true).forEach(entry -> {
+            if (fnc == null) {
+                this.put(entry.getKey(), entry.getValue());
+            } else {
+                this.merge(entry.getKey(), entry.getValue(), fnc);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Replaces the value associated with a specified key.
+     *
+     * @param key   the key whose value is to be replaced
+     * @param value the new value to be associated with the key
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> replace(K key, V value) {
+        this.mutate(key, () -> map.replace(key, value));
+        return this;
+    }
+
+    /**
+     * Replaces the old value associated with a key if it matches the specified value.
+     *
+     * @param key      the key whose value is to be replaced
+     * @param oldValue the expected current value of the key
+     * @param newValue the new value to be associated with the key if the current value matches
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> replace(K key, V oldValue, V newValue) {
+        this.mutate(key, () -> map.replace(key, oldValue, newValue));
+        return this;
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     *
+     * @param key the key whose mapping is to be removed from the map
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> remove(K key) {
+        this.mutate(key, () -> map.remove(key));
+        return this;
+    }
+
+    /**
+     * Checks if the map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in the map is to be tested
+     * @return {@code true} if the map contains a mapping for the specified key, otherwise {@code false}
+     */
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Checks if the map contains a specific value.
+     *
+     * @param value the value whose presence in the map is to be tested
+     * @return {@code true} if the map contains at least one mapping with the specified value, otherwise {@code false}
+     */
+    public boolean containsValue(V value) {
+        return map.containsValue(value);
+    }
+
+    /**
+     * Computes a new value for the specified key using the given function.
+     *
+     * @param key the key whose value is to be computed
+     * @param fnc the function to compute a new value
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> compute(K key, BiFunction<? super K, ? super V, ? extends V> fnc) {
+        this.mutate(key, () -> map.compute(key, fnc));
+        return this;
+    }
+
+    /**
+     * Computes a new value for the specified key if it is absent using the given function.
+     *
+     * @param key the key whose value is to be computed if absent
+     * @param fnc the function to compute a new value
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> computeIfAbsent(K key, Function<? super K, ? extends V> fnc) {
+        this.mutate(key, () -> map.computeIfAbsent(key, fnc));
+        return this;
+    }
+
+    /**
+     * Computes a new value for the specified key if it is present using the given function.
+     *
+     * @param key the key whose value is to be computed if present
+     * @param fnc the function to compute a new value
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> fnc) {
+        this.mutate(key, () -> map.computeIfPresent(key, fnc));
+        return this;
+    }
+
+    /**
+     * Merges the specified key and value using the given function.
+     *
+     * @param key   the key whose value is to be merged
+     * @param value the value to be merged with the existing value
+     * @param fnc   the function to merge values
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> fnc) {
+        this.mutate(key, () -> map.merge(key, value, fnc));
+        return this;
+    }
+
+    /**
+     * Replaces all values in the map with new values computed by the given function.
+     *
+     * @param fnc the function to compute new values
+     * @return {@code this} instance for method chaining
+     * @throws NullPointerException if the function returns {@code null}, as
+     *                              {@link ConcurrentHashMap#replaceAll} does; the keys already
+     *                              visited keep their new values
+     */
+    public Map4j<K, V> replaceAll(BiFunction<? super K, ? super V, ? extends V> fnc) {
+        BiFunction<K, V, V> replacer = (key, value) -> Objects.requireNonNull(fnc.apply(key, value));
+        for (K key : map.keySet()) {
+            this.mutate(key, () -> map.computeIfPresent(key, replacer));
+        }
+        return this;
+    }
+
+    /**
+     * Performs an action for each entry in the map.
+     *
+     * @param action the action to be performed for each entry
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+        return this;
+    }
+
+    /**
+     * Removes all mappings from the map.
+     *
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> clear() {
+        if (!this.isObserved()) {
+            map.clear();
+            if (!this.isObserved()) {
+                return this;
+            }
+            // An index or subscriber was attached meanwhile: clear again, under all the stripes
+        }
+        this.lockAll();
+        try {
+            map.clear();
+            indexes.values().forEach(Map4jIndex::clear);
+            if (publisher != null) {
+                publisher.publish(new Map4jEvent<>(Map4jEvent.Type.CLEAR, null, null, null));
+            }
+        } finally {
+            this.unlockAll();
+        }
+        this.awaitPublisher();
+        return this;
+    }
+
+    /**
+     * Returns the number of key-value mappings in the map.
+     *
+     * @return the number of key-value mappings in the map
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return {@code true} if the map contains no key-value mappings, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns a set view of the keys contained in the map. Removing keys through the view or its
+     * iterator updates the indexes and publishes the removals, like {@link #remove}.
+     *
+     * @return a set view of the keys contained in the map
+     */
+    public Set<K> keySet() {
+        return new KeySetView();
+    }
+
+    /**
+     * Returns a set view of the mappings contained in the map. Removing mappings through the view
+     * or its iterator, and {@link Map.Entry#setValue}, update the indexes and publish the changes.
+     *
+     * @return a set view of the mappings contained in the map
+     */
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySetView();
+    }
+
+    /**
+     * Returns a collection view of the values contained in the map. Removing values through the
+     * view or its iterator updates the indexes and publishes the removals.
+     *
+     * @return a collection view of the values contained in the map
+     */
+    public Collection<V> values() {
+        return new ValuesView();
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code null} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or {@code null} if no mapping for the key is found
+     */
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or a default value if the key is not present in the map.
+     *
+     * @param key          the key whose associated value is to be returned
+     * @param defaultValue the default value to return if no mapping for the key is found
+     * @return the value to which the specified key is mapped, or {@code defaultValue} if no mapping for the key is found
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        return map.getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of the entries in the map.
+     *
+     * @return a sequential {@code Stream} of the entries in the map
+     */
+    public Stream<Map.Entry<K, V>> entrySetStream() {
+        return map.entrySet().stream().map(Entry4j::new);
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of the keys in the map.
+     *
+     * @return a sequential {@code Stream} of the keys in the map
+     */
+    public Stream<K> keySetStream() {
+        return map.keySet().stream();
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of the values in the map.
+     *
+     * @return a sequential {@code Stream} of the values in the map
+     */
+    public Stream<V> valuesStream() {
+        return map.values().stream();
+    }
+
+    /**
+     * Registers a secondary index that maps every value to an index key using the given extractor.
+     * The index is built from the current entries and then maintained incrementally by every
+     * mutating method. Values for which the extractor returns {@code null} are not indexed.
+     *
+     * @param name      the name the index is registered under
+     * @param extractor the function mapping a value to its index key
+     * @return {@code this} instance for method chaining
+     * @throws IllegalArgumentException if an index with the same name is already registered
+     */
+    public Map4j<K, V> addIndex(String name, Function<? super V, ?> extractor) {
+        Map4jIndex<K, V> index = new Map4jIndex<>(name, extractor);
+        this.lockAll();
+        try {
+            if (indexes.putIfAbsent(name, index) != null) {
+                throw new IllegalArgumentException("Index already registered: " + name);
+            }
+            map.forEach((key, value) -> index.update(key, null, value));
+        } finally {
+            this.unlockAll();
+        }
+        return this;
+    }
+
+    /**
+     * Unregisters the secondary index with the given name, if present.
+     *
+     * @param name the name of the index to be removed
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> removeIndex(String name) {
+        indexes.remove(name);
+        return this;
+    }
+
+    /**
+     * Returns the secondary index registered under the given name.
+     *
+     * @param name the name of the index
+     * @return the index registered under the name
+     * @throws IllegalArgumentException if no index is registered under the name
+     */
+    public Map4jIndex<K, V> index(String name) {
+        Map4jIndex<K, V> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No index registered: " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the entries whose value is mapped to the given index key by the named index. The
+     * cost is proportional to the number of matching entries, not to the size of the map.
+     *
+     * @param name     the name of the index
+     * @param indexKey the index key to look up
+     * @return a new map containing the matching entries
+     * @throws IllegalArgumentException if no index is registered under the name
+     */
+    public Map<K, V> lookup(String name, Object indexKey) {
+        Map4jIndex<K, V> index = this.index(name);
+        Set<K> keys = index.keys(indexKey);
+        Map<K, V> result = new HashMap<>(Math.max(16, (int) (keys.size() / 0.75f) + 1));
+        for (K key : keys) {
+            V value = map.get(key);
+            if (index.matches(value, indexKey)) { // Skip entries changed after the index was read
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers a subscriber to the mutation events of this map, creating a publisher with the
+     * default bounds on first use. Every subsequent put, removal, computed result and clear is
+     * delivered to the subscriber in batches on the dispatcher thread of the publisher.
+     *
+     * @param subscriber the subscriber to be registered
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> subscribe(Map4jSubscriber<K, V> subscriber) {
+        if (publisher == null) {
+            this.lockAll();
+            try {
+                if (publisher == null) {
+                    publisher = new Map4jPublisher<>();
+                }
+            } finally {
+                this.unlockAll();
+            }
+        }
+        publisher.subscribe(subscriber);
+        return this;
+    }
+
+    /**
+     * Installs the publisher that mutation events of this map are sent to, replacing and closing
+     * the current one, if any. Use it to configure the buffer bounds and the overflow policy.
+     *
+     * @param publisher the publisher to be installed, or {@code null} to stop publishing
+     * @return {@code this} instance for method chaining
+     */
+    public Map4j<K, V> publishTo(Map4jPublisher<K, V> publisher) {
+        Map4jPublisher<K, V> previous;
+        this.lockAll();
+        try {
+            previous = this.publisher;
+            this.publisher = publisher;
+        } finally {
+            this.unlockAll();
+        }
+        if (previous != null && previous != publisher) {
+            previous.close();
+        }
+        return this;
+    }
+
+    /**
+     * Returns the publisher that mutation events of this map are sent to.
+     *
+     * @return the installed publisher, or {@code null} if nobody subscribed yet
+     */
+    public Map4jPublisher<K, V> publisher() {
+        return publisher;
+    }
+
+    /**
+     * Filters the entries of the map based on a predicate and returns a new map.
+     *
+     * @param predicate the predicate used to filter entries
+     * @return a new map containing entries that satisfy the predicate
+     */
+    public Map<K, V> filter(Predicate<? super Map.Entry<K, V>> predicate) {
+        return map.entrySet().stream()
+                .filter(predicate)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Maps the keys of the map using a mapper function and returns a new {@code Map4j} instance
+     * with mapped keys.
+     *
+     * @param keyMapper the function to map keys
+     * @param <R>       the new type of keys
+     * @return a new {@code Map4j} instance with mapped keys
+     */
+    public <R> Map4j<R, V> mapKeys(Function<? super K, ? extends R> keyMapper) {
+        Map4j<R, V> newMap = new Map4j<>();
+        map.forEach((key, value) -> newMap.put(keyMapper.apply(key), value));
+        return newMap;
+    }
+
+    /**
+     * Maps the values of the map using a mapper function and returns a new {@code Map4j} instance
+     * with mapped values.
+     *
+     * @param valueMapper the function to map values
+     * @param <R>         the new type of values
+     * @return a new {@code Map4j} instance with mapped values
+     */
+    public <R> Map4j<K, R> mapValues(Function<? super V, ? extends R> valueMapper) {
+        Map4j<K, R> newMap = new Map4j<>();
+        map.forEach((key, value) -> newMap.put(key, valueMapper.apply(value)));
+        return newMap;
+    }
+
+    /**
+     * Reduces the entries of the map into a single value using an initial identity value
+     * and an accumulation function.
+     *
+     * @param identity    the initial value
+     * @param accumulator the accumulation function
+     * @param <T>         the type of the result
+     * @return the result of the reduction
+     */
+    public <T> T reduce(T identity, BiFunction<T, ? super Map.Entry<K, V>, T> accumulator) {
+        return map.entrySet()
+                .stream()
+                .reduce(identity, accumulator, (t1, t2) -> t2);
+    }
+
+    /**
+     * Joins this map with another map on their keys, keeping only the keys present in both. The
+     * smaller of the two maps is iterated in parallel on the common fork-join pool and the larger
+     * one is probed, and the result is presized to the size of the smaller map.
+     *
+     * @param other  the map to join with
+     * @param joiner the function combining the value of this map and the value of the other map;
+     *               a {@code null} result leaves the key out of the join
+     * @param <W>    the type of values of the other map
+     * @param <R>    the type of joined values
+     * @return a new {@code Map4j} instance with the joined values
+     */
+    public <W, R> Map4j<K, R> innerJoin(Map4j<K, W> other, BiFunction<? super V, ? super W, ? extends R> joiner) {
+        Map4j<K, R> joined = new Map4j<>(Math.min(map.size(), other.map.size()));
+        if (map.size() <= other.map.size()) {
+            StreamSupport.stream(map.entrySet().spliterator(), true).forEach(entry -> {
+                W value = other.map.get(entry.getKey());
+                if (value != null) {
+                    joined.insert(entry.getKey(), joiner.apply(entry.getValue(), value));
+                }
+            });
+        } else {
+            StreamSupport.stream(other.map.entrySet().spliterator(), true).forEach(entry -> {
+                V value = map.get(entry.getKey());
+                if (value != null) {
+                    joined.insert(entry.getKey(), joiner.apply(value, entry.getValue()));
+                }
+            });
+        }
+        return joined;
+    }
+
+    /**
+     * Joins this map with another map on their keys, keeping every key of this map. This map is
+     * iterated in parallel on the common fork-join pool and the other map is probed, and the result
+     * is presized to the size of this map.
+     *
+     * @param other  the map to join with
+     * @param joiner the function combining the value of this map and the value of the other map,
+     *               which is {@code null} for keys absent from the other map; a {@code null} result
+     *               leaves the key out of the join
+     * @param <W>    the type of values of the other map
+     * @param <R>    the type of joined values
+     * @return a new {@code Map4j} instance with the joined values
+     */
+    public <W, R> Map4j<K, R> leftJoin(Map4j<K, W> other, BiFunction<? super V, ? super W, ? extends R> joiner) {
+        Map4j<K, R> joined = new Map4j<>(map.size());
+        StreamSupport.stream(map.entrySet().spliterator(), true)
+                .forEach(entry -> joined.insert(entry.getKey(), joiner.apply(entry.getValue(), other.map.get(entry.getKey()))));
+        return joined;
+    }
+
+    /**
+     * Groups the entries of the map by a classifier, reducing the entries of each group with a
+     * downstream collector. The entries are classified in parallel on the common fork-join pool
+     * into one concurrent map, without per-thread partial maps to merge.
+     *
+     * @param classifier the function mapping an entry to its group
+     * @param downstream the collector reducing the entries of a group
+     * @param <G>        the type of groups
+     * @param <A>        the intermediate accumulation type of the downstream collector
+     * @param <D>        the type of the reduction of a group
+     * @return a new map from every group to the reduction of its entries
+     */
+    public <G, A, D> Map<G, D> groupBy(Function<? super Map.Entry<K, V>, ? extends G> classifier,
+                                       Collector<? super Map.Entry<K, V>, A, D> downstream) {
+        return StreamSupport.stream(map.entrySet().spliterator(), true)
+                .collect(Collectors.groupingByConcurrent(classifier, downstream));
+    }
+
+    /**
+     * Splits the entries of the map in two by a predicate. The entries are tested in parallel on
+     * the common fork-join pool and inserted directly into two maps, each presized to half the size
+     * of this map.
+     *
+     * @param predicate the predicate used to partition entries
+     * @return a map from {@code true} to the entries satisfying the predicate and from
+     * {@code false} to the others
+     */
+    public Map<Boolean, Map<K, V>> partitionBy(Predicate<? super Map.Entry<K, V>> predicate) {
+        Map<K, V> matching = new ConcurrentHashMap<>(map.size() / 2);
+        Map<K, V> others = new ConcurrentHashMap<>(map.size() / 2);
+        StreamSupport.stream(map.entrySet().spliterator(), true)
+                .forEach(entry -> (predicate.test(entry) ? matching : others).put(entry.getKey(), entry.getValue()));
+        Map<Boolean, Map<K, V>> partitions = new HashMap<>(4);
+        partitions.put(true, matching);
+        partitions.put(false, others);
+        return partitions;
+    }
+
+    /**
+     * Builds and returns a new {@link HashMap} containing the mappings of the current map.
+     *
+     * @return a new {@code HashMap} containing the mappings of the current map
+     */
+    public Map<K, V> build() {
+        return new HashMap<>(map);
+    }
+
+    /**
+     * Builds and returns an unmodifiable view of the current map.
+     *
+     * @return an unmodifiable view of the current map
+     */
+    @SuppressWarnings({"Java9CollectionFactory"})
+    public Map<K, V> buildUnmodifiable() {
+        return Collections.unmodifiableMap(new HashMap<>(map));
+    }
+
+    /**
+     * Streams the entries of the map as a JSON object to the output stream. The live map is
+     * iterated directly, so no copy is made and the result is weakly consistent with concurrent
+     * updates.
+     *
+     * @param out the stream to write to, flushed but not closed
+     * @return {@code this} instance for method chaining
+     * @throws IOException if writing to the stream fails
+     */
+    public Map4j<K, V> writeTo(OutputStream out) throws IOException {
+        Json4j.write(out, map.entrySet());
+        return this;
+    }
+
+    /**
+     * Reads a JSON object from the input stream, inserting each entry as soon as it is parsed.
+     * Fields whose value is {@code null} are skipped.
+     *
+     * @param in        the stream to read from, not closed
+     * @param keyMapper the function converting field names back into keys
+     * @param valueType the type values are bound to
+     * @return {@code this} instance for method chaining
+     * @throws IOException if reading from the stream fails or the document is not a JSON object
+     */
+    public Map4j<K, V> readFrom(InputStream in, Function<String, ? extends K> keyMapper, Class<V> valueType) throws IOException {
+        Json4j.read(in, keyMapper, valueType, (K key, V value) -> {
+            if (value != null) {
+                this.put(key, value);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates elements into a {@code Map4j}. The collector is
+     * {@link Collector.Characteristics#CONCURRENT} and {@link Collector.Characteristics#UNORDERED},
+     * so a parallel stream inserts directly into one shared backing map instead of merging
+     * per-thread partial maps.
+     *
+     * @param keyMapper   the function producing keys
+     * @param valueMapper the function producing values
+     * @param <T>         the type of the input elements
+     * @param <K>         the type of keys
+     * @param <V>         the type of values
+     * @return a concurrent collector into a {@code Map4j}
+     * @throws IllegalStateException on collection, if two elements are mapped to the same key
+     */
+    public static <T, K, V> Collector<T, ?, Map4j<K, V>> collector(Function<? super T, ? extends K> keyMapper,
+                                                                   Function<? super T, ? extends V> valueMapper) {
+        return collector(keyMapper, valueMapper, (u, v) -> {
+            throw new IllegalStateException(String.format("Duplicate key (attempted merging values %s and %s)", u, v));
+        });
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates elements into a {@code Map4j}, merging the values
+     * of elements mapped to the same key with the given function. The collector is
+     * {@link Collector.Characteristics#CONCURRENT} and {@link Collector.Characteristics#UNORDERED}.
+     *
+     * @param keyMapper   the function producing keys
+     * @param valueMapper the function producing values
+     * @param fnc         the function used to merge values associated with the same key
+     * @param <T>         the type of the input elements
+     * @param <K>         the type of keys
+     * @param <V>         the type of values
+     * @return a concurrent collector into a {@code Map4j}
+     */
+    public static <T, K, V> Collector<T, ?, Map4j<K, V>> collector(Function<? super T, ? extends K> keyMapper,
+                                                                   Function<? super T, ? extends V> valueMapper,
+                                                                   BinaryOperator<V> fnc) {
+        BiConsumer<Map4j<K, V>, T> accumulator = (m, element) -> m.merge(keyMapper.apply(element), valueMapper.apply(element), fnc);
+        BinaryOperator<Map4j<K, V>> combiner = (left, right) -> {
+            right.forEach((key, value) -> left.merge(key, value, fnc));
+            return left;
+        };
+        return Collector.of(Map4j::new, accumulator, combiner,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Checks whether mutations have to report the old and new value of the mutated key.
+     *
+     * @return {@code true} if a secondary index or a publisher is registered
+     */
+    protected boolean isObserved() {
+        return publisher != null || !indexes.isEmpty();
+    }
+
+    /**
+     * Invoked after the value of a key has changed, while the stripe of the key is held.
+     *
+     * @param key      the mutated key
+     * @param oldValue the value before the mutation, or {@code null} if the key was absent
+     * @param newValue the value after the mutation, or {@code null} if the key was removed
+     */
+    protected void onMutation(K key, V oldValue, V newValue) {
+        for (Map4jIndex<K, V> index : indexes.values()) {
+            index.update(key, oldValue, newValue);
+        }
+        Map4jPublisher<K, V> publisher = this.publisher;
+        if (publisher != null) {
+            Map4jEvent.Type type = newValue == null ? Map4jEvent.Type.REMOVE : Map4jEvent.Type.PUT;
+            publisher.publish(new Map4jEvent<>(type, key, oldValue, newValue));
+        }
+    }
+
+    /**
+     * Executes a mutation of a single key. If the map is observed, the mutation runs while holding
+     * the stripe of the key and reports the value change to {@link #onMutation}; otherwise it goes
+     * straight to the backing map.
+     *
+     * @param key       the key being mutated
+     * @param operation the mutation to execute against the backing map
+     * @param <R>       the type of result of the operation
+     * @return the result of the operation
+     */
+    protected <R> R mutate(K key, Supplier<R> operation) {
+        if (!this.isObserved()) {
+            R result = operation.get();
+            if (this.isObserved()) {
+                this.reindex(key); // An index was attached meanwhile, and may have missed the mutation
+            }
+            return result;
+        }
+        R result;
+        ReentrantLock stripe = this.stripe(key);
+        stripe.lock();
+        try {
+            if (!this.isObserved()) {
+                return operation.get();
+            }
+            V oldValue = map.get(key);
+            result = operation.get();
+            V newValue = map.get(key);
+            if (oldValue != newValue) {
+                this.onMutation(key, oldValue, newValue);
+            }
+        } finally {
+            stripe.unlock();
+        }
+        this.awaitPublisher();
+        return result;
+    }
+
+    /**
+     * Applies the backpressure of the publisher, if any, once the stripes are released, so that a
+     * subscriber writing to this map cannot deadlock with a writer waiting for the dispatcher.
+     */
+    protected void awaitPublisher() {
+        Map4jPublisher<K, V> publisher = this.publisher;
+        if (publisher != null) {
+            publisher.awaitCapacity();
+        }
+    }
+
+    /**
+     * Acquires every stripe, in order, to exclude all concurrent mutations. The stripes are created
+     * on the first call.
+     */
+    protected void lockAll() {
+        for (ReentrantLock stripe : this.stripes()) {
+            stripe.lock();
+        }
+    }
+
+    /**
+     * Releases every stripe acquired by {@link #lockAll()}.
+     */
+    protected void unlockAll() {
+        ReentrantLock[] stripes = this.stripes;
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Returns the stripe serializing the mutations of the key, creating the stripes if needed.
+     *
+     * @param key the key being mutated
+     * @return the lock of the stripe of the key
+     */
+    protected ReentrantLock stripe(K key) {
+        ReentrantLock[] stripes = this.stripes();
+        return stripes[spread(key) & (stripes.length - 1)];
+    }
+
+    private ReentrantLock[] stripes() {
+        ReentrantLock[] stripes = this.stripes;
+        if (stripes == null) {
+            synchronized (indexes) {
+                stripes = this.stripes;
+                if (stripes == null) {
+                    this.stripes = stripes = newStripes();
+                }
+            }
+        }
+        return stripes;
+    }
+
+    /**
+     * Brings the indexes up to date with the current value of a key mutated without its stripe
+     * while the first index was being built.
+     *
+     * @param key the mutated key
+     */
+    private void reindex(K key) {
+        ReentrantLock stripe = this.stripe(key);
+        stripe.lock();
+        try {
+            V value = map.get(key);
+            for (Map4jIndex<K, V> index : indexes.values()) {
+                index.reindex(key, value);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Inserts a mapping straight into the backing map of a map under construction, which nobody
+     * else can observe yet, so the stripes are not needed.
+     *
+     * @param key   the key to be inserted
+     * @param value the value to be inserted, or {@code null} to skip the key
+     */
+    private void insert(K key, V value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Removes a key through {@link #mutate}, on behalf of the views.
+     *
+     * @param key   the key whose mapping is to be removed
+     * @param value the expected value of the key, or {@code null} to remove whatever value it has
+     * @return {@code true} if a mapping was removed
+     */
+    @SuppressWarnings("unchecked")
+    private boolean removeMapping(Object key, Object value) {
+        if (key == null) {
+            return false;
+        }
+        return this.mutate((K) key, () -> value == null ? map.remove(key) != null : map.remove(key, value));
+    }
+
+    private static int spread(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static ReentrantLock[] newStripes() {
+        int n = Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        ReentrantLock[] stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+
+    /**
+     * Iterates the entries of the backing map, removing them through {@link #mutate}.
+     *
+     * @param <E> the type of elements of the view
+     */
+    private abstract class ViewIterator<E> implements Iterator<E> {
+        private final Iterator<Map.Entry<K, V>> entries = map.entrySet().iterator();
+        private Map.Entry<K, V> last; // Entry returned by the last call to next, null once removed
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public E next() {
+            last = entries.next();
+            return this.element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            Map4j.this.removeMapping(last.getKey(), null);
+            last = null;
+        }
+
+        abstract E element(Map.Entry<K, V> entry);
+    }
+
+    private final class KeySetView extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            return new ViewIterator<K>() {
+                @Override
+                K element(Map.Entry<K, V> entry) {
+                    return entry.getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return Map4j.this.removeMapping(o, null);
+        }
+
+        @Override
+        public void clear() {
+            Map4j.this.clear();
+        }
+    }
+
+    private final class EntrySetView extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new ViewIterator<Map.Entry<K, V>>() {
+                @Override
+                Map.Entry<K, V> element(Map.Entry<K, V> entry) {
+                    return new Entry4j(entry);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object value = entry.getKey() == null ? null : map.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return entry.getValue() != null && Map4j.this.removeMapping(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            Map4j.this.clear();
+        }
+    }
+
+    private final class ValuesView extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new ViewIterator<V>() {
+                @Override
+                V element(Map.Entry<K, V> entry) {
+                    return entry.getValue();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            Map4j.this.clear();
+        }
+    }
+
+    /**
+     * An entry of the views, writing {@link #setValue} through {@link #put}.
+     */
+    private final class Entry4j implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        Entry4j(Map.Entry<K, V> entry) {
+            this.key = entry.getKey();
+            this.value = entry.getValue();
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            Map4j.this.put(key, Objects.requireNonNull(value));
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
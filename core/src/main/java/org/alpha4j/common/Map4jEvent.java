@@ -0,0 +1,84 @@
+package org.alpha4j.common;
+
+/**
+ * A mutation of a {@link Map4j}, as delivered to a {@link Map4jSubscriber}.
+ *
+ * @param <K> the type of keys maintained by the map
+ * @param <V> the type of mapped values
+ */
+public final class Map4jEvent<K, V> {
+    /**
+     * The kind of mutation an event describes.
+     */
+    public enum Type {
+        PUT, // A key was inserted or its value was replaced
+        REMOVE, // A key was removed
+        CLEAR // Every key was removed
+    }
+
+    protected final Type type; // The kind of mutation
+    protected final K key; // The mutated key, null for CLEAR
+    protected final V oldValue; // The value before the mutation, null if the key was absent
+    protected final V newValue; // The value after the mutation, null if the key was removed
+    protected long sequence; // Assigned by the publisher when the event is dispatched
+    protected long dropped; // Number of events the publisher had dropped when this one was enqueued
+
+    Map4jEvent(Type type, K key, V oldValue, V newValue) {
+        this.type = type;
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Returns the sequence number of the event. Sequence numbers increase by one for every event
+     * in delivery order; a gap means that the events in between were dropped by the publisher.
+     *
+     * @return the sequence number of the event
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the kind of mutation.
+     *
+     * @return the kind of mutation
+     */
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * Returns the mutated key.
+     *
+     * @return the mutated key, or {@code null} for a {@link Type#CLEAR} event
+     */
+    public K key() {
+        return key;
+    }
+
+    /**
+     * Returns the value before the mutation.
+     *
+     * @return the value before the mutation, or {@code null} if the key was absent
+     */
+    public V oldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Returns the value after the mutation.
+     *
+     * @return the value after the mutation, or {@code null} if the key was removed
+     */
+    public V newValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return "Map4jEvent{" + "sequence=" + sequence + ", type=" + type + ", key=" + key
+                + ", oldValue=" + oldValue + ", newValue=" + newValue + '}';
+    }
+}
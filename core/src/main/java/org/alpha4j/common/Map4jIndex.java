@@ -0,0 +1,114 @@
+package org.alpha4j.common;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index over the values of a {@link Map4j}. Each value is mapped to an index key by
+ * an extractor function and the index keeps, for every index key, the set of map keys whose
+ * value currently produces it. The owning {@code Map4j} updates the index incrementally on every
+ * mutation, so a lookup costs O(result size) instead of a scan over the whole map.
+ *
+ * @param <K> the type of keys maintained by the owning map
+ * @param <V> the type of mapped values
+ */
+public final class Map4jIndex<K, V> {
+    protected final String name; // Name the index is registered under
+    protected final Function<? super V, ?> extractor; // Function mapping a value to its index key
+    protected final Map<Object, Set<K>> entries = new ConcurrentHashMap<>(); // Index key to the keys holding it
+
+    Map4jIndex(String name, Function<? super V, ?> extractor) {
+        this.name = name;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Returns the name of the index.
+     *
+     * @return the name the index is registered under
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the keys whose value is currently mapped to the given index key.
+     *
+     * @param indexKey the index key to look up
+     * @return an unmodifiable view of the matching keys, empty if none match
+     */
+    public Set<K> keys(Object indexKey) {
+        Set<K> keys = indexKey == null ? null : entries.get(indexKey);
+        return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * Checks whether the given value is currently mapped to the given index key.
+     *
+     * @param value    the value to be tested
+     * @param indexKey the expected index key
+     * @return {@code true} if the extractor maps the value to the index key, otherwise {@code false}
+     */
+    public boolean matches(V value, Object indexKey) {
+        return value != null && Objects.equals(extractor.apply(value), indexKey);
+    }
+
+    /**
+     * Returns the number of distinct index keys.
+     *
+     * @return the number of distinct index keys
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the key from the index key of its old value to the index key of its new value.
+     * Either value may be {@code null} to denote an insertion or a removal.
+     */
+    void update(K key, V oldValue, V newValue) {
+        Object oldIndexKey = oldValue == null ? null : extractor.apply(oldValue);
+        Object newIndexKey = newValue == null ? null : extractor.apply(newValue);
+        if (Objects.equals(oldIndexKey, newIndexKey)) {
+            return;
+        }
+        if (oldIndexKey != null) {
+            entries.computeIfPresent(oldIndexKey, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        if (newIndexKey != null) {
+            entries.compute(newIndexKey, (k, keys) -> {
+                Set<K> set = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                set.add(key);
+                return set;
+            });
+        }
+    }
+
+    /**
+     * Moves the key to the index key of its current value, wherever the index holds it now. Costs
+     * a scan over the index keys, and is only needed after a mutation the index did not observe.
+     */
+    void reindex(K key, V value) {
+        for (Object indexKey : entries.keySet()) {
+            entries.computeIfPresent(indexKey, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        this.update(key, null, value);
+    }
+
+    /**
+     * Removes every key from the index.
+     */
+    void clear() {
+        entries.clear();
+    }
+}
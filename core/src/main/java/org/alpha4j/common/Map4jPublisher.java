@@ -0,0 +1,243 @@
+package org.alpha4j.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes the mutations of a {@link Map4j} to registered subscribers. Writers only append the
+ * event to a lock-free queue; a single dispatcher thread drains the queue in batches and hands
+ * each batch to every subscriber, so listener work never runs on the writer's path.
+ * <p>
+ * The queue is bounded. When it is full, the {@link OverflowPolicy} decides whether the writer
+ * waits for the dispatcher to catch up or the event is dropped. Dropped events leave a gap in the
+ * sequence numbers of the delivered events, right before the first event enqueued after them, so
+ * a replica can detect that it is out of sync and which events it missed.
+ * Events for the same key are always delivered in the order they were applied.
+ * <p>
+ * A blocked writer waits only after the map has released the stripe of the key, so a subscriber
+ * may write to the map without deadlocking. The event is enqueued before the wait, to keep the
+ * order, so the queue may exceed its capacity by one event per waiting writer. When the queue is
+ * empty, the dispatcher parks until the next event is published.
+ *
+ * @param <K> the type of keys maintained by the map
+ * @param <V> the type of mapped values
+ */
+public class Map4jPublisher<K, V> implements AutoCloseable {
+    /**
+     * What a writer does when the queue of pending events is full.
+     */
+    public enum OverflowPolicy {
+        BLOCK, // Wait until the dispatcher has made room (backpressure)
+        DROP // Discard the event and count it as dropped
+    }
+
+    protected static final int DEFAULT_CAPACITY = 65536;
+    protected static final int DEFAULT_BATCH_SIZE = 256;
+    protected static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    @SuppressWarnings("rawtypes") // Field updaters cannot be created for a parameterized type
+    private static final AtomicIntegerFieldUpdater<Map4jPublisher> PENDING =
+            AtomicIntegerFieldUpdater.newUpdater(Map4jPublisher.class, "pendingCount");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<Map4jPublisher> DROPPED =
+            AtomicLongFieldUpdater.newUpdater(Map4jPublisher.class, "droppedCount");
+
+    protected final int capacity; // Maximum number of pending events
+    protected final int batchSize; // Maximum number of events per delivered batch
+    protected final OverflowPolicy policy; // Behaviour when the queue is full
+    protected final Queue<Map4jEvent<K, V>> queue = new ConcurrentLinkedQueue<>(); // Pending events
+    protected volatile int pendingCount; // Number of events in the queue, updated through PENDING
+    protected volatile long droppedCount; // Number of events discarded so far, updated through DROPPED
+    protected final List<Map4jSubscriber<K, V>> subscribers = new CopyOnWriteArrayList<>();
+    protected volatile Thread dispatcher; // Started by the first subscription
+    protected volatile boolean closed;
+    protected long sequence; // Next sequence number, only touched by the dispatcher
+    protected long droppedSeen; // Drops already accounted for in the sequence, only touched by the dispatcher
+
+    /**
+     * Constructor that creates a publisher with a queue of 65536 events, batches of up to 256
+     * events and the {@link OverflowPolicy#BLOCK} policy.
+     */
+    public Map4jPublisher() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Constructor that creates a publisher with the given bounds.
+     *
+     * @param capacity  the maximum number of pending events
+     * @param batchSize the maximum number of events delivered in one batch
+     * @param policy    what a writer does when the queue is full
+     */
+    public Map4jPublisher(int capacity, int batchSize, OverflowPolicy policy) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.policy = policy;
+    }
+
+    /**
+     * Registers a subscriber and starts the dispatcher thread if it is not running yet.
+     *
+     * @param subscriber the subscriber to be registered
+     * @return {@code this} instance for method chaining
+     */
+    public Map4jPublisher<K, V> subscribe(Map4jSubscriber<K, V> subscriber) {
+        if (closed) {
+            throw new IllegalStateException("Publisher is closed");
+        }
+        subscribers.add(subscriber);
+        if (dispatcher == null) {
+            synchronized (this) {
+                if (dispatcher == null) {
+                    Thread thread = new Thread(this::dispatch, "map4j-publisher-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    dispatcher = thread;
+                    thread.start();
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Unregisters a subscriber. Events already queued are not delivered to it anymore.
+     *
+     * @param subscriber the subscriber to be removed
+     * @return {@code this} instance for method chaining
+     */
+    public Map4jPublisher<K, V> unsubscribe(Map4jSubscriber<K, V> subscriber) {
+        subscribers.remove(subscriber);
+        return this;
+    }
+
+    /**
+     * Returns the number of events waiting to be dispatched.
+     *
+     * @return the number of pending events
+     */
+    public int pending() {
+        return pendingCount;
+    }
+
+    /**
+     * Returns the number of events discarded because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    public long dropped() {
+        return droppedCount;
+    }
+
+    /**
+     * Stops accepting events, delivers the events already queued and stops the dispatcher.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = dispatcher;
+        if (thread != null && thread != Thread.currentThread()) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enqueues an event, or drops it when the queue is full and the policy is
+     * {@link OverflowPolicy#DROP}. Never blocks, since the map calls it while holding the stripe of
+     * the mutated key; under {@link OverflowPolicy#BLOCK} the map calls {@link #awaitCapacity()}
+     * once the stripe is released. Events published before the first subscription are discarded
+     * without being counted.
+     *
+     * @param event the event to be published
+     */
+    protected void publish(Map4jEvent<K, V> event) {
+        Thread thread = dispatcher;
+        if (closed || thread == null) {
+            return;
+        }
+        if (policy == OverflowPolicy.DROP && pendingCount >= capacity && thread != Thread.currentThread()) {
+            DROPPED.incrementAndGet(this);
+            return;
+        }
+        event.dropped = droppedCount; // Marks where the drops counted so far belong in the sequence
+        boolean idle = PENDING.getAndIncrement(this) == 0;
+        queue.offer(event);
+        if (idle) {
+            LockSupport.unpark(thread); // The dispatcher may be parked on an empty queue
+        }
+    }
+
+    /**
+     * Under the {@link OverflowPolicy#BLOCK} policy, waits until the dispatcher has brought the
+     * queue back within its capacity. Must not be called while holding a lock that a subscriber
+     * may need. The dispatcher thread itself never waits.
+     */
+    protected void awaitCapacity() {
+        Thread thread = dispatcher;
+        if (policy != OverflowPolicy.BLOCK || thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        while (pendingCount > capacity && !closed) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(this, 10_000L);
+        }
+    }
+
+    /**
+     * The dispatcher loop: drains the queue in batches, numbers the events and delivers them.
+     */
+    protected void dispatch() {
+        while (true) {
+            List<Map4jEvent<K, V>> batch = this.drain();
+            if (batch.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                if (pendingCount == 0) {
+                    LockSupport.park(this); // Until a publisher finds the queue empty, or close()
+                } else {
+                    Thread.yield(); // A publisher has counted its event but not offered it yet
+                }
+                continue;
+            }
+            List<Map4jEvent<K, V>> events = Collections.unmodifiableList(batch);
+            for (Map4jSubscriber<K, V> subscriber : subscribers) {
+                try {
+                    subscriber.onEvents(events);
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+    }
+
+    private List<Map4jEvent<K, V>> drain() {
+        List<Map4jEvent<K, V>> batch = new ArrayList<>(Math.min(batchSize, Math.max(1, pendingCount)));
+        Map4jEvent<K, V> event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            PENDING.decrementAndGet(this);
+            if (event.dropped > droppedSeen) {
+                sequence += event.dropped - droppedSeen; // Leave a gap for the events dropped before this one
+                droppedSeen = event.dropped;
+            }
+            event.sequence = sequence++;
+            batch.add(event);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,20 @@
+package org.alpha4j.common;
+
+import java.util.List;
+
+/**
+ * Receives batches of mutation events published by a {@link Map4jPublisher}. Batches are
+ * delivered on the dispatcher thread of the publisher, one at a time and in sequence order.
+ *
+ * @param <K> the type of keys maintained by the map
+ * @param <V> the type of mapped values
+ */
+@FunctionalInterface
+public interface Map4jSubscriber<K, V> {
+    /**
+     * Invoked with the next batch of events.
+     *
+     * @param events an unmodifiable list of the events of the batch, in sequence order
+     */
+    void onEvents(List<Map4jEvent<K, V>> events);
+}
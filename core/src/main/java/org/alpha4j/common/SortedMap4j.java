@@ -0,0 +1,159 @@
+package org.alpha4j.common;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A sorted variant of {@link Map4j} backed by a {@link ConcurrentSkipListMap}. In addition to the
+ * fluent map operations it offers range queries, floor/ceiling lookups and top-K selection. All
+ * reads are lock-free and weakly consistent: range views reflect concurrent updates and never
+ * block writers.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+public class SortedMap4j<K, V> extends Map4j<K, V> {
+    protected final ConcurrentNavigableMap<K, V> sorted; // The backing map, typed for navigation
+
+    /**
+     * Constructor that orders keys by their natural ordering.
+     */
+    public SortedMap4j() {
+        this(new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Constructor that orders keys by the given comparator.
+     *
+     * @param comparator the comparator used to order the keys
+     */
+    public SortedMap4j(Comparator<? super K> comparator) {
+        this(new ConcurrentSkipListMap<>(comparator));
+    }
+
+    protected SortedMap4j(ConcurrentNavigableMap<K, V> sorted) {
+        super(sorted);
+        this.sorted = sorted;
+    }
+
+    /**
+     * Returns a read-only view of the entries whose keys range from {@code from}, inclusive, to
+     * {@code to}, exclusive.
+     *
+     * @param from the low endpoint of the range, inclusive
+     * @param to   the high endpoint of the range, exclusive
+     * @return a live, read-only view of the entries within the range
+     */
+    public NavigableMap<K, V> range(K from, K to) {
+        return Collections.unmodifiableNavigableMap(sorted.subMap(from, true, to, false));
+    }
+
+    /**
+     * Returns a read-only view of the entries whose keys are strictly less than {@code to}.
+     *
+     * @param to the high endpoint of the view, exclusive
+     * @return a live, read-only view of the entries below the key
+     */
+    public NavigableMap<K, V> head(K to) {
+        return Collections.unmodifiableNavigableMap(sorted.headMap(to, false));
+    }
+
+    /**
+     * Returns a read-only view of the entries whose keys are greater than or equal to {@code from}.
+     *
+     * @param from the low endpoint of the view, inclusive
+     * @return a live, read-only view of the entries from the key onwards
+     */
+    public NavigableMap<K, V> tail(K from) {
+        return Collections.unmodifiableNavigableMap(sorted.tailMap(from, true));
+    }
+
+    /**
+     * Returns the entry with the greatest key less than or equal to the given key.
+     *
+     * @param key the key to search for
+     * @return a snapshot of the matching entry, or {@code null} if there is no such key
+     */
+    public Map.Entry<K, V> floor(K key) {
+        return sorted.floorEntry(key);
+    }
+
+    /**
+     * Returns the entry with the least key greater than or equal to the given key.
+     *
+     * @param key the key to search for
+     * @return a snapshot of the matching entry, or {@code null} if there is no such key
+     */
+    public Map.Entry<K, V> ceiling(K key) {
+        return sorted.ceilingEntry(key);
+    }
+
+    /**
+     * Returns the {@code n} entries with the largest keys, largest first. The skip list is walked
+     * from its tail, so the cost is O(log size + n).
+     *
+     * @param n the maximum number of entries to return
+     * @return the entries with the largest keys, largest first
+     */
+    public List<Map.Entry<K, V>> topK(int n) {
+        return take(sorted.descendingMap(), n);
+    }
+
+    /**
+     * Returns the {@code n} entries with the largest keys according to the given comparator,
+     * largest first. When the comparator is the ordering of the map, or its reverse, the skip list
+     * is walked from the matching end in O(log size + n). Any other comparator is evaluated with a
+     * bounded heap of {@code n} entries in O(size log n), without sorting the whole map.
+     *
+     * @param n          the maximum number of entries to return
+     * @param comparator the comparator ranking the keys
+     * @return the entries with the largest keys according to the comparator, largest first
+     */
+    @SuppressWarnings({"unchecked"})
+    public List<Map.Entry<K, V>> topK(int n, Comparator<? super K> comparator) {
+        Comparator<? super K> order = sorted.comparator() == null ? (Comparator<? super K>) Comparator.naturalOrder() : sorted.comparator();
+        if (comparator.equals(order)) {
+            return take(sorted.descendingMap(), n);
+        }
+        if (comparator.equals(order.reversed())) {
+            return take(sorted, n);
+        }
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Map.Entry<K, V>> byKey = (a, b) -> comparator.compare(a.getKey(), b.getKey());
+        PriorityQueue<Map.Entry<K, V>> heap = new PriorityQueue<>(n, byKey); // Min-heap of the best n so far
+        for (Map.Entry<K, V> entry : sorted.entrySet()) {
+            if (heap.size() < n) {
+                heap.offer(new AbstractMap.SimpleImmutableEntry<>(entry));
+            } else if (byKey.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+        }
+        List<Map.Entry<K, V>> result = new ArrayList<>(heap);
+        result.sort(byKey.reversed());
+        return result;
+    }
+
+    /**
+     * Builds and returns a new {@link TreeMap} containing the mappings of the current map, in the
+     * same order.
+     *
+     * @return a new {@code TreeMap} containing the mappings of the current map
+     */
+    @Override
+    public Map<K, V> build() {
+        return new TreeMap<>(sorted);
+    }
+
+    private static <K, V> List<Map.Entry<K, V>> take(NavigableMap<K, V> map, int n) {
+        List<Map.Entry<K, V>> result = new ArrayList<>(Math.max(0, n));
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        while (result.size() < n && it.hasNext()) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(it.next()));
+        }
+        return result;
+    }
+}
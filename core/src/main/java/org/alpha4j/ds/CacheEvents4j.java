@@ -0,0 +1,57 @@
+package org.alpha4j.ds;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Emits JDK Flight Recorder events for the caches: evictions, load durations, lock acquisitions
+ * that had to wait, and periodic samples of the size and hit rate of every monitored cache.
+ * <p>
+ * This is the Java 8 version, which records nothing: every method is a no-op apart from taking
+ * the lock. The multi-release JAR ships a Java 21 version under {@code META-INF/versions/21},
+ * which emits the events when a recording enables them and costs a disabled-check otherwise.
+ */
+public final class CacheEvents4j {
+
+    private CacheEvents4j() {
+    }
+
+    /**
+     * Registers a cache whose size and hit rate are sampled periodically. The cache is held weakly.
+     *
+     * @param cache the cache to be sampled
+     */
+    public static void register(MonitoredCache4j cache) {
+    }
+
+    /**
+     * Records an entry removed by the cache itself.
+     *
+     * @param cache the name of the cache
+     * @param key   the key of the entry, recorded as its hash code
+     * @param cause the reason the entry was removed
+     */
+    public static void evicted(String cache, Object key, RemovalCause4j cause) {
+    }
+
+    /**
+     * Records a call of a cache loader.
+     *
+     * @param cache   the name of the cache
+     * @param keys    the number of keys loaded by the call
+     * @param nanos   the duration of the call in nanoseconds
+     * @param success whether the loader returned normally
+     */
+    public static void loaded(String cache, int keys, long nanos, boolean success) {
+    }
+
+    /**
+     * Acquires the lock, recording how long the caller waited if the lock was contended.
+     *
+     * @param lock  the lock to be acquired
+     * @param cache the name of the cache owning the lock
+     * @param kind  the kind of lock, such as read or write
+     */
+    public static void lock(Lock lock, String cache, String kind) {
+        lock.lock();
+    }
+}
@@ -0,0 +1,56 @@
+package org.alpha4j.ds;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the values of a {@link LoadingCache4j} from the source of truth.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of loaded values
+ */
+@FunctionalInterface
+public interface CacheLoader4j<K, V> {
+
+    /**
+     * Loads the value of a key that is not cached.
+     *
+     * @param key the key whose value is to be loaded
+     * @return the loaded value, or {@code null} if the key has no value
+     * @throws Exception if the value cannot be loaded
+     */
+    V load(K key) throws Exception;
+
+    /**
+     * Loads the value of a key whose cached value expired. Loaders that can tell whether the
+     * value changed, for instance with a conditional request, return {@code oldValue} when it did
+     * not, which keeps it cached for another time-to-live.
+     *
+     * @param key      the key whose value is to be loaded
+     * @param oldValue the expired value
+     * @return the current value, or {@code null} if the key has no value anymore
+     * @throws Exception if the value cannot be loaded
+     */
+    default V reload(K key, V oldValue) throws Exception {
+        return this.load(key);
+    }
+
+    /**
+     * Loads the values of several keys. The default implementation loads them one by one;
+     * loaders talking to a remote source should override it to issue the requests concurrently.
+     *
+     * @param keys the keys to be loaded, each mapped to its expired value or to {@code null} if it is not cached
+     * @return the loaded values by key; keys without a value are absent
+     * @throws Exception if the values cannot be loaded
+     */
+    default Map<K, V> loadAll(Map<K, V> keys) throws Exception {
+        Map<K, V> result = new HashMap<>();
+        for (Map.Entry<K, V> entry : keys.entrySet()) {
+            V value = entry.getValue() == null ? this.load(entry.getKey()) : this.reload(entry.getKey(), entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package org.alpha4j.ds;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the maintenance of a cache, such as evicting the entries above its maximum size, on an
+ * {@link Executor} instead of on the writing threads. Writers only {@link #schedule()} it, which
+ * costs a compare-and-set once a run is already pending, so at most one run is queued or running
+ * at a time. When the executor rejects the run, it is executed on the calling thread instead.
+ */
+public class CacheMaintenance4j {
+    /**
+     * The maximum number of entries a cache evicts in one call once it was shrunk below its size.
+     * Every later write evicts another batch until the cache fits, so that no single call stalls on
+     * millions of evictions.
+     */
+    public static final int EVICTION_BATCH = 1024;
+
+    protected final Executor executor; // Runs the maintenance task
+    protected final Runnable task; // The maintenance work, which takes the cache locks itself
+    protected final AtomicBoolean scheduled = new AtomicBoolean(); // Whether a run is queued or running
+
+    /**
+     * Constructor that runs the given task on the executor.
+     *
+     * @param executor the executor running the maintenance
+     * @param task     the maintenance work
+     */
+    public CacheMaintenance4j(Executor executor, Runnable task) {
+        if (executor == null || task == null) {
+            throw new IllegalArgumentException("executor and task must not be null");
+        }
+        this.executor = executor;
+        this.task = task;
+    }
+
+    /**
+     * Schedules a run of the maintenance unless one is already queued or running.
+     */
+    public void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            this.run(); // The executor is saturated or shut down, so the caller pays for this run
+        }
+    }
+
+    /**
+     * Checks whether a run of the maintenance is queued or running.
+     *
+     * @return true if a run is pending
+     */
+    public boolean isScheduled() {
+        return scheduled.get();
+    }
+
+    private void run() {
+        try {
+            task.run();
+        } finally {
+            scheduled.set(false);
+        }
+    }
+}
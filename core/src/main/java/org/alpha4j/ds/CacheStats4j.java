@@ -0,0 +1,77 @@
+package org.alpha4j.ds;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the hits, misses and evictions of a cache. The counters are striped, so recording
+ * contends neither with the cache lock nor between threads.
+ */
+public class CacheStats4j {
+    protected final LongAdder hits = new LongAdder();
+    protected final LongAdder misses = new LongAdder();
+    protected final LongAdder evictions = new LongAdder();
+
+    /**
+     * Records a lookup that found a value.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Records a lookup that found no value.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records an entry evicted by the cache.
+     */
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /**
+     * Returns the number of lookups that found a value.
+     *
+     * @return the number of hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no value.
+     *
+     * @return the number of misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted by the cache.
+     *
+     * @return the number of evictions
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups that found a value.
+     *
+     * @return the hit rate between 0 and 1, or 1 if there was no lookup
+     */
+    public double hitRate() {
+        long hits = this.hitCount();
+        long requests = hits + this.missCount();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats4j{hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount() + '}';
+    }
+}
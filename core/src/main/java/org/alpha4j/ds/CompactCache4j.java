@@ -0,0 +1,384 @@
+package org.alpha4j.ds;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Base of the compact caches, which store their entries in parallel arrays instead of one or
+ * more node objects per entry. An entry occupies a slot: its key, value and hash live at the
+ * same index of the {@code keys}, {@code values} and {@code hashes} arrays, and the two links of
+ * the list the eviction policy keeps it in live in {@code prev} and {@code next}. Keys are found
+ * through an open-addressing table of slot numbers with linear probing.
+ * <p>
+ * With compressed references an entry costs about 28 bytes plus whatever the policy adds, against
+ * 40 to 50 bytes for a {@link java.util.LinkedHashMap} entry and its share of the table. The
+ * arrays start small and double until they reach the capacity. All operations take a single lock.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@SuppressWarnings("unchecked")
+public abstract class CompactCache4j<K, V> {
+    protected static final int NIL = -1; // Absent slot
+    protected static final int INITIAL_SLOTS = 16;
+    protected static final int[] EMPTY_TABLE = new int[1]; // Shared by empty caches, never written to
+
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected int capacity; // Maximum number of entries
+    protected Object[] keys; // Key of every slot
+    protected Object[] values; // Value of every slot
+    protected int[] hashes; // Spread hash of the key of every slot
+    protected int[] prev; // Previous slot in the policy list
+    protected int[] next; // Next slot in the policy list, or in the free list for released slots
+    protected int[] table; // Slot number plus one for every bucket, 0 if the bucket is empty
+    protected int free = NIL; // First released slot
+    protected int used; // Number of slots handed out at least once
+    protected int size; // Number of entries
+
+    /**
+     * Constructor that initializes the cache with a specified capacity.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     */
+    protected CompactCache4j(int capacity) {
+        this.capacity = capacity;
+        this.release();
+    }
+
+    /**
+     * Returns the value associated with the key, counting it as an access.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the key, or null if the key is not found
+     */
+    public V get(K key) {
+        try {
+            lock.lock();
+            int slot = this.slotOf(key);
+            if (slot == NIL) {
+                return null;
+            }
+            this.onAccess(slot);
+            return (V) values[slot];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Associates the value with the key, counting it as an access. When the cache is full and
+     * the key is new, the entry chosen by the eviction policy is removed first.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be associated with the key
+     * @return the previous value associated with the key, or null
+     */
+    public V put(K key, V value) {
+        try {
+            lock.lock();
+            this.trim();
+            if (capacity <= 0) {
+                return null;
+            }
+            int hash = spread(key);
+            int index = this.indexOf(key, hash);
+            if (table[index] != 0) {
+                int slot = table[index] - 1;
+                V previous = (V) values[slot];
+                values[slot] = value;
+                this.onAccess(slot);
+                return previous;
+            }
+            if (size >= capacity) {
+                this.delete(this.victim());
+                index = this.indexOf(key, hash); // The deletion may have shifted the probe sequence
+            } else if (free == NIL && used == keys.length) {
+                this.allocate(Math.min(capacity, Math.max(INITIAL_SLOTS, keys.length << 1)));
+                index = this.indexOf(key, hash);
+            }
+            int slot;
+            if (free != NIL) {
+                slot = free;
+                free = next[slot];
+            } else {
+                slot = used++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            hashes[slot] = hash;
+            table[index] = slot + 1;
+            size++;
+            this.onInsert(slot);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was associated with the key, or null if the key was not found
+     */
+    public V remove(K key) {
+        try {
+            lock.lock();
+            int slot = this.slotOf(key);
+            if (slot == NIL) {
+                return null;
+            }
+            V previous = (V) values[slot];
+            this.delete(slot);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the cache contains the key, without counting it as an access.
+     *
+     * @param key the key whose presence is to be tested
+     * @return true if the cache contains a mapping for the key, otherwise false
+     */
+    public boolean containsKey(K key) {
+        try {
+            lock.lock();
+            return this.slotOf(key) != NIL;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        try {
+            lock.lock();
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of entries the cache can hold.
+     *
+     * @return the capacity of the cache
+     */
+    public int getMaximumSize() {
+        try {
+            lock.lock();
+            return capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum number of entries the cache can hold. When the cache shrinks, the
+     * evictions are spread over this call and the later writes,
+     * {@link CacheMaintenance4j#EVICTION_BATCH} at a time. The arrays keep their length, so only
+     * the evicted keys and values are released; {@link #clear()} releases the arrays.
+     *
+     * @param maximumSize the new capacity of the cache
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        try {
+            lock.lock();
+            this.capacity = maximumSize;
+            this.trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache and releases the arrays.
+     */
+    public void clear() {
+        try {
+            lock.lock();
+            this.release();
+            this.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Performs the given action for each entry while holding the lock, in eviction order and
+     * without counting the entries as accessed.
+     *
+     * @param action the action to be performed for each entry
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        try {
+            lock.lock();
+            for (int slot = this.first(); slot != NIL; slot = this.following(slot)) {
+                action.accept((K) keys[slot], (V) values[slot]);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records an access to an existing entry.
+     *
+     * @param slot the slot of the entry
+     */
+    protected abstract void onAccess(int slot);
+
+    /**
+     * Links a new entry into the policy list.
+     *
+     * @param slot the slot of the entry
+     */
+    protected abstract void onInsert(int slot);
+
+    /**
+     * Unlinks an entry that is being removed from the policy list.
+     *
+     * @param slot the slot of the entry
+     */
+    protected abstract void onRemove(int slot);
+
+    /**
+     * Returns the entry to be evicted when the cache is full.
+     *
+     * @return the slot of the victim
+     */
+    protected abstract int victim();
+
+    /**
+     * Returns the first entry in eviction order.
+     *
+     * @return the slot of the first entry, or {@link #NIL} if the cache is empty
+     */
+    protected abstract int first();
+
+    /**
+     * Returns the entry following the given one in eviction order.
+     *
+     * @param slot the slot of an entry
+     * @return the slot of the following entry, or {@link #NIL} if it is the last one
+     */
+    protected abstract int following(int slot);
+
+    /**
+     * Grows the per-slot arrays of the policy to the given number of slots. Invoked before the
+     * common arrays are reallocated; the arrays are allocated on the first insertion.
+     *
+     * @param slots the new number of slots
+     */
+    protected abstract void grow(int slots);
+
+    /**
+     * Resets the state of the policy when the cache is cleared, releasing its per-slot arrays.
+     */
+    protected abstract void reset();
+
+    /**
+     * Returns the slot of the key.
+     *
+     * @param key the key to be found
+     * @return the slot of the key, or {@link #NIL} if the key is not cached
+     */
+    protected int slotOf(Object key) {
+        int index = this.indexOf(key, spread(key));
+        return table[index] - 1;
+    }
+
+    private void trim() {
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && size > capacity; evicted++) {
+            this.delete(this.victim());
+        }
+    }
+
+    private int indexOf(Object key, int hash) {
+        int mask = table.length - 1;
+        int index = hash & mask;
+        int entry;
+        while ((entry = table[index]) != 0) {
+            int slot = entry - 1;
+            if (hashes[slot] == hash && Objects.equals(keys[slot], key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void delete(int slot) {
+        this.onRemove(slot);
+        int mask = table.length - 1;
+        int index = this.indexOf(keys[slot], hashes[slot]);
+        table[index] = 0;
+        // Backward-shift deletion: move up the entries whose probe sequence crossed the hole
+        for (int j = (index + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = hashes[table[j] - 1] & mask;
+            if (((j - home) & mask) >= ((j - index) & mask)) {
+                table[index] = table[j];
+                table[j] = 0;
+                index = j;
+            }
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    private void release() {
+        keys = values = new Object[0];
+        hashes = prev = next = new int[0];
+        table = EMPTY_TABLE;
+        free = NIL;
+        used = 0;
+        size = 0;
+    }
+
+    private void allocate(int slots) {
+        this.grow(slots);
+        int live = keys.length; // The arrays only grow once every slot holds an entry
+        keys = Arrays.copyOf(keys, slots);
+        values = Arrays.copyOf(values, slots);
+        hashes = Arrays.copyOf(hashes, slots);
+        prev = Arrays.copyOf(prev, slots);
+        next = Arrays.copyOf(next, slots);
+        int tableLength = Integer.highestOneBit(Math.max(2, slots) * 2 - 1) << 1; // At most half full
+        table = new int[tableLength];
+        int mask = tableLength - 1;
+        for (int slot = 0; slot < live; slot++) {
+            int index = hashes[slot] & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = slot + 1;
+        }
+    }
+
+    // Finalizer of MurmurHash3, 32 bit: linear probing needs every bit of the hash code mixed into
+    // the low bits, or runs of consecutive keys such as sequential ids form long probe sequences
+    private static int spread(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
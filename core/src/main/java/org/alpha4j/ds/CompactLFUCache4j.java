@@ -0,0 +1,186 @@
+package org.alpha4j.ds;
+
+import java.util.Arrays;
+
+/**
+ * A Least Frequently Used (LFU) cache with the same eviction order as {@link LFUCache4j}: the
+ * entry with the lowest access count is evicted, and among those the one that reached that count
+ * first. Entries live in parallel arrays and every distinct access count has a bucket, a list of
+ * its entries threaded through the {@code prev} and {@code next} slot arrays. The buckets
+ * themselves form a list sorted by count, so the victim is always the head of the first bucket
+ * and an access moves an entry to the next bucket in constant time.
+ * <p>
+ * Instead of three hash maps and a {@link java.util.LinkedHashSet} per count, an entry costs one
+ * extra int for its bucket number. It does not implement {@link java.util.Map}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class CompactLFUCache4j<K, V> extends CompactCache4j<K, V> {
+    protected int[] bucketOf = new int[0]; // Bucket of every slot
+    protected int[] counts = new int[0]; // Access count of every bucket
+    protected int[] heads = new int[0]; // First slot of every bucket
+    protected int[] tails = new int[0]; // Last slot of every bucket
+    protected int[] lower = new int[0]; // Bucket with the next lower count
+    protected int[] higher = new int[0]; // Bucket with the next higher count, or next free bucket
+    protected int lowest = NIL; // Bucket with the lowest count
+    protected int freeBucket = NIL; // First released bucket
+    protected int usedBuckets; // Number of buckets handed out at least once
+
+    /**
+     * Constructor that initializes the LFU cache with a specified capacity.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     */
+    public CompactLFUCache4j(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void onAccess(int slot) {
+        int bucket = bucketOf[slot];
+        int count = counts[bucket];
+        if (count == Integer.MAX_VALUE) {
+            return;
+        }
+        int target = higher[bucket];
+        if (target == NIL || counts[target] != count + 1) {
+            target = this.newBucket(count + 1, bucket, target);
+        }
+        this.unlink(slot, bucket);
+        this.append(slot, target);
+    }
+
+    @Override
+    protected void onInsert(int slot) {
+        int bucket = lowest;
+        if (bucket == NIL || counts[bucket] != 1) {
+            bucket = this.newBucket(1, NIL, lowest);
+        }
+        this.append(slot, bucket);
+    }
+
+    @Override
+    protected void onRemove(int slot) {
+        this.unlink(slot, bucketOf[slot]);
+    }
+
+    @Override
+    protected int victim() {
+        return heads[lowest];
+    }
+
+    @Override
+    protected int first() {
+        return lowest == NIL ? NIL : heads[lowest];
+    }
+
+    @Override
+    protected int following(int slot) {
+        if (next[slot] != NIL) {
+            return next[slot];
+        }
+        int bucket = higher[bucketOf[slot]];
+        return bucket == NIL ? NIL : heads[bucket];
+    }
+
+    @Override
+    protected void grow(int slots) {
+        bucketOf = Arrays.copyOf(bucketOf, slots);
+    }
+
+    @Override
+    protected void reset() {
+        bucketOf = counts = heads = tails = lower = higher = new int[0];
+        lowest = freeBucket = NIL;
+        usedBuckets = 0;
+    }
+
+    /**
+     * Returns the access count of the key, without counting it as an access.
+     *
+     * @param key the key whose access count is to be returned
+     * @return the access count of the key, or 0 if the key is not cached
+     */
+    public int frequency(K key) {
+        try {
+            lock.lock();
+            int slot = this.slotOf(key);
+            return slot == NIL ? 0 : counts[bucketOf[slot]];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int newBucket(int count, int below, int above) {
+        int bucket;
+        if (freeBucket != NIL) {
+            bucket = freeBucket;
+            freeBucket = higher[bucket];
+        } else {
+            if (usedBuckets == counts.length) {
+                int length = Math.max(INITIAL_SLOTS, counts.length << 1); // There are never more buckets than entries plus one
+                counts = Arrays.copyOf(counts, length);
+                heads = Arrays.copyOf(heads, length);
+                tails = Arrays.copyOf(tails, length);
+                lower = Arrays.copyOf(lower, length);
+                higher = Arrays.copyOf(higher, length);
+            }
+            bucket = usedBuckets++;
+        }
+        counts[bucket] = count;
+        heads[bucket] = tails[bucket] = NIL;
+        lower[bucket] = below;
+        higher[bucket] = above;
+        if (below == NIL) {
+            lowest = bucket;
+        } else {
+            higher[below] = bucket;
+        }
+        if (above != NIL) {
+            lower[above] = bucket;
+        }
+        return bucket;
+    }
+
+    private void append(int slot, int bucket) {
+        bucketOf[slot] = bucket;
+        prev[slot] = tails[bucket];
+        next[slot] = NIL;
+        if (tails[bucket] == NIL) {
+            heads[bucket] = slot;
+        } else {
+            next[tails[bucket]] = slot;
+        }
+        tails[bucket] = slot;
+    }
+
+    private void unlink(int slot, int bucket) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NIL) {
+            heads[bucket] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NIL) {
+            tails[bucket] = before;
+        } else {
+            prev[after] = before;
+        }
+        if (heads[bucket] == NIL) { // Release the empty bucket
+            int below = lower[bucket];
+            int above = higher[bucket];
+            if (below == NIL) {
+                lowest = above;
+            } else {
+                higher[below] = above;
+            }
+            if (above != NIL) {
+                lower[above] = below;
+            }
+            higher[bucket] = freeBucket;
+            freeBucket = bucket;
+        }
+    }
+}
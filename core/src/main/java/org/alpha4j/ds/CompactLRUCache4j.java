@@ -0,0 +1,93 @@
+package org.alpha4j.ds;
+
+/**
+ * A Least Recently Used (LRU) cache with the same eviction order as {@link LRUCache4j}, storing
+ * its entries in parallel arrays: the recency list is threaded through the {@code prev} and
+ * {@code next} slot arrays, so an entry needs no object of its own. It does not implement
+ * {@link java.util.Map}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class CompactLRUCache4j<K, V> extends CompactCache4j<K, V> {
+    protected int head = NIL; // Least recently used slot
+    protected int tail = NIL; // Most recently used slot
+
+    /**
+     * Constructor that initializes the LRU cache with a specified capacity.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     */
+    public CompactLRUCache4j(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void onAccess(int slot) {
+        if (slot != tail) {
+            this.unlink(slot);
+            this.append(slot);
+        }
+    }
+
+    @Override
+    protected void onInsert(int slot) {
+        this.append(slot);
+    }
+
+    @Override
+    protected void onRemove(int slot) {
+        this.unlink(slot);
+    }
+
+    @Override
+    protected int victim() {
+        return head;
+    }
+
+    @Override
+    protected int first() {
+        return head;
+    }
+
+    @Override
+    protected int following(int slot) {
+        return next[slot];
+    }
+
+    @Override
+    protected void grow(int slots) {
+        // The recency list only uses the common link arrays
+    }
+
+    @Override
+    protected void reset() {
+        head = tail = NIL;
+    }
+
+    private void append(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NIL) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NIL) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.alpha4j.ds;
+
+/**
+ * A value encoded by {@link CompressingCodec4j}: either its compressed serialized form, or the value
+ * itself when compressing it was not worth it. It is only decompressed when decoded.
+ */
+public final class CompressedValue4j {
+    final Object value; // The compressed bytes, or the value itself
+    final int length; // Length of the serialized value
+    final int size; // Number of bytes stored
+    final boolean compressed;
+
+    CompressedValue4j(Object value, int length, int size, boolean compressed) {
+        this.value = value;
+        this.length = length;
+        this.size = size;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Checks whether the value is stored compressed.
+     *
+     * @return true if the value is compressed, false if it is kept as is
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Returns the length of the serialized value, before compression.
+     *
+     * @return the length of the value, in bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of bytes stored, that is the length of the compressed value, or of the
+     * serialized value when it is kept as is. Use it as the weight of the entry in weight-bounded
+     * caches.
+     *
+     * @return the stored size, in bytes
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,277 @@
+package org.alpha4j.ds;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A least recently used cache bounded by the number of bytes its values occupy, which stores its
+ * values compressed by a {@link CompressingCodec4j}. With values that compress 5 to 10 times, such
+ * as JSON or text documents, as many times more entries fit in the same budget.
+ * <p>
+ * Values are compressed by {@link #put} and decompressed by {@link #get}, both outside the lock, so
+ * threads compress and decompress in parallel and an entry that is never read again is never
+ * decompressed. The weight of an entry is the size of its stored value, see
+ * {@link CompressedValue4j#size()}; keys and the overhead of the entries are not counted. Hits,
+ * misses and evictions are counted in {@link #stats()}. Keys and values must not be null.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class CompressingCache4j<K, V> implements MonitoredCache4j {
+
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Map<K, CompressedValue4j> cache = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first
+    protected final CompressingCodec4j<V> codec; // Compresses and decompresses the values
+    protected long weight; // Total size of the stored values
+    protected long length; // Total length of the values before compression
+    protected long maximumWeight; // Maximum total size of the stored values
+    protected final CacheStats4j stats = new CacheStats4j(); // Hit, miss and eviction counters
+    protected volatile String name = getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(this)); // Identifies the cache in the recorded events
+
+    /**
+     * Constructor for a cache of values encoded by the given codec.
+     *
+     * @param maximumWeight the maximum total size of the stored values, in bytes
+     * @param codec         the codec compressing the values
+     * @throws IllegalArgumentException if the maximum weight is negative
+     */
+    public CompressingCache4j(long maximumWeight, CompressingCodec4j<V> codec) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.codec = codec;
+        CacheEvents4j.register(this);
+    }
+
+    /**
+     * Returns a cache of text values compressed by {@link CompressingCodec4j#strings()}.
+     *
+     * @param maximumWeight the maximum total size of the stored values, in bytes
+     * @param <K>           the type of keys
+     * @return a new cache of strings
+     */
+    public static <K> CompressingCache4j<K, String> strings(long maximumWeight) {
+        return new CompressingCache4j<>(maximumWeight, CompressingCodec4j.strings());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Changes the name identifying the cache in the recorded events.
+     *
+     * @param name the name of the cache
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CacheStats4j stats() {
+        return stats;
+    }
+
+    /**
+     * Returns the value associated with the key, decompressing it if needed.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the key, or null if the key is not found
+     */
+    public V get(K key) {
+        CompressedValue4j value;
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            value = cache.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (value == null) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return codec.decode(value);
+    }
+
+    /**
+     * Compresses the value and associates it with the key, then evicts the least recently used
+     * entries until the cache fits its maximum weight. A value whose stored size exceeds the
+     * maximum weight is not cached, and removes any previous value of the key.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be associated with the key
+     * @throws IllegalArgumentException if the key or value is null
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("key and value must not be null");
+        }
+        CompressedValue4j encoded = codec.encode(value);
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            CompressedValue4j previous = encoded.size > maximumWeight ? cache.remove(key) : cache.put(key, encoded);
+            if (previous != null) {
+                this.subtract(previous);
+            }
+            if (encoded.size <= maximumWeight) {
+                weight += encoded.size;
+                length += encoded.length;
+                this.trim();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present, without decompressing its value.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return true if a mapping was removed, otherwise false
+     */
+    public boolean remove(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            CompressedValue4j previous = cache.remove(key);
+            if (previous == null) {
+                return false;
+            }
+            this.subtract(previous);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the cache contains the key, without recording a hit.
+     *
+     * @param key the key whose presence is to be tested
+     * @return true if the cache contains a mapping for the key, otherwise false
+     */
+    public boolean containsKey(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return cache.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    @Override
+    public int size() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total size of the stored values.
+     *
+     * @return the weight of the cache, in bytes
+     */
+    public long weight() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the ratio of the stored size of the values to their length before compression.
+     *
+     * @return the compression ratio, 1 if the cache is empty
+     */
+    public double compressionRatio() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return length == 0 ? 1 : (double) weight / length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum total size of the stored values.
+     *
+     * @return the maximum weight, in bytes
+     */
+    public long getMaximumWeight() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return maximumWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum total size of the stored values. When the cache shrinks, the evictions
+     * are spread over this call and the later writes, {@link CacheMaintenance4j#EVICTION_BATCH} at
+     * a time.
+     *
+     * @param maximumWeight the new maximum weight, in bytes
+     * @throws IllegalArgumentException if the maximum weight is negative
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must not be negative");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            this.maximumWeight = maximumWeight;
+            this.trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            cache.clear();
+            weight = 0;
+            length = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} of the least recently used entries
+     * while the cache exceeds its maximum weight. Must be called with the lock held.
+     */
+    protected void trim() {
+        Iterator<Map.Entry<K, CompressedValue4j>> eldest = cache.entrySet().iterator();
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && weight > maximumWeight && eldest.hasNext(); evicted++) {
+            Map.Entry<K, CompressedValue4j> victim = eldest.next();
+            eldest.remove();
+            this.subtract(victim.getValue());
+            stats.recordEviction();
+            CacheEvents4j.evicted(name, victim.getKey(), RemovalCause4j.SIZE);
+        }
+    }
+
+    private void subtract(CompressedValue4j value) {
+        weight -= value.size;
+        length -= value.length;
+    }
+}
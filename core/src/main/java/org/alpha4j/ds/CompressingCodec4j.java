@@ -0,0 +1,104 @@
+package org.alpha4j.ds;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Compresses cache values, for caches whose values are large and compressible, such as JSON or
+ * text documents. A value is serialized to bytes and compressed; values serialized to fewer bytes
+ * than a minimum size, or compressing worse than a maximum ratio, are kept as they are, since
+ * compressing them would cost more time than it saves memory. Decoding decompresses, so a value is
+ * only decompressed when it is read.
+ * <p>
+ * The codec is thread-safe if its serializer, deserializer and compressor are.
+ *
+ * @param <V> the type of values
+ */
+public class CompressingCodec4j<V> {
+    protected static final int DEFAULT_MINIMUM_SIZE = 256; // Values below 256 bytes are not compressed by default
+    protected static final double DEFAULT_MAXIMUM_RATIO = 0.9; // Values shrinking by less than 10% are not compressed by default
+
+    protected final Function<? super V, byte[]> serializer;
+    protected final Function<byte[], ? extends V> deserializer;
+    protected final Compressor4j compressor;
+    protected final int minimumSize; // Values serialized to fewer bytes are kept as is
+    protected final double maximumRatio; // Values compressing to a larger fraction of their length are kept as is
+
+    /**
+     * Constructor for a codec.
+     *
+     * @param serializer   the function converting a value to bytes
+     * @param deserializer the function converting bytes back to a value
+     * @param compressor   the compression algorithm
+     * @param minimumSize  the serialized length below which values are kept as is
+     * @param maximumRatio the ratio of the compressed to the serialized length above which values are
+     *                     kept as is, between 0 and 1
+     * @throws IllegalArgumentException if the minimum size is negative or the ratio is not between 0 and 1
+     */
+    public CompressingCodec4j(Function<? super V, byte[]> serializer, Function<byte[], ? extends V> deserializer,
+                              Compressor4j compressor, int minimumSize, double maximumRatio) {
+        if (minimumSize < 0 || !(maximumRatio > 0 && maximumRatio <= 1)) {
+            throw new IllegalArgumentException("minimumSize must not be negative, maximumRatio must be in (0, 1]");
+        }
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        this.compressor = compressor;
+        this.minimumSize = minimumSize;
+        this.maximumRatio = maximumRatio;
+    }
+
+    /**
+     * Returns a codec for text, serialized as UTF-8 and compressed with deflate at level 1, for values
+     * of 256 bytes or more that shrink by 10% at least.
+     *
+     * @return a codec for strings
+     */
+    public static CompressingCodec4j<String> strings() {
+        return new CompressingCodec4j<>(value -> value.getBytes(StandardCharsets.UTF_8),
+                bytes -> new String(bytes, StandardCharsets.UTF_8),
+                new DeflateCompressor4j(), DEFAULT_MINIMUM_SIZE, DEFAULT_MAXIMUM_RATIO);
+    }
+
+    /**
+     * Returns a codec for byte arrays, compressed with deflate at level 1, for values of 256 bytes or
+     * more that shrink by 10% at least. The arrays must not be modified once encoded.
+     *
+     * @return a codec for byte arrays
+     */
+    public static CompressingCodec4j<byte[]> bytes() {
+        return new CompressingCodec4j<>(Function.identity(), Function.identity(),
+                new DeflateCompressor4j(), DEFAULT_MINIMUM_SIZE, DEFAULT_MAXIMUM_RATIO);
+    }
+
+    /**
+     * Encodes a value, compressing it if it is large enough and compresses well enough.
+     *
+     * @param value the value to be encoded
+     * @return the encoded value
+     */
+    public CompressedValue4j encode(V value) {
+        byte[] bytes = serializer.apply(value);
+        if (bytes.length >= minimumSize) {
+            byte[] compressed = compressor.compress(bytes);
+            if (compressed.length <= bytes.length * maximumRatio) {
+                return new CompressedValue4j(compressed, bytes.length, compressed.length, true);
+            }
+        }
+        return new CompressedValue4j(value, bytes.length, bytes.length, false);
+    }
+
+    /**
+     * Decodes a value, decompressing it if it was compressed.
+     *
+     * @param value the encoded value
+     * @return the original value
+     * @throws IllegalArgumentException if the compressed data is corrupted
+     */
+    @SuppressWarnings("unchecked")
+    public V decode(CompressedValue4j value) {
+        if (!value.compressed) {
+            return (V) value.value;
+        }
+        return deserializer.apply(compressor.decompress((byte[]) value.value, value.length));
+    }
+}
@@ -0,0 +1,26 @@
+package org.alpha4j.ds;
+
+/**
+ * A compression algorithm used by {@link CompressingCodec4j} to shrink cached values. The default
+ * is {@link DeflateCompressor4j}; other algorithms plug in by implementing this interface.
+ * Implementations must be thread-safe.
+ */
+public interface Compressor4j {
+    /**
+     * Compresses the data.
+     *
+     * @param data the data to be compressed
+     * @return the compressed data
+     */
+    byte[] compress(byte[] data);
+
+    /**
+     * Restores data compressed by {@link #compress(byte[])}.
+     *
+     * @param data   the compressed data
+     * @param length the length of the original data
+     * @return the original data
+     * @throws IllegalArgumentException if the data is corrupted
+     */
+    byte[] decompress(byte[] data, int length);
+}
@@ -0,0 +1,61 @@
+package org.alpha4j.ds;
+
+import java.util.function.Consumer;
+
+/**
+ * A bounded, non-blocking buffer passing elements between threads, such as the read and write
+ * buffers placed in front of a cache. Which threads may offer and which may poll depends on the
+ * implementation. Null elements are not supported.
+ *
+ * @param <E> the type of elements held in the buffer
+ */
+public interface ConcurrentBuffer4j<E> {
+
+    /**
+     * Adds the element unless the buffer is full. Never blocks.
+     *
+     * @param element the element to be added
+     * @return true if the element was added, false if it was rejected
+     * @throws IllegalArgumentException if the element is null
+     */
+    boolean offer(E element);
+
+    /**
+     * Removes the next element. Never blocks.
+     *
+     * @return the next element, or null if the buffer is empty
+     */
+    E poll();
+
+    /**
+     * Removes up to the given number of elements, passing each one to the action.
+     *
+     * @param action the action to be performed for each removed element
+     * @param limit  the maximum number of elements to be removed
+     * @return the number of elements removed
+     */
+    int drain(Consumer<? super E> action, int limit);
+
+    /**
+     * Returns the number of elements in the buffer, which other threads may change concurrently.
+     *
+     * @return the approximate number of elements
+     */
+    int size();
+
+    /**
+     * Returns the maximum number of elements the buffer can hold.
+     *
+     * @return the capacity of the buffer
+     */
+    int capacity();
+
+    /**
+     * Checks whether the buffer holds no elements.
+     *
+     * @return true if the buffer appears empty
+     */
+    default boolean isEmpty() {
+        return this.size() == 0;
+    }
+}
@@ -0,0 +1,161 @@
+package org.alpha4j.ds;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A consistent-hash ring mapping keys to nodes. Every node is placed on the ring at a number of
+ * virtual positions derived from its id, and a key belongs to the first node found clockwise from
+ * the hash of the key. Adding or removing a node therefore only moves the keys of the ring
+ * segments that node gains or loses, roughly {@code 1 / nodes} of the key space.
+ * <p>
+ * The ring is copy-on-write: membership changes build a new immutable ring, so lookups never
+ * lock and always see a consistent membership.
+ *
+ * @param <N> the type of nodes placed on the ring
+ */
+public class ConsistentHashRing4j<N> {
+    protected static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    protected final int virtualNodes; // Number of ring positions per node
+    protected volatile Snapshot<N> snapshot = new Snapshot<>(Collections.emptyNavigableMap(), Collections.emptyMap());
+
+    /**
+     * An immutable membership: the ring positions and the nodes they refer to.
+     */
+    protected static final class Snapshot<N> {
+        final NavigableMap<Long, String> ring; // Position to node id
+        final Map<String, N> nodes; // Node id to node
+
+        Snapshot(NavigableMap<Long, String> ring, Map<String, N> nodes) {
+            this.ring = ring;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Constructor that places every node at 160 virtual positions.
+     */
+    public ConsistentHashRing4j() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructor that places every node at the given number of virtual positions.
+     *
+     * @param virtualNodes the number of ring positions per node; more positions spread the keys more evenly
+     */
+    public ConsistentHashRing4j(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Adds a node to the ring, replacing any node registered under the same id.
+     *
+     * @param id   the id of the node, which determines its positions on the ring
+     * @param node the node to be added
+     */
+    public synchronized void add(String id, N node) {
+        Map<String, N> nodes = new LinkedHashMap<>(snapshot.nodes);
+        nodes.put(id, node);
+        this.rebuild(nodes);
+    }
+
+    /**
+     * Removes a node from the ring.
+     *
+     * @param id the id of the node to be removed
+     * @return the removed node, or {@code null} if no node had that id
+     */
+    public synchronized N remove(String id) {
+        Map<String, N> nodes = new LinkedHashMap<>(snapshot.nodes);
+        N removed = nodes.remove(id);
+        if (removed != null) {
+            this.rebuild(nodes);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the node owning the given key.
+     *
+     * @param key the key to be located
+     * @return the owning node, or {@code null} if the ring is empty
+     */
+    public N nodeFor(Object key) {
+        Snapshot<N> snapshot = this.snapshot;
+        String id = idFor(snapshot, key);
+        return id == null ? null : snapshot.nodes.get(id);
+    }
+
+    /**
+     * Returns the id of the node owning the given key.
+     *
+     * @param key the key to be located
+     * @return the id of the owning node, or {@code null} if the ring is empty
+     */
+    public String idFor(Object key) {
+        return idFor(snapshot, key);
+    }
+
+    /**
+     * Returns the nodes on the ring.
+     *
+     * @return an unmodifiable snapshot of the nodes by id
+     */
+    public Map<String, N> nodes() {
+        return snapshot.nodes;
+    }
+
+    /**
+     * Returns the number of nodes on the ring.
+     *
+     * @return the number of nodes on the ring
+     */
+    public int size() {
+        return snapshot.nodes.size();
+    }
+
+    private static String idFor(Snapshot<?> snapshot, Object key) {
+        NavigableMap<Long, String> ring = snapshot.ring;
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(key == null ? 0 : key.hashCode()));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    private void rebuild(Map<String, N> nodes) {
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String id : nodes.keySet()) {
+            long base = hash(id.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(mix(base + i * 0x9E3779B97F4A7C15L), id);
+            }
+        }
+        this.snapshot = new Snapshot<>(ring, Collections.unmodifiableMap(nodes));
+    }
+
+    // FNV-1a, 64 bit
+    private static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Finalizer of MurmurHash3, 64 bit
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb34fe1a85ec5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,77 @@
+package org.alpha4j.ds;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link Compressor4j} based on the {@link Deflater} and {@link Inflater} of the JDK, producing
+ * zlib data. Both hold native memory that is costly to allocate, so every thread reuses one
+ * instance of each, reset after every call.
+ */
+public class DeflateCompressor4j implements Compressor4j {
+    protected final int level; // Compression level, from 1 (fastest) to 9 (smallest)
+    protected final ThreadLocal<Deflater> deflaters;
+    protected final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * Constructor for a compressor favoring speed, at level 1.
+     */
+    public DeflateCompressor4j() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Constructor for a compressor at the given level.
+     *
+     * @param level the compression level, from 1 (fastest) to 9 (smallest)
+     * @throws IllegalArgumentException if the level is not between 1 and 9
+     */
+    public DeflateCompressor4j(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("level must be between 1 and 9");
+        }
+        this.level = level;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        Deflater deflater = deflaters.get();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[Math.min(8192, Math.max(64, data.length))];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int length) {
+        Inflater inflater = inflaters.get();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = inflater.inflate(result, read, length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated data: " + read + " of " + length + " bytes");
+                }
+                read += n;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted data", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package org.alpha4j.ds;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A cost-aware cache implementing GreedyDual-Size, or GreedyDual-Size-Frequency: every entry
+ * carries the cost of recomputing its value, such as the milliseconds its loader took, and its
+ * size, and the cache evicts the entry that is cheapest to lose per unit of size.
+ * <p>
+ * Each entry has a priority {@code H = L + frequency * cost / size}, and the entry with the lowest
+ * priority is evicted. {@code L}, the inflation value, rises to the priority of every evicted entry,
+ * so entries that are no longer accessed age relative to newly inserted or accessed ones, and an
+ * expensive entry cannot stay forever. Without frequency the frequency is always 1 (GreedyDual-Size),
+ * with it every hit increments the frequency (GreedyDual-Size-Frequency). Entries are kept in an
+ * indexed binary heap ordered by priority, so hits, insertions and evictions take O(log n).
+ * <p>
+ * The maximum size bounds the total size of the entries, not their number. Since the cache aims to
+ * save backend time rather than to maximize the hit ratio, {@link #savedCost()} sums the costs of
+ * all hits. Hits, misses and evictions are counted in {@link #stats()}. Keys and values must not be
+ * null.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class GreedyDualSizeCache4j<K, V> implements MonitoredCache4j {
+    protected static final Node<?, ?>[] EMPTY_HEAP = new Node<?, ?>[0];
+
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Map<K, Node<K, V>> map = new HashMap<>(); // Key to its entry
+    protected Node<K, V>[] heap = emptyHeap(); // Entries as a min-heap on their priority
+    protected int count; // Number of entries in the heap
+    protected final boolean frequency; // Whether hits raise the priority of an entry (GreedyDual-Size-Frequency)
+    protected double inflation; // L, the priority of the last evicted entry
+    protected long weight; // Total size of the entries
+    protected long maximumSize; // Maximum total size of the entries
+    protected final LongAdder savedCost = new LongAdder(); // Sum of the costs of all hits
+    protected final CacheStats4j stats = new CacheStats4j(); // Hit, miss and eviction counters
+    protected volatile String name = getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(this)); // Identifies the cache in the recorded events
+
+    /**
+     * An entry of the cache.
+     */
+    protected static final class Node<K, V> {
+        final K key;
+        V value;
+        long cost;
+        long size;
+        long frequency = 1;
+        double priority;
+        int index; // Position in the heap
+
+        Node(K key, V value, long cost, long size) {
+            this.key = key;
+            this.value = value;
+            this.cost = cost;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Constructor for a GreedyDual-Size-Frequency cache.
+     *
+     * @param maximumSize the maximum total size of the entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public GreedyDualSizeCache4j(long maximumSize) {
+        this(maximumSize, true);
+    }
+
+    /**
+     * Constructor for a GreedyDual-Size cache, or a GreedyDual-Size-Frequency cache.
+     *
+     * @param maximumSize the maximum total size of the entries
+     * @param frequency   whether hits raise the priority of an entry
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public GreedyDualSizeCache4j(long maximumSize, boolean frequency) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        this.maximumSize = maximumSize;
+        this.frequency = frequency;
+        CacheEvents4j.register(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Changes the name identifying the cache in the recorded events.
+     *
+     * @param name the name of the cache
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CacheStats4j stats() {
+        return stats;
+    }
+
+    /**
+     * Returns the value associated with the key, recording the hit: the priority of the entry is
+     * restored relative to the current inflation value and, with frequency, its frequency grows.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the key, or null if the key is not found
+     */
+    public V get(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Node<K, V> node = map.get(key);
+            if (node == null) {
+                stats.recordMiss();
+                return null;
+            }
+            stats.recordHit();
+            savedCost.add(node.cost);
+            if (frequency) {
+                node.frequency++;
+            }
+            this.prioritize(node);
+            this.siftDown(node.index); // The priority only grows, as the inflation value never falls
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Associates the value with the key, at a cost and a size of 1.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be associated with the key
+     * @return the previous value associated with the key, or null
+     */
+    public V put(K key, V value) {
+        return this.put(key, value, 1, 1);
+    }
+
+    /**
+     * Associates the value with the key. The entries with the lowest priorities are evicted until
+     * the total size fits the maximum size. A value larger than the maximum size is not cached,
+     * and removes any previous value of the key.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be associated with the key
+     * @param cost  the cost of recomputing the value, in any unit used consistently, such as the
+     *              milliseconds its loader took
+     * @param size  the size of the value, in the unit of the maximum size
+     * @return the previous value associated with the key, or null
+     * @throws IllegalArgumentException if the key or value is null, the cost is negative or the
+     *                                  size is not positive
+     */
+    public V put(K key, V value, long cost, long size) {
+        if (key == null || value == null || cost < 0 || size <= 0) {
+            throw new IllegalArgumentException("key and value must not be null, cost must not be negative, size must be positive");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Node<K, V> node = map.get(key);
+            V previous = null;
+            if (node != null) {
+                previous = node.value;
+                if (size > maximumSize) {
+                    this.removeNode(node);
+                    return previous;
+                }
+                weight += size - node.size;
+                node.value = value;
+                node.cost = cost;
+                node.size = size;
+                if (frequency) {
+                    node.frequency++;
+                }
+                this.prioritize(node);
+                this.siftUp(node.index);
+                this.siftDown(node.index);
+            } else {
+                if (size > maximumSize) {
+                    return null;
+                }
+                node = new Node<>(key, value, cost, size);
+                this.prioritize(node);
+                map.put(key, node);
+                if (count == heap.length) {
+                    heap = Arrays.copyOf(heap, Math.max(16, count << 1));
+                }
+                node.index = count;
+                heap[count++] = node;
+                this.siftUp(node.index);
+                weight += size;
+            }
+            this.trim(node);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was associated with the key, or null if the key was not found
+     */
+    public V remove(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Node<K, V> node = map.get(key);
+            if (node == null) {
+                return null;
+            }
+            this.removeNode(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the cache contains the key, without recording a hit.
+     *
+     * @param key the key whose presence is to be tested
+     * @return true if the cache contains a mapping for the key, otherwise false
+     */
+    public boolean containsKey(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return map.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    @Override
+    public int size() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total size of the entries in the cache.
+     *
+     * @return the sum of the sizes of the entries
+     */
+    public long weight() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum total size of the entries.
+     *
+     * @return the maximum size
+     */
+    public long getMaximumSize() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return maximumSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum total size of the entries. When the cache shrinks, the evictions are
+     * spread over this call and the later writes, {@link CacheMaintenance4j#EVICTION_BATCH} at a
+     * time.
+     *
+     * @param maximumSize the new maximum total size
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public void setMaximumSize(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            this.maximumSize = maximumSize;
+            this.trim(null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sum of the costs of all hits, that is the backend cost the cache saved.
+     *
+     * @return the saved cost, in the unit of the costs given to {@link #put(Object, Object, long, long)}
+     */
+    public long savedCost() {
+        return savedCost.sum();
+    }
+
+    /**
+     * Removes all entries from the cache and resets the inflation value.
+     */
+    public void clear() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            map.clear();
+            heap = emptyHeap();
+            count = 0;
+            weight = 0;
+            inflation = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} entries of the lowest priority while
+     * the total size exceeds the maximum size, raising the inflation value to the priority of each
+     * evicted entry. Must be called with the lock held.
+     *
+     * @param inserted the entry just inserted, evicted last so that an insertion never evicts
+     *                 itself while other entries remain, or null
+     */
+    protected void trim(Node<K, V> inserted) {
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && weight > maximumSize; evicted++) {
+            Node<K, V> victim = heap[0];
+            if (victim == inserted && count > 1) {
+                // The new entry has the lowest priority: evict the entry that comes next instead
+                victim = count == 2 || heap[1].priority <= heap[2].priority ? heap[1] : heap[2];
+            }
+            inflation = Math.max(inflation, victim.priority);
+            this.removeNode(victim);
+            stats.recordEviction();
+            CacheEvents4j.evicted(name, victim.key, RemovalCause4j.SIZE);
+        }
+    }
+
+    /**
+     * Computes the priority of an entry from the current inflation value.
+     *
+     * @param node the entry to be prioritized
+     */
+    protected void prioritize(Node<K, V> node) {
+        node.priority = inflation + (double) node.frequency * node.cost / node.size;
+    }
+
+    private void removeNode(Node<K, V> node) {
+        map.remove(node.key);
+        weight -= node.size;
+        int index = node.index;
+        Node<K, V> last = heap[--count];
+        heap[count] = null;
+        if (index < count) {
+            this.place(last, index);
+            this.siftUp(index);
+            this.siftDown(last.index);
+        }
+    }
+
+    private void siftUp(int index) {
+        Node<K, V> node = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].priority <= node.priority) {
+                break;
+            }
+            this.place(heap[parent], index);
+            index = parent;
+        }
+        this.place(node, index);
+    }
+
+    private void siftDown(int index) {
+        Node<K, V> node = heap[index];
+        int half = count >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < count && heap[child + 1].priority < heap[child].priority) {
+                child++;
+            }
+            if (node.priority <= heap[child].priority) {
+                break;
+            }
+            this.place(heap[child], index);
+            index = child;
+        }
+        this.place(node, index);
+    }
+
+    private void place(Node<K, V> node, int index) {
+        heap[index] = node;
+        node.index = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] emptyHeap() {
+        return (Node<K, V>[]) EMPTY_HEAP; // Holds no node, so it serves as an empty array of any node type
+    }
+}
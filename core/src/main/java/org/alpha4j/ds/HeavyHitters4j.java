@@ -0,0 +1,328 @@
+package org.alpha4j.ds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Finds the heavy hitters of a stream of keys, such as the hottest keys read from a cache, in
+ * bounded memory with the Space-Saving algorithm. A fixed number of counters is kept; a key that
+ * is not tracked takes over the counter with the lowest count, inheriting that count as its error.
+ * Every key occurring more than {@code total / capacity} times is guaranteed to be tracked, and
+ * its estimated count exceeds its true count by at most its error.
+ * <p>
+ * {@link #record(Object)} never blocks: keys are appended to a lossy ring buffer, which is drained
+ * into the counters by whichever recording thread wins a {@code tryLock}, or by {@link #topK(int)}.
+ * Under heavy contention keys may be overwritten before they are drained; they are dropped, which
+ * only samples the stream and leaves the hottest keys on top. {@link #recording(Function)} attaches
+ * the tracker to the lookups of any cache.
+ *
+ * @param <K> the type of keys tracked
+ */
+public class HeavyHitters4j<K> {
+    protected static final int BUFFER_SIZE = 1024; // Keys buffered between drains, a power of two
+    protected static final int DRAIN_INTERVAL = 64; // Records between drain attempts, a power of two
+
+    protected final ReentrantLock lock = new ReentrantLock(); // Guards the counters, never awaited by record
+    protected final int capacity; // Number of counters
+    protected final Map<K, Counter<K>> counters; // Tracked key to its counter
+    protected final Counter<K>[] heap; // Counters ordered as a min-heap on their count
+    protected int size; // Number of counters in use
+    protected long total; // Number of keys applied to the counters
+    protected final AtomicReferenceArray<Object> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+    protected final AtomicLong writeIndex = new AtomicLong(); // Next position written in the buffer
+    protected long readIndex; // Next position drained from the buffer, guarded by the lock
+
+    /**
+     * A tracked key and its estimated count.
+     *
+     * @param <K> the type of keys tracked
+     */
+    public static final class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        /**
+         * Constructor for a key and its estimated count.
+         *
+         * @param key   the key
+         * @param count the estimated number of occurrences
+         * @param error the maximum overestimation of the count
+         */
+        public Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * Returns the key.
+         *
+         * @return the key
+         */
+        public K key() {
+            return key;
+        }
+
+        /**
+         * Returns the estimated number of occurrences, never lower than the true number.
+         *
+         * @return the estimated count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns the maximum overestimation of the count.
+         *
+         * @return the error of the count
+         */
+        public long error() {
+            return error;
+        }
+
+        /**
+         * Returns the number of occurrences the key is guaranteed to have had.
+         *
+         * @return the count minus its error
+         */
+        public long guaranteed() {
+            return count - error;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count + " (error " + error + ")";
+        }
+    }
+
+    /**
+     * A counter of the Space-Saving summary.
+     */
+    protected static final class Counter<K> {
+        K key;
+        long count;
+        long error;
+        int index; // Position in the heap
+
+        Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Constructor that tracks the given number of keys.
+     *
+     * @param capacity the number of counters; the top {@code n} keys are reliable for {@code n}
+     *                 well below the capacity
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public HeavyHitters4j(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        @SuppressWarnings("unchecked")
+        Counter<K>[] heap = (Counter<K>[]) new Counter<?>[capacity];
+        this.heap = heap;
+    }
+
+    /**
+     * Records an occurrence of the key without blocking. Null keys are ignored.
+     *
+     * @param key the key that occurred
+     */
+    public void record(K key) {
+        if (key == null) {
+            return;
+        }
+        long index = writeIndex.getAndIncrement();
+        buffer.lazySet((int) index & (BUFFER_SIZE - 1), key);
+        if ((index & (DRAIN_INTERVAL - 1)) == DRAIN_INTERVAL - 1 && lock.tryLock()) {
+            try {
+                this.drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Wraps the lookup function of a cache so that every looked-up key is recorded, for example
+     * {@code hitters.recording(cache::get)}.
+     *
+     * @param lookup the lookup function of the cache
+     * @param <V>    the type of the looked-up values
+     * @return a function recording the key, then delegating to the lookup
+     */
+    public <V> Function<K, V> recording(Function<? super K, ? extends V> lookup) {
+        return key -> {
+            this.record(key);
+            return lookup.apply(key);
+        };
+    }
+
+    /**
+     * Returns the keys with the highest estimated counts.
+     *
+     * @param n the maximum number of keys to be returned
+     * @return the keys from the highest count down
+     */
+    public List<Entry<K>> topK(int n) {
+        try {
+            lock.lock();
+            this.drain();
+            Counter<K>[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted, Comparator.comparingLong((Counter<K> counter) -> counter.count).reversed());
+            List<Entry<K>> top = new ArrayList<>(Math.min(n, size));
+            for (int i = 0; i < Math.min(n, size); i++) {
+                top.add(new Entry<>(sorted[i].key, sorted[i].count, sorted[i].error));
+            }
+            return top;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an upper bound of the number of occurrences of the key.
+     *
+     * @param key the key whose count is to be estimated
+     * @return the estimated count of a tracked key, otherwise the lowest count, which no untracked
+     * key can have exceeded
+     */
+    public long estimate(K key) {
+        try {
+            lock.lock();
+            this.drain();
+            Counter<K> counter = counters.get(key);
+            if (counter != null) {
+                return counter.count;
+            }
+            return size < capacity ? 0 : heap[0].count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of occurrences applied to the counters, excluding dropped ones.
+     *
+     * @return the total number of counted occurrences
+     */
+    public long total() {
+        try {
+            lock.lock();
+            this.drain();
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets every counted occurrence.
+     */
+    public void clear() {
+        try {
+            lock.lock();
+            this.drain();
+            counters.clear();
+            Arrays.fill(heap, 0, size, null);
+            size = 0;
+            total = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the buffered keys to the counters. Must be called with the lock held.
+     */
+    protected void drain() {
+        long end = writeIndex.get();
+        if (end - readIndex > BUFFER_SIZE) {
+            readIndex = end - BUFFER_SIZE; // The writers lapped the buffer, the oldest keys are lost
+        }
+        for (; readIndex < end; readIndex++) {
+            @SuppressWarnings("unchecked")
+            K key = (K) buffer.getAndSet((int) readIndex & (BUFFER_SIZE - 1), null);
+            if (key != null) {
+                this.offer(key);
+            }
+        }
+    }
+
+    private void offer(K key) {
+        total++;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            this.siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>(key, 1, 0);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            this.siftUp(counter.index);
+            return;
+        }
+        // Replace the key with the lowest count, whose count becomes the error of the new key
+        counter = heap[0];
+        counters.remove(counter.key);
+        counter.key = key;
+        counter.error = counter.count;
+        counter.count++;
+        counters.put(key, counter);
+        this.siftDown(0);
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            this.place(heap[parent], index);
+            index = parent;
+        }
+        this.place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            this.place(heap[child], index);
+            index = child;
+        }
+        this.place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+}
@@ -0,0 +1,51 @@
+package org.alpha4j.ds;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Carries key invalidations between the nodes of a {@link NearCache4j} cluster. Keys travel in
+ * their string form; the near-cache converts them back into keys on arrival.
+ */
+public interface InvalidationTransport4j extends AutoCloseable {
+
+    /**
+     * Receives invalidations sent by peer nodes.
+     */
+    interface Listener {
+        /**
+         * Invoked when a peer invalidated the given keys.
+         *
+         * @param keys the string form of the invalidated keys
+         */
+        void onInvalidate(Collection<String> keys);
+
+        /**
+         * Invoked when the connection to a peer was (re)established. Invalidations sent while the
+         * peer was disconnected are lost, so every cached entry has to be considered stale.
+         */
+        void onReconnect();
+    }
+
+    /**
+     * Starts the transport, delivering the invalidations received from peers to the listener.
+     *
+     * @param listener the listener receiving invalidations from peers
+     * @throws IOException if the transport cannot be started
+     */
+    void start(Listener listener) throws IOException;
+
+    /**
+     * Sends a batch of invalidated keys to every peer. Delivery is best effort: a peer that cannot
+     * be reached will receive {@link Listener#onReconnect()} once it is reachable again.
+     *
+     * @param keys the string form of the invalidated keys
+     */
+    void broadcast(Collection<String> keys);
+
+    /**
+     * Stops the transport and releases its resources.
+     */
+    @Override
+    void close();
+}
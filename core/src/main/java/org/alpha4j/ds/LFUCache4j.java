@@ -0,0 +1,629 @@
+package org.alpha4j.ds;
+
+import org.alpha4j.common.Json4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * LFUCache4j is a thread-safe implementation of the Least Frequently Used (LFU) cache.
+ * It supports generic key-value pairs and ensures that the least frequently accessed
+ * elements are evicted first when the cache reaches its capacity.
+ * <p>
+ * Plain frequencies only ever grow, so keys that were hot long ago can keep out the keys that are
+ * hot now. Two {@link Decay} policies let old accesses fade: {@link #aging(int, int)} halves every
+ * frequency periodically, {@link #windowed(int, int)} only counts the most recent accesses.
+ * <p>
+ * Hits, misses and evictions are counted in {@link #stats()}. On Java 21 the lock waits and
+ * evictions are also recorded as JDK Flight Recorder events, see {@link CacheEvents4j}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class LFUCache4j<K, V> implements MonitoredCache4j {
+    protected static final int MAINTENANCE_THRESHOLD = 64; // Items above the capacity that schedule a maintenance run
+    protected static final int MAXIMUM_OVERSHOOT = 4096; // Items above the capacity at which writers evict inline
+    protected static final int MAXIMUM_WEIGHT = 1 << 16; // Access weight at which aging rescales every frequency
+
+    /**
+     * How the frequencies of the cached keys fade over time.
+     */
+    public enum Decay {
+        /**
+         * Frequencies count every access since the key entered the cache.
+         */
+        NONE,
+        /**
+         * Every frequency is halved after a fixed number of accesses.
+         */
+        AGING,
+        /**
+         * Frequencies only count the accesses within a sliding window of the most recent accesses.
+         */
+        WINDOW
+    }
+
+    protected final ReentrantLock lock = new ReentrantLock(); // Define a lock to ensure thread safety
+    protected int capacity; // Cache capacity
+    protected int size = 0; // Current size of the cache
+    protected Map<K, V> cache; // Map to store keys and their corresponding values
+    protected Map<K, Integer> frequencies; // Map to store keys and their corresponding frequencies
+    protected Map<Integer, LinkedHashSet<K>> frequencyIndexes; // Map to store frequencies and the corresponding sets of keys
+    protected int minFrequency; // Variable to keep track of the minimum frequency
+    protected final CacheMaintenance4j maintenance; // Evicts on an executor in maintenance mode, null when put evicts inline
+    protected final int overshoot; // Items allowed above the capacity before put evicts inline
+    protected final CacheStats4j stats = new CacheStats4j(); // Hit, miss and eviction counters
+    protected volatile String name = getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(this)); // Identifies the cache in the recorded events
+    protected final Decay decay; // How frequencies fade over time
+    protected final int period; // Accesses between halvings when aging, length of the window when windowed
+    protected int weight = 1; // Frequency added per access; aging doubles it instead of halving every frequency
+    protected long accesses; // Accesses counted since the cache was created or cleared
+    protected K[] window; // Most recent accessed keys by access number modulo the period, null unless windowed
+    protected Map<K, Long> insertions; // Access number that inserted each key, null unless windowed
+
+    /**
+     * Constructor to initialize the LFUCache4j with a specific capacity.
+     *
+     * @param capacity the maximum number of items that can be held in the cache
+     */
+    public LFUCache4j(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Constructor to initialize the LFUCache4j in maintenance mode: {@link #put} no longer evicts,
+     * it schedules a maintenance run on the executor once the cache holds 64 items more than its
+     * capacity, and the run evicts the least frequently used items in batches. If the executor
+     * falls behind, put evicts inline again once the cache holds 4096 items more than its
+     * capacity, which bounds the overshoot.
+     *
+     * @param capacity the maximum number of items that can be held in the cache
+     * @param executor the executor running the maintenance, or null to evict inline
+     */
+    public LFUCache4j(int capacity, Executor executor) {
+        this(capacity, executor, Decay.NONE, 0);
+    }
+
+    /**
+     * Constructor to initialize the LFUCache4j with a decay policy for the frequencies.
+     *
+     * @param capacity the maximum number of items that can be held in the cache
+     * @param executor the executor running the maintenance, or null to evict inline
+     * @param decay    how the frequencies fade over time
+     * @param period   the number of accesses between halvings when aging, the number of recent
+     *                 accesses counted when windowed; ignored without decay
+     * @throws IllegalArgumentException if the cache decays and the period is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public LFUCache4j(int capacity, Executor executor, Decay decay, int period) {
+        if (decay != Decay.NONE && period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        this.decay = decay;
+        this.period = period;
+        this.capacity = capacity;
+        this.maintenance = executor == null ? null : new CacheMaintenance4j(executor, this::maintain);
+        this.overshoot = executor == null ? 0 : MAXIMUM_OVERSHOOT;
+        this.cache = new HashMap<>();
+        this.frequencies = new HashMap<>();
+        // Decaying frequencies skip or revisit buckets, so the lowest one is looked up in sorted buckets
+        this.frequencyIndexes = decay == Decay.NONE ? new HashMap<>() : new TreeMap<>();
+        this.minFrequency = 1;
+        if (decay == Decay.WINDOW) {
+            this.window = (K[]) new Object[period];
+            this.insertions = new HashMap<>();
+        }
+        CacheEvents4j.register(this);
+    }
+
+    /**
+     * Creates a cache halving the frequency of every key after the given number of accesses, so
+     * that keys which are no longer accessed eventually become the least frequently used. The
+     * halving is not a scan: every later access weighs twice as much instead, and the frequencies
+     * are only rescaled once every 16 halvings.
+     *
+     * @param capacity the maximum number of items that can be held in the cache
+     * @param period   the number of accesses between halvings, typically ten times the capacity
+     * @param <K>      the type of keys maintained by the cache
+     * @param <V>      the type of mapped values
+     * @return the cache
+     */
+    public static <K, V> LFUCache4j<K, V> aging(int capacity, int period) {
+        return new LFUCache4j<>(capacity, null, Decay.AGING, period);
+    }
+
+    /**
+     * Creates a cache counting only the accesses among the given number of most recent accesses.
+     * Every access expires the access that fell out of the window, so a key which is no longer
+     * accessed drops to frequency 0 once the window has moved past it.
+     *
+     * @param capacity the maximum number of items that can be held in the cache
+     * @param window   the number of recent accesses counted
+     * @param <K>      the type of keys maintained by the cache
+     * @param <V>      the type of mapped values
+     * @return the cache
+     */
+    public static <K, V> LFUCache4j<K, V> windowed(int capacity, int window) {
+        return new LFUCache4j<>(capacity, null, Decay.WINDOW, window);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Changes the name identifying the cache in the recorded events.
+     *
+     * @param name the name of the cache
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CacheStats4j stats() {
+        return stats;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key from the cache.
+     * If the key is not found, returns null. This method also updates the
+     * frequency of the accessed key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or null if the key is not found
+     */
+    @SuppressWarnings({"UnusedReturnValue"})
+    public V get(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            if (!cache.containsKey(key)) {
+                stats.recordMiss();
+                return null;
+            }
+            stats.recordHit();
+            this.increment(key);
+            return cache.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the specified key-value pair into the cache. If the cache is at capacity,
+     * the least frequently used item will be removed to make space for the new entry.
+     * If the key already exists, its value will be updated and its frequency will be incremented.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     */
+    public void put(K key, V value) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            if (maintenance == null) {
+                this.trim();
+            } else if (size >= (long) capacity + MAINTENANCE_THRESHOLD) {
+                maintenance.schedule();
+            }
+            if (capacity <= 0) {
+                return;
+            }
+            if (cache.containsKey(key)) {
+                cache.put(key, value); // Update the value and increase the frequency
+                this.increment(key);
+                return;
+            }
+            if (size >= (long) capacity + overshoot) {
+                this.evict(); // Remove the least frequently used element
+            }
+            // Add the new key and value with the frequency of a single access
+            cache.put(key, value);
+            frequencies.put(key, weight);
+            frequencyIndexes.computeIfAbsent(weight, k -> new LinkedHashSet<>()).add(key);
+            minFrequency = Math.min(minFrequency, weight);
+            size++;
+            if (insertions != null) {
+                insertions.put(key, accesses);
+            }
+            this.access(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the specified key-value pair only if the key is not already cached. An existing
+     * entry is left untouched, and its frequency is not incremented.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the value already associated with the key, or null if the value was inserted
+     */
+    public V putIfAbsent(K key, V value) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            V previous = cache.get(key);
+            if (previous == null) {
+                this.put(key, value);
+            }
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of items that can be held in the cache.
+     *
+     * @return the capacity of the cache
+     */
+    public int getMaximumSize() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum number of items that can be held in the cache. When the cache shrinks,
+     * the evictions are spread over this call and the later writes,
+     * {@link CacheMaintenance4j#EVICTION_BATCH} at a time. In maintenance mode the evictions are
+     * left to a maintenance run instead.
+     *
+     * @param maximumSize the new capacity of the cache
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            this.capacity = maximumSize;
+            if (maintenance == null) {
+                this.trim();
+            } else if (size > maximumSize) {
+                maintenance.schedule();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the most frequently used keys with their exact frequencies, counted from the moment
+     * each key entered the cache, or their decayed frequencies when the cache decays. Evicted keys
+     * are forgotten; to find hot keys across evictions, use a {@link HeavyHitters4j}.
+     *
+     * @param n the maximum number of keys to be returned
+     * @return the keys from the highest frequency down
+     */
+    public List<HeavyHitters4j.Entry<K>> hottest(int n) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            List<Integer> descending = new ArrayList<>(frequencyIndexes.keySet());
+            descending.sort(Collections.reverseOrder());
+            List<HeavyHitters4j.Entry<K>> hottest = new ArrayList<>(Math.min(n, size));
+            for (int frequency : descending) {
+                for (K key : frequencyIndexes.get(frequency)) {
+                    if (hottest.size() == n) {
+                        return hottest;
+                    }
+                    hottest.add(new HeavyHitters4j.Entry<>(key, frequency / weight, 0));
+                }
+            }
+            return hottest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from the cache, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was associated with the key, or null if the key was not found
+     */
+    public V remove(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            if (!cache.containsKey(key)) {
+                return null;
+            }
+            int frequency = frequencies.remove(key);
+            LinkedHashSet<K> keys = frequencyIndexes.get(frequency);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                frequencyIndexes.remove(frequency);
+            }
+            if (insertions != null) {
+                insertions.remove(key);
+            }
+            size--;
+            return cache.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the cache contains a mapping for the specified key, without counting it as
+     * an access.
+     *
+     * @param key the key whose presence is to be tested
+     * @return true if the cache contains a mapping for the key, otherwise false
+     */
+    public boolean containsKey(K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return cache.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    @Override
+    public int size() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            cache.clear();
+            frequencies.clear();
+            frequencyIndexes.clear();
+            minFrequency = 1;
+            size = 0;
+            weight = 1;
+            accesses = 0;
+            if (window != null) {
+                Arrays.fill(window, null);
+                insertions.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Performs the given action for each entry of the cache while holding the lock, without
+     * counting the entries as accessed.
+     *
+     * @param action the action to be performed for each entry
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            cache.forEach(action);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Streams the entries of the cache as a JSON object to the output stream. The entries are
+     * serialized straight from the map under the lock: the document is a consistent snapshot and
+     * takes no memory beyond the serializer buffer, but readers and writers stall until it is
+     * written, I/O included. Prefer a buffered or local stream to a slow one.
+     *
+     * @param out the stream to write to, flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Json4j.write(out, cache.entrySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads a JSON object from the input stream, putting each entry into the cache as soon as it
+     * is parsed. Parsing happens outside the lock, which is only taken for each insertion.
+     *
+     * @param in        the stream to read from, not closed
+     * @param keyMapper the function converting field names back into keys
+     * @param valueType the type values are bound to
+     * @throws IOException if reading from the stream fails or the document is not a JSON object
+     */
+    public void readFrom(InputStream in, Function<String, ? extends K> keyMapper, Class<V> valueType) throws IOException {
+        Json4j.read(in, keyMapper, valueType, this::put);
+    }
+
+    /**
+     * The maintenance run: evicts the items above the capacity one batch at a time, releasing
+     * the lock between batches so that writers are not stalled.
+     */
+    protected void maintain() {
+        boolean more = true;
+        while (more) {
+            try {
+                CacheEvents4j.lock(lock, name, "exclusive");
+                this.trim();
+                more = size > capacity;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} of the least frequently used items
+     * while the cache holds more than {@code capacity} items. Must be called with the lock held.
+     */
+    protected void trim() {
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && size > capacity; evicted++) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Evicts the least frequently used item, the oldest one among equally frequent items. Must be
+     * called with the lock held on a non-empty cache.
+     */
+    protected void evict() {
+        LinkedHashSet<K> keys = frequencyIndexes.get(minFrequency);
+        if (keys == null || keys.isEmpty()) {
+            minFrequency = this.lowestFrequency(); // The minimum is stale after an explicit removal
+            keys = frequencyIndexes.get(minFrequency);
+        }
+        K evict = keys.iterator().next();
+        keys.remove(evict);
+        if (keys.isEmpty()) {
+            frequencyIndexes.remove(minFrequency);
+        }
+        cache.remove(evict);
+        frequencies.remove(evict);
+        if (insertions != null) {
+            insertions.remove(evict);
+        }
+        size--;
+        stats.recordEviction();
+        CacheEvents4j.evicted(name, evict, RemovalCause4j.SIZE);
+    }
+
+    /**
+     * Increments the frequency of a cached key. Must be called with the lock held.
+     *
+     * @param key the key that was accessed
+     */
+    protected void increment(K key) {
+        int frequency = frequencies.get(key); // Get the current frequency of the key
+        if (frequency > Integer.MAX_VALUE - weight) {
+            this.rescale(); // Only reachable when aging with a long period
+            frequency = frequencies.get(key);
+        }
+        this.move(key, frequency, frequency + weight);
+        this.access(key);
+    }
+
+    /**
+     * Moves a cached key from one frequency to another. Must be called with the lock held.
+     *
+     * @param key  the key whose frequency changes
+     * @param from the current frequency of the key
+     * @param to   the new frequency of the key
+     */
+    protected void move(K key, int from, int to) {
+        LinkedHashSet<K> keys = frequencyIndexes.get(from);
+        keys.remove(key); // Remove the key from the current frequency list
+        if (keys.isEmpty()) {
+            frequencyIndexes.remove(from);
+            // If the list at minFrequency is empty, nothing is less frequent than the next frequency
+            if (from == minFrequency) {
+                minFrequency++;
+            }
+        }
+        minFrequency = Math.min(minFrequency, to);
+        frequencies.put(key, to);
+        frequencyIndexes.computeIfAbsent(to, k -> new LinkedHashSet<>()).add(key);
+    }
+
+    /**
+     * Counts an access of a cached key towards the decay of the frequencies: ages them at the end
+     * of every period, or expires the access that fell out of the window. Must be called with the
+     * lock held.
+     *
+     * @param key the key that was accessed
+     */
+    protected void access(K key) {
+        if (decay == Decay.AGING) {
+            if (++accesses % period == 0) {
+                this.age();
+            }
+        } else if (decay == Decay.WINDOW) {
+            int index = (int) (accesses % period);
+            K expired = window[index];
+            window[index] = key;
+            // The expired access only counts if it was made after the key last entered the cache
+            Long inserted = expired == null ? null : insertions.get(expired);
+            if (inserted != null && inserted <= accesses - period) {
+                int frequency = frequencies.get(expired);
+                this.move(expired, frequency, frequency - 1);
+            }
+            accesses++;
+        }
+    }
+
+    /**
+     * Halves every frequency in constant time by doubling the weight of later accesses, which
+     * preserves the order of all frequencies. Must be called with the lock held.
+     */
+    protected void age() {
+        if (weight >= MAXIMUM_WEIGHT) {
+            this.rescale();
+        }
+        weight <<= 1;
+    }
+
+    /**
+     * Divides every frequency by the weight of an access, at least halving them, and resets the
+     * weight to 1. Keys whose frequency drops below 1 are kept at 1, in their previous order.
+     * Must be called with the lock held.
+     */
+    protected void rescale() {
+        int shift = Math.max(1, Integer.numberOfTrailingZeros(weight));
+        Map<Integer, LinkedHashSet<K>> rescaled = new TreeMap<>();
+        for (Map.Entry<Integer, LinkedHashSet<K>> entry : frequencyIndexes.entrySet()) {
+            int frequency = Math.max(1, entry.getKey() >>> shift);
+            LinkedHashSet<K> keys = rescaled.computeIfAbsent(frequency, k -> new LinkedHashSet<>());
+            for (K key : entry.getValue()) {
+                keys.add(key);
+                frequencies.put(key, frequency);
+            }
+        }
+        frequencyIndexes = rescaled;
+        weight = 1;
+        minFrequency = rescaled.isEmpty() ? 1 : this.lowestFrequency();
+    }
+
+    /**
+     * Returns the lowest frequency that still has keys, scanning the frequency buckets unless
+     * they are sorted.
+     *
+     * @return the lowest frequency in use
+     */
+    protected int lowestFrequency() {
+        if (frequencyIndexes instanceof TreeMap) {
+            return ((TreeMap<Integer, LinkedHashSet<K>>) frequencyIndexes).firstKey();
+        }
+        int lowest = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, LinkedHashSet<K>> entry : frequencyIndexes.entrySet()) {
+            if (!entry.getValue().isEmpty() && entry.getKey() < lowest) {
+                lowest = entry.getKey();
+            }
+        }
+        return lowest;
+    }
+}
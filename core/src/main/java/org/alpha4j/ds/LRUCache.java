@@ -1,16 +1,12 @@
 package org.alpha4j.ds;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 
 @SuppressWarnings({"FieldCanBeLocal", "FieldMayBeFinal"})
 public class LRUCache<K, V> extends LinkedHashMap<K, V> {
-    protected static final Logger logger = LoggerFactory.getLogger(LRUCache.class);
-
     // Define a lock to ensure thread safety
     private final ReentrantLock lock = new ReentrantLock();
     // Cache capacity
@@ -34,7 +30,33 @@ public class LRUCache<K, V> extends LinkedHashMap<K, V> {
     public V put(K key, V value) {
         try {
             lock.lock();
-            return super.put(key, value);
+            V previous = super.put(key, value);
+            this.trim();
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Capacity can be changed at runtime; shrinking evicts the eldest entries in batches of
+    // CacheMaintenance4j.EVICTION_BATCH, one per call, until the cache fits again
+    public int getMaximumSize() {
+        try {
+            lock.lock();
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setMaximumSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        try {
+            lock.lock();
+            this.size = size;
+            this.trim();
         } finally {
             lock.unlock();
         }
@@ -60,5 +82,15 @@ public class LRUCache<K, V> extends LinkedHashMap<K, V> {
         }
     }
 
-
+    // Evict up to one batch of the eldest entries while over capacity, the lock must be held
+    private void trim() {
+        if (super.size() <= size) {
+            return;
+        }
+        Iterator<K> it = super.keySet().iterator();
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && super.size() > size && it.hasNext(); evicted++) {
+            it.next();
+            it.remove();
+        }
+    }
 }
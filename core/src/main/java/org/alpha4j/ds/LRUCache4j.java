@@ -1,8 +1,16 @@
 package org.alpha4j.ds;
 
+import org.alpha4j.common.Json4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -10,15 +18,30 @@ import java.util.function.Supplier;
  * once a threshold is met. It implements the Map interface for convenience. It is thread-safe via usage of
  * ReentrantReadWriteLock() around read and write APIs, including delegating to keySet(), entrySet(), and
  * values() and each of their iterators.
+ * <p>
+ * Hits, misses and evictions are counted in {@link #stats()}. On Java 21 the lock waits and
+ * evictions are also recorded as JDK Flight Recorder events, see {@link CacheEvents4j}.
  */
 @SuppressWarnings({"EqualsWhichDoesntCheckParameterClass", "NullableProblems", "unchecked"})
-public class LRUCache4j<K, V> implements Map<K, V> {
+public class LRUCache4j<K, V> implements Map<K, V>, MonitoredCache4j {
     // A ReadWriteLock to ensure thread-safe access to the cache
     protected final transient ReadWriteLock lock = new ReentrantReadWriteLock();
     // The underlying cache implemented using a LinkedHashMap
     protected final Map<K, V> cache;
     // A constant used to denote the absence of an entry
     protected final static Object NO_ENTRY = new Object();
+    // Number of entries above the maximum size that schedules a maintenance run
+    protected final static int MAINTENANCE_THRESHOLD = 64;
+    // Number of entries above the maximum size at which writers evict inline, bounding the overshoot
+    protected final static int MAXIMUM_OVERSHOOT = 4096;
+    // The maximum number of entries, guarded by the write lock
+    protected int maximumSize;
+    // Evicts on an executor in maintenance mode, null when writers evict inline
+    protected final CacheMaintenance4j maintenance;
+    // Hit, miss and eviction counters
+    protected final CacheStats4j stats = new CacheStats4j();
+    // Identifies the cache in the recorded events
+    protected volatile String name = getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(this));
 
     /**
      * Constructor that initializes the LRU cache with a specified capacity.
@@ -27,12 +50,86 @@ public class LRUCache4j<K, V> implements Map<K, V> {
      * @param capacity the maximum number of entries the cache can hold
      */
     public LRUCache4j(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Constructor that initializes the LRU cache in maintenance mode: writers no longer evict,
+     * they schedule a maintenance run on the executor once the cache holds 64 entries more than
+     * its capacity, and the run evicts the least recently used entries in batches. If the
+     * executor falls behind, writers evict inline again once the cache holds 4096 entries more
+     * than its capacity, which bounds the overshoot.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     * @param executor the executor running the maintenance, or null to evict inline
+     */
+    public LRUCache4j(int capacity, Executor executor) {
+        this.maximumSize = capacity;
+        this.maintenance = executor == null ? null : new CacheMaintenance4j(executor, this::maintain);
+        int overshoot = executor == null ? 0 : MAXIMUM_OVERSHOOT;
         cache = new LinkedHashMap<K, V>(capacity, 0.75f, true) {
             @Override
             protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-                return size() > capacity;
+                if (size() <= (long) maximumSize + overshoot) {
+                    return false;
+                }
+                LRUCache4j.this.evicted(eldest.getKey());
+                return true;
             }
         };
+        CacheEvents4j.register(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Changes the name identifying the cache in the recorded events.
+     *
+     * @param name the name of the cache
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CacheStats4j stats() {
+        return stats;
+    }
+
+    /**
+     * Returns the maximum number of entries the cache can hold.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        return readOperation(() -> maximumSize);
+    }
+
+    /**
+     * Changes the maximum number of entries the cache can hold. When the cache shrinks, the
+     * evictions are spread over this call and the later writes,
+     * {@link CacheMaintenance4j#EVICTION_BATCH} at a time. In maintenance mode the evictions are
+     * left to a maintenance run instead.
+     *
+     * @param maximumSize the new maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        writeOperation(() -> {
+            this.maximumSize = maximumSize;
+            if (maintenance == null) {
+                this.trim();
+            } else if (cache.size() > maximumSize) {
+                maintenance.schedule();
+            }
+            return null;
+        });
     }
 
     @Override
@@ -72,25 +169,40 @@ public class LRUCache4j<K, V> implements Map<K, V> {
 
     @Override
     public V get(Object key) {
-        return readOperation(() -> cache.get(key));
+        V value = readOperation(() -> cache.get(key));
+        if (value == null) {
+            stats.recordMiss();
+        } else {
+            stats.recordHit();
+        }
+        return value;
     }
 
     @Override
     public V put(K key, V value) {
-        return writeOperation(() -> cache.put(key, value));
+        return writeOperation(() -> {
+            V previous = cache.put(key, value);
+            this.afterWrite();
+            return previous;
+        });
     }
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
         writeOperation(() -> {
             cache.putAll(m);
+            this.afterWrite();
             return null;
         });
     }
 
     @Override
     public V putIfAbsent(K key, V value) {
-        return writeOperation(() -> cache.putIfAbsent(key, value));
+        return writeOperation(() -> {
+            V previous = cache.putIfAbsent(key, value);
+            this.afterWrite();
+            return previous;
+        });
     }
 
     @Override
@@ -106,6 +218,20 @@ public class LRUCache4j<K, V> implements Map<K, V> {
         });
     }
 
+    /**
+     * Performs the given action for each entry of the cache while holding the read lock, without
+     * counting the entries as accessed.
+     *
+     * @param action the action to be performed for each entry
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        readOperation(() -> {
+            cache.forEach(action);
+            return null;
+        });
+    }
+
     @Override
     public Set<K> keySet() {
         return readOperation(() -> new Set<K>() {
@@ -409,6 +535,87 @@ public class LRUCache4j<K, V> implements Map<K, V> {
         });
     }
 
+    /**
+     * Streams the entries of the cache as a JSON object to the output stream, from the least to
+     * the most recently used, so that {@link #readFrom} restores the same recency order. The
+     * entries are serialized straight from the map under the write lock, since reads of an
+     * access-ordered map reorder its entries: the document is a consistent snapshot and takes no
+     * memory beyond the serializer buffer, but readers and writers stall until it is written,
+     * I/O included. Prefer a buffered or local stream to a slow one.
+     *
+     * @param out the stream to write to, flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        CacheEvents4j.lock(lock.writeLock(), name, "write");
+        try {
+            Json4j.write(out, cache.entrySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a JSON object from the input stream, putting each entry into the cache as soon as it
+     * is parsed. Parsing happens outside the lock, which is only taken for each insertion.
+     *
+     * @param in        the stream to read from, not closed
+     * @param keyMapper the function converting field names back into keys
+     * @param valueType the type values are bound to
+     * @throws IOException if reading from the stream fails or the document is not a JSON object
+     */
+    public void readFrom(InputStream in, Function<String, ? extends K> keyMapper, Class<V> valueType) throws IOException {
+        Json4j.read(in, keyMapper, valueType, this::put);
+    }
+
+    /**
+     * Evicts the entries above the maximum size, inline or by scheduling a maintenance run. Must
+     * be called with the write lock held.
+     */
+    private void afterWrite() {
+        if (maintenance == null) {
+            this.trim();
+        } else if (cache.size() >= (long) maximumSize + MAINTENANCE_THRESHOLD) {
+            maintenance.schedule();
+        }
+    }
+
+    /**
+     * The maintenance run: evicts the entries above the maximum size one batch at a time,
+     * releasing the write lock between batches so that writers are not stalled.
+     */
+    protected void maintain() {
+        boolean more = true;
+        while (more) {
+            more = writeOperation(() -> {
+                this.trim();
+                return cache.size() > maximumSize;
+            });
+        }
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} of the least recently used entries
+     * while the cache holds more than {@code maximumSize} entries. Must be called with the write
+     * lock held.
+     */
+    private void trim() {
+        if (cache.size() <= maximumSize) {
+            return;
+        }
+        Iterator<K> it = cache.keySet().iterator();
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && cache.size() > maximumSize && it.hasNext(); evicted++) {
+            K key = it.next();
+            it.remove();
+            this.evicted(key);
+        }
+    }
+
+    private void evicted(K key) {
+        stats.recordEviction();
+        CacheEvents4j.evicted(name, key, RemovalCause4j.SIZE);
+    }
+
     /**
      * Executes a read operation with a read lock.
      *
@@ -417,7 +624,7 @@ public class LRUCache4j<K, V> implements Map<K, V> {
      * @return the result of the operation
      */
     private <T> T readOperation(Supplier<T> operation) {
-        lock.readLock().lock();
+        CacheEvents4j.lock(lock.readLock(), name, "read");
         try {
             return operation.get();
         } finally {
@@ -433,7 +640,7 @@ public class LRUCache4j<K, V> implements Map<K, V> {
      * @return the result of the operation
      */
     private <T> T writeOperation(Supplier<T> operation) {
-        lock.writeLock().lock();
+        CacheEvents4j.lock(lock.writeLock(), name, "write");
         try {
             return operation.get();
         } finally {
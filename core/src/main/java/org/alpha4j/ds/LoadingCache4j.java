@@ -0,0 +1,248 @@
+package org.alpha4j.ds;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A read-through cache: an {@link LRUCache4j} whose misses are filled by a {@link CacheLoader4j}
+ * and whose entries expire a fixed time after they were loaded.
+ * <p>
+ * Concurrent misses on the same key are coalesced: the first caller loads the value and the
+ * others wait for its result instead of hitting the source again. An expired entry is not simply
+ * dropped; it is handed to {@link CacheLoader4j#reload(Object, Object)}, which may confirm that it
+ * is still current.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class LoadingCache4j<K, V> {
+    protected final LRUCache4j<K, Expiring<V>> cache; // Loaded values with their expiry
+    protected final CacheLoader4j<K, V> loader; // Loads missing and expired values
+    protected final long ttlNanos; // Time a loaded value stays fresh
+    protected final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>(); // Loads in flight
+
+    /**
+     * A cached value and the time it expires at.
+     */
+    protected static final class Expiring<V> {
+        final V value;
+        final long expiresAt; // In System.nanoTime() units
+
+        Expiring(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Constructor that initializes the cache.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     * @param ttl      the time a loaded value stays fresh
+     * @param unit     the unit of {@code ttl}
+     * @param loader   the loader filling misses and revalidating expired entries
+     */
+    public LoadingCache4j(int capacity, long ttl, TimeUnit unit, CacheLoader4j<K, V> loader) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.cache = new LRUCache4j<>(capacity);
+        this.loader = loader;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Returns the value of the key, loading it if it is not cached or has expired.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value, or {@code null} if the loader found none
+     * @throws UncheckedIOException  if the loader failed with an {@link IOException}
+     * @throws IllegalStateException if the loader failed with another checked exception
+     */
+    public V get(K key) {
+        Expiring<V> cached = cache.get(key);
+        if (cached != null && !cached.isExpired(System.nanoTime())) {
+            return cached.value;
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            cached = cache.get(key); // Another caller may have completed a load in the meantime
+            if (cached != null && !cached.isExpired(System.nanoTime())) {
+                future.complete(cached.value);
+                return cached.value;
+            }
+            V value = this.load(key, cached);
+            this.store(key, value);
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw propagate(e);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the values of several keys. The keys that are not cached or have expired are passed
+     * to {@link CacheLoader4j#loadAll(Map)} in a single call, except those another caller is
+     * already loading, whose result is awaited instead.
+     *
+     * @param keys the keys whose values are to be returned
+     * @return the values by key; keys without a value are absent
+     * @throws UncheckedIOException  if the loader failed with an {@link IOException}
+     * @throws IllegalStateException if the loader failed with another checked exception
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> result = new HashMap<>();
+        Map<K, V> toLoad = new HashMap<>();
+        Map<K, CompletableFuture<V>> owned = new HashMap<>();
+        Map<K, CompletableFuture<V>> awaited = new HashMap<>();
+        long now = System.nanoTime();
+        for (K key : keys) {
+            if (result.containsKey(key) || owned.containsKey(key) || awaited.containsKey(key)) {
+                continue;
+            }
+            Expiring<V> cached = cache.get(key);
+            if (cached != null && !cached.isExpired(now)) {
+                result.put(key, cached.value);
+                continue;
+            }
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+            if (inFlight != null) {
+                awaited.put(key, inFlight);
+            } else {
+                owned.put(key, future);
+                toLoad.put(key, cached == null ? null : cached.value);
+            }
+        }
+        try {
+            Map<K, V> loaded = toLoad.isEmpty() ? Collections.emptyMap() : this.loadAll(toLoad);
+            for (Map.Entry<K, CompletableFuture<V>> entry : owned.entrySet()) {
+                V value = loaded.get(entry.getKey());
+                this.store(entry.getKey(), value);
+                entry.getValue().complete(value);
+                if (value != null) {
+                    result.put(entry.getKey(), value);
+                }
+            }
+        } catch (Throwable e) {
+            owned.values().forEach(future -> future.completeExceptionally(e));
+            throw propagate(e);
+        } finally {
+            owned.forEach(loading::remove);
+        }
+        for (Map.Entry<K, CompletableFuture<V>> entry : awaited.entrySet()) {
+            V value = join(entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the key from the cache, so that the next read loads it again.
+     *
+     * @param key the key to be invalidated
+     */
+    public void invalidate(K key) {
+        cache.remove(key);
+    }
+
+    /**
+     * Returns the maximum number of cached entries.
+     *
+     * @return the maximum number of cached entries
+     */
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Changes the maximum number of cached entries; see {@link LRUCache4j#setMaximumSize(int)}.
+     *
+     * @param maximumSize the new maximum number of cached entries
+     */
+    public void setMaximumSize(int maximumSize) {
+        cache.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Returns the number of cached entries, including expired ones not yet reloaded.
+     *
+     * @return the number of cached entries
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    // Calls the loader, recording the duration of the call as a flight recorder event on Java 21
+    private V load(K key, Expiring<V> cached) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            V value = cached == null ? loader.load(key) : loader.reload(key, cached.value);
+            success = true;
+            return value;
+        } finally {
+            CacheEvents4j.loaded(cache.getName(), 1, System.nanoTime() - start, success);
+        }
+    }
+
+    private Map<K, V> loadAll(Map<K, V> keys) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Map<K, V> values = loader.loadAll(keys);
+            success = true;
+            return values;
+        } finally {
+            CacheEvents4j.loaded(cache.getName(), keys.size(), System.nanoTime() - start, success);
+        }
+    }
+
+    private void store(K key, V value) {
+        if (value == null) {
+            cache.remove(key);
+        } else {
+            cache.put(key, new Expiring<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e instanceof IOException) {
+            return new UncheckedIOException((IOException) e);
+        }
+        return new IllegalStateException(e);
+    }
+}
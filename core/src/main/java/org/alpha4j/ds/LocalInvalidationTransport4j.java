@@ -0,0 +1,93 @@
+package org.alpha4j.ds;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An in-process {@link InvalidationTransport4j}: every transport joined to the same
+ * {@link Group} receives the invalidations broadcast by the others, synchronously on the
+ * broadcasting thread. It is meant for tests and for several near-caches within one JVM.
+ */
+public class LocalInvalidationTransport4j implements InvalidationTransport4j {
+
+    /**
+     * A set of transports exchanging invalidations with each other.
+     */
+    public static class Group {
+        protected final List<LocalInvalidationTransport4j> members = new CopyOnWriteArrayList<>();
+
+        /**
+         * Creates a new transport that is a member of this group.
+         *
+         * @return a new transport of this group
+         */
+        public LocalInvalidationTransport4j join() {
+            return new LocalInvalidationTransport4j(this);
+        }
+    }
+
+    protected final Group group; // The group this transport exchanges invalidations with
+    protected volatile Listener listener; // Set by start()
+    protected volatile boolean connected = true; // Whether invalidations reach this transport
+    protected volatile boolean missed; // Whether a broadcast was dropped while disconnected
+
+    protected LocalInvalidationTransport4j(Group group) {
+        this.group = group;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        group.members.add(this);
+    }
+
+    @Override
+    public void broadcast(Collection<String> keys) {
+        if (!connected) {
+            missed = true; // The peers clear themselves on reconnect()
+            return;
+        }
+        List<String> batch = new ArrayList<>(keys);
+        for (LocalInvalidationTransport4j member : group.members) {
+            if (member != this && member.connected) {
+                member.listener.onInvalidate(batch);
+            }
+        }
+    }
+
+    /**
+     * Simulates a network partition: until {@link #reconnect()} is called this transport neither
+     * sends nor receives invalidations.
+     */
+    public void disconnect() {
+        connected = false;
+    }
+
+    /**
+     * Ends a simulated network partition and notifies the listener of the reconnection. If this
+     * transport dropped broadcasts while disconnected, the connected peers are notified as well,
+     * since they missed those invalidations.
+     */
+    public void reconnect() {
+        connected = true;
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.onReconnect();
+        }
+        if (missed) {
+            missed = false;
+            for (LocalInvalidationTransport4j member : group.members) {
+                if (member != this && member.connected) {
+                    member.listener.onReconnect();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        group.members.remove(this);
+    }
+}
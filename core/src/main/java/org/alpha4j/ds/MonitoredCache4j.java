@@ -0,0 +1,28 @@
+package org.alpha4j.ds;
+
+/**
+ * A cache reporting its size and statistics, which {@link CacheEvents4j} samples periodically
+ * while a flight recording is running.
+ */
+public interface MonitoredCache4j {
+    /**
+     * Returns the name identifying the cache in the recorded events.
+     *
+     * @return the name of the cache
+     */
+    String getName();
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    int size();
+
+    /**
+     * Returns the hit, miss and eviction counters of the cache.
+     *
+     * @return the statistics of the cache
+     */
+    CacheStats4j stats();
+}
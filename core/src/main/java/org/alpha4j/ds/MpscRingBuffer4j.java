@@ -0,0 +1,75 @@
+package org.alpha4j.ds;
+
+/**
+ * A bounded, lock-free ring buffer for many producer threads and a single consumer thread, such as
+ * a write buffer that every writer appends to and the maintenance of a cache drains.
+ * <p>
+ * Producers claim a slot with a compare-and-set of the producer index, then publish the element
+ * into it. They only read the consumer index when they reach the last limit they saw, so producers
+ * and the consumer rarely touch each other's cache lines. {@link #poll()} and {@link #drain} may
+ * be called by one thread at a time only.
+ *
+ * @param <E> the type of elements held in the buffer
+ */
+public class MpscRingBuffer4j<E> extends RingBuffer4j<E> {
+
+    /**
+     * Constructor that rounds the capacity up to the next power of two.
+     *
+     * @param capacity the minimum number of elements the buffer can hold
+     * @throws IllegalArgumentException if the capacity is not positive or exceeds 2^30
+     */
+    public MpscRingBuffer4j(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Adds the element unless the buffer is full. Safe to call from any number of threads.
+     *
+     * @param element the element to be added
+     * @return true if the element was added, false if the buffer is full
+     * @throws IllegalArgumentException if the element is null
+     */
+    @Override
+    public boolean offer(E element) {
+        checkElement(element);
+        long limit = producerLimit;
+        long index;
+        do {
+            index = producerIndex;
+            if (index >= limit) {
+                limit = consumerIndex + mask + 1;
+                if (index >= limit) {
+                    return false;
+                }
+                producerLimit = limit; // Racy but harmless: a stale limit only causes another read
+            }
+        } while (!PRODUCER_INDEX.compareAndSet(this, index, index + 1));
+        buffer.lazySet(this.offset(index), element);
+        return true;
+    }
+
+    /**
+     * Removes the next element. When a producer has claimed the next slot but not yet written it,
+     * waits for the write, which is a few instructions away.
+     *
+     * @return the next element, or null if the buffer is empty
+     */
+    @Override
+    public E poll() {
+        long index = consumerIndex;
+        int offset = this.offset(index);
+        E element = buffer.get(offset);
+        if (element == null) {
+            if (index == producerIndex) {
+                return null;
+            }
+            do {
+                element = buffer.get(offset);
+            } while (element == null);
+        }
+        buffer.lazySet(offset, null);
+        CONSUMER_INDEX.lazySet(this, index + 1);
+        return element;
+    }
+}
@@ -0,0 +1,524 @@
+package org.alpha4j.ds;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A cache shared by several tenants under one global weight budget, instead of one cache per
+ * tenant: memory left unused by idle tenants goes to busy ones, while quotas keep a busy tenant
+ * from evicting the working set of the others.
+ * <p>
+ * Every tenant keeps its entries in least recently used order and has a minimum and a maximum
+ * weight, 0 and unbounded by default. Its fair share is the budget divided by the number of
+ * tenants, raised to its minimum and capped by its maximum. When the cache exceeds its budget, the
+ * victims are the least recently used entries of the tenants above their fair share, taken from
+ * each such tenant in turn; only when none is above its share are they taken, in turn, from the
+ * tenants above their minimum. A tenant never holds more than its maximum. Both sets of tenants
+ * are kept up to date on every write, so an eviction takes O(1).
+ * <p>
+ * Tenants are registered by their first write or by {@link #setQuota}; reads never register a
+ * tenant, so looking up arbitrary tenants does not dilute the fair shares. Hits, misses and
+ * evictions are counted globally in {@link #stats()} and per tenant in {@link #stats(Object)}; a
+ * read of an unregistered tenant counts as a miss in the global statistics only. Tenants, keys
+ * and values must not be null.
+ *
+ * @param <T> the type of tenants
+ * @param <K> the type of keys maintained by each tenant
+ * @param <V> the type of mapped values
+ */
+public class MultiTenantCache4j<T, K, V> implements MonitoredCache4j {
+
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Map<T, Tenant<K, V>> tenants = new HashMap<>(); // Tenant to its partition
+    protected final Set<Tenant<K, V>> overShare = new LinkedHashSet<>(); // Tenants above their fair share, in eviction turn order
+    protected final Set<Tenant<K, V>> overMinimum = new LinkedHashSet<>(); // Tenants above their minimum, in eviction turn order
+    protected long weight; // Total weight of the entries
+    protected long maximumWeight; // Global budget
+    protected long reserved; // Sum of the minimums of the tenants
+    protected int size; // Number of entries
+    protected final CacheStats4j stats = new CacheStats4j(); // Hit, miss and eviction counters of all tenants
+    protected volatile String name = getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(this)); // Identifies the cache in the recorded events
+
+    /**
+     * The partition of a tenant.
+     */
+    protected static final class Tenant<K, V> {
+        final Map<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first
+        final CacheStats4j stats = new CacheStats4j();
+        long weight;
+        long minimum;
+        long maximum;
+        long share; // Fair share, between the minimum and the maximum
+
+        Tenant(long maximum) {
+            this.maximum = maximum;
+        }
+    }
+
+    /**
+     * A value with its weight.
+     */
+    protected static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Constructor for a cache whose entries weigh at most the given budget in total.
+     *
+     * @param maximumWeight the global budget shared by all tenants
+     * @throws IllegalArgumentException if the maximum weight is negative
+     */
+    public MultiTenantCache4j(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+        CacheEvents4j.register(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Changes the name identifying the cache in the recorded events.
+     *
+     * @param name the name of the cache
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public CacheStats4j stats() {
+        return stats;
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of a tenant.
+     *
+     * @param tenant the tenant
+     * @return the statistics of the tenant
+     * @throws IllegalArgumentException if the tenant is not registered
+     */
+    public CacheStats4j stats(T tenant) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return this.registered(tenant).stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the minimum and maximum weight of a tenant, registering it if needed. The minimum is
+     * never evicted to make room for other tenants, and the tenant evicts its own entries beyond
+     * its maximum.
+     *
+     * @param tenant  the tenant
+     * @param minimum the weight reserved for the tenant
+     * @param maximum the weight the tenant may use at most
+     * @throws IllegalArgumentException if the minimum is negative, the maximum is below the minimum,
+     *                                  or the minimums of all tenants would exceed the global budget
+     */
+    public void setQuota(T tenant, long minimum, long maximum) {
+        if (minimum < 0 || maximum < minimum) {
+            throw new IllegalArgumentException("minimum must not be negative nor above maximum");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = this.tenant(tenant);
+            if (reserved - partition.minimum + minimum > maximumWeight) {
+                throw new IllegalArgumentException("The minimums of the tenants exceed the maximum weight");
+            }
+            reserved += minimum - partition.minimum;
+            partition.minimum = minimum;
+            partition.maximum = maximum;
+            this.rebalance();
+            this.trim(partition);
+            this.trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the value associated with the key for the tenant. An unregistered tenant is not
+     * registered, and the miss is only counted in the global statistics.
+     *
+     * @param tenant the tenant
+     * @param key    the key whose associated value is to be returned
+     * @return the value associated with the key, or null if the key is not found
+     */
+    public V get(T tenant, K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = tenants.get(tenant);
+            Entry<V> entry = partition == null ? null : partition.entries.get(key);
+            if (entry == null) {
+                stats.recordMiss();
+                if (partition != null) {
+                    partition.stats.recordMiss();
+                }
+                return null;
+            }
+            stats.recordHit();
+            partition.stats.recordHit();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Associates the value with the key for the tenant, at a weight of 1.
+     *
+     * @param tenant the tenant
+     * @param key    the key with which the value is to be associated
+     * @param value  the value to be associated with the key
+     * @return the previous value associated with the key, or null
+     */
+    public V put(T tenant, K key, V value) {
+        return this.put(tenant, key, value, 1);
+    }
+
+    /**
+     * Associates the value with the key for the tenant, then evicts until the tenant fits its
+     * maximum and the cache fits its budget. A value weighing more than the maximum of the tenant
+     * or the global budget is not cached, and removes any previous value of the key.
+     *
+     * @param tenant the tenant
+     * @param key    the key with which the value is to be associated
+     * @param value  the value to be associated with the key
+     * @param weight the weight of the value, in the unit of the maximum weight
+     * @return the previous value associated with the key, or null
+     * @throws IllegalArgumentException if the tenant, key or value is null, or the weight is negative
+     */
+    public V put(T tenant, K key, V value, long weight) {
+        if (tenant == null || key == null || value == null || weight < 0) {
+            throw new IllegalArgumentException("tenant, key and value must not be null, weight must not be negative");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = this.tenant(tenant);
+            Entry<V> previous;
+            if (weight > Math.min(partition.maximum, maximumWeight)) {
+                previous = partition.entries.remove(key);
+            } else {
+                previous = partition.entries.put(key, new Entry<>(value, weight));
+                this.add(partition, weight, 1);
+            }
+            if (previous != null) {
+                this.add(partition, -previous.weight, -1);
+            }
+            this.trim(partition);
+            this.trim();
+            return previous == null ? null : previous.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the key of the tenant, if present.
+     *
+     * @param tenant the tenant
+     * @param key    the key whose mapping is to be removed
+     * @return the value that was associated with the key, or null if the key was not found
+     */
+    public V remove(T tenant, K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = tenants.get(tenant);
+            Entry<V> entry = partition == null ? null : partition.entries.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            this.add(partition, -entry.weight, -1);
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a tenant with all its entries and its quota.
+     *
+     * @param tenant the tenant to be removed
+     */
+    public void removeTenant(T tenant) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = tenants.remove(tenant);
+            if (partition != null) {
+                weight -= partition.weight;
+                size -= partition.entries.size();
+                reserved -= partition.minimum;
+                overShare.remove(partition);
+                overMinimum.remove(partition);
+                this.rebalance();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the tenant holds the key, without recording a hit or changing the eviction
+     * order.
+     *
+     * @param tenant the tenant
+     * @param key    the key whose presence is to be tested
+     * @return true if the tenant holds a mapping for the key, otherwise false
+     */
+    public boolean containsKey(T tenant, K key) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = tenants.get(tenant);
+            return partition != null && partition.entries.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the registered tenants.
+     *
+     * @return a copy of the set of tenants
+     */
+    public Set<T> tenants() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return new HashSet<>(tenants.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries of all tenants.
+     *
+     * @return the number of entries in the cache
+     */
+    @Override
+    public int size() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries of a tenant.
+     *
+     * @param tenant the tenant
+     * @return the number of entries of the tenant, 0 if the tenant is not registered
+     */
+    public int size(T tenant) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = tenants.get(tenant);
+            return partition == null ? 0 : partition.entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total weight of the entries of all tenants.
+     *
+     * @return the weight of the cache
+     */
+    public long weight() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total weight of the entries of a tenant.
+     *
+     * @param tenant the tenant
+     * @return the weight of the tenant, 0 if the tenant is not registered
+     */
+    public long weight(T tenant) {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            Tenant<K, V> partition = tenants.get(tenant);
+            return partition == null ? 0 : partition.weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the global budget shared by all tenants.
+     *
+     * @return the maximum weight
+     */
+    public long getMaximumWeight() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            return maximumWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the global budget shared by all tenants. When the cache shrinks, the evictions are
+     * spread over this call and the later writes, {@link CacheMaintenance4j#EVICTION_BATCH} at a
+     * time.
+     *
+     * @param maximumWeight the new maximum weight
+     * @throws IllegalArgumentException if the maximum weight is negative or below the minimums of
+     *                                  the tenants
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must not be negative");
+        }
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            if (maximumWeight < reserved) {
+                throw new IllegalArgumentException("The minimums of the tenants exceed the maximum weight");
+            }
+            this.maximumWeight = maximumWeight;
+            this.rebalance();
+            this.trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entries of all tenants, keeping the tenants and their quotas.
+     */
+    public void clear() {
+        try {
+            CacheEvents4j.lock(lock, name, "exclusive");
+            for (Tenant<K, V> partition : tenants.values()) {
+                partition.entries.clear();
+                partition.weight = 0;
+            }
+            overShare.clear();
+            overMinimum.clear();
+            weight = 0;
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} entries while the cache exceeds its
+     * budget, taking the least recently used entry of the next tenant above its fair share, or else
+     * of the next tenant above its minimum. Must be called with the lock held.
+     */
+    protected void trim() {
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && weight > maximumWeight; evicted++) {
+            Set<Tenant<K, V>> candidates = overShare.isEmpty() ? overMinimum : overShare;
+            if (candidates.isEmpty()) {
+                return;
+            }
+            // Move the tenant to the end of its set, so that the tenants take turns
+            Tenant<K, V> victim = candidates.iterator().next();
+            candidates.remove(victim);
+            candidates.add(victim);
+            this.evict(victim);
+        }
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} of the least recently used entries of
+     * a tenant while it exceeds its maximum. Must be called with the lock held.
+     *
+     * @param partition the tenant to be trimmed
+     */
+    protected void trim(Tenant<K, V> partition) {
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && partition.weight > partition.maximum; evicted++) {
+            this.evict(partition);
+        }
+    }
+
+    /**
+     * Recomputes the fair share of every tenant after the tenants, their quotas or the budget
+     * changed. Must be called with the lock held.
+     */
+    protected void rebalance() {
+        long even = tenants.isEmpty() ? maximumWeight : maximumWeight / tenants.size();
+        for (Tenant<K, V> partition : tenants.values()) {
+            partition.share = Math.max(partition.minimum, Math.min(partition.maximum, even));
+            this.classify(partition);
+        }
+    }
+
+    private Tenant<K, V> tenant(T tenant) {
+        Tenant<K, V> partition = tenants.get(tenant);
+        if (partition == null) {
+            if (tenant == null) {
+                throw new IllegalArgumentException("tenant must not be null");
+            }
+            partition = new Tenant<>(Long.MAX_VALUE);
+            tenants.put(tenant, partition);
+            this.rebalance();
+        }
+        return partition;
+    }
+
+    private Tenant<K, V> registered(T tenant) {
+        Tenant<K, V> partition = tenants.get(tenant);
+        if (partition == null) {
+            throw new IllegalArgumentException("No tenant registered: " + tenant);
+        }
+        return partition;
+    }
+
+    private void evict(Tenant<K, V> partition) {
+        Iterator<Map.Entry<K, Entry<V>>> eldest = partition.entries.entrySet().iterator();
+        if (!eldest.hasNext()) {
+            overShare.remove(partition);
+            overMinimum.remove(partition);
+            return;
+        }
+        Map.Entry<K, Entry<V>> victim = eldest.next();
+        eldest.remove();
+        this.add(partition, -victim.getValue().weight, -1);
+        stats.recordEviction();
+        partition.stats.recordEviction();
+        CacheEvents4j.evicted(name, victim.getKey(), RemovalCause4j.SIZE);
+    }
+
+    private void add(Tenant<K, V> partition, long weight, int count) {
+        partition.weight += weight;
+        this.weight += weight;
+        this.size += count;
+        this.classify(partition);
+    }
+
+    private void classify(Tenant<K, V> partition) {
+        // Adding a tenant already present keeps its turn
+        if (partition.weight > partition.share) {
+            overShare.add(partition);
+        } else {
+            overShare.remove(partition);
+        }
+        if (partition.weight > partition.minimum) {
+            overMinimum.add(partition);
+        } else {
+            overMinimum.remove(partition);
+        }
+    }
+}
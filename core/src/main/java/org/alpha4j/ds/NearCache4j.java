@@ -0,0 +1,210 @@
+package org.alpha4j.ds;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A near-cache: a node-local {@link LRUCache4j} whose writes and explicit invalidations are
+ * broadcast to the other nodes of a cluster, which then drop their own copy of the key.
+ * <p>
+ * Invalidations are not sent one by one. They are collected in a set, so repeated writes to the
+ * same key coalesce into a single invalidation, and flushed in batches either periodically or as
+ * soon as a batch is full. Invalidations received from peers are applied to the local cache only
+ * and are never forwarded. When the transport reports a reconnection, invalidations may have been
+ * lost, so the whole local cache is cleared.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class NearCache4j<K, V> implements AutoCloseable {
+    protected static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    protected static final int DEFAULT_MAX_BATCH = 512;
+
+    protected final LRUCache4j<K, V> cache; // The node-local cache
+    protected final InvalidationTransport4j transport; // Carries invalidations between the nodes
+    protected final Function<? super K, String> keyEncoder; // Converts keys into their wire form
+    protected final Function<String, ? extends K> keyDecoder; // Converts the wire form back into keys
+    protected final int maxBatch; // Maximum number of keys per broadcast
+    protected final Set<String> pending = ConcurrentHashMap.newKeySet(); // Coalesced keys awaiting broadcast
+    protected final ScheduledExecutorService flusher;
+    protected final ReentrantLock flushLock = new ReentrantLock(); // Held while broadcasting, which may block on I/O
+
+    /**
+     * Creates a near-cache with string keys, flushing every 10 milliseconds or every 512 distinct
+     * keys.
+     *
+     * @param capacity  the maximum number of entries the local cache can hold
+     * @param transport the transport connecting this node to its peers
+     * @param <V>       the type of mapped values
+     * @return a started near-cache
+     * @throws IOException if the transport cannot be started
+     */
+    public static <V> NearCache4j<String, V> of(int capacity, InvalidationTransport4j transport) throws IOException {
+        return new NearCache4j<>(new LRUCache4j<>(capacity), transport, Function.identity(), Function.identity(),
+                DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Constructor that wraps the given cache and starts the transport.
+     *
+     * @param cache               the node-local cache
+     * @param transport           the transport connecting this node to its peers
+     * @param keyEncoder          the function converting keys into their wire form
+     * @param keyDecoder          the function converting the wire form back into keys
+     * @param flushIntervalMillis the maximum time an invalidation waits before being broadcast
+     * @param maxBatch            the maximum number of keys per broadcast
+     * @throws IOException if the transport cannot be started
+     */
+    public NearCache4j(LRUCache4j<K, V> cache, InvalidationTransport4j transport,
+                       Function<? super K, String> keyEncoder, Function<String, ? extends K> keyDecoder,
+                       long flushIntervalMillis, int maxBatch) throws IOException {
+        this.cache = cache;
+        this.transport = transport;
+        this.keyEncoder = keyEncoder;
+        this.keyDecoder = keyDecoder;
+        this.maxBatch = maxBatch;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "near-cache-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.start(new InvalidationTransport4j.Listener() {
+            @Override
+            public void onInvalidate(Collection<String> keys) {
+                for (String key : keys) {
+                    cache.remove(keyDecoder.apply(key));
+                }
+            }
+
+            @Override
+            public void onReconnect() {
+                cache.clear();
+            }
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the locally cached value for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null} if the key is not cached on this node
+     */
+    public V get(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Caches a value that was loaded from the source of truth, without notifying the peers.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value loaded for the key
+     * @return the previous value associated with the key, or {@code null}
+     */
+    public V putLocal(K key, V value) {
+        return cache.put(key, value);
+    }
+
+    /**
+     * Caches a value that was changed by this node and invalidates the key on every peer.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the new value of the key
+     * @return the previous value associated with the key, or {@code null}
+     */
+    public V put(K key, V value) {
+        V previous = cache.put(key, value);
+        this.enqueue(key);
+        return previous;
+    }
+
+    /**
+     * Removes the key from this node and invalidates it on every peer.
+     *
+     * @param key the key to be invalidated
+     * @return the value that was cached on this node, or {@code null}
+     */
+    public V invalidate(K key) {
+        V previous = cache.remove(key);
+        this.enqueue(key);
+        return previous;
+    }
+
+    /**
+     * Returns the maximum number of entries cached on this node.
+     *
+     * @return the maximum number of entries cached on this node
+     */
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Changes the maximum number of entries cached on this node; see {@link LRUCache4j#setMaximumSize(int)}.
+     *
+     * @param maximumSize the new maximum number of entries cached on this node
+     */
+    public void setMaximumSize(int maximumSize) {
+        cache.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Returns the number of entries cached on this node.
+     *
+     * @return the number of entries cached on this node
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Broadcasts the pending invalidations now, in batches of at most {@code maxBatch} keys.
+     */
+    public void flush() {
+        try {
+            flushLock.lock();
+            while (!pending.isEmpty()) {
+                List<String> batch = new ArrayList<>(Math.min(maxBatch, pending.size()));
+                Iterator<String> it = pending.iterator();
+                while (batch.size() < maxBatch && it.hasNext()) {
+                    batch.add(it.next());
+                    it.remove();
+                }
+                transport.broadcast(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the pending invalidations and closes the transport.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+        transport.close();
+    }
+
+    private void enqueue(K key) {
+        if (pending.add(keyEncoder.apply(key)) && pending.size() >= maxBatch && !flusher.isShutdown()) {
+            flusher.execute(this::flush);
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package org.alpha4j.ds;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link InvalidationTransport4j} exchanging invalidations with peer nodes over TCP. Each node
+ * listens on a server socket served by a single NIO selector thread and sends to every peer
+ * over one outbound connection.
+ * <p>
+ * A batch travels as one frame: the payload length, the number of keys, then every key as a
+ * length-prefixed UTF-8 string. Since batches sent while a connection was down are lost, every
+ * accepted inbound connection is reported as {@link Listener#onReconnect()}, which makes the
+ * receiving near-cache drop its entries.
+ * <p>
+ * A peer that missed a batch is reconnected by the selector thread, without waiting for the next
+ * broadcast, so that it clears itself as soon as it is reachable again. Failed attempts back off
+ * per peer, from 100 ms doubling up to 30 seconds; meanwhile broadcasts skip the peer instead of
+ * blocking on a connect.
+ */
+public class NioInvalidationTransport4j implements InvalidationTransport4j {
+    protected static final int MAX_FRAME_BYTES = 16 * 1024 * 1024; // Larger frames are treated as corrupt
+    protected static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    protected static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100); // Delay after the first failed attempt
+    protected static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30); // Upper bound of the doubled delay
+    protected static final int MAX_PENDING_FRAMES = 1024; // Batches kept for a peer while it is being reconnected
+    protected static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    protected final InetSocketAddress bindAddress; // Address the server socket is bound to
+    protected final List<InetSocketAddress> peers = new CopyOnWriteArrayList<>(); // Addresses of the peer nodes
+    protected final Map<InetSocketAddress, SocketChannel> outbound = new ConcurrentHashMap<>(); // Connected peers
+    protected final Map<InetSocketAddress, Backoff> backoffs = new ConcurrentHashMap<>(); // Peers that missed a batch, until reconnected
+    protected final List<SelectionKey> established = new ArrayList<>(); // Connected by the selector thread, handed over after the next select
+    protected final ReentrantLock sendLock = new ReentrantLock(); // Serializes broadcasts without pinning virtual threads
+    protected volatile Listener listener;
+    protected volatile boolean running;
+    protected ServerSocketChannel server;
+    protected Selector selector;
+    protected Thread thread;
+
+    /**
+     * Constructor that listens on the given address once started.
+     *
+     * @param bindAddress the address to listen on; port 0 picks an ephemeral port
+     */
+    public NioInvalidationTransport4j(InetSocketAddress bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Creates a transport listening on an ephemeral port of the loopback interface.
+     *
+     * @return a new transport bound to the loopback interface
+     */
+    public static NioInvalidationTransport4j loopback() {
+        return new NioInvalidationTransport4j(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Adds a peer node that invalidations are sent to.
+     *
+     * @param peer the address the peer listens on
+     * @return {@code this} instance for method chaining
+     */
+    public NioInvalidationTransport4j addPeer(InetSocketAddress peer) {
+        peers.add(peer);
+        return this;
+    }
+
+    /**
+     * Removes a peer node, closing the connection to it.
+     *
+     * @param peer the address the peer listens on
+     * @return {@code this} instance for method chaining
+     */
+    public NioInvalidationTransport4j removePeer(InetSocketAddress peer) {
+        peers.remove(peer);
+        backoffs.remove(peer);
+        closeQuietly(outbound.remove(peer));
+        return this;
+    }
+
+    /**
+     * Returns the address this transport listens on.
+     *
+     * @return the bound address, with the actual port once started
+     */
+    public InetSocketAddress localAddress() {
+        try {
+            return server == null ? bindAddress : (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            return bindAddress;
+        }
+    }
+
+    @Override
+    public synchronized void start(Listener listener) throws IOException {
+        if (running) {
+            throw new IllegalStateException("Transport already started");
+        }
+        this.listener = listener;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(bindAddress);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::serve, "near-cache-transport-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void broadcast(Collection<String> keys) {
+        if (!running || keys.isEmpty()) {
+            return;
+        }
+        ByteBuffer frame = encode(keys);
+        try {
+            sendLock.lock();
+            this.send(frame);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void send(ByteBuffer frame) {
+        for (InetSocketAddress peer : peers) {
+            SocketChannel channel = outbound.get(peer);
+            try {
+                if (channel == null) {
+                    Backoff backoff = backoffs.get(peer);
+                    if (backoff != null && !backoff.start(System.nanoTime())) {
+                        backoff.skipped(frame); // Backing off, or being reconnected by the selector thread
+                        continue;
+                    }
+                    try {
+                        channel = SocketChannel.open();
+                        channel.socket().connect(peer, CONNECT_TIMEOUT_MILLIS);
+                        channel.socket().setTcpNoDelay(true);
+                    } catch (IOException e) {
+                        closeQuietly(channel);
+                        this.backoff(peer).failed(System.nanoTime());
+                        selector.wakeup(); // Schedules the next attempt
+                        continue;
+                    }
+                    outbound.put(peer, channel);
+                    backoffs.remove(peer);
+                }
+                ByteBuffer buffer = frame.duplicate();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // The peer misses this batch; it clears itself when the next connection is accepted
+                closeQuietly(outbound.remove(peer));
+                this.backoff(peer);
+                selector.wakeup(); // Reconnects right away
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = this.thread;
+            selector.wakeup();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SocketChannel channel : outbound.values()) {
+            closeQuietly(channel);
+        }
+        outbound.clear();
+    }
+
+    /**
+     * The selector loop accepting peer connections and decoding the frames they send.
+     */
+    protected void serve() {
+        try {
+            while (running) {
+                this.reconnect();
+                selector.select(this.nextRetryMillis());
+                this.handOver();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        this.accept();
+                    } else if (key.isConnectable()) {
+                        this.connect(key);
+                    } else if (key.isReadable()) {
+                        this.read(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            running = false;
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            for (SelectionKey key : established) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    // Starts a non-blocking connect to every peer that missed a batch and whose delay has elapsed
+    private void reconnect() {
+        long now = System.nanoTime();
+        for (Map.Entry<InetSocketAddress, Backoff> entry : backoffs.entrySet()) {
+            InetSocketAddress peer = entry.getKey();
+            if (!peers.contains(peer) || outbound.containsKey(peer)) {
+                backoffs.remove(peer); // Removed, or reconnected by a broadcast
+            } else if (entry.getValue().start(now)) {
+                SocketChannel channel = null;
+                try {
+                    channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    channel.connect(peer);
+                    channel.register(selector, SelectionKey.OP_CONNECT, peer);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                    entry.getValue().failed(now);
+                }
+            }
+        }
+    }
+
+    // Completes a connect started by reconnect(); the channel is switched to blocking mode by
+    // handOver() once the next select has deregistered it
+    private void connect(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            channel.finishConnect();
+            key.cancel();
+            established.add(key);
+            selector.wakeup();
+        } catch (IOException e) {
+            key.cancel();
+            closeQuietly(channel);
+            Backoff backoff = backoffs.get((InetSocketAddress) key.attachment());
+            if (backoff != null) {
+                backoff.failed(System.nanoTime());
+            }
+        }
+    }
+
+    // Hands the channels connected by the selector thread over to the senders, after resending
+    // the batches skipped while connecting, which the peer may have missed after clearing itself
+    private void handOver() {
+        if (established.isEmpty()) {
+            return;
+        }
+        try {
+            sendLock.lock();
+            for (SelectionKey key : established) {
+                SocketChannel channel = (SocketChannel) key.channel();
+                InetSocketAddress peer = (InetSocketAddress) key.attachment();
+                Backoff backoff = backoffs.remove(peer);
+                try {
+                    channel.configureBlocking(true);
+                    channel.socket().setTcpNoDelay(true);
+                    if (!peers.contains(peer) || outbound.containsKey(peer)) {
+                        closeQuietly(channel); // Removed meanwhile
+                        continue;
+                    }
+                    if (backoff != null && backoff.overflow) {
+                        throw new IOException("Too many batches skipped while connecting"); // Reconnect, so that the peer clears again
+                    }
+                    for (ByteBuffer frame : backoff == null ? Collections.<ByteBuffer>emptyList() : backoff.pending) {
+                        ByteBuffer buffer = frame.duplicate();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                    }
+                    outbound.put(peer, channel);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                    Backoff retry = backoff == null ? new Backoff() : backoff;
+                    retry.failed(System.nanoTime());
+                    backoffs.put(peer, retry);
+                }
+            }
+        } finally {
+            sendLock.unlock();
+        }
+        established.clear();
+    }
+
+    // Milliseconds until the next reconnection is due, 0 to wait for the next event only
+    private long nextRetryMillis() {
+        long now = System.nanoTime();
+        long next = Long.MAX_VALUE;
+        for (Backoff backoff : backoffs.values()) {
+            next = Math.min(next, backoff.delayUntil(now));
+        }
+        return next == Long.MAX_VALUE ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(next));
+    }
+
+    private Backoff backoff(InetSocketAddress peer) {
+        return backoffs.computeIfAbsent(peer, k -> new Backoff());
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(4096));
+        listener.onReconnect();
+    }
+
+    private void read(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        try {
+            if (channel.read(buffer) < 0) {
+                key.cancel();
+                closeQuietly(channel);
+                return;
+            }
+            buffer.flip();
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt(buffer.position());
+                if (length < Integer.BYTES || length > MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    break;
+                }
+                buffer.getInt();
+                ByteBuffer frame = buffer.slice();
+                frame.limit(length);
+                buffer.position(buffer.position() + length);
+                listener.onInvalidate(decode(frame));
+            }
+            buffer.compact();
+            if (!buffer.hasRemaining()) { // A frame larger than the buffer is pending
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_FRAME_BYTES + Integer.BYTES));
+                buffer.flip();
+                larger.put(buffer);
+                key.attach(larger);
+            }
+        } catch (IOException | RuntimeException e) {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+
+    private static ByteBuffer encode(Collection<String> keys) {
+        List<byte[]> encoded = new ArrayList<>(keys.size());
+        int length = Integer.BYTES;
+        for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            length += Integer.BYTES + bytes.length;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+        frame.putInt(length).putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            frame.putInt(bytes.length).put(bytes);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Decodes the keys of a frame, checking every count and length against the bytes of the frame
+     * so that a corrupt frame neither reads into the next one nor allocates more than its size.
+     *
+     * @param frame the payload of one frame, without its length
+     * @return the keys of the frame
+     * @throws IOException if the frame is corrupt
+     */
+    private static List<String> decode(ByteBuffer frame) throws IOException {
+        int count = frame.getInt();
+        if (count < 0 || count > frame.remaining() / Integer.BYTES) { // Every key takes at least its length
+            throw new IOException("Corrupt frame of " + count + " keys");
+        }
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = frame.remaining() < Integer.BYTES ? -1 : frame.getInt();
+            if (length < 0 || length > frame.remaining()) {
+                throw new IOException("Corrupt frame, key " + i + " overruns it");
+            }
+            byte[] bytes = new byte[length];
+            frame.get(bytes);
+            keys.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        if (frame.hasRemaining()) {
+            throw new IOException("Corrupt frame, " + frame.remaining() + " bytes follow the keys");
+        }
+        return keys;
+    }
+
+    /**
+     * The reconnection state of a peer that missed a batch, shared by the senders and the
+     * selector thread.
+     */
+    protected static final class Backoff {
+        protected long delayNanos = MIN_BACKOFF_NANOS; // Delay after the next failed attempt
+        protected long retryAt = System.nanoTime(); // Time of the next attempt, per System.nanoTime()
+        protected boolean connecting; // Whether an attempt is in flight
+        protected final List<ByteBuffer> pending = new ArrayList<>(); // Batches skipped while connecting, resent once connected
+        protected boolean overflow; // Whether more than MAX_PENDING_FRAMES batches were skipped while connecting
+
+        // Claims the next attempt, if it is due and no other attempt is in flight
+        synchronized boolean start(long now) {
+            if (connecting || now - retryAt < 0) {
+                return false;
+            }
+            connecting = true;
+            return true;
+        }
+
+        // Keeps a batch skipped while an attempt is in flight. Batches skipped in between attempts
+        // are not needed: the peer clears itself when the next connection is accepted
+        synchronized void skipped(ByteBuffer frame) {
+            if (!connecting) {
+                return;
+            }
+            if (pending.size() < MAX_PENDING_FRAMES) {
+                pending.add(frame);
+            } else {
+                overflow = true;
+            }
+        }
+
+        synchronized void failed(long now) {
+            connecting = false;
+            pending.clear();
+            overflow = false;
+            retryAt = now + delayNanos;
+            delayNanos = Math.min(delayNanos * 2, MAX_BACKOFF_NANOS);
+        }
+
+        // Nanoseconds until the next attempt is due, or Long.MAX_VALUE while one is in flight
+        synchronized long delayUntil(long now) {
+            return connecting ? Long.MAX_VALUE : Math.max(0, retryAt - now);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // Nothing sensible to do, the resource is discarded anyway
+        }
+    }
+}
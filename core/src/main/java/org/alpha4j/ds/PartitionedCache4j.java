@@ -0,0 +1,305 @@
+package org.alpha4j.ds;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A cache partitioned over several {@link Shard4j shards} with a {@link ConsistentHashRing4j}.
+ * Each shard has its own lock and its own capacity, so contention and heap usage are split
+ * across the shards, which may live in this JVM or behind a {@link ShardServer4j}.
+ * <p>
+ * Single-key operations go straight to the owning shard. {@link #getAll(Collection)} groups the
+ * keys by shard and queries the shards in parallel, one batch per shard. When a shard joins or
+ * leaves, the ring is switched first and the entries that changed owner are moved afterwards,
+ * without blocking readers. During the move such a key may briefly read as a miss. Writes and
+ * moves of the same key are serialized by a striped lock: a value written to the new owner in the
+ * meantime is kept, never replaced by the moved value, and a key removed in the meantime is
+ * dropped from the old owner instead of being moved.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class PartitionedCache4j<K, V> implements AutoCloseable {
+    protected final ConsistentHashRing4j<Shard4j<K, V>> ring; // Maps every key to its shard
+    protected final Executor executor; // Runs the per-shard batches of getAll()
+    protected final ReentrantLock membershipLock = new ReentrantLock(); // Serializes shard changes, which may block on I/O
+    protected final ReentrantLock[] stripes = newStripes(); // Serialize the writes and the move of keys sharing a stripe
+    protected volatile Set<Object> removed; // Keys removed while entries are being moved, null otherwise
+
+    /**
+     * Constructor that fans batched reads out on the common fork-join pool.
+     */
+    public PartitionedCache4j() {
+        this(new ConsistentHashRing4j<>(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor that uses the given ring and fans batched reads out on the given executor.
+     *
+     * @param ring     the ring mapping keys to shards, usually empty
+     * @param executor the executor running the per-shard batches of {@link #getAll(Collection)}
+     */
+    public PartitionedCache4j(ConsistentHashRing4j<Shard4j<K, V>> ring, Executor executor) {
+        this.ring = ring;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the value cached for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null} if the key is not cached
+     */
+    public V get(K key) {
+        return this.shardFor(key).get(key);
+    }
+
+    /**
+     * Caches a value for the key in the owning shard.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be cached
+     */
+    public void put(K key, V value) {
+        ReentrantLock stripe = this.stripe(key);
+        stripe.lock();
+        try {
+            Set<Object> removed = this.removed;
+            if (removed != null) {
+                removed.remove(key); // A value written after the removal is moved again
+            }
+            this.shardFor(key).put(key, value);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Removes the key from the owning shard.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was cached, or {@code null}
+     */
+    public V remove(K key) {
+        ReentrantLock stripe = this.stripe(key);
+        stripe.lock();
+        try {
+            Set<Object> removed = this.removed;
+            if (removed != null) {
+                removed.add(key); // The old owner may still hold the key, which must not be moved
+            }
+            return this.shardFor(key).remove(key);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Returns the values cached for several keys, querying every involved shard once and all of
+     * them in parallel.
+     *
+     * @param keys the keys to be looked up
+     * @return the cached values by key; keys that are not cached are absent
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<Shard4j<K, V>, List<K>> batches = new IdentityHashMap<>();
+        for (K key : keys) {
+            batches.computeIfAbsent(this.shardFor(key), shard -> new ArrayList<>()).add(key);
+        }
+        if (batches.size() <= 1) {
+            return batches.isEmpty() ? new HashMap<>() : new HashMap<>(this.fetch(batches.entrySet().iterator().next()));
+        }
+        List<CompletableFuture<Map<K, V>>> futures = new ArrayList<>(batches.size());
+        for (Map.Entry<Shard4j<K, V>, List<K>> batch : batches.entrySet()) {
+            futures.add(CompletableFuture.supplyAsync(() -> this.fetch(batch), executor));
+        }
+        Map<K, V> result = new HashMap<>();
+        for (CompletableFuture<Map<K, V>> future : futures) {
+            result.putAll(future.join());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries held by all shards.
+     *
+     * @return the number of entries held by all shards
+     */
+    public int size() {
+        int size = 0;
+        for (Shard4j<K, V> shard : ring.nodes().values()) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all entries from all shards.
+     */
+    public void clear() {
+        this.lockAll(); // Keeps a move from bringing back an entry that was cleared
+        try {
+            for (Shard4j<K, V> shard : ring.nodes().values()) {
+                shard.clear();
+            }
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    /**
+     * Adds a shard and moves to it the entries it now owns.
+     *
+     * @param id    the id of the shard, which determines its positions on the ring
+     * @param shard the shard to be added
+     * @throws IllegalArgumentException if a shard with that id already exists
+     */
+    public void addShard(String id, Shard4j<K, V> shard) {
+        try {
+            membershipLock.lock();
+            Map<String, Shard4j<K, V>> previous = ring.nodes();
+            if (previous.containsKey(id)) {
+                throw new IllegalArgumentException("Shard already exists: " + id);
+            }
+            removed = ConcurrentHashMap.newKeySet();
+            ring.add(id, shard);
+            for (Shard4j<K, V> owner : previous.values()) {
+                this.migrate(owner, false);
+            }
+        } finally {
+            removed = null;
+            membershipLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a shard and moves its entries to the remaining shards. The removed shard is
+     * emptied but not closed. When the last shard is removed, its entries are dropped.
+     *
+     * @param id the id of the shard to be removed
+     * @return the removed shard, or {@code null} if no shard had that id
+     */
+    public Shard4j<K, V> removeShard(String id) {
+        try {
+            membershipLock.lock();
+            removed = ConcurrentHashMap.newKeySet();
+            Shard4j<K, V> shard = ring.remove(id);
+            if (shard != null) {
+                if (ring.size() > 0) {
+                    this.migrate(shard, true);
+                }
+                shard.clear();
+            }
+            return shard;
+        } finally {
+            removed = null;
+            membershipLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the shards of this cache.
+     *
+     * @return an unmodifiable snapshot of the shards by id
+     */
+    public Map<String, Shard4j<K, V>> shards() {
+        return ring.nodes();
+    }
+
+    /**
+     * Closes every shard.
+     */
+    @Override
+    public void close() {
+        for (Shard4j<K, V> shard : ring.nodes().values()) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Returns the shard owning the key.
+     *
+     * @param key the key to be located
+     * @return the owning shard
+     * @throws IllegalStateException if the cache has no shard
+     */
+    protected Shard4j<K, V> shardFor(K key) {
+        Shard4j<K, V> shard = ring.nodeFor(key);
+        if (shard == null) {
+            throw new IllegalStateException("No shards");
+        }
+        return shard;
+    }
+
+    private Map<K, V> fetch(Map.Entry<Shard4j<K, V>, List<K>> batch) {
+        List<K> keys = batch.getValue();
+        return keys.size() == 1 ? singleton(keys.get(0), batch.getKey().get(keys.get(0))) : batch.getKey().getAll(keys);
+    }
+
+    private static <K, V> Map<K, V> singleton(K key, V value) {
+        return value == null ? Collections.emptyMap() : Collections.singletonMap(key, value);
+    }
+
+    /**
+     * Returns the stripe serializing the writes and the move of the key.
+     *
+     * @param key the key being written or moved
+     * @return the lock of the stripe of the key
+     */
+    protected ReentrantLock stripe(Object key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    // Moves the entries of the shard that the ring now maps elsewhere, one key at a time under its
+    // stripe. Acquiring every stripe first waits for the writes that resolved the owner with the
+    // previous ring, so the shard holds their keys when its entries are collected.
+    private void migrate(Shard4j<K, V> shard, boolean all) {
+        this.lockAll();
+        this.unlockAll();
+        List<K> moving = new ArrayList<>();
+        shard.forEach((key, value) -> {
+            if (all || ring.nodeFor(key) != shard) {
+                moving.add(key);
+            }
+        });
+        Set<Object> removed = this.removed;
+        for (K key : moving) {
+            ReentrantLock stripe = this.stripe(key);
+            stripe.lock();
+            try {
+                V value = shard.remove(key); // The latest value of the old owner
+                if (value != null && !removed.contains(key)) {
+                    this.shardFor(key).putIfAbsent(key, value); // A newer write to the new owner wins
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    private static ReentrantLock[] newStripes() {
+        int n = Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        ReentrantLock[] stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,536 @@
+package org.alpha4j.ds;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A memory-sensitive Least Recently Used (LRU) cache whose keys can be held weakly and whose
+ * values can be held weakly or softly, so that the garbage collector may reclaim entries instead
+ * of the cache pushing the JVM into a full collection or out of memory. Softly held values are
+ * only reclaimed under memory pressure, which makes them the usual choice for a cache that should
+ * shrink when the heap fills up.
+ * <p>
+ * Reclaimed keys and values are queued by the garbage collector on a {@link ReferenceQueue}, which
+ * every operation drains before doing its work: their entries are removed and reported to the
+ * removal listener as {@link RemovalCause4j#COLLECTED}. {@link #cleanUp()} drains the queue
+ * without doing anything else, for caches that sit idle. Entries whose reference was cleared but
+ * not yet queued still count towards {@link #size()}.
+ * <p>
+ * Like {@link java.util.WeakHashMap}, weakly held keys are compared with {@code equals}. Null keys
+ * and values are not supported. All operations take a single lock.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@SuppressWarnings("unchecked")
+public class ReferenceCache4j<K, V> {
+
+    /**
+     * How strongly the cache holds its keys or values.
+     */
+    public enum Strength {
+        /**
+         * Held until removed from the cache.
+         */
+        STRONG,
+        /**
+         * Reclaimed as soon as nothing outside the cache refers to it.
+         */
+        WEAK,
+        /**
+         * Reclaimed when the heap runs short, least recently used first; values only.
+         */
+        SOFT
+    }
+
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Map<Object, ValueReference<V>> map = new LinkedHashMap<>(16, 0.75f, true); // Key or WeakKey to value
+    protected final ReferenceQueue<Object> queue = new ReferenceQueue<>(); // Keys and values reclaimed by the GC
+    protected final Strength keyStrength;
+    protected final Strength valueStrength;
+    protected final RemovalListener4j<? super K, ? super V> listener; // Null when removals are not reported
+    protected final Queue<Removal<K, V>> removals = new ConcurrentLinkedQueue<>(); // Awaiting the listener
+    protected int maximumSize; // Maximum number of entries, guarded by the lock
+
+    /**
+     * The value of an entry, and the map key of that entry so that it can be removed once the
+     * value is reclaimed.
+     */
+    protected interface ValueReference<V> {
+        V get();
+
+        Object mapKey();
+    }
+
+    /**
+     * Creates a cache holding its values softly.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     * @param <K>      the type of keys maintained by the cache
+     * @param <V>      the type of mapped values
+     * @return a new cache
+     */
+    public static <K, V> ReferenceCache4j<K, V> softValues(int capacity) {
+        return new ReferenceCache4j<>(capacity, Strength.STRONG, Strength.SOFT, null);
+    }
+
+    /**
+     * Creates a cache holding its values weakly.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     * @param <K>      the type of keys maintained by the cache
+     * @param <V>      the type of mapped values
+     * @return a new cache
+     */
+    public static <K, V> ReferenceCache4j<K, V> weakValues(int capacity) {
+        return new ReferenceCache4j<>(capacity, Strength.STRONG, Strength.WEAK, null);
+    }
+
+    /**
+     * Creates a cache holding its keys weakly.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     * @param <K>      the type of keys maintained by the cache
+     * @param <V>      the type of mapped values
+     * @return a new cache
+     */
+    public static <K, V> ReferenceCache4j<K, V> weakKeys(int capacity) {
+        return new ReferenceCache4j<>(capacity, Strength.WEAK, Strength.STRONG, null);
+    }
+
+    /**
+     * Constructor that initializes the cache with the given reference strengths.
+     *
+     * @param capacity      the maximum number of entries the cache can hold
+     * @param keyStrength   how the keys are held, {@link Strength#STRONG} or {@link Strength#WEAK}
+     * @param valueStrength how the values are held
+     * @param listener      the listener receiving every removed entry, or null
+     * @throws IllegalArgumentException if the capacity is negative or the keys are to be held softly
+     */
+    public ReferenceCache4j(int capacity, Strength keyStrength, Strength valueStrength,
+                            RemovalListener4j<? super K, ? super V> listener) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        if (keyStrength == null || keyStrength == Strength.SOFT || valueStrength == null) {
+            throw new IllegalArgumentException("keys must be held strongly or weakly");
+        }
+        this.maximumSize = capacity;
+        this.keyStrength = keyStrength;
+        this.valueStrength = valueStrength;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the value associated with the key, counting it as an access.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the key, or null if the key is not found or was reclaimed
+     */
+    public V get(K key) {
+        try {
+            lock.lock();
+            this.drain();
+            ValueReference<V> reference = map.get(this.lookupKey(key));
+            return reference == null ? null : reference.get();
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Associates the value with the key, evicting the least recently used entry when the cache is
+     * full.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be associated with the key
+     * @return the previous value associated with the key, or null
+     * @throws IllegalArgumentException if the key or the value is null
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("key and value must not be null");
+        }
+        try {
+            lock.lock();
+            this.drain();
+            ValueReference<V> previous = map.get(this.lookupKey(key));
+            Object mapKey = previous == null ? this.wrapKey(key) : previous.mapKey();
+            map.put(mapKey, this.wrapValue(value, mapKey));
+            if (previous == null) {
+                this.trim();
+                return null;
+            }
+            V old = previous.get();
+            this.removed(key, old, old == null ? RemovalCause4j.COLLECTED : RemovalCause4j.REPLACED);
+            return old;
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was associated with the key, or null if the key was not found or
+     * its value was reclaimed
+     */
+    public V remove(K key) {
+        try {
+            lock.lock();
+            this.drain();
+            ValueReference<V> reference = map.remove(this.lookupKey(key));
+            if (reference == null) {
+                return null;
+            }
+            V value = reference.get();
+            this.removed(key, value, value == null ? RemovalCause4j.COLLECTED : RemovalCause4j.EXPLICIT);
+            return value;
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Checks whether the cache contains the key, without counting it as an access.
+     *
+     * @param key the key whose presence is to be tested
+     * @return true if the cache contains a mapping for the key, otherwise false
+     */
+    public boolean containsKey(K key) {
+        try {
+            lock.lock();
+            this.drain();
+            return map.containsKey(this.lookupKey(key));
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache, once the reclaimed ones have been removed.
+     *
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        try {
+            lock.lock();
+            this.drain();
+            return map.size();
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Returns the maximum number of entries the cache can hold.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        try {
+            lock.lock();
+            return maximumSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the maximum number of entries the cache can hold. When the cache shrinks, the
+     * evictions are spread over this call and the later writes,
+     * {@link CacheMaintenance4j#EVICTION_BATCH} at a time.
+     *
+     * @param maximumSize the new maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        try {
+            lock.lock();
+            this.maximumSize = maximumSize;
+            this.drain();
+            this.trim();
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        try {
+            lock.lock();
+            this.drain();
+            if (listener != null) {
+                for (Map.Entry<Object, ValueReference<V>> entry : map.entrySet()) {
+                    this.removedEntry(entry.getKey(), entry.getValue(), RemovalCause4j.EXPLICIT);
+                }
+            }
+            map.clear();
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Removes the entries whose key or value was reclaimed by the garbage collector.
+     */
+    public void cleanUp() {
+        try {
+            lock.lock();
+            this.drain();
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Performs the given action for each entry whose key and value are still reachable, while
+     * holding the lock and without counting the entries as accessed.
+     *
+     * @param action the action to be performed for each entry
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        try {
+            lock.lock();
+            this.drain();
+            for (Map.Entry<Object, ValueReference<V>> entry : map.entrySet()) {
+                K key = (K) referent(entry.getKey());
+                V value = entry.getValue().get();
+                if (key != null && value != null) {
+                    action.accept(key, value);
+                }
+            }
+        } finally {
+            lock.unlock();
+            this.notifyListener();
+        }
+    }
+
+    /**
+     * Removes the entries whose key or value was queued by the garbage collector. Must be called
+     * with the lock held.
+     */
+    protected void drain() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            if (reference instanceof WeakKey) {
+                ValueReference<V> value = map.remove(reference);
+                if (value != null) {
+                    this.removed(null, value.get(), RemovalCause4j.COLLECTED);
+                }
+            } else {
+                Object mapKey = ((ValueReference<?>) reference).mapKey();
+                if (map.get(mapKey) == reference) { // Not replaced or removed in the meantime
+                    map.remove(mapKey);
+                    this.removed(referent(mapKey), null, RemovalCause4j.COLLECTED);
+                }
+            }
+        }
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Object, ValueReference<V>>> it = map.entrySet().iterator();
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && map.size() > maximumSize && it.hasNext(); evicted++) {
+            Map.Entry<Object, ValueReference<V>> eldest = it.next();
+            it.remove();
+            this.removedEntry(eldest.getKey(), eldest.getValue(), RemovalCause4j.SIZE);
+        }
+    }
+
+    private void removedEntry(Object mapKey, ValueReference<V> reference, RemovalCause4j cause) {
+        if (listener == null) {
+            return;
+        }
+        Object key = referent(mapKey);
+        V value = reference.get();
+        this.removed(key, value, key == null || value == null ? RemovalCause4j.COLLECTED : cause);
+    }
+
+    private void removed(Object key, V value, RemovalCause4j cause) {
+        if (listener != null) {
+            removals.offer(new Removal<>((K) key, value, cause));
+        }
+    }
+
+    // Reports the queued removals; called after the lock is released so that listeners may use the cache
+    private void notifyListener() {
+        if (listener == null || lock.isHeldByCurrentThread()) {
+            return;
+        }
+        Removal<K, V> removal;
+        while ((removal = removals.poll()) != null) {
+            listener.onRemoval(removal.key, removal.value, removal.cause);
+        }
+    }
+
+    private Object wrapKey(K key) {
+        return keyStrength == Strength.WEAK ? new WeakKey(key, queue) : key;
+    }
+
+    private Object lookupKey(Object key) {
+        return keyStrength == Strength.WEAK ? new LookupKey(key) : key;
+    }
+
+    private ValueReference<V> wrapValue(V value, Object mapKey) {
+        switch (valueStrength) {
+            case WEAK:
+                return new WeakValue<>(value, mapKey, queue);
+            case SOFT:
+                return new SoftValue<>(value, mapKey, queue);
+            default:
+                return new StrongValue<>(value, mapKey);
+        }
+    }
+
+    private static Object referent(Object mapKey) {
+        return mapKey instanceof WeakKey ? ((WeakKey) mapKey).get() : mapKey;
+    }
+
+    /**
+     * A removal awaiting the listener.
+     */
+    protected static final class Removal<K, V> {
+        final K key;
+        final V value;
+        final RemovalCause4j cause;
+
+        Removal(K key, V value, RemovalCause4j cause) {
+            this.key = key;
+            this.value = value;
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * A weakly held key, equal to the lookup keys and weak keys whose referents are equal.
+     */
+    protected static final class WeakKey extends WeakReference<Object> {
+        final int hash; // Hash code of the referent, kept to find the entry once it is reclaimed
+
+        WeakKey(Object key, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            Object key = this.get();
+            Object other = obj instanceof WeakKey ? ((WeakKey) obj).get() : obj instanceof LookupKey ? ((LookupKey) obj).key : null;
+            return key != null && key.equals(other);
+        }
+    }
+
+    /**
+     * Wraps the key of a lookup so that it compares equal to the weak key of the same referent.
+     */
+    protected static final class LookupKey {
+        final Object key;
+
+        LookupKey(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return key == null ? 0 : key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof WeakKey) {
+                Object other = ((WeakKey) obj).get();
+                return other != null && other.equals(key);
+            }
+            return obj instanceof LookupKey && Objects.equals(key, ((LookupKey) obj).key);
+        }
+    }
+
+    /**
+     * A strongly held value.
+     */
+    protected static final class StrongValue<V> implements ValueReference<V> {
+        final V value;
+        final Object mapKey;
+
+        StrongValue(V value, Object mapKey) {
+            this.value = value;
+            this.mapKey = mapKey;
+        }
+
+        @Override
+        public V get() {
+            return value;
+        }
+
+        @Override
+        public Object mapKey() {
+            return mapKey;
+        }
+    }
+
+    /**
+     * A weakly held value.
+     */
+    protected static final class WeakValue<V> extends WeakReference<V> implements ValueReference<V> {
+        final Object mapKey;
+
+        WeakValue(V value, Object mapKey, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.mapKey = mapKey;
+        }
+
+        @Override
+        public Object mapKey() {
+            return mapKey;
+        }
+    }
+
+    /**
+     * A softly held value.
+     */
+    protected static final class SoftValue<V> extends SoftReference<V> implements ValueReference<V> {
+        final Object mapKey;
+
+        SoftValue(V value, Object mapKey, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.mapKey = mapKey;
+        }
+
+        @Override
+        public Object mapKey() {
+            return mapKey;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.alpha4j.ds;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Shard4j} held by a {@link ShardServer4j}, possibly in another JVM. Every call is one
+ * request-response round trip over a blocking socket borrowed from a small pool, so concurrent
+ * callers do not wait for each other's round trips. A connection that fails is discarded and the
+ * call throws an {@link UncheckedIOException}; the next call opens a fresh connection. A shard
+ * server that does not answer within the read timeout, 10 seconds by default, counts as failed,
+ * so a dead peer cannot hang its callers. Responses are deserialized with the same class
+ * allow-list as the server uses for requests.
+ *
+ * @param <K> the type of keys maintained by the remote shard, which must be serializable
+ * @param <V> the type of mapped values, which must be serializable
+ */
+public class RemoteShard4j<K, V> implements Shard4j<K, V> {
+    protected static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    protected static final int READ_TIMEOUT_MILLIS = 10_000;
+
+    protected final InetSocketAddress address; // Address of the shard server
+    protected final int readTimeoutMillis; // Maximum wait for a response
+    protected final Set<String> allowedClasses; // Names of the classes responses may contain
+    protected final Queue<Socket> idle = new ConcurrentLinkedQueue<>(); // Connections ready for reuse
+    protected volatile boolean closed;
+
+    /**
+     * Constructor that connects lazily to the shard server at the given address, for keys and
+     * values made of strings, boxed primitives, {@link HashMap} and {@link ArrayList} only.
+     *
+     * @param address the address the shard server listens on
+     */
+    public RemoteShard4j(InetSocketAddress address) {
+        this(address, Collections.emptySet(), READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructor that connects lazily to the shard server at the given address.
+     *
+     * @param address           the address the shard server listens on
+     * @param allowedClasses    the classes of the keys and values, in addition to those of the protocol
+     * @param readTimeoutMillis the maximum wait for a response, in milliseconds
+     * @throws IllegalArgumentException if the read timeout is not positive
+     */
+    public RemoteShard4j(InetSocketAddress address, Collection<Class<?>> allowedClasses, int readTimeoutMillis) {
+        if (readTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("readTimeoutMillis must be positive");
+        }
+        this.address = address;
+        this.allowedClasses = ShardServer4j.allowed(allowedClasses);
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return (V) this.call(ShardServer4j.GET, key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        this.call(ShardServer4j.PUT, key, value);
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        this.call(ShardServer4j.PUT_IF_ABSENT, key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        return (V) this.call(ShardServer4j.REMOVE, key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        return (Map<K, V>) this.call(ShardServer4j.GET_ALL, new ArrayList<>(keys));
+    }
+
+    @Override
+    public int size() {
+        return (Integer) this.call(ShardServer4j.SIZE);
+    }
+
+    @Override
+    public void clear() {
+        this.call(ShardServer4j.CLEAR);
+    }
+
+    /**
+     * Transfers the entries in pages of 4096 on average, one round trip per page, and performs the
+     * action locally on each page. A page holds the entries whose hash falls into one segment of
+     * the keys, so that entries written or removed during the transfer do not shift the other
+     * pages: every entry left untouched is seen exactly once, while an entry written during the
+     * transfer may or may not be seen. The server scans the whole shard for every page.
+     *
+     * @param action the action to be performed for each entry
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int pages = (this.size() + ShardServer4j.ENTRIES_PER_PAGE - 1) / ShardServer4j.ENTRIES_PER_PAGE;
+        int segments = pages <= 1 ? 1 : Integer.highestOneBit(pages - 1) << 1;
+        for (int segment = 0; segment < segments; segment++) {
+            ((Map<K, V>) this.call(ShardServer4j.ENTRIES, segment, segments)).forEach(action);
+        }
+    }
+
+    /**
+     * Closes the pooled connections. The remote shard keeps its entries.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Socket socket;
+        while ((socket = idle.poll()) != null) {
+            ShardServer4j.closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Performs one round trip to the shard server.
+     *
+     * @param op   the operation code
+     * @param args the arguments of the operation
+     * @return the result of the operation
+     */
+    protected Object call(byte op, Object... args) {
+        if (closed) {
+            throw new IllegalStateException("Shard is closed");
+        }
+        Object[] request = new Object[args.length + 1];
+        request[0] = op;
+        System.arraycopy(args, 0, request, 1, args.length);
+        Socket socket = idle.poll();
+        try {
+            if (socket == null) {
+                socket = new Socket();
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(readTimeoutMillis);
+            }
+            ByteBuffer frame = ShardServer4j.frame(request);
+            OutputStream out = socket.getOutputStream();
+            out.write(frame.array(), 0, frame.limit());
+            out.flush();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            int length = in.readInt();
+            if (length <= 0 || length > ShardServer4j.MAX_FRAME_BYTES) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            Object[] response = (Object[]) ShardServer4j.deserialize(payload, allowedClasses, ShardServer4j.RESPONSE_LIMITS);
+            if (closed) {
+                ShardServer4j.closeQuietly(socket);
+            } else {
+                idle.add(socket);
+            }
+            if (!(Boolean) response[0]) {
+                throw new IllegalStateException("Shard " + address + " failed: " + response[1]);
+            }
+            return response[1];
+        } catch (IOException e) {
+            // Includes the SocketTimeoutException of a shard server that stopped answering
+            ShardServer4j.closeQuietly(socket);
+            throw new UncheckedIOException("Shard " + address + " is unreachable", e);
+        }
+    }
+}
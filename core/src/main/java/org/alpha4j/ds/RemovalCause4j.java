@@ -0,0 +1,32 @@
+package org.alpha4j.ds;
+
+/**
+ * The reason an entry was removed from a cache, as reported to a {@link RemovalListener4j}.
+ */
+public enum RemovalCause4j {
+    /**
+     * The entry was removed by the application, through {@code remove} or {@code clear}.
+     */
+    EXPLICIT,
+    /**
+     * The value of the entry was replaced by a newer value for the same key.
+     */
+    REPLACED,
+    /**
+     * The entry was evicted because the cache held more entries than its maximum size.
+     */
+    SIZE,
+    /**
+     * The key or the value of the entry was reclaimed by the garbage collector.
+     */
+    COLLECTED;
+
+    /**
+     * Checks whether the entry was removed by the cache itself rather than by the application.
+     *
+     * @return true for {@link #SIZE} and {@link #COLLECTED}
+     */
+    public boolean wasEvicted() {
+        return this == SIZE || this == COLLECTED;
+    }
+}
@@ -0,0 +1,20 @@
+package org.alpha4j.ds;
+
+/**
+ * Receives the entries removed from a cache. The listener is called after the cache has released
+ * its lock, on the thread whose operation removed the entry.
+ *
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of mapped values
+ */
+@FunctionalInterface
+public interface RemovalListener4j<K, V> {
+    /**
+     * Called once for every removed entry.
+     *
+     * @param key   the key of the entry, or null if it was reclaimed by the garbage collector
+     * @param value the value of the entry, or null if it was reclaimed by the garbage collector
+     * @param cause the reason the entry was removed
+     */
+    void onRemoval(K key, V value, RemovalCause4j cause);
+}
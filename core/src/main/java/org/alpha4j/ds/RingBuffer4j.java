@@ -0,0 +1,137 @@
+package org.alpha4j.ds;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * The base of the array-backed ring buffers: a power-of-two array of slots, and a producer and a
+ * consumer index that only ever grow. The two indexes are written by different threads, so each is
+ * surrounded by 128 bytes of padding fields, declared in superclasses because the JVM lays out the
+ * fields of a superclass before those of its subclasses. This keeps them off each other's cache
+ * line, and off the adjacent line some processors prefetch along with it.
+ * <p>
+ * Only {@code java.util.concurrent.atomic} is used, so the buffers run on Java 8 without
+ * {@code sun.misc.Unsafe}; {@code lazySet} gives the ordered, non-fencing stores they rely on.
+ *
+ * @param <E> the type of elements held in the buffer
+ */
+public abstract class RingBuffer4j<E> extends RingBufferPad2 implements ConcurrentBuffer4j<E> {
+    protected final int mask; // Capacity minus one, the capacity being a power of two
+    protected final AtomicReferenceArray<E> buffer; // Slots, null when free
+
+    /**
+     * Constructor that rounds the capacity up to the next power of two.
+     *
+     * @param capacity the minimum number of elements the buffer can hold
+     * @throws IllegalArgumentException if the capacity is not positive or exceeds 2^30
+     */
+    protected RingBuffer4j(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int length = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = length - 1;
+        this.buffer = new AtomicReferenceArray<>(length);
+        this.producerLimit = length;
+    }
+
+    /**
+     * Removes up to the given number of elements, passing each one to the action. Never waits: the
+     * drain stops at a slot that a producer has claimed but not yet written. The consumer index is
+     * advanced before each action, so an exception thrown by the action loses no other element.
+     *
+     * @param action the action to be performed for each removed element
+     * @param limit  the maximum number of elements to be removed
+     * @return the number of elements removed
+     */
+    @Override
+    public int drain(Consumer<? super E> action, int limit) {
+        long index = consumerIndex;
+        int drained = 0;
+        for (; drained < limit; drained++, index++) {
+            int offset = this.offset(index);
+            E element = buffer.get(offset);
+            if (element == null) {
+                break;
+            }
+            buffer.lazySet(offset, null);
+            CONSUMER_INDEX.lazySet(this, index + 1);
+            action.accept(element);
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer index on both sides of the producer index until it is stable
+        while (true) {
+            long before = consumerIndex;
+            long producer = producerIndex;
+            long after = consumerIndex;
+            if (before == after) {
+                return (int) Math.max(0, Math.min(producer - after, mask + 1L));
+            }
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the slot of an index.
+     *
+     * @param index the producer or consumer index
+     * @return the offset of the slot in the array
+     */
+    protected final int offset(long index) {
+        return (int) index & mask;
+    }
+
+    /**
+     * Rejects null elements, which the buffers use to mark free slots.
+     *
+     * @param element the element to be checked
+     * @throws IllegalArgumentException if the element is null
+     */
+    protected static void checkElement(Object element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+    }
+}
+
+// Padding between the object header, or the preceding object, and the producer index
+abstract class RingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+}
+
+abstract class RingBufferProducerIndex extends RingBufferPad0 {
+    static final AtomicLongFieldUpdater<RingBufferProducerIndex> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(RingBufferProducerIndex.class, "producerIndex");
+
+    protected volatile long producerIndex; // Index of the next slot to be written
+    protected volatile long producerLimit; // Producer index below which slots are known to be free
+}
+
+// Padding between the producer and consumer indexes
+abstract class RingBufferPad1 extends RingBufferProducerIndex {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+    long p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+}
+
+abstract class RingBufferConsumerIndex extends RingBufferPad1 {
+    static final AtomicLongFieldUpdater<RingBufferConsumerIndex> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(RingBufferConsumerIndex.class, "consumerIndex");
+
+    protected volatile long consumerIndex; // Index of the next slot to be read
+}
+
+// Padding between the consumer index and the fields of the subclasses
+abstract class RingBufferPad2 extends RingBufferConsumerIndex {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p28, p29, p2a, p2b, p2c, p2d, p2e, p2f;
+}
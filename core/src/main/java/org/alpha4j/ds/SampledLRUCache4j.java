@@ -0,0 +1,330 @@
+package org.alpha4j.ds;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * An approximate Least Recently Used (LRU) cache in the style of Redis: instead of keeping its
+ * entries in recency order, every entry records a coarse timestamp of its last access, and when
+ * the cache grows past its capacity a few random entries are sampled and the one accessed longest
+ * ago is evicted.
+ * <p>
+ * Entries live in a {@link ConcurrentHashMap}, so a read is one map lookup plus a plain write of
+ * the timestamp, skipped when the clock has not ticked since the last access. Reads take no lock
+ * and maintain no list. Writers take a lock to keep a dense array of the entries, which is what
+ * random samples are drawn from, and to evict.
+ * <p>
+ * The candidates of an eviction are the oldest entries seen by the recent samples, kept in a small
+ * pool sorted by access time, which makes the approximation much closer to a true LRU than
+ * evicting the oldest entry of a single sample. Keys must not be null.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class SampledLRUCache4j<K, V> {
+    protected static final int DEFAULT_SAMPLES = 5;
+    protected static final int DEFAULT_POOL_SIZE = 16;
+    protected static final int CLOCK_SHIFT = 20; // Nanoseconds to clock ticks, a tick is about one millisecond
+    protected static final Node<?, ?>[] EMPTY_SLOTS = new Node<?, ?>[0];
+
+    protected final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    protected final ReentrantLock lock = new ReentrantLock(); // Taken by writers, never by readers
+    protected final int samples; // Number of entries sampled per eviction
+    protected final int poolSize; // Number of eviction candidates kept between evictions, 0 for none
+    protected final Node<K, V>[] pool; // Candidates sorted from the oldest access
+    protected final int[] poolTimes; // Access time of every candidate when it entered the pool
+    protected int poolCount; // Number of candidates in the pool
+    protected Node<K, V>[] slots = emptySlots(); // Every entry, densely packed for sampling
+    protected int count; // Number of used slots
+    protected volatile int maximumSize; // Maximum number of entries
+
+    /**
+     * An entry of the cache.
+     */
+    protected static final class Node<K, V> {
+        final K key;
+        final V value;
+        int accessTime; // Racy by design: a lost update only makes the entry look a little older
+        int slot; // Index in the slots array, -1 once removed; guarded by the lock
+
+        Node(K key, V value, int accessTime) {
+            this.key = key;
+            this.value = value;
+            this.accessTime = accessTime;
+        }
+    }
+
+    /**
+     * Constructor that samples 5 entries per eviction and keeps a pool of 16 candidates.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     */
+    public SampledLRUCache4j(int capacity) {
+        this(capacity, DEFAULT_SAMPLES, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Constructor that initializes the cache with the given sampling parameters.
+     *
+     * @param capacity the maximum number of entries the cache can hold
+     * @param samples  the number of entries sampled per eviction; more samples evict more accurately
+     * @param poolSize the number of candidates kept between evictions, or 0 to evict the oldest
+     *                 entry of each sample
+     * @throws IllegalArgumentException if the capacity or pool size is negative, or the number of
+     *                                  samples is not positive
+     */
+    public SampledLRUCache4j(int capacity, int samples, int poolSize) {
+        if (capacity < 0 || samples <= 0 || poolSize < 0) {
+            throw new IllegalArgumentException("capacity and poolSize must not be negative, samples must be positive");
+        }
+        this.maximumSize = capacity;
+        this.samples = samples;
+        this.poolSize = poolSize;
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] pool = (Node<K, V>[]) new Node<?, ?>[Math.max(1, poolSize)];
+        this.pool = pool;
+        this.poolTimes = new int[pool.length];
+    }
+
+    /**
+     * Returns the value associated with the key, recording the access.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the key, or null if the key is not found
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        int now = this.tick();
+        if (node.accessTime != now) {
+            node.accessTime = now;
+        }
+        return node.value;
+    }
+
+    /**
+     * Associates the value with the key. When the key is new and the cache grows past its
+     * capacity, the entries accessed longest ago among the sampled ones are evicted.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be associated with the key
+     * @return the previous value associated with the key, or null
+     */
+    public V put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, this.tick());
+        try {
+            lock.lock();
+            Node<K, V> previous = map.put(key, node);
+            if (previous != null) {
+                node.slot = previous.slot;
+                slots[node.slot] = node;
+                previous.slot = -1;
+                return previous.value;
+            }
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(16, count << 1));
+            }
+            node.slot = count;
+            slots[count++] = node;
+            this.trim();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was associated with the key, or null if the key was not found
+     */
+    public V remove(K key) {
+        try {
+            lock.lock();
+            Node<K, V> node = map.remove(key);
+            if (node == null) {
+                return null;
+            }
+            this.release(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether the cache contains the key, without recording an access.
+     *
+     * @param key the key whose presence is to be tested
+     * @return true if the cache contains a mapping for the key, otherwise false
+     */
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum number of entries the cache can hold.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Changes the maximum number of entries the cache can hold. When the cache shrinks, the
+     * evictions are spread over this call and the later writes,
+     * {@link CacheMaintenance4j#EVICTION_BATCH} at a time.
+     *
+     * @param maximumSize the new maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        try {
+            lock.lock();
+            this.maximumSize = maximumSize;
+            this.trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache and releases the slots array.
+     */
+    public void clear() {
+        try {
+            lock.lock();
+            map.clear();
+            slots = emptySlots();
+            count = 0;
+            this.clearPool();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Performs the given action for each entry, without recording accesses. The iteration is
+     * weakly consistent and takes no lock.
+     *
+     * @param action the action to be performed for each entry
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach((key, node) -> action.accept(key, node.value));
+    }
+
+    /**
+     * Returns the current time of the coarse clock entries record their accesses with.
+     *
+     * @return the current clock tick
+     */
+    protected int tick() {
+        return (int) (System.nanoTime() >>> CLOCK_SHIFT);
+    }
+
+    /**
+     * Evicts up to {@link CacheMaintenance4j#EVICTION_BATCH} entries while the cache holds more
+     * entries than its maximum size. Must be called with the lock held.
+     */
+    private void trim() {
+        for (int evicted = 0; evicted < CacheMaintenance4j.EVICTION_BATCH && count > maximumSize; evicted++) {
+            this.evictOne();
+        }
+    }
+
+    /**
+     * Samples entries into the pool and evicts the oldest candidate still cached and not accessed
+     * since it was sampled. Must be called with the lock held on a non-empty cache.
+     */
+    private void evictOne() {
+        while (true) {
+            this.sample();
+            while (poolCount > 0) {
+                Node<K, V> candidate = pool[0];
+                int sampledTime = poolTimes[0];
+                System.arraycopy(pool, 1, pool, 0, poolCount - 1);
+                System.arraycopy(poolTimes, 1, poolTimes, 0, poolCount - 1);
+                pool[--poolCount] = null;
+                // A candidate removed, replaced or accessed since it was sampled is no longer a good victim
+                if (candidate.slot >= 0 && candidate.accessTime == sampledTime) {
+                    map.remove(candidate.key, candidate);
+                    this.release(candidate);
+                    if (poolSize == 0) {
+                        this.clearPool();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < samples; i++) {
+            this.offer(slots[random.nextInt(count)]);
+        }
+    }
+
+    // Inserts the node into the pool sorted by access time, unless the pool is full of older candidates
+    private void offer(Node<K, V> node) {
+        int time = node.accessTime;
+        for (int i = 0; i < poolCount; i++) {
+            if (pool[i] == node) {
+                return;
+            }
+        }
+        if (poolCount == pool.length) {
+            if (time - poolTimes[poolCount - 1] >= 0) {
+                return;
+            }
+            poolCount--; // Drop the newest candidate
+        }
+        int index = poolCount;
+        while (index > 0 && time - poolTimes[index - 1] < 0) {
+            pool[index] = pool[index - 1];
+            poolTimes[index] = poolTimes[index - 1];
+            index--;
+        }
+        pool[index] = node;
+        poolTimes[index] = time;
+        poolCount++;
+    }
+
+    // Moves the last entry into the slot of the removed one
+    private void release(Node<K, V> node) {
+        Node<K, V> last = slots[--count];
+        slots[node.slot] = last;
+        last.slot = node.slot;
+        slots[count] = null;
+        node.slot = -1;
+    }
+
+    private void clearPool() {
+        Arrays.fill(pool, 0, poolCount, null);
+        poolCount = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] emptySlots() {
+        return (Node<K, V>[]) EMPTY_SLOTS; // Holds no node, so it serves as an empty array of any node type
+    }
+}
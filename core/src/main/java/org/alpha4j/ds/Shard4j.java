@@ -0,0 +1,188 @@
+package org.alpha4j.ds;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * One partition of a {@link PartitionedCache4j}. A shard is either a cache living in this JVM,
+ * adapted with {@link #of(LRUCache4j)} or {@link #of(LFUCache4j)}, or a {@link RemoteShard4j}
+ * talking to a {@link ShardServer4j}.
+ *
+ * @param <K> the type of keys maintained by this shard
+ * @param <V> the type of mapped values
+ */
+public interface Shard4j<K, V> extends AutoCloseable {
+
+    /**
+     * Returns the value cached for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the cached value, or {@code null} if the key is not cached
+     */
+    V get(K key);
+
+    /**
+     * Caches a value for the key.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be cached
+     */
+    void put(K key, V value);
+
+    /**
+     * Caches a value for the key, unless the shard already holds a value for it. Used to move
+     * entries between shards without replacing a value written to the new owner in the meantime.
+     *
+     * @param key   the key with which the value is to be associated
+     * @param value the value to be cached
+     */
+    void putIfAbsent(K key, V value);
+
+    /**
+     * Removes the key from the shard.
+     *
+     * @param key the key whose mapping is to be removed
+     * @return the value that was cached, or {@code null}
+     */
+    V remove(K key);
+
+    /**
+     * Returns the values cached for several keys. Remote shards answer in a single round trip.
+     *
+     * @param keys the keys to be looked up
+     * @return the cached values by key; keys that are not cached are absent
+     */
+    default Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> result = new HashMap<>();
+        for (K key : keys) {
+            V value = this.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries held by the shard.
+     *
+     * @return the number of entries held by the shard
+     */
+    int size();
+
+    /**
+     * Removes all entries from the shard.
+     */
+    void clear();
+
+    /**
+     * Performs the given action for each entry of the shard, without counting the entries as
+     * accessed. Used to move entries when the shards of a partitioned cache change.
+     *
+     * @param action the action to be performed for each entry
+     */
+    void forEach(BiConsumer<? super K, ? super V> action);
+
+    /**
+     * Releases the resources of the shard. Local shards have nothing to release.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Adapts an LRU cache living in this JVM.
+     *
+     * @param cache the cache holding the entries of the shard
+     * @param <K>   the type of keys maintained by the shard
+     * @param <V>   the type of mapped values
+     * @return a shard backed by the cache
+     */
+    static <K, V> Shard4j<K, V> of(LRUCache4j<K, V> cache) {
+        return new Shard4j<K, V>() {
+            @Override
+            public V get(K key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public void put(K key, V value) {
+                cache.put(key, value);
+            }
+
+            @Override
+            public void putIfAbsent(K key, V value) {
+                cache.putIfAbsent(key, value);
+            }
+
+            @Override
+            public V remove(K key) {
+                return cache.remove(key);
+            }
+
+            @Override
+            public int size() {
+                return cache.size();
+            }
+
+            @Override
+            public void clear() {
+                cache.clear();
+            }
+
+            @Override
+            public void forEach(BiConsumer<? super K, ? super V> action) {
+                cache.forEach(action);
+            }
+        };
+    }
+
+    /**
+     * Adapts an LFU cache living in this JVM.
+     *
+     * @param cache the cache holding the entries of the shard
+     * @param <K>   the type of keys maintained by the shard
+     * @param <V>   the type of mapped values
+     * @return a shard backed by the cache
+     */
+    static <K, V> Shard4j<K, V> of(LFUCache4j<K, V> cache) {
+        return new Shard4j<K, V>() {
+            @Override
+            public V get(K key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public void put(K key, V value) {
+                cache.put(key, value);
+            }
+
+            @Override
+            public void putIfAbsent(K key, V value) {
+                cache.putIfAbsent(key, value);
+            }
+
+            @Override
+            public V remove(K key) {
+                return cache.remove(key);
+            }
+
+            @Override
+            public int size() {
+                return cache.size();
+            }
+
+            @Override
+            public void clear() {
+                cache.clear();
+            }
+
+            @Override
+            public void forEach(BiConsumer<? super K, ? super V> action) {
+                cache.forEach(action);
+            }
+        };
+    }
+}
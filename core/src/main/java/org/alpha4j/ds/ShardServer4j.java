@@ -0,0 +1,500 @@
+package org.alpha4j.ds;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a {@link Shard4j} over TCP so that {@link RemoteShard4j} clients in other JVMs can use
+ * it as a partition of their {@link PartitionedCache4j}. All connections are handled by a single
+ * NIO selector thread, which also applies the requests to the shard; the shard itself provides
+ * the thread-safety.
+ * <p>
+ * Requests and responses travel as frames made of the payload length followed by the payload,
+ * which is a Java-serialized array. Keys and values must therefore be {@link Serializable}.
+ * Deserialization only resolves the classes of the protocol, that is strings, boxed primitives,
+ * {@link HashMap} and {@link ArrayList}, plus the key and value classes given to the constructor,
+ * so a peer cannot instantiate arbitrary classes. A request frame holds at most 1 MB, and is
+ * deserialized under a serialization filter limiting the length of arrays, the nesting depth and
+ * the number of objects, so that a small frame cannot declare a huge collection; the filter needs
+ * Java 8u121 or later, older JVMs deserialize without these limits. At most 4 MB of responses are
+ * queued per connection: the requests of a client that does not read its responses are left
+ * unread until they are written. Entries are transferred in pages of 4096 on average, see
+ * {@link RemoteShard4j#forEach}. Deserializing data received from the network is still best kept
+ * between trusted nodes, which is why {@link #loopback(Shard4j)} listens on the loopback interface.
+ *
+ * @param <K> the type of keys maintained by the served shard
+ * @param <V> the type of mapped values
+ */
+public class ShardServer4j<K, V> implements AutoCloseable {
+    static final byte GET = 1;
+    static final byte PUT = 2;
+    static final byte REMOVE = 3;
+    static final byte GET_ALL = 4;
+    static final byte SIZE = 5;
+    static final byte CLEAR = 6;
+    static final byte ENTRIES = 7;
+    static final byte PUT_IF_ABSENT = 8;
+
+    protected static final int MAX_FRAME_BYTES = 64 * 1024 * 1024; // Larger responses are treated as corrupt
+    protected static final int MAX_REQUEST_BYTES = 1024 * 1024; // Larger requests are treated as corrupt
+    protected static final int MAX_QUEUED_BYTES = 4 * 1024 * 1024; // Responses queued per connection before its requests stop being read
+    protected static final int ENTRIES_PER_PAGE = 4096; // Maximum average number of entries per ENTRIES response
+    // Limits of the serialization filter: a request is at most 1 MB, a response at most 64 MB
+    static final String REQUEST_LIMITS = "maxarray=262144;maxdepth=16;maxrefs=1048576";
+    static final String RESPONSE_LIMITS = "maxarray=16777216;maxdepth=16;maxrefs=67108864";
+    // Classes every request and response may contain
+    static final Set<String> PROTOCOL_CLASSES = new HashSet<>(Arrays.asList(
+            "java.lang.Object", "java.lang.String", "java.lang.Number", "java.lang.Boolean", "java.lang.Byte",
+            "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double",
+            "java.lang.Character", "java.lang.Enum", "java.util.HashMap", "java.util.ArrayList"));
+    protected static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    protected final Shard4j<K, V> shard; // The shard requests are applied to
+    protected final Set<String> allowedClasses; // Names of the classes requests may contain
+    protected final ServerSocketChannel server;
+    protected final Selector selector;
+    protected final Thread thread;
+    protected volatile boolean running = true;
+
+    /**
+     * Per-connection state: the bytes received so far and the responses not yet written.
+     */
+    protected static final class Connection {
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        final Deque<ByteBuffer> out = new ArrayDeque<>();
+        int queued; // Bytes of the responses in out
+
+        // Whether the input buffer holds a whole request
+        boolean hasRequest() {
+            return in.position() >= Integer.BYTES && in.position() - Integer.BYTES >= in.getInt(0);
+        }
+    }
+
+    /**
+     * Constructor that binds to the given address and starts serving immediately, accepting keys
+     * and values made of strings, boxed primitives, {@link HashMap} and {@link ArrayList} only.
+     *
+     * @param shard       the shard to be served
+     * @param bindAddress the address to listen on; port 0 picks an ephemeral port
+     * @throws IOException if the server socket cannot be opened
+     */
+    public ShardServer4j(Shard4j<K, V> shard, InetSocketAddress bindAddress) throws IOException {
+        this(shard, bindAddress, Collections.emptySet());
+    }
+
+    /**
+     * Constructor that binds to the given address and starts serving immediately, accepting keys
+     * and values of the given classes in addition to those of the protocol. Every serializable
+     * class reachable from a key or value, superclasses included, must be listed.
+     *
+     * @param shard          the shard to be served
+     * @param bindAddress    the address to listen on; port 0 picks an ephemeral port
+     * @param allowedClasses the classes of the keys and values
+     * @throws IOException if the server socket cannot be opened
+     */
+    public ShardServer4j(Shard4j<K, V> shard, InetSocketAddress bindAddress, Collection<Class<?>> allowedClasses) throws IOException {
+        this.shard = shard;
+        this.allowedClasses = allowed(allowedClasses);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(bindAddress);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            closeQuietly(server);
+            closeQuietly(selector);
+            throw e;
+        }
+        this.thread = new Thread(this::serve, "shard-server-" + THREAD_COUNTER.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Serves the shard on an ephemeral port of the loopback interface.
+     *
+     * @param shard the shard to be served
+     * @param <K>   the type of keys maintained by the shard
+     * @param <V>   the type of mapped values
+     * @return a running server
+     * @throws IOException if the server socket cannot be opened
+     */
+    public static <K, V> ShardServer4j<K, V> loopback(Shard4j<K, V> shard) throws IOException {
+        return new ShardServer4j<>(shard, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Serves the shard on an ephemeral port of the loopback interface, accepting keys and values of
+     * the given classes in addition to those of the protocol.
+     *
+     * @param shard          the shard to be served
+     * @param allowedClasses the classes of the keys and values
+     * @param <K>            the type of keys maintained by the shard
+     * @param <V>            the type of mapped values
+     * @return a running server
+     * @throws IOException if the server socket cannot be opened
+     */
+    public static <K, V> ShardServer4j<K, V> loopback(Shard4j<K, V> shard, Collection<Class<?>> allowedClasses) throws IOException {
+        return new ShardServer4j<>(shard, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), allowedClasses);
+    }
+
+    /**
+     * Returns the address this server listens on.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress localAddress() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops serving and closes every connection. The shard itself is left untouched.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The selector loop accepting connections, decoding requests and writing responses.
+     */
+    protected void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        this.accept();
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        this.read(key);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        this.write(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            running = false;
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void read(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (channel.read(connection.in) < 0) {
+                key.cancel();
+                closeQuietly(channel);
+                return;
+            }
+            this.flush(key);
+        } catch (IOException | RuntimeException e) {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+
+    private void write(SelectionKey key) {
+        try {
+            this.flush(key);
+        } catch (IOException | RuntimeException e) {
+            key.cancel();
+            closeQuietly(key.channel());
+        }
+    }
+
+    /**
+     * Handles the buffered requests and writes their responses, until the socket is full or no
+     * whole request is left. Once {@link #MAX_QUEUED_BYTES} of responses are queued, the remaining
+     * requests wait in the input buffer and the connection is not read until they are written.
+     *
+     * @param key the key of the connection
+     * @throws IOException if the connection fails or a request is corrupt
+     */
+    private void flush(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        do {
+            this.handleRequests(connection);
+            while (!connection.out.isEmpty()) {
+                ByteBuffer buffer = connection.out.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    break; // The socket buffer is full, continue once it is writable again
+                }
+                connection.out.poll();
+                connection.queued -= buffer.limit();
+            }
+        } while (connection.out.isEmpty() && connection.hasRequest());
+        int ops = connection.out.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+        key.interestOps(connection.queued < MAX_QUEUED_BYTES ? ops | SelectionKey.OP_READ : ops);
+    }
+
+    private void handleRequests(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.in;
+        buffer.flip();
+        while (connection.queued < MAX_QUEUED_BYTES && buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > MAX_REQUEST_BYTES) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (buffer.remaining() < Integer.BYTES + length) {
+                break;
+            }
+            buffer.getInt();
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            ByteBuffer response = frame(this.handle((Object[]) deserialize(payload, allowedClasses, REQUEST_LIMITS)));
+            connection.out.add(response);
+            connection.queued += response.limit();
+        }
+        buffer.compact();
+        if (!buffer.hasRemaining() && !connection.hasRequest()) { // A frame larger than the buffer is pending
+            ByteBuffer larger = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_REQUEST_BYTES + Integer.BYTES));
+            buffer.flip();
+            larger.put(buffer);
+            connection.in = larger;
+        }
+    }
+
+    /**
+     * Applies one request to the shard.
+     *
+     * @param request the operation code followed by its arguments
+     * @return a response holding either {@code true} and the result, or {@code false} and an error message
+     */
+    @SuppressWarnings("unchecked")
+    protected Object[] handle(Object[] request) {
+        try {
+            switch ((Byte) request[0]) {
+                case GET:
+                    return new Object[]{true, shard.get((K) request[1])};
+                case PUT:
+                    shard.put((K) request[1], (V) request[2]);
+                    return new Object[]{true, null};
+                case REMOVE:
+                    return new Object[]{true, shard.remove((K) request[1])};
+                case GET_ALL:
+                    return new Object[]{true, new HashMap<>(shard.getAll((Collection<K>) request[1]))};
+                case SIZE:
+                    return new Object[]{true, shard.size()};
+                case CLEAR:
+                    shard.clear();
+                    return new Object[]{true, null};
+                case ENTRIES:
+                    // The entries whose hash falls into one of a power of two of segments
+                    int segment = (Integer) request[1];
+                    int mask = (Integer) request[2] - 1;
+                    HashMap<K, V> entries = new HashMap<>();
+                    shard.forEach((key, value) -> {
+                        int h = key.hashCode();
+                        if (((h ^ (h >>> 16)) & mask) == segment) {
+                            entries.put(key, value);
+                        }
+                    });
+                    return new Object[]{true, entries};
+                case PUT_IF_ABSENT:
+                    shard.putIfAbsent((K) request[1], (V) request[2]);
+                    return new Object[]{true, null};
+                default:
+                    return new Object[]{false, "Unknown operation " + request[0]};
+            }
+        } catch (RuntimeException e) {
+            return new Object[]{false, String.valueOf(e)};
+        }
+    }
+
+    /**
+     * Serializes an object into a frame ready to be written.
+     *
+     * @param object the object to be sent
+     * @return a buffer holding the payload length and the payload, flipped for reading
+     */
+    static ByteBuffer frame(Object object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + bytes.size());
+        frame.putInt(bytes.size()).put(bytes.toByteArray());
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Deserializes the payload of a frame, resolving only the allowed classes and arrays of them,
+     * within the given limits.
+     *
+     * @param payload        the payload, without the length prefix
+     * @param allowedClasses the names of the classes the payload may contain
+     * @param limits         the limits of the serialization filter, such as {@link #REQUEST_LIMITS}
+     * @return the object that was sent
+     * @throws IOException if the payload is not a serialized object of an allowed class, or
+     *                     exceeds the limits
+     */
+    static Object deserialize(byte[] payload, Set<String> allowedClasses, String limits) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                String name = desc.getName();
+                int dimensions = 0;
+                while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+                    dimensions++;
+                }
+                String component = dimensions == 0 ? name : name.substring(dimensions);
+                boolean primitiveArray = dimensions > 0 && component.length() == 1;
+                if (component.startsWith("L") && component.endsWith(";")) {
+                    component = component.substring(1, component.length() - 1);
+                }
+                if (!primitiveArray && !allowedClasses.contains(component)) {
+                    throw new InvalidClassException(name, "Class not allowed by the shard protocol");
+                }
+                return super.resolveClass(desc);
+            }
+
+            @Override
+            protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+                throw new InvalidClassException("Proxy classes are not allowed by the shard protocol");
+            }
+        }) {
+            SerialFilter.apply(in, limits);
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the names of the protocol classes and of the given classes.
+     *
+     * @param classes the classes of the keys and values
+     * @return the names of the classes deserialization may resolve
+     */
+    static Set<String> allowed(Collection<Class<?>> classes) {
+        Set<String> names = new HashSet<>(PROTOCOL_CLASSES);
+        for (Class<?> type : classes) {
+            names.add(type.getName());
+        }
+        return names;
+    }
+
+    static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // Nothing sensible to do, the resource is discarded anyway
+        }
+    }
+
+    /**
+     * Sets the serialization filter of a stream through java.io.ObjectInputFilter, available since
+     * Java 9, or sun.misc.ObjectInputFilter, available since Java 8u121. The reflection is resolved
+     * on first use; without either class the stream is left unfiltered.
+     */
+    static final class SerialFilter {
+        private static final Method CREATE_FILTER; // Config.createFilter(String)
+        private static final Method SET_FILTER; // ObjectInputStream.setObjectInputFilter, or Config.setObjectInputFilter on Java 8
+
+        static {
+            Method create = null;
+            Method set = null;
+            for (String name : new String[]{"java.io.ObjectInputFilter", "sun.misc.ObjectInputFilter"}) {
+                try {
+                    Class<?> filter = Class.forName(name);
+                    Class<?> config = Class.forName(name + "$Config");
+                    create = config.getMethod("createFilter", String.class);
+                    set = name.startsWith("java.")
+                            ? ObjectInputStream.class.getMethod("setObjectInputFilter", filter)
+                            : config.getMethod("setObjectInputFilter", ObjectInputStream.class, filter);
+                    break;
+                } catch (ReflectiveOperationException e) {
+                    create = null; // Not this JVM's filter, try the next one
+                    set = null;
+                }
+            }
+            CREATE_FILTER = create;
+            SET_FILTER = set;
+        }
+
+        private SerialFilter() {
+        }
+
+        /**
+         * Limits what the stream may deserialize, before anything is read from it.
+         *
+         * @param in     the stream to be filtered
+         * @param limits the limits, in the pattern syntax of the serialization filters
+         * @throws IOException if the filter cannot be set
+         */
+        static void apply(ObjectInputStream in, String limits) throws IOException {
+            if (SET_FILTER == null) {
+                return;
+            }
+            try {
+                Object filter = CREATE_FILTER.invoke(null, limits);
+                if (Modifier.isStatic(SET_FILTER.getModifiers())) {
+                    SET_FILTER.invoke(null, in, filter);
+                } else {
+                    SET_FILTER.invoke(in, filter);
+                }
+            } catch (InvocationTargetException e) {
+                // A JVM-wide filter, set with -Djdk.serialFilter, cannot be replaced and applies instead
+                if (!(e.getCause() instanceof IllegalStateException)) {
+                    throw new IOException(e.getCause());
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.alpha4j.ds;
+
+/**
+ * A bounded, wait-free ring buffer for a single producer thread and a single consumer thread, such
+ * as the hand-off between an event source and the thread dispatching its events.
+ * <p>
+ * Neither side needs a compare-and-set: the producer publishes the element, then the producer
+ * index, with ordered stores, and the consumer frees the slot, then advances the consumer index.
+ * The consumer recognises written slots by their non-null element, so it never reads the producer
+ * index, and the producer reads the consumer index only once it reaches the last limit it saw.
+ * {@link #offer} may be called by one thread at a time only, and {@link #poll()}, {@link #drain}
+ * by one other thread at a time only.
+ *
+ * @param <E> the type of elements held in the buffer
+ */
+public class SpscRingBuffer4j<E> extends RingBuffer4j<E> {
+
+    /**
+     * Constructor that rounds the capacity up to the next power of two.
+     *
+     * @param capacity the minimum number of elements the buffer can hold
+     * @throws IllegalArgumentException if the capacity is not positive or exceeds 2^30
+     */
+    public SpscRingBuffer4j(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        checkElement(element);
+        long index = producerIndex;
+        if (index >= producerLimit) {
+            long limit = consumerIndex + mask + 1;
+            if (index >= limit) {
+                return false;
+            }
+            producerLimit = limit;
+        }
+        buffer.lazySet(this.offset(index), element);
+        PRODUCER_INDEX.lazySet(this, index + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long index = consumerIndex;
+        int offset = this.offset(index);
+        E element = buffer.get(offset);
+        if (element == null) {
+            return null;
+        }
+        buffer.lazySet(offset, null);
+        CONSUMER_INDEX.lazySet(this, index + 1);
+        return element;
+    }
+}
@@ -0,0 +1,191 @@
+package org.alpha4j.ds;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy buffer for many producer and many consumer threads, such as a read buffer recording the
+ * accesses of a cache, where dropping an access under contention is cheaper than waiting for it.
+ * <p>
+ * Elements are spread over stripes, a power of two of small ring buffers, and each thread offers
+ * to the stripe picked by the hash of its id, so threads on different stripes never contend. A
+ * stripe is a bounded queue in the style of Dmitry Vyukov: every slot carries a sequence number
+ * telling producers and consumers whether it is free or written, so both sides claim slots with a
+ * single compare-and-set. {@link #offer} never retries: when the stripe is full or another thread
+ * wins the slot, the element is dropped and false is returned. Consumers retry until they either
+ * take an element or see the stripe empty, so no element is lost once it is added.
+ *
+ * @param <E> the type of elements held in the buffer
+ */
+public class StripedBuffer4j<E> implements ConcurrentBuffer4j<E> {
+    protected final Stripe<E>[] stripes; // A power of two of stripes
+    protected int nextStripe; // Stripe polled first by the next poll; racy by design, only spreads the consumers
+
+    /**
+     * A multi-producer, multi-consumer ring buffer whose slots carry sequence numbers.
+     */
+    protected static final class Stripe<E> extends RingBuffer4j<E> {
+        // Index at which each slot is next written, or that index plus one once it is written
+        private final AtomicLongArray sequences;
+
+        Stripe(int capacity) {
+            super(capacity);
+            this.sequences = new AtomicLongArray(mask + 1);
+            for (int i = 0; i <= mask; i++) {
+                sequences.lazySet(i, i);
+            }
+        }
+
+        @Override
+        public boolean offer(E element) {
+            checkElement(element);
+            long index = producerIndex;
+            int offset = this.offset(index);
+            // A lower sequence is a slot not yet consumed, a higher one a stale index: drop in both cases
+            if (sequences.get(offset) != index || !PRODUCER_INDEX.compareAndSet(this, index, index + 1)) {
+                return false;
+            }
+            buffer.lazySet(offset, element);
+            sequences.lazySet(offset, index + 1);
+            return true;
+        }
+
+        @Override
+        public E poll() {
+            while (true) {
+                long index = consumerIndex;
+                int offset = this.offset(index);
+                long difference = sequences.get(offset) - (index + 1);
+                if (difference < 0) {
+                    return null; // The slot is not written yet, the stripe is empty
+                }
+                if (difference == 0 && CONSUMER_INDEX.compareAndSet(this, index, index + 1)) {
+                    E element = buffer.get(offset);
+                    buffer.lazySet(offset, null);
+                    sequences.lazySet(offset, index + mask + 1); // Free the slot for the next lap
+                    return element;
+                }
+            }
+        }
+
+        @Override
+        public int drain(Consumer<? super E> action, int limit) {
+            int drained = 0;
+            E element;
+            while (drained < limit && (element = this.poll()) != null) {
+                action.accept(element);
+                drained++;
+            }
+            return drained;
+        }
+    }
+
+    /**
+     * Constructor that creates a stripe per available processor, rounded up to a power of two.
+     *
+     * @param stripeCapacity the minimum number of elements each stripe can hold
+     * @throws IllegalArgumentException if the capacity of a stripe is not positive
+     */
+    public StripedBuffer4j(int stripeCapacity) {
+        this(Runtime.getRuntime().availableProcessors(), stripeCapacity);
+    }
+
+    /**
+     * Constructor that creates the given number of stripes, rounded up to a power of two.
+     *
+     * @param stripes        the minimum number of stripes
+     * @param stripeCapacity the minimum number of elements each stripe can hold
+     * @throws IllegalArgumentException if the number of stripes or the capacity of a stripe is not
+     *                                  positive
+     */
+    public StripedBuffer4j(int stripes, int stripeCapacity) {
+        if (stripes <= 0 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be between 1 and 65536");
+        }
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        @SuppressWarnings("unchecked")
+        Stripe<E>[] array = (Stripe<E>[]) new Stripe<?>[count];
+        this.stripes = array;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe<>(stripeCapacity);
+        }
+    }
+
+    /**
+     * Adds the element to the stripe of the calling thread, unless the stripe is full or another
+     * thread is adding to the same slot. Never blocks and never retries.
+     *
+     * @param element the element to be added
+     * @return true if the element was added, false if it was dropped
+     * @throws IllegalArgumentException if the element is null
+     */
+    @Override
+    public boolean offer(E element) {
+        return stripes[this.stripe()].offer(element);
+    }
+
+    /**
+     * Removes an element from the first non-empty stripe. The stripes are visited from a rotating
+     * start, so that no stripe starves, and elements of different stripes are not ordered.
+     *
+     * @return an element, or null if every stripe is empty
+     */
+    @Override
+    public E poll() {
+        int start = nextStripe++;
+        for (int i = 0; i < stripes.length; i++) {
+            E element = stripes[(start + i) & (stripes.length - 1)].poll();
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes up to the given number of elements, draining the stripes one after the other from a
+     * rotating start.
+     *
+     * @param action the action to be performed for each removed element
+     * @param limit  the maximum number of elements to be removed
+     * @return the number of elements removed
+     */
+    @Override
+    public int drain(Consumer<? super E> action, int limit) {
+        int start = nextStripe++;
+        int drained = 0;
+        for (int i = 0; i < stripes.length && drained < limit; i++) {
+            drained += stripes[(start + i) & (stripes.length - 1)].drain(action, limit - drained);
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe<E> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return stripes.length * stripes[0].capacity();
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the number of stripes, a power of two
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    // Spreads the thread ids, which are usually small and consecutive, over the stripes
+    private int stripe() {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & (stripes.length - 1);
+    }
+}
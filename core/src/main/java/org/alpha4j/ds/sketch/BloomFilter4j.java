@@ -0,0 +1,178 @@
+package org.alpha4j.ds.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe, blocked Bloom filter: a set membership test answering "definitely absent" or
+ * "probably present", such as a guard keeping lookups of keys known to be absent from reaching a
+ * cache loader.
+ * <p>
+ * The bits are split into blocks of 512 bits, the size of a cache line. A key sets and tests all
+ * of its bits within a single block picked by its hash, so a query touches one cache line instead
+ * of one per hash function, at the cost of a slightly higher false positive rate than a classic
+ * Bloom filter of the same size. Bits are only ever set, with compare-and-set, until a
+ * {@link #clear()}, so concurrent insertions and queries need no lock, and a key is reported present as soon as its
+ * insertion returns.
+ * <p>
+ * Keys are hashed from their {@link Object#hashCode()}, so keys with equal hash codes are not told
+ * apart.
+ */
+public class BloomFilter4j {
+    protected static final int MAGIC = 0x414A4246; // "AJBF"
+    protected static final int BLOCK_WORDS = 8; // Words per block, 512 bits
+    protected static final int MAXIMUM_HASHES = 16;
+
+    protected final AtomicLongArray words; // The bits, block after block
+    protected final int blocks; // Number of blocks
+    protected final int hashes; // Number of bits set per key
+
+    /**
+     * Constructor that sizes the filter for the expected number of keys and false positive rate.
+     *
+     * @param expectedInsertions the number of distinct keys expected to be inserted
+     * @param falsePositiveRate  the tolerated rate of absent keys reported present, once the
+     *                           expected number of keys is inserted
+     * @throws IllegalArgumentException if the number of keys is not positive, or the rate is not
+     *                                  strictly between 0 and 1
+     */
+    public BloomFilter4j(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and falsePositiveRate between 0 and 1");
+        }
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long blocks = (long) Math.ceil(bits / (BLOCK_WORDS * Long.SIZE));
+        if (blocks > Integer.MAX_VALUE / BLOCK_WORDS) {
+            throw new IllegalArgumentException("the filter would exceed 2^31 words");
+        }
+        this.blocks = (int) blocks;
+        this.hashes = (int) Math.max(1, Math.min(MAXIMUM_HASHES, Math.round(bits / expectedInsertions * Math.log(2))));
+        this.words = new AtomicLongArray(this.blocks * BLOCK_WORDS);
+    }
+
+    /**
+     * Constructor that restores a filter from its parameters and bits.
+     *
+     * @param blocks the number of blocks
+     * @param hashes the number of bits set per key
+     * @param words  the bits
+     */
+    protected BloomFilter4j(int blocks, int hashes, AtomicLongArray words) {
+        this.blocks = blocks;
+        this.hashes = hashes;
+        this.words = words;
+    }
+
+    /**
+     * Restores a filter serialized by {@link #toByteArray()}.
+     *
+     * @param bytes the serialized filter
+     * @return the filter
+     * @throws IllegalArgumentException if the bytes are not a serialized filter
+     */
+    public static BloomFilter4j fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] parameters = Sketches4j.readParameters(MAGIC, "BloomFilter4j", buffer, 2);
+        if (parameters[0] <= 0 || parameters[0] > Integer.MAX_VALUE / BLOCK_WORDS
+                || parameters[1] <= 0 || parameters[1] > MAXIMUM_HASHES) {
+            throw new IllegalArgumentException("corrupt BloomFilter4j parameters");
+        }
+        int blocks = (int) parameters[0];
+        return new BloomFilter4j(blocks, (int) parameters[1], Sketches4j.readWords("BloomFilter4j", buffer, blocks * BLOCK_WORDS));
+    }
+
+    /**
+     * Inserts the key.
+     *
+     * @param key the key to be inserted
+     * @return true if the filter changed, false if the key was probably inserted before
+     * @throws IllegalArgumentException if the key is null
+     */
+    public boolean put(Object key) {
+        long hash = Sketches4j.hash(key);
+        int base = this.block(hash);
+        int h1 = (int) hash;
+        int h2 = this.step(hash);
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) >>> 23; // 9 bits, a bit of the block
+            int index = base + (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            while (((word = words.get(index)) & mask) == 0) {
+                if (words.compareAndSet(index, word, word | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Tests whether the key might have been inserted.
+     *
+     * @param key the key to be tested
+     * @return false if the key was definitely never inserted, true if it probably was
+     * @throws IllegalArgumentException if the key is null
+     */
+    public boolean mightContain(Object key) {
+        long hash = Sketches4j.hash(key);
+        int base = this.block(hash);
+        int h1 = (int) hash;
+        int h2 = this.step(hash);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) >>> 23;
+            if ((words.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of bits of the filter.
+     *
+     * @return the size of the filter in bits
+     */
+    public long bitSize() {
+        return (long) words.length() * Long.SIZE;
+    }
+
+    /**
+     * Returns the number of bits set per key.
+     *
+     * @return the number of hash functions
+     */
+    public int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Removes every key. Keys inserted concurrently may be kept or removed.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+    }
+
+    /**
+     * Serializes the filter. Keys inserted concurrently may be missing from the serialized filter.
+     *
+     * @return the serialized filter
+     */
+    public byte[] toByteArray() {
+        return Sketches4j.toByteArray(MAGIC, new long[]{blocks, hashes}, words);
+    }
+
+    // Picks the block with the high bits of the hash; the bits within the block start from the low bits
+    private int block(long hash) {
+        return (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    // The odd step between the bits of a key, remixed so that keys of the same block do not share it
+    private int step(long hash) {
+        return (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) | 1;
+    }
+}
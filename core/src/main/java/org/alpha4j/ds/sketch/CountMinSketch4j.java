@@ -0,0 +1,214 @@
+package org.alpha4j.ds.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe count-min sketch: estimates how often each key occurred in a stream, in memory
+ * independent of the number of distinct keys, such as the access frequencies an admission policy
+ * compares keys by.
+ * <p>
+ * The sketch has {@code depth} rows of {@code width} counters. A key increments one counter per
+ * row and its estimate is the smallest of them, so it never underestimates, and with probability
+ * {@code 1 - delta} overestimates by at most {@code epsilon} times the number of additions. The
+ * counters have 16 bits, four to a word, are updated with compare-and-set and saturate at 65535.
+ * <p>
+ * With aging, every counter is halved each time the number of additions reaches the aging period,
+ * so that estimates follow the recent popularity of the keys rather than their whole history.
+ * Keys are hashed from their {@link Object#hashCode()}.
+ */
+public class CountMinSketch4j {
+    protected static final int MAGIC = 0x414A434D; // "AJCM"
+    protected static final int MAXIMUM_COUNT = 0xFFFF;
+    protected static final int MAXIMUM_DEPTH = 16;
+    protected static final long HALVING_MASK = 0x7FFF7FFF7FFF7FFFL; // Clears the bit shifted into each counter
+
+    protected final AtomicLongArray words; // The counters, row after row
+    protected final int width; // Counters per row, a power of two of at least 4
+    protected final int depth; // Number of rows
+    protected final long agingPeriod; // Additions between halvings, 0 to never age
+    protected final AtomicLong additions = new AtomicLong(); // Additions since the last halving
+
+    /**
+     * Constructor that sizes the sketch for the given error bounds, without aging.
+     *
+     * @param epsilon the overestimation relative to the number of additions
+     * @param delta   the probability of exceeding that overestimation
+     * @throws IllegalArgumentException if epsilon or delta is not strictly between 0 and 1
+     */
+    public CountMinSketch4j(double epsilon, double delta) {
+        this(epsilon, delta, 0);
+    }
+
+    /**
+     * Constructor that sizes the sketch for the given error bounds, halving every counter after
+     * the given number of additions.
+     *
+     * @param epsilon     the overestimation relative to the number of additions
+     * @param delta       the probability of exceeding that overestimation
+     * @param agingPeriod the number of additions between halvings, or 0 to never age, typically
+     *                    ten times the number of keys of interest
+     * @throws IllegalArgumentException if epsilon or delta is not strictly between 0 and 1, or the
+     *                                  aging period is negative
+     */
+    public CountMinSketch4j(double epsilon, double delta, long agingPeriod) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1) || agingPeriod < 0) {
+            throw new IllegalArgumentException("epsilon and delta must be between 0 and 1, agingPeriod must not be negative");
+        }
+        this.width = Math.max(4, Sketches4j.ceilingPowerOfTwo((long) Math.ceil(Math.E / epsilon)));
+        this.depth = (int) Math.max(1, Math.min(MAXIMUM_DEPTH, Math.ceil(Math.log(1 / delta))));
+        this.agingPeriod = agingPeriod;
+        this.words = new AtomicLongArray(width / 4 * depth);
+    }
+
+    /**
+     * Constructor that restores a sketch from its parameters and counters.
+     *
+     * @param width       the number of counters per row
+     * @param depth       the number of rows
+     * @param agingPeriod the number of additions between halvings, or 0 to never age
+     * @param additions   the number of additions since the last halving
+     * @param words       the counters
+     */
+    protected CountMinSketch4j(int width, int depth, long agingPeriod, long additions, AtomicLongArray words) {
+        this.width = width;
+        this.depth = depth;
+        this.agingPeriod = agingPeriod;
+        this.additions.set(additions);
+        this.words = words;
+    }
+
+    /**
+     * Restores a sketch serialized by {@link #toByteArray()}.
+     *
+     * @param bytes the serialized sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a serialized sketch
+     */
+    public static CountMinSketch4j fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] parameters = Sketches4j.readParameters(MAGIC, "CountMinSketch4j", buffer, 4);
+        long width = parameters[0];
+        long depth = parameters[1];
+        if (width < 4 || width > 1 << 30 || Long.bitCount(width) != 1 || depth <= 0 || depth > MAXIMUM_DEPTH
+                || parameters[2] < 0 || parameters[3] < 0) {
+            throw new IllegalArgumentException("corrupt CountMinSketch4j parameters");
+        }
+        AtomicLongArray words = Sketches4j.readWords("CountMinSketch4j", buffer, (int) (width / 4 * depth));
+        return new CountMinSketch4j((int) width, (int) depth, parameters[2], parameters[3], words);
+    }
+
+    /**
+     * Records an occurrence of the key.
+     *
+     * @param key the key that occurred
+     * @throws IllegalArgumentException if the key is null
+     */
+    public void add(Object key) {
+        this.add(key, 1);
+    }
+
+    /**
+     * Records the given number of occurrences of the key.
+     *
+     * @param key   the key that occurred
+     * @param count the number of occurrences
+     * @throws IllegalArgumentException if the key is null or the count is negative
+     */
+    public void add(Object key, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        long hash = Sketches4j.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            int counter = (h1 + row * h2) & (width - 1);
+            int index = row * (width / 4) + (counter >>> 2);
+            int shift = (counter & 3) << 4;
+            long word;
+            long next;
+            do {
+                word = words.get(index);
+                long value = Math.min(MAXIMUM_COUNT, ((word >>> shift) & MAXIMUM_COUNT) + count);
+                next = (word & ~((long) MAXIMUM_COUNT << shift)) | (value << shift);
+            } while (next != word && !words.compareAndSet(index, word, next));
+        }
+        if (agingPeriod > 0) {
+            long total = additions.addAndGet(count);
+            // Only the thread that moves the number of additions back ages, so a period halves once
+            if (total >= agingPeriod && additions.compareAndSet(total, total / 2)) {
+                this.age();
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the key.
+     *
+     * @param key the key whose occurrences are to be estimated
+     * @return the smallest of the counters of the key, never less than its true number of
+     * occurrences unless the sketch aged or the counters saturated
+     * @throws IllegalArgumentException if the key is null
+     */
+    public int estimate(Object key) {
+        long hash = Sketches4j.hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int estimate = MAXIMUM_COUNT;
+        for (int row = 0; row < depth; row++) {
+            int counter = (h1 + row * h2) & (width - 1);
+            long word = words.get(row * (width / 4) + (counter >>> 2));
+            estimate = Math.min(estimate, (int) (word >>> ((counter & 3) << 4)) & MAXIMUM_COUNT);
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter, rounding down. Called automatically at the end of every aging period,
+     * it may also be called at any time, concurrently with additions.
+     */
+    public void age() {
+        for (int i = 0; i < words.length(); i++) {
+            Sketches4j.update(words, i, word -> (word >>> 1) & HALVING_MASK);
+        }
+    }
+
+    /**
+     * Returns the number of counters per row.
+     *
+     * @return the width of the sketch
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the depth of the sketch
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Resets every counter to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+        additions.set(0);
+    }
+
+    /**
+     * Serializes the sketch. Additions made concurrently may be partly missing.
+     *
+     * @return the serialized sketch
+     */
+    public byte[] toByteArray() {
+        return Sketches4j.toByteArray(MAGIC, new long[]{width, depth, agingPeriod, additions.get()}, words);
+    }
+}
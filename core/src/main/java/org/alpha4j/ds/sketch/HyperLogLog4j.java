@@ -0,0 +1,205 @@
+package org.alpha4j.ds.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe HyperLogLog: estimates the number of distinct keys of a stream in a few kilobytes,
+ * such as the size of the key space of a cache, to set its maximum size from the working set
+ * actually observed:
+ * <pre>{@code
+ * HyperLogLog4j keys = new HyperLogLog4j(14);
+ * // record keys.add(key) on every lookup, then
+ * cache.setMaximumSize((int) Math.min(limit, keys.cardinality()));
+ * }</pre>
+ * <p>
+ * The sketch has {@code 2^precision} registers of 6 bits, ten to a word. A key updates a single
+ * register to the maximum of its value and the rank of the key's hash, with compare-and-set. The
+ * relative standard error of the estimate is {@code 1.04 / sqrt(2^precision)}, 0.81% at the
+ * default precision of 14, which takes about 13 KB. Small cardinalities are estimated by linear
+ * counting of the empty registers, which is much more accurate there. Sketches of the same
+ * precision can be merged to count the union of their streams. Keys are hashed from their
+ * {@link Object#hashCode()}, so keys with equal hash codes count once.
+ */
+public class HyperLogLog4j {
+    protected static final int MAGIC = 0x414A484C; // "AJHL"
+    protected static final int DEFAULT_PRECISION = 14;
+    protected static final int REGISTER_BITS = 6;
+    protected static final int REGISTERS_PER_WORD = 10;
+    protected static final long REGISTER_MASK = (1L << REGISTER_BITS) - 1;
+
+    protected final AtomicLongArray words; // The registers, ten to a word
+    protected final int precision; // Number of hash bits picking the register
+    protected final int registers; // Number of registers, 2^precision
+
+    /**
+     * Constructor for a sketch with a relative standard error of 0.81%.
+     */
+    public HyperLogLog4j() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructor for a sketch of the given precision.
+     *
+     * @param precision the base 2 logarithm of the number of registers, from 4 to 18
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    public HyperLogLog4j(int precision) {
+        this(precision, null);
+    }
+
+    /**
+     * Constructor that restores a sketch from its precision and registers.
+     *
+     * @param precision the base 2 logarithm of the number of registers
+     * @param words     the registers, or null for empty ones
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    protected HyperLogLog4j(int precision, AtomicLongArray words) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = 1 << precision;
+        this.words = words != null ? words : new AtomicLongArray(wordsFor(registers));
+    }
+
+    /**
+     * Restores a sketch serialized by {@link #toByteArray()}.
+     *
+     * @param bytes the serialized sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a serialized sketch
+     */
+    public static HyperLogLog4j fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long precision = Sketches4j.readParameters(MAGIC, "HyperLogLog4j", buffer, 1)[0];
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("corrupt HyperLogLog4j parameters");
+        }
+        AtomicLongArray words = Sketches4j.readWords("HyperLogLog4j", buffer, wordsFor(1 << precision));
+        return new HyperLogLog4j((int) precision, words);
+    }
+
+    /**
+     * Records the key.
+     *
+     * @param key the key to be counted
+     * @throws IllegalArgumentException if the key is null
+     */
+    public void add(Object key) {
+        long hash = Sketches4j.hash(key);
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        // The rank is the position of the first set bit after the register bits, at most 65 - precision
+        long rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        this.raise(register, rank);
+    }
+
+    /**
+     * Adds the keys counted by another sketch of the same precision to this sketch.
+     *
+     * @param other the sketch to be merged
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public void merge(HyperLogLog4j other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge sketches of different precisions");
+        }
+        for (int register = 0; register < registers; register++) {
+            this.raise(register, other.register(register));
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct keys recorded.
+     *
+     * @return the estimated cardinality
+     */
+    public long cardinality() {
+        double sum = 0;
+        int empty = 0;
+        for (int register = 0; register < registers; register++) {
+            long value = this.register(register);
+            sum += Double.longBitsToDouble((1023L - value) << 52); // 2^-value
+            if (value == 0) {
+                empty++;
+            }
+        }
+        double estimate = this.alpha() * registers * registers / sum;
+        if (estimate <= 2.5 * registers && empty > 0) {
+            estimate = registers * Math.log((double) registers / empty); // Linear counting
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns the relative standard error of the estimates of the sketch.
+     *
+     * @return the relative standard error
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers);
+    }
+
+    /**
+     * Returns the base 2 logarithm of the number of registers.
+     *
+     * @return the precision of the sketch
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Forgets every recorded key.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+    }
+
+    /**
+     * Serializes the sketch. Keys recorded concurrently may be missing.
+     *
+     * @return the serialized sketch
+     */
+    public byte[] toByteArray() {
+        return Sketches4j.toByteArray(MAGIC, new long[]{precision}, words);
+    }
+
+    private long register(int register) {
+        int shift = (register % REGISTERS_PER_WORD) * REGISTER_BITS;
+        return (words.get(register / REGISTERS_PER_WORD) >>> shift) & REGISTER_MASK;
+    }
+
+    // Raises the register to the value, unless it is already higher
+    private void raise(int register, long value) {
+        int index = register / REGISTERS_PER_WORD;
+        int shift = (register % REGISTERS_PER_WORD) * REGISTER_BITS;
+        long word;
+        while (((word = words.get(index)) >>> shift & REGISTER_MASK) < value) {
+            if (words.compareAndSet(index, word, (word & ~(REGISTER_MASK << shift)) | (value << shift))) {
+                return;
+            }
+        }
+    }
+
+    private double alpha() {
+        switch (registers) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / registers);
+        }
+    }
+
+    private static int wordsFor(int registers) {
+        return (registers + REGISTERS_PER_WORD - 1) / REGISTERS_PER_WORD;
+    }
+}
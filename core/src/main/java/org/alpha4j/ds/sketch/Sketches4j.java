@@ -0,0 +1,126 @@
+package org.alpha4j.ds.sketch;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Hashing and serialization shared by the sketches.
+ */
+final class Sketches4j {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private Sketches4j() {
+    }
+
+    /**
+     * Derives a well-mixed 64-bit hash from the hash code of the key.
+     *
+     * @param key the key to be hashed
+     * @return the 64-bit hash of the key
+     * @throws IllegalArgumentException if the key is null
+     */
+    static long hash(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        // The finalizer of MurmurHash3, a bijection spreading every input bit over the whole output
+        long hash = key.hashCode() * GOLDEN_RATIO + GOLDEN_RATIO;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Applies the function to an element of the array with compare-and-set, unless it leaves the
+     * element unchanged, in which case nothing is written.
+     *
+     * @param array    the array to be updated
+     * @param index    the index of the element
+     * @param function the update of the element
+     */
+    static void update(AtomicLongArray array, int index, LongUnaryOperator function) {
+        long current;
+        long next;
+        do {
+            current = array.get(index);
+            next = function.applyAsLong(current);
+        } while (next != current && !array.compareAndSet(index, current, next));
+    }
+
+    /**
+     * Serializes a sketch as its magic number, its parameters and its words, in big-endian order.
+     *
+     * @param magic      the magic number identifying the kind of sketch
+     * @param parameters the parameters needed to rebuild the sketch
+     * @param words      the storage of the sketch
+     * @return the serialized sketch
+     */
+    static byte[] toByteArray(int magic, long[] parameters, AtomicLongArray words) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 * parameters.length + 8 * words.length());
+        buffer.putInt(magic).putInt(parameters.length);
+        for (long parameter : parameters) {
+            buffer.putLong(parameter);
+        }
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads the parameters of a serialized sketch.
+     *
+     * @param magic      the magic number of the expected kind of sketch
+     * @param kind       the name of the expected kind of sketch, for the error messages
+     * @param bytes      the serialized sketch, left positioned at its words
+     * @param parameters the number of parameters of the expected kind of sketch
+     * @return the parameters
+     * @throws IllegalArgumentException if the bytes are not a sketch of the expected kind
+     */
+    static long[] readParameters(int magic, String kind, ByteBuffer bytes, int parameters) {
+        try {
+            if (bytes.getInt() != magic || bytes.getInt() != parameters) {
+                throw new IllegalArgumentException("not a serialized " + kind);
+            }
+            long[] values = new long[parameters];
+            for (int i = 0; i < parameters; i++) {
+                values[i] = bytes.getLong();
+            }
+            return values;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated " + kind, e);
+        }
+    }
+
+    /**
+     * Reads the words of a serialized sketch, which must be exactly what is left of the bytes.
+     *
+     * @param kind   the name of the expected kind of sketch, for the error messages
+     * @param bytes  the buffer positioned at the words
+     * @param length the number of words of the sketch
+     * @return the words of the sketch
+     * @throws IllegalArgumentException if the number of bytes left does not match
+     */
+    static AtomicLongArray readWords(String kind, ByteBuffer bytes, int length) {
+        if (bytes.remaining() != 8L * length) {
+            throw new IllegalArgumentException("corrupt " + kind + ": expected " + length + " words");
+        }
+        AtomicLongArray words = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            words.lazySet(i, bytes.getLong());
+        }
+        return words;
+    }
+
+    /**
+     * Returns the smallest power of two greater than or equal to the value.
+     *
+     * @param value a value between 1 and 2^30
+     * @return the power of two
+     */
+    static int ceilingPowerOfTwo(long value) {
+        return value <= 1 ? 1 : Integer.highestOneBit((int) Math.min(value - 1, (1 << 30) - 1)) << 1;
+    }
+}
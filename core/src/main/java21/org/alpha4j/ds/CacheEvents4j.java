@@ -0,0 +1,230 @@
+package org.alpha4j.ds;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Emits JDK Flight Recorder events for the caches: evictions, load durations, lock acquisitions
+ * that had to wait, and periodic samples of the size and hit rate of every monitored cache.
+ * <p>
+ * This is the Java 21 version of the class, packaged under {@code META-INF/versions/21}. It has
+ * the same API as the Java 8 version, which records nothing. Events are only built once JFR
+ * reports them as enabled, so with no recording running an eviction costs a disabled-check and
+ * an uncontended exclusive lock a single {@code tryLock}. Read locks are always acquired with
+ * {@code lock()}, so that readers never overtake queued writers. On a runtime image without the
+ * {@code jdk.jfr} module nothing is recorded. The events belong to the "alpha4j" category:
+ * <ul>
+ * <li>{@code org.alpha4j.CacheEviction}, every entry removed by a cache, with the hash of its key;</li>
+ * <li>{@code org.alpha4j.CacheLoad}, every call of a cache loader, with its duration;</li>
+ * <li>{@code org.alpha4j.CacheLockWait}, contended lock acquisitions that waited longer than the
+ * threshold of the event, 10 ms unless the recording settings change it;</li>
+ * <li>{@code org.alpha4j.CacheStatistics}, the size and hit rate of every registered cache, every
+ * 5 seconds unless the recording settings change the period.</li>
+ * </ul>
+ */
+public final class CacheEvents4j {
+    // Event classes are only loaded when the module is present, so that custom runtime images work without it
+    private static final boolean JFR = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+    private static final Set<Reference<? extends MonitoredCache4j>> CACHES = ConcurrentHashMap.newKeySet();
+    private static final ReferenceQueue<MonitoredCache4j> COLLECTED = new ReferenceQueue<>(); // Caches no longer in use
+
+    static {
+        if (JFR) {
+            FlightRecorder.addPeriodicEvent(StatisticsEvent.class, CacheEvents4j::sample);
+        }
+    }
+
+    @Name("org.alpha4j.CacheEviction")
+    @Label("Cache Eviction")
+    @Category("alpha4j")
+    @Description("An entry removed by the cache itself")
+    @StackTrace(false)
+    static final class EvictionEvent extends Event {
+        @Label("Cache")
+        String cache;
+        @Label("Key Hash")
+        int keyHash;
+        @Label("Cause")
+        String cause;
+    }
+
+    @Name("org.alpha4j.CacheLoad")
+    @Label("Cache Load")
+    @Category("alpha4j")
+    @Description("A call of a cache loader")
+    @StackTrace(false)
+    static final class LoadEvent extends Event {
+        @Label("Cache")
+        String cache;
+        @Label("Keys")
+        int keys;
+        @Label("Load Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long loadTime;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("org.alpha4j.CacheLockWait")
+    @Label("Cache Lock Wait")
+    @Category("alpha4j")
+    @Description("A cache lock acquisition that had to wait for another thread")
+    @Threshold("10 ms")
+    static final class LockWaitEvent extends Event {
+        @Label("Cache")
+        String cache;
+        @Label("Lock")
+        String lock;
+    }
+
+    @Name("org.alpha4j.CacheStatistics")
+    @Label("Cache Statistics")
+    @Category("alpha4j")
+    @Description("The size and hit rate of a cache")
+    @Period("5 s")
+    @StackTrace(false)
+    static final class StatisticsEvent extends Event {
+        @Label("Cache")
+        String cache;
+        @Label("Size")
+        int size;
+        @Label("Hits")
+        long hits;
+        @Label("Misses")
+        long misses;
+        @Label("Evictions")
+        long evictions;
+        @Label("Hit Rate")
+        @Percentage
+        double hitRate;
+    }
+
+    private CacheEvents4j() {
+    }
+
+    /**
+     * Registers a cache whose size and hit rate are sampled periodically. The cache is held weakly.
+     *
+     * @param cache the cache to be sampled
+     */
+    public static void register(MonitoredCache4j cache) {
+        if (!JFR) {
+            return;
+        }
+        expunge();
+        CACHES.add(new WeakReference<>(cache, COLLECTED));
+    }
+
+    /**
+     * Records an entry removed by the cache itself.
+     *
+     * @param cache the name of the cache
+     * @param key   the key of the entry, recorded as its hash code
+     * @param cause the reason the entry was removed
+     */
+    public static void evicted(String cache, Object key, RemovalCause4j cause) {
+        if (!JFR) {
+            return;
+        }
+        EvictionEvent event = new EvictionEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.keyHash = key == null ? 0 : key.hashCode();
+            event.cause = cause.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a call of a cache loader.
+     *
+     * @param cache   the name of the cache
+     * @param keys    the number of keys loaded by the call
+     * @param nanos   the duration of the call in nanoseconds
+     * @param success whether the loader returned normally
+     */
+    public static void loaded(String cache, int keys, long nanos, boolean success) {
+        if (!JFR) {
+            return;
+        }
+        LoadEvent event = new LoadEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.keys = keys;
+            event.loadTime = nanos;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * Acquires the lock, recording how long the caller waited if the lock was contended.
+     *
+     * @param lock  the lock to be acquired
+     * @param cache the name of the cache owning the lock
+     * @param kind  the kind of lock, such as read or write
+     */
+    public static void lock(Lock lock, String cache, String kind) {
+        // tryLock() barges past the queued threads: harmless for an exclusive lock, whose lock()
+        // barges as well, but readers barging past a queued writer could starve it
+        if (!(lock instanceof ReentrantReadWriteLock.ReadLock) && lock.tryLock()) {
+            return;
+        }
+        if (!JFR) {
+            lock.lock();
+            return;
+        }
+        LockWaitEvent event = new LockWaitEvent();
+        event.begin();
+        lock.lock();
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.lock = kind;
+            event.commit();
+        }
+    }
+
+    private static void sample() {
+        expunge();
+        for (Reference<? extends MonitoredCache4j> reference : CACHES) {
+            MonitoredCache4j cache = reference.get();
+            if (cache == null) {
+                continue;
+            }
+            CacheStats4j stats = cache.stats();
+            StatisticsEvent event = new StatisticsEvent();
+            event.cache = cache.getName();
+            event.size = cache.size();
+            event.hits = stats.hitCount();
+            event.misses = stats.missCount();
+            event.evictions = stats.evictionCount();
+            event.hitRate = stats.hitRate();
+            event.commit();
+        }
+    }
+
+    private static void expunge() {
+        Reference<? extends MonitoredCache4j> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            CACHES.remove(reference);
+        }
+    }
+}
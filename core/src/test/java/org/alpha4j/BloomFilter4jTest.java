@@ -0,0 +1,98 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.sketch.BloomFilter4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BloomFilter4jTest {
+
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter4j filter = new BloomFilter4j(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("key" + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("key" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+        // Blocking costs a little accuracy over the 1% a classic filter of this size achieves
+        assertTrue("false positive rate " + falsePositives / 100_000.0, falsePositives < 2_000);
+    }
+
+    @Test
+    public void testPut() {
+        BloomFilter4j filter = new BloomFilter4j(100, 0.01);
+        assertEquals(7, filter.hashes());
+        assertEquals(1024, filter.bitSize());
+        assertFalse(filter.mightContain(42));
+        assertTrue(filter.put(42));
+        assertFalse(filter.put(42));
+        assertTrue(filter.mightContain(42));
+
+        filter.clear();
+        assertFalse(filter.mightContain(42));
+    }
+
+    @Test
+    public void testConcurrentPut() throws InterruptedException {
+        BloomFilter4j filter = new BloomFilter4j(40_000, 0.01);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 10_000;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    filter.put(base + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Bits set concurrently in the same word are never lost
+        for (int i = 0; i < 40_000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+    }
+
+    @Test
+    public void testSerialization() {
+        BloomFilter4j filter = new BloomFilter4j(1_000, 0.05);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put(i);
+        }
+
+        BloomFilter4j copy = BloomFilter4j.fromByteArray(filter.toByteArray());
+
+        assertEquals(filter.bitSize(), copy.bitSize());
+        assertEquals(filter.hashes(), copy.hashes());
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(filter.mightContain(i), copy.mightContain(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorruptBytes() {
+        byte[] bytes = new BloomFilter4j(1_000, 0.05).toByteArray();
+        BloomFilter4j.fromByteArray(java.util.Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFalsePositiveRate() {
+        new BloomFilter4j(1_000, 1.0);
+    }
+}
@@ -0,0 +1,69 @@
+package org.alpha4j;
+
+import org.alpha4j.common.Map4j;
+import org.alpha4j.ds.*;
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reports the memory cost of one entry of every cache, excluding the keys and values themselves,
+ * so that heaps can be sized from the number of entries. Only 1K entries are measured by default;
+ * run with {@code -Dalpha4j.footprint.large=true} to measure 1M and 10M entries as well.
+ */
+public class CacheFootprintTest {
+
+    @Test
+    public void testFootprint1K() {
+        this.report(1_000);
+    }
+
+    @Test
+    public void testFootprint1M() {
+        Assume.assumeTrue(Boolean.getBoolean("alpha4j.footprint.large"));
+        this.report(1_000_000);
+    }
+
+    @Test
+    public void testFootprint10M() {
+        Assume.assumeTrue(Boolean.getBoolean("alpha4j.footprint.large"));
+        this.report(10_000_000);
+    }
+
+    private void report(int entries) {
+        Integer[] keys = new Integer[entries];
+        Integer[] values = new Integer[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = i;
+            values[i] = -i - 1; // Distinct from the keys, so that no object is shared
+        }
+        // The keys and values themselves, without the arrays holding them
+        long payload = GraphLayout.parseInstance(keys, values).totalSize()
+                - ClassLayout.parseInstance(keys).instanceSize() - ClassLayout.parseInstance(values).instanceSize();
+
+        double lru = measure("LRUCache4j", entries, payload, LRUCache4j::new, (cache, i) -> cache.put(keys[i], values[i]));
+        double lfu = measure("LFUCache4j", entries, payload, LFUCache4j::new, (cache, i) -> cache.put(keys[i], values[i]));
+        double compactLru = measure("CompactLRUCache4j", entries, payload, CompactLRUCache4j::new, (cache, i) -> cache.put(keys[i], values[i]));
+        double compactLfu = measure("CompactLFUCache4j", entries, payload, CompactLFUCache4j::new, (cache, i) -> cache.put(keys[i], values[i]));
+        measure("Map4j", entries, payload, capacity -> new Map4j<Integer, Integer>(), (map, i) -> map.put(keys[i], values[i]));
+
+        assertTrue(compactLru < lru);
+        assertTrue(compactLfu < lfu);
+    }
+
+    private static <C> double measure(String name, int entries, long payload, IntFunction<C> factory, BiConsumer<C, Integer> put) {
+        C cache = factory.apply(entries);
+        for (int i = 0; i < entries; i++) {
+            put.accept(cache, i);
+        }
+        double perEntry = (double) (GraphLayout.parseInstance(cache).totalSize() - payload) / entries;
+        System.out.printf("%-20s %,12d entries %10.1f bytes/entry%n", name, entries, perEntry);
+        return perEntry;
+    }
+}
@@ -0,0 +1,120 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.CompactLFUCache4j;
+import org.alpha4j.ds.LFUCache4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompactLFUCache4jTest {
+    protected CompactLFUCache4j<Integer, String> cache;
+
+    @Before
+    public void setUp() {
+        cache = new CompactLFUCache4j<>(2);
+    }
+
+    @Test
+    public void testEviction() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void testFrequencyUpdate() {
+        cache.put(1, "one");
+        cache.get(1);
+        cache.put(1, "uno");
+
+        assertEquals(3, cache.frequency(1));
+        assertEquals(0, cache.frequency(2));
+        assertEquals("uno", cache.get(1));
+    }
+
+    @Test
+    public void testTiesEvictTheOldest() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(2);
+        cache.get(1);
+        cache.put(3, "three"); // 1 and 2 both have count 2, 2 reached it first
+
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(1));
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(2);
+        assertEquals("one", cache.remove(1));
+        cache.put(3, "three");
+        cache.put(4, "four");
+
+        assertTrue(cache.containsKey(2));
+        assertFalse(cache.containsKey(3));
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.put(5, "five");
+        assertEquals("five", cache.get(5));
+    }
+
+    @Test
+    public void testZeroCapacity() {
+        CompactLFUCache4j<Integer, String> zeroCapacityCache = new CompactLFUCache4j<>(0);
+        zeroCapacityCache.put(1, "one");
+        assertNull(zeroCapacityCache.get(1));
+    }
+
+    @Test
+    public void testForEachInEvictionOrder() {
+        CompactLFUCache4j<Integer, String> cache = new CompactLFUCache4j<>(3);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        cache.get(1);
+        cache.get(1);
+        cache.get(3);
+
+        List<Integer> order = new ArrayList<>();
+        cache.forEach((key, value) -> order.add(key));
+        assertEquals(Arrays.asList(2, 3, 1), order);
+    }
+
+    @Test
+    public void testMatchesLFUCache4j() {
+        Random random = new Random(42);
+        CompactLFUCache4j<Integer, Integer> compact = new CompactLFUCache4j<>(100);
+        LFUCache4j<Integer, Integer> reference = new LFUCache4j<>(100);
+        for (int i = 0; i < 100_000; i++) {
+            int key = (int) Math.abs(random.nextGaussian() * 150);
+            switch (random.nextInt(5)) {
+                case 0:
+                    assertEquals(reference.remove(key), compact.remove(key));
+                    break;
+                case 1:
+                case 2:
+                    assertEquals(reference.get(key), compact.get(key));
+                    break;
+                default:
+                    reference.put(key, i);
+                    compact.put(key, i);
+            }
+            assertEquals(reference.size(), compact.size());
+        }
+        reference.forEach((key, value) -> assertEquals(value, compact.get(key)));
+    }
+}
@@ -0,0 +1,126 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.CompactLRUCache4j;
+import org.alpha4j.ds.LRUCache4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompactLRUCache4jTest {
+    protected CompactLRUCache4j<Integer, String> cache;
+
+    @Before
+    public void setUp() {
+        cache = new CompactLRUCache4j<>(3);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertEquals("one", cache.get(1));
+        assertEquals("two", cache.get(2));
+        assertNull(cache.get(3));
+        assertEquals("two", cache.put(2, "deux"));
+        assertEquals("deux", cache.get(2));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEvictionOrder() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        cache.get(1);
+        cache.put(4, "four");
+
+        assertFalse(cache.containsKey(2));
+        List<Integer> order = new ArrayList<>();
+        cache.forEach((key, value) -> order.add(key));
+        assertEquals(Arrays.asList(3, 1, 4), order);
+    }
+
+    @Test
+    public void testRemoveAndReuseSlots() {
+        for (int i = 0; i < 3; i++) {
+            cache.put(i, "v" + i);
+        }
+        assertEquals("v1", cache.remove(1));
+        assertNull(cache.remove(1));
+        cache.put(3, "v3");
+        assertEquals(3, cache.size());
+        assertEquals("v0", cache.get(0));
+        assertEquals("v3", cache.get(3));
+    }
+
+    @Test
+    public void testNullKeyAndClear() {
+        cache.put(null, "null");
+        assertEquals("null", cache.get(null));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(null));
+        cache.put(1, "one");
+        assertEquals("one", cache.get(1));
+    }
+
+    @Test
+    public void testMatchesLRUCache4j() {
+        Random random = new Random(42);
+        CompactLRUCache4j<Integer, Integer> compact = new CompactLRUCache4j<>(100);
+        LRUCache4j<Integer, Integer> reference = new LRUCache4j<>(100);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(300);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(reference.remove(key), compact.remove(key));
+                    break;
+                case 1:
+                    assertEquals(reference.get(key), compact.get(key));
+                    break;
+                default:
+                    assertEquals(reference.put(key, i), compact.put(key, i));
+            }
+        }
+        assertEquals(reference.size(), compact.size());
+        List<Integer> order = new ArrayList<>();
+        compact.forEach((key, value) -> order.add(key));
+        assertEquals(new ArrayList<>(reference.keySet()), order);
+    }
+
+    @Test
+    public void testSetMaximumSize() {
+        CompactLRUCache4j<Integer, Integer> large = new CompactLRUCache4j<>(5000);
+        for (int i = 0; i < 5000; i++) {
+            large.put(i, i);
+        }
+        large.get(0);
+
+        // Shrinking evicts one bounded batch of the least recently used entries
+        large.setMaximumSize(10);
+        assertEquals(10, large.getMaximumSize());
+        assertEquals(5000 - 1024, large.size());
+        assertFalse(large.containsKey(1));
+
+        for (int i = 0; i < 4; i++) {
+            large.put(-1, -1);
+        }
+        assertEquals(10, large.size());
+        assertTrue(large.containsKey(0));
+        assertTrue(large.containsKey(-1));
+
+        // Growing again reuses the released slots
+        large.setMaximumSize(6000);
+        for (int i = 0; i < 6000; i++) {
+            large.put(i, i);
+        }
+        assertEquals(6000, large.size());
+        assertEquals(Integer.valueOf(5999), large.get(5999));
+    }
+}
@@ -0,0 +1,176 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.*;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class CompressingCache4jTest {
+
+    @Test
+    public void testFitsMoreEntries() {
+        CompressingCache4j<Integer, String> compressed = CompressingCache4j.strings(1 << 20);
+        // The same cache, with a codec that never compresses
+        CompressingCache4j<Integer, String> plain = new CompressingCache4j<>(1 << 20, new CompressingCodec4j<>(
+                value -> value.getBytes(StandardCharsets.UTF_8), bytes -> new String(bytes, StandardCharsets.UTF_8),
+                new DeflateCompressor4j(), Integer.MAX_VALUE, 1));
+        for (int i = 0; i < 2_000; i++) {
+            compressed.put(i, document(i));
+            plain.put(i, document(i));
+        }
+
+        assertEquals(2_000, compressed.size());
+        assertTrue(compressed.compressionRatio() < 0.2);
+        assertTrue(compressed.size() + " vs " + plain.size(), compressed.size() > 5 * plain.size());
+        assertEquals(document(1_999), compressed.get(1_999));
+        assertEquals(document(0), compressed.get(0));
+    }
+
+    @Test
+    public void testThresholds() {
+        CompressingCodec4j<byte[]> codec = CompressingCodec4j.bytes();
+        byte[] small = new byte[100];
+        byte[] large = new byte[10_000];
+        byte[] random = new byte[10_000];
+        new Random(3).nextBytes(random);
+
+        CompressedValue4j encoded = codec.encode(large);
+        assertTrue(encoded.isCompressed());
+        assertEquals(10_000, encoded.length());
+        assertTrue(encoded.size() < 100);
+        assertArrayEquals(large, codec.decode(encoded));
+
+        // Small values, and values that do not compress, are kept as they are
+        assertFalse(codec.encode(small).isCompressed());
+        assertSame(small, codec.decode(codec.encode(small)));
+        assertFalse(codec.encode(random).isCompressed());
+        assertEquals(10_000, codec.encode(random).size());
+    }
+
+    @Test
+    public void testPluggableCompressor() {
+        AtomicInteger decompressed = new AtomicInteger();
+        // Run-length encoding of a single repeated byte, counting the decompressions
+        Compressor4j compressor = new Compressor4j() {
+            @Override
+            public byte[] compress(byte[] data) {
+                return new byte[]{data[0]};
+            }
+
+            @Override
+            public byte[] decompress(byte[] data, int length) {
+                decompressed.incrementAndGet();
+                byte[] result = new byte[length];
+                Arrays.fill(result, data[0]);
+                return result;
+            }
+        };
+        CompressingCache4j<String, byte[]> cache = new CompressingCache4j<>(1_000,
+                new CompressingCodec4j<>(Function.identity(), Function.identity(), compressor, 16, 0.5));
+        byte[] value = new byte[4_096];
+        Arrays.fill(value, (byte) 7);
+        cache.put("a", value);
+        cache.put("b", value);
+
+        assertEquals(2, cache.weight());
+        // Values are decompressed on reads only
+        assertEquals(0, decompressed.get());
+        assertArrayEquals(value, cache.get("a"));
+        assertEquals(1, decompressed.get());
+    }
+
+    @Test
+    public void testEvictsByStoredSize() {
+        CompressingCache4j<Integer, byte[]> cache = new CompressingCache4j<>(1_000, CompressingCodec4j.bytes());
+        Random random = new Random(5);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, random(300, random)); // Random bytes are stored uncompressed
+            if (i == 2) {
+                cache.get(0);
+            }
+        }
+
+        // The least recently used entries go first
+        assertEquals(900, cache.weight());
+        assertTrue(cache.containsKey(0));
+        assertFalse(cache.containsKey(1));
+        assertFalse(cache.containsKey(2));
+        assertEquals(2, cache.stats().evictionCount());
+
+        // A value larger than the maximum weight is not cached, and drops the previous one
+        cache.put(0, random(1_001, random));
+        assertFalse(cache.containsKey(0));
+        assertTrue(cache.remove(3));
+        cache.setMaximumWeight(300);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testWithWeightedCache() {
+        // The stored size serves as the weight of another weight-bounded cache
+        CompressingCodec4j<String> codec = CompressingCodec4j.strings();
+        MultiTenantCache4j<String, Integer, CompressedValue4j> cache = new MultiTenantCache4j<>(100_000);
+        for (int i = 0; i < 100; i++) {
+            CompressedValue4j value = codec.encode(document(i));
+            cache.put("tenant", i, value, value.size());
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(document(42), codec.decode(cache.get("tenant", 42)));
+    }
+
+    @Test
+    public void testConcurrentCompression() throws InterruptedException {
+        CompressingCache4j<Integer, String> cache = CompressingCache4j.strings(Long.MAX_VALUE);
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 500;
+            threads.add(new Thread(() -> {
+                for (int i = base; i < base + 500; i++) {
+                    cache.put(i, document(i));
+                    if (!document(i).equals(cache.get(i))) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, mismatches.get());
+        assertEquals(2_000, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorruptedData() {
+        new DeflateCompressor4j().decompress(new byte[]{1, 2, 3, 4}, 100);
+    }
+
+    private static String document(int id) {
+        StringBuilder json = new StringBuilder("{\"id\":").append(id).append(",\"items\":[");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"item-").append(i)
+                    .append("\",\"status\":\"active\",\"price\":").append((id + i) % 97).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static byte[] random(int length, Random random) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,83 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.LRUCache4j;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that alpha4j-core needs nothing but the JDK: its classes are loaded and used from a class
+ * loader that sees only the core classes, without Jackson, SLF4J or any other library.
+ */
+public class CoreClasspathTest {
+
+    @Test
+    public void testLoadsWithoutDependencies() throws Exception {
+        URL location = LRUCache4j.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{location}, ClassLoader.getSystemClassLoader().getParent())) {
+            assertMissing(loader, "org.slf4j.Logger");
+            assertMissing(loader, "com.fasterxml.jackson.databind.ObjectMapper");
+
+            List<String> classes = classNames(location);
+            assertTrue(classes.contains("org.alpha4j.common.Map4j"));
+            for (String name : classes) {
+                // Json4j is the optional Jackson integration, loaded only by Map4j.writeTo and Map4j.readFrom
+                if (!name.startsWith("org.alpha4j.common.Json4j")) {
+                    assertSame(loader, Class.forName(name, false, loader).getClassLoader());
+                }
+            }
+
+            Object cache = Class.forName("org.alpha4j.ds.LRUCache4j", true, loader).getConstructor(int.class).newInstance(2);
+            cache.getClass().getMethod("put", Object.class, Object.class).invoke(cache, "key", "value");
+            assertEquals("value", cache.getClass().getMethod("get", Object.class).invoke(cache, "key"));
+
+            Object map = Class.forName("org.alpha4j.common.Map4j", true, loader).getConstructor().newInstance();
+            map.getClass().getMethod("put", Object.class, Object.class).invoke(map, "key", 1);
+            assertEquals(1, map.getClass().getMethod("get", Object.class).invoke(map, "key"));
+        }
+    }
+
+    private static void assertMissing(ClassLoader loader, String name) {
+        try {
+            Class.forName(name, false, loader);
+            fail(name + " is visible to the core classes");
+        } catch (ClassNotFoundException expected) {
+            // The dependency is absent, as intended
+        }
+    }
+
+    private static List<String> classNames(URL location) throws IOException, URISyntaxException {
+        Path path = Paths.get(location.toURI());
+        List<String> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(Files::isRegularFile).forEach(file -> files.add(path.relativize(file).toString().replace('\\', '/')));
+            }
+        } else {
+            try (JarFile jar = new JarFile(path.toFile())) {
+                for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                    files.add(entries.nextElement().getName());
+                }
+            }
+        }
+        return files.stream()
+                .filter(file -> file.startsWith("org/alpha4j/") && file.endsWith(".class"))
+                .map(file -> file.substring(0, file.length() - ".class".length()).replace('/', '.'))
+                .collect(Collectors.toList());
+    }
+}
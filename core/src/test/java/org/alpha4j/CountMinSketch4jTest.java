@@ -0,0 +1,93 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.sketch.CountMinSketch4j;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CountMinSketch4jTest {
+
+    @Test
+    public void testErrorBound() {
+        double epsilon = 0.001;
+        CountMinSketch4j sketch = new CountMinSketch4j(epsilon, 0.01);
+        Map<Integer, Integer> counts = new HashMap<>();
+        Random random = new Random(11);
+        int additions = 50_000;
+        for (int i = 0; i < additions; i++) {
+            // A skewed stream: small keys are much more frequent
+            int key = (int) (Math.pow(random.nextDouble(), 3) * 10_000);
+            counts.merge(key, 1, Integer::sum);
+            sketch.add(key);
+        }
+
+        int exceeded = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue());
+            if (estimate > entry.getValue() + epsilon * additions) {
+                exceeded++;
+            }
+        }
+        // The bound may be exceeded with probability delta
+        assertTrue("keys over the error bound: " + exceeded, exceeded <= 0.01 * counts.size() + 1);
+    }
+
+    @Test
+    public void testAging() {
+        CountMinSketch4j sketch = new CountMinSketch4j(0.01, 0.01, 100);
+        for (int i = 0; i < 60; i++) {
+            sketch.add("old");
+        }
+        assertEquals(60, sketch.estimate("old"));
+
+        // The 100th addition halves every counter
+        for (int i = 0; i < 40; i++) {
+            sketch.add("new");
+        }
+        assertEquals(30, sketch.estimate("old"));
+        assertEquals(20, sketch.estimate("new"));
+
+        sketch.age();
+        assertEquals(15, sketch.estimate("old"));
+    }
+
+    @Test
+    public void testSaturation() {
+        CountMinSketch4j sketch = new CountMinSketch4j(0.01, 0.01);
+        sketch.add("key", 60_000);
+        sketch.add("key", 60_000);
+
+        assertEquals(65_535, sketch.estimate("key"));
+    }
+
+    @Test
+    public void testSerialization() {
+        CountMinSketch4j sketch = new CountMinSketch4j(0.01, 0.05, 1_000);
+        for (int i = 0; i < 500; i++) {
+            sketch.add(i % 50);
+        }
+
+        CountMinSketch4j copy = CountMinSketch4j.fromByteArray(sketch.toByteArray());
+
+        assertEquals(sketch.width(), copy.width());
+        assertEquals(sketch.depth(), copy.depth());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(sketch.estimate(i), copy.estimate(i));
+        }
+        // The progress towards the next halving is restored as well
+        for (int i = 0; i < 500; i++) {
+            copy.add("other");
+        }
+        assertEquals(5, copy.estimate(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongKind() {
+        CountMinSketch4j.fromByteArray(new byte[]{1, 2, 3, 4, 0, 0, 0, 4});
+    }
+}
@@ -0,0 +1,120 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.GreedyDualSizeCache4j;
+import org.alpha4j.ds.LRUCache4j;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GreedyDualSizeCache4jTest {
+
+    @Test
+    public void testEvictsCheapestPerSize() {
+        GreedyDualSizeCache4j<String, String> cache = new GreedyDualSizeCache4j<>(10, false);
+        cache.put("expensive", "e", 4_000, 2);
+        cache.put("cheap", "c", 2, 2);
+        cache.put("large", "l", 4_000, 6); // Costly, but 3 times larger than the expensive one
+
+        cache.put("new", "n", 2_000, 2);
+        assertFalse(cache.containsKey("cheap"));
+        assertEquals(10, cache.weight());
+
+        cache.put("newer", "n", 2_000, 2);
+        assertFalse(cache.containsKey("large"));
+        assertTrue(cache.containsKey("expensive"));
+        assertTrue(cache.containsKey("new"));
+        assertEquals(2, cache.stats().evictionCount());
+    }
+
+    @Test
+    public void testInflationAgesExpensiveEntries() {
+        GreedyDualSizeCache4j<Integer, Integer> cache = new GreedyDualSizeCache4j<>(4, false);
+        cache.put(-1, -1, 50, 1);
+        // Evictions keep raising the inflation value, so new entries eventually outrank the old one
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i, 10, 1);
+        }
+        assertFalse(cache.containsKey(-1));
+    }
+
+    @Test
+    public void testFrequency() {
+        GreedyDualSizeCache4j<Integer, Integer> cache = new GreedyDualSizeCache4j<>(2);
+        cache.put(1, 1, 10, 1);
+        cache.put(2, 2, 15, 1);
+        cache.get(1); // Frequency 2, priority 20
+        cache.put(3, 3, 10, 1);
+
+        assertTrue(cache.containsKey(1));
+        assertFalse(cache.containsKey(2));
+        assertEquals(10, cache.savedCost());
+    }
+
+    @Test
+    public void testNewEntryIsNotEvictedByItsOwnInsertion() {
+        GreedyDualSizeCache4j<Integer, Integer> cache = new GreedyDualSizeCache4j<>(3, false);
+        cache.put(1, 1, 100, 1);
+        cache.put(2, 2, 100, 1);
+        cache.put(3, 3, 100, 1);
+        cache.put(4, 4, 1, 2);
+
+        assertTrue(cache.containsKey(4));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.weight());
+    }
+
+    @Test
+    public void testSavesMoreBackendTimeThanLru() {
+        // 1,000 keys accessed uniformly; one key in ten takes 4 s to recompute, the others 2 ms
+        Random random = new Random(5);
+        GreedyDualSizeCache4j<Integer, Integer> gds = new GreedyDualSizeCache4j<>(100);
+        LRUCache4j<Integer, Integer> lru = new LRUCache4j<>(100);
+        long lruSaved = 0;
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1_000);
+            long cost = key % 10 == 0 ? 4_000 : 2;
+            if (gds.get(key) == null) {
+                gds.put(key, key, cost, 1);
+            }
+            if (lru.get(key) != null) {
+                lruSaved += cost;
+            } else {
+                lru.put(key, key);
+            }
+        }
+
+        // The cache keeps the 100 expensive keys instead of a random tenth of all keys
+        assertTrue(gds.savedCost() + " vs " + lruSaved, gds.savedCost() > 5 * lruSaved);
+    }
+
+    @Test
+    public void testRemoveAndResize() {
+        GreedyDualSizeCache4j<Integer, Integer> cache = new GreedyDualSizeCache4j<>(100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i, i, 10);
+        }
+        assertEquals(Integer.valueOf(5), cache.remove(5));
+        assertNull(cache.remove(5));
+        assertEquals(90, cache.weight());
+
+        cache.setMaximumSize(30);
+        assertEquals(30, cache.getMaximumSize());
+        assertEquals(3, cache.size());
+        assertTrue(cache.containsKey(9));
+        assertTrue(cache.containsKey(8));
+        assertTrue(cache.containsKey(7));
+
+        // A value larger than the maximum size is not cached, and the previous value is dropped
+        assertEquals(Integer.valueOf(9), cache.put(9, 9, 1, 31));
+        assertFalse(cache.containsKey(9));
+        cache.clear();
+        assertEquals(0, cache.weight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new GreedyDualSizeCache4j<Integer, Integer>(10).put(1, 1, 1, 0);
+    }
+}
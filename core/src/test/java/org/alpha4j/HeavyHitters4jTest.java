@@ -0,0 +1,102 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.HeavyHitters4j;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class HeavyHitters4jTest {
+
+    @Test
+    public void testTopK() {
+        HeavyHitters4j<Integer> hitters = new HeavyHitters4j<>(50);
+        Map<Integer, Integer> counts = new HashMap<>();
+        Random random = new Random(42);
+        // Keys 0 to 4 make up half of the stream, the other half is spread over 10,000 keys
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextBoolean() ? random.nextInt(5) : 5 + random.nextInt(10_000);
+            counts.merge(key, 1, Integer::sum);
+            hitters.record(key);
+        }
+
+        List<HeavyHitters4j.Entry<Integer>> top = hitters.topK(5);
+
+        assertEquals(5, top.size());
+        for (HeavyHitters4j.Entry<Integer> entry : top) {
+            assertTrue(entry.key() < 5);
+            assertTrue(entry.count() >= counts.get(entry.key()));
+            assertTrue(entry.guaranteed() <= counts.get(entry.key()));
+        }
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).count() >= top.get(i).count());
+        }
+        assertEquals(100_000, hitters.total());
+    }
+
+    @Test
+    public void testEstimate() {
+        HeavyHitters4j<String> hitters = new HeavyHitters4j<>(2);
+        hitters.record("a");
+        hitters.record("a");
+        hitters.record("b");
+        hitters.record("c"); // Takes over the counter of b
+
+        assertEquals(2, hitters.estimate("a"));
+        assertEquals(2, hitters.estimate("c"));
+        for (HeavyHitters4j.Entry<String> entry : hitters.topK(2)) {
+            assertEquals(entry.key().equals("c") ? 1 : 0, entry.error());
+        }
+        // An untracked key cannot have occurred more often than the lowest counter
+        assertEquals(2, hitters.estimate("b"));
+
+        hitters.clear();
+        assertEquals(0, hitters.estimate("a"));
+        assertTrue(hitters.topK(10).isEmpty());
+    }
+
+    @Test
+    public void testRecording() {
+        HeavyHitters4j<Integer> hitters = new HeavyHitters4j<>(10);
+        Function<Integer, String> lookup = hitters.recording(String::valueOf);
+
+        assertEquals("7", lookup.apply(7));
+        lookup.apply(7);
+        lookup.apply(8);
+
+        assertEquals(Integer.valueOf(7), hitters.topK(1).get(0).key());
+        assertEquals(2, hitters.topK(1).get(0).count());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        HeavyHitters4j<Integer> hitters = new HeavyHitters4j<>(20);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                Random random = new Random();
+                for (int i = 0; i < 50_000; i++) {
+                    hitters.record(i % 2 == 0 ? 0 : random.nextInt(1_000));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Recording never blocks, so some keys may be dropped, but the hottest key stays on top
+        assertEquals(Integer.valueOf(0), hitters.topK(1).get(0).key());
+        assertTrue(hitters.total() <= 200_000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new HeavyHitters4j<>(0);
+    }
+}
@@ -0,0 +1,92 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.sketch.HyperLogLog4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HyperLogLog4jTest {
+
+    @Test
+    public void testErrorBound() {
+        for (int cardinality : new int[]{100, 1_000, 10_000, 200_000}) {
+            HyperLogLog4j sketch = new HyperLogLog4j();
+            for (int i = 0; i < cardinality; i++) {
+                sketch.add("key" + i);
+                sketch.add("key" + i); // Duplicates do not count
+            }
+            double error = Math.abs(sketch.cardinality() - cardinality) / (double) cardinality;
+            // Three standard errors
+            assertTrue(cardinality + " estimated as " + sketch.cardinality(), error < 3 * sketch.relativeError());
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        HyperLogLog4j first = new HyperLogLog4j(12);
+        HyperLogLog4j second = new HyperLogLog4j(12);
+        for (int i = 0; i < 30_000; i++) {
+            first.add(i);
+            second.add(i + 20_000);
+        }
+
+        first.merge(second);
+
+        assertTrue(Math.abs(first.cardinality() - 50_000) < 50_000 * 3 * first.relativeError());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        HyperLogLog4j sketch = new HyperLogLog4j();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 25_000;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    sketch.add(base + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        HyperLogLog4j sequential = new HyperLogLog4j();
+        for (int i = 0; i < 100_000; i++) {
+            sequential.add(i);
+        }
+        // No register update is lost, so the registers match those of a sequential run
+        assertEquals(sequential.cardinality(), sketch.cardinality());
+    }
+
+    @Test
+    public void testSerialization() {
+        HyperLogLog4j sketch = new HyperLogLog4j(10);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(i);
+        }
+
+        HyperLogLog4j copy = HyperLogLog4j.fromByteArray(sketch.toByteArray());
+
+        assertEquals(10, copy.precision());
+        assertEquals(sketch.cardinality(), copy.cardinality());
+        copy.clear();
+        assertEquals(0, copy.cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeDifferentPrecisions() {
+        new HyperLogLog4j(10).merge(new HyperLogLog4j(11));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrecision() {
+        new HyperLogLog4j(3);
+    }
+}
@@ -0,0 +1,380 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.HeavyHitters4j;
+import org.alpha4j.ds.LFUCache4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LFUCache4jTest {
+
+    private LFUCache4j<Integer, String> cache;
+
+    @Before
+    public void setUp() {
+        // Initialize the cache with a capacity of 2
+        cache = new LFUCache4j<>(2);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        // Test adding elements to the cache
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Verify the elements are correctly added
+        assertEquals("one", cache.get(1));
+        assertEquals("two", cache.get(2));
+
+        // Test updating an existing element
+        cache.put(1, "ONE");
+        assertEquals("ONE", cache.get(1));
+    }
+
+    @Test
+    public void testEviction() {
+        // Add elements to fill the cache
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Access element 1 to increase its frequency
+        cache.get(1);
+
+        // Add another element to trigger eviction
+        cache.put(3, "three");
+
+        // Verify that element 2 is evicted (as it was less frequently accessed)
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void testFrequencyUpdate() {
+        // Add elements to the cache
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Access elements to update their frequencies
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        // Add another element to trigger eviction
+        cache.put(3, "three");
+
+        // Verify that element 2 is evicted (since element 1 has higher frequency)
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void testUpdateValue() {
+        // Add an element to the cache
+        cache.put(1, "one");
+
+        // Verify the value is correctly added
+        assertEquals("one", cache.get(1));
+
+        // Update the value of the existing element
+        cache.put(1, "ONE");
+
+        // Verify the value is correctly updated
+        assertEquals("ONE", cache.get(1));
+    }
+
+    @Test
+    public void testMinFrequency() {
+        // Add elements to the cache
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Access elements to update their frequencies
+        cache.get(1);
+        cache.get(2);
+        cache.get(2);
+
+        // Add another element to trigger eviction
+        cache.put(3, "three");
+
+        // Verify that element 1 is evicted (since it has the lowest frequency)
+        assertNull(cache.get(1));
+        assertEquals("two", cache.get(2));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void testZeroCapacity() {
+        // Initialize the cache with zero capacity
+        LFUCache4j<Integer, String> zeroCapacityCache = new LFUCache4j<>(0);
+
+        // Attempt to add elements to the zero-capacity cache
+        zeroCapacityCache.put(1, "one");
+
+        // Verify that no elements are added
+        assertNull(zeroCapacityCache.get(1));
+    }
+
+    @Test
+    public void testWriteToStreamsAConsistentSnapshot() throws IOException, InterruptedException {
+        cache.put(1, "A");
+        List<Thread> writers = new ArrayList<>();
+        List<Boolean> blocked = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                if (writers.isEmpty()) {
+                    // Another thread writes to the cache while the entries are being serialized
+                    Thread writer = new Thread(() -> cache.put(2, "B"));
+                    writers.add(writer);
+                    writer.start();
+                    try {
+                        writer.join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    blocked.add(writer.isAlive());
+                }
+                super.write(b, off, len);
+            }
+        };
+        cache.writeTo(out);
+        writers.get(0).join(5_000);
+
+        assertTrue(blocked.get(0));
+        assertEquals("{\"1\":\"A\"}", out.toString());
+        assertEquals("B", cache.get(2));
+    }
+
+    @Test
+    public void testWriteToAndReadFrom() throws IOException {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.writeTo(out);
+
+        LFUCache4j<Integer, String> copy = new LFUCache4j<>(2);
+        copy.readFrom(new ByteArrayInputStream(out.toByteArray()), Integer::valueOf, String.class);
+
+        assertEquals("one", copy.get(1));
+        assertEquals("two", copy.get(2));
+    }
+
+    @Test
+    public void testRemove() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(2);
+
+        // Removing the only key of the lowest frequency leaves a stale minimum behind
+        assertEquals("one", cache.remove(1));
+        assertFalse(cache.containsKey(1));
+        assertEquals(1, cache.size());
+
+        cache.put(3, "three");
+        cache.put(4, "four");
+
+        // Key 3 is the least frequently used one and is evicted
+        assertEquals(2, cache.size());
+        assertEquals("two", cache.get(2));
+        assertNull(cache.get(3));
+        assertEquals("four", cache.get(4));
+    }
+
+    @Test
+    public void testSetMaximumSize() {
+        LFUCache4j<Integer, Integer> large = new LFUCache4j<>(3000);
+        for (int i = 0; i < 3000; i++) {
+            large.put(i, i);
+        }
+        large.get(2999);
+        large.get(2999);
+
+        // Shrinking evicts one bounded batch of the least frequently used entries
+        large.setMaximumSize(5);
+        assertEquals(5, large.getMaximumSize());
+        assertEquals(3000 - 1024, large.size());
+        assertFalse(large.containsKey(0));
+
+        // Every write evicts another batch until the cache fits
+        large.put(-1, -1);
+        large.put(-1, -1);
+        assertEquals(5, large.size());
+        assertTrue(large.containsKey(2999));
+        assertTrue(large.containsKey(-1));
+
+        large.put(-2, -2);
+        assertEquals(5, large.size());
+        assertTrue(large.containsKey(2999));
+    }
+
+    @Test
+    public void testShrinkToZero() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        cache.setMaximumSize(0);
+        cache.put(3, "three");
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void testMaintenanceMode() {
+        List<Runnable> tasks = new ArrayList<>();
+        LFUCache4j<Integer, Integer> large = new LFUCache4j<>(10, tasks::add);
+        for (int i = 0; i < 10; i++) {
+            large.put(i, i);
+            large.get(i);
+        }
+        for (int i = 10; i < 75; i++) {
+            large.put(i, i);
+        }
+        assertEquals(1, tasks.size());
+        assertEquals(75, large.size());
+
+        // The run evicts the least frequently used items
+        tasks.remove(0).run();
+        assertEquals(10, large.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(large.containsKey(i));
+        }
+
+        // Without maintenance runs the overshoot stays bounded
+        for (int i = 100; i < 10_000; i++) {
+            large.put(i, i);
+        }
+        assertEquals(10 + 4096, large.size());
+    }
+
+    @Test
+    public void testStats() {
+        cache.put(1, "one");
+        cache.put(1, "uno"); // Updates count as accesses but not as hits
+        cache.put(2, "two");
+        cache.put(3, "three");
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    public void testHottest() {
+        LFUCache4j<Integer, Integer> large = new LFUCache4j<>(10);
+        for (int i = 0; i < 5; i++) {
+            large.put(i, i);
+            for (int j = 0; j < i; j++) {
+                large.get(i);
+            }
+        }
+
+        List<HeavyHitters4j.Entry<Integer>> hottest = large.hottest(3);
+
+        assertEquals(3, hottest.size());
+        assertEquals(Integer.valueOf(4), hottest.get(0).key());
+        assertEquals(5, hottest.get(0).count());
+        assertEquals(0, hottest.get(0).error());
+        assertEquals(Integer.valueOf(3), hottest.get(1).key());
+        assertEquals(Integer.valueOf(2), hottest.get(2).key());
+        assertEquals(5, large.hottest(100).size());
+    }
+
+    @Test
+    public void testAgingOnShiftingPopularity() {
+        double plain = shiftingPopularityHitRatio(new LFUCache4j<>(60));
+        double aging = shiftingPopularityHitRatio(LFUCache4j.aging(60, 600));
+
+        // Without decay the first hot set keeps 50 of the 60 slots forever
+        assertTrue("plain hit ratio " + plain, plain < 0.3);
+        assertTrue("aging hit ratio " + aging, aging > 0.6);
+    }
+
+    @Test
+    public void testWindowOnShiftingPopularity() {
+        double windowed = shiftingPopularityHitRatio(LFUCache4j.windowed(60, 600));
+
+        assertTrue("windowed hit ratio " + windowed, windowed > 0.6);
+    }
+
+    @Test
+    public void testWindowExpiresAccesses() {
+        LFUCache4j<Integer, String> windowed = LFUCache4j.windowed(2, 4);
+        windowed.put(1, "one");
+        windowed.get(1);
+        windowed.get(1);
+        windowed.put(2, "two");
+        assertEquals(3, windowed.hottest(1).get(0).count());
+
+        // Four accesses of 2 push every access of 1 out of the window
+        windowed.get(2);
+        windowed.get(2);
+        windowed.get(2);
+        assertEquals(Integer.valueOf(2), windowed.hottest(1).get(0).key());
+        assertEquals(0, windowed.hottest(2).get(1).count());
+
+        windowed.put(3, "three");
+        assertFalse(windowed.containsKey(1));
+        assertTrue(windowed.containsKey(2));
+    }
+
+    @Test
+    public void testAgingRescales() {
+        LFUCache4j<Integer, Integer> aging = LFUCache4j.aging(10, 10);
+        for (int i = 0; i < 10; i++) {
+            aging.put(i, i);
+        }
+        // Key 0 is accessed throughout, the other keys only once; 200 periods force several rescales
+        for (int i = 0; i < 2000; i++) {
+            aging.get(0);
+        }
+        aging.put(10, 10);
+
+        assertTrue(aging.containsKey(0));
+        assertTrue(aging.containsKey(10));
+        assertEquals(10, aging.size());
+        assertTrue(aging.hottest(1).get(0).count() > 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPeriod() {
+        LFUCache4j.windowed(10, 0);
+    }
+
+    // Hit ratio over the second half of a trace whose hot set of 50 keys changes once, halfway through
+    private static double shiftingPopularityHitRatio(LFUCache4j<Integer, Integer> cache) {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            int key = random.nextInt(50);
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+        int hits = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // 80% of the accesses go to the new hot set, the rest to keys that are never seen again
+            int key = random.nextInt(10) < 8 ? 1_000 + random.nextInt(50) : 10_000 + i;
+            if (cache.get(key) != null) {
+                hits += i >= 10_000 ? 1 : 0;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return hits / 10_000.0;
+    }
+}
@@ -0,0 +1,335 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.LRUCache4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LRUCache4jTest {
+    protected LRUCache4j<Integer, String> lruCache;
+
+    @Before
+    public void setUp() {
+        lruCache = new LRUCache4j<>(3);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+        lruCache.put(3, "C");
+
+        assertEquals("A", lruCache.get(1));
+        assertEquals("B", lruCache.get(2));
+        assertEquals("C", lruCache.get(3));
+    }
+
+    @Test
+    public void testEvictionPolicy() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+        lruCache.put(3, "C");
+        lruCache.get(1);
+        lruCache.put(4, "D");
+
+        assertNull(lruCache.get(2));
+        assertEquals("A", lruCache.get(1));
+    }
+
+    @Test
+    public void testSize() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+
+        assertEquals(2, lruCache.size());
+    }
+
+    @Test
+    public void testIsEmpty() {
+        assertTrue(lruCache.isEmpty());
+
+        lruCache.put(1, "A");
+
+        assertFalse(lruCache.isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        lruCache.put(1, "A");
+        lruCache.remove(1);
+
+        assertNull(lruCache.get(1));
+    }
+
+    @Test
+    public void testContainsKey() {
+        lruCache.put(1, "A");
+
+        assertTrue(lruCache.containsKey(1));
+        assertFalse(lruCache.containsKey(2));
+    }
+
+    @Test
+    public void testContainsValue() {
+        lruCache.put(1, "A");
+
+        assertTrue(lruCache.containsValue("A"));
+        assertFalse(lruCache.containsValue("B"));
+    }
+
+    @Test
+    public void testKeySet() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+
+        assertTrue(lruCache.keySet().contains(1));
+        assertTrue(lruCache.keySet().contains(2));
+    }
+
+    @Test
+    public void testValues() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+
+        assertTrue(lruCache.values().contains("A"));
+        assertTrue(lruCache.values().contains("B"));
+    }
+
+    @Test
+    public void testClear() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+        lruCache.clear();
+
+        assertTrue(lruCache.isEmpty());
+    }
+
+    @Test
+    public void testPutAll() {
+        Map<Integer, String> map = new LinkedHashMap<>();
+        map.put(1, "A");
+        map.put(2, "B");
+        lruCache.putAll(map);
+
+        assertEquals("A", lruCache.get(1));
+        assertEquals("B", lruCache.get(2));
+    }
+
+    @Test
+    public void testEntrySet() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+
+        assertEquals(2, lruCache.entrySet().size());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        lruCache.putIfAbsent(1, "A");
+        lruCache.putIfAbsent(1, "B");
+
+        assertEquals("A", lruCache.get(1));
+    }
+
+    @Test
+    public void testConcurrency() throws InterruptedException {
+        ExecutorService service = Executors.newFixedThreadPool(3);
+        lruCache = new LRUCache4j<>(100000);
+
+        // Perform a mix of put and get operations from multiple threads
+        int max = 10000;
+        int attempts = 0;
+        Random random = new SecureRandom();
+        while (attempts++ < max) {
+            final int key = random.nextInt(max);
+            final String value = "V" + key;
+
+            service.submit(() -> lruCache.put(key, value));
+            service.submit(() -> lruCache.get(key));
+            service.submit(() -> lruCache.size());
+            service.submit(() -> {
+                lruCache.keySet().remove(random.nextInt(max));
+            });
+            service.submit(() -> {
+                lruCache.values().remove("V" + random.nextInt(max));
+            });
+            final int attemptsCopy = attempts;
+            service.submit(() -> {
+                Iterator<?> i = lruCache.entrySet().iterator();
+                int walk = random.nextInt(attemptsCopy);
+                while (i.hasNext() && walk-- > 0) {
+                    i.next();
+                }
+                int chunk = 10;
+                while (i.hasNext() && chunk-- > 0) {
+                    i.remove();
+                    i.next();
+                }
+            });
+            service.submit(() -> lruCache.remove(random.nextInt(max)));
+        }
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+        System.out.println("lruCache = " + lruCache);
+        System.out.println("lruCache = " + lruCache.size());
+        System.out.println("attempts =" + attempts);
+    }
+
+    @Test
+    public void testWriteToStreamsAConsistentSnapshot() throws IOException, InterruptedException {
+        lruCache.put(1, "A");
+        List<Thread> writers = new ArrayList<>();
+        List<Boolean> blocked = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                if (writers.isEmpty()) {
+                    // Another thread writes to the cache while the entries are being serialized
+                    Thread writer = new Thread(() -> lruCache.put(2, "B"));
+                    writers.add(writer);
+                    writer.start();
+                    try {
+                        writer.join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    blocked.add(writer.isAlive());
+                }
+                super.write(b, off, len);
+            }
+        };
+        lruCache.writeTo(out);
+        writers.get(0).join(5_000);
+
+        assertTrue(blocked.get(0));
+        assertEquals("{\"1\":\"A\"}", out.toString());
+        assertEquals("B", lruCache.get(2));
+    }
+
+    @Test
+    public void testWriteToAndReadFrom() throws IOException {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+        lruCache.put(3, "C");
+        lruCache.get(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        lruCache.writeTo(out);
+
+        LRUCache4j<Integer, String> copy = new LRUCache4j<>(3);
+        copy.readFrom(new ByteArrayInputStream(out.toByteArray()), Integer::valueOf, String.class);
+        copy.put(4, "D"); // recency order is restored, so key 2 is the eldest
+
+        assertNull(copy.get(2));
+        assertEquals("A", copy.get(1));
+        assertEquals("C", copy.get(3));
+    }
+
+    @Test
+    public void testSetMaximumSize() {
+        LRUCache4j<Integer, Integer> cache = new LRUCache4j<>(5000);
+        for (int i = 0; i < 5000; i++) {
+            cache.put(i, i);
+        }
+        cache.get(0);
+
+        // Shrinking evicts one bounded batch of the least recently used entries
+        cache.setMaximumSize(10);
+        assertEquals(10, cache.getMaximumSize());
+        assertEquals(5000 - 1024, cache.size());
+        assertFalse(cache.containsKey(1));
+        assertTrue(cache.containsKey(0));
+
+        // Every write evicts another batch until the cache fits
+        for (int i = 0; i < 4; i++) {
+            cache.put(-1, -1);
+        }
+        assertEquals(10, cache.size());
+        assertTrue(cache.containsKey(0));
+        assertTrue(cache.containsKey(-1));
+
+        // Growing lets the cache fill up again
+        cache.setMaximumSize(20);
+        for (int i = 100; i < 120; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(20, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaximumSize() {
+        lruCache.setMaximumSize(-1);
+    }
+
+    @Test
+    public void testMaintenanceMode() {
+        List<Runnable> tasks = new ArrayList<>();
+        LRUCache4j<Integer, Integer> cache = new LRUCache4j<>(10, tasks::add);
+        for (int i = 0; i < 73; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(tasks.isEmpty());
+        assertEquals(73, cache.size());
+
+        // Crossing the threshold schedules a single run, later writes do not queue more
+        cache.put(73, 73);
+        cache.put(74, 74);
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals(10, cache.size());
+        assertTrue(cache.containsKey(74));
+        assertFalse(cache.containsKey(64));
+
+        // Without maintenance runs the overshoot stays bounded
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(10 + 4096, cache.size());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void testMaintenanceRejected() {
+        LRUCache4j<Integer, Integer> cache = new LRUCache4j<>(10, task -> {
+            throw new RejectedExecutionException();
+        });
+        for (int i = 0; i < 74; i++) {
+            cache.put(i, i);
+        }
+
+        // The rejected run is executed by the writer
+        assertEquals(10, cache.size());
+        assertTrue(cache.containsKey(73));
+    }
+
+    @Test
+    public void testStats() {
+        lruCache.put(1, "A");
+        lruCache.put(2, "B");
+        lruCache.put(3, "C");
+        lruCache.put(4, "D");
+        lruCache.get(4);
+        lruCache.get(1);
+
+        assertEquals(1, lruCache.stats().hitCount());
+        assertEquals(1, lruCache.stats().missCount());
+        assertEquals(1, lruCache.stats().evictionCount());
+        assertEquals(0.5, lruCache.stats().hitRate(), 0.0);
+    }
+}
@@ -78,4 +78,23 @@ public class LRUCacheTest {
         // Check the cache size does not exceed the limit
         assertTrue(cache.size() <= 3);
     }
+
+    @Test
+    public void testSetMaximumSize() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        cache.get(1);
+
+        cache.setMaximumSize(1);
+        assertEquals(1, cache.getMaximumSize());
+        assertEquals(1, cache.size());
+        assertEquals("one", cache.get(1));
+
+        cache.setMaximumSize(2);
+        cache.put(4, "four");
+        assertEquals(2, cache.size());
+        assertEquals("one", cache.get(1));
+        assertEquals("four", cache.get(4));
+    }
 }
@@ -0,0 +1,114 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.CacheLoader4j;
+import org.alpha4j.ds.LoadingCache4j;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LoadingCache4jTest {
+
+    @Test
+    public void testLoadsOnceUntilExpired() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache4j<String, Integer> cache = new LoadingCache4j<>(10, 20, TimeUnit.MILLISECONDS,
+                key -> loads.incrementAndGet());
+
+        assertEquals(Integer.valueOf(1), cache.get("key"));
+        assertEquals(Integer.valueOf(1), cache.get("key"));
+        Thread.sleep(30);
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache4j<String, Integer> cache = new LoadingCache4j<>(10, 1, TimeUnit.MINUTES, key -> {
+            loads.incrementAndGet();
+            release.await();
+            return 42;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("key")));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(Integer.valueOf(42), result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReloadReceivesExpiredValue() throws InterruptedException {
+        List<String> reloaded = new ArrayList<>();
+        LoadingCache4j<String, String> cache = new LoadingCache4j<>(10, 10, TimeUnit.MILLISECONDS,
+                new CacheLoader4j<String, String>() {
+                    @Override
+                    public String load(String key) {
+                        return "v1";
+                    }
+
+                    @Override
+                    public String reload(String key, String oldValue) {
+                        reloaded.add(oldValue);
+                        return oldValue;
+                    }
+                });
+
+        cache.get("key");
+        Thread.sleep(20);
+
+        assertEquals("v1", cache.get("key"));
+        assertEquals(Collections.singletonList("v1"), reloaded);
+    }
+
+    @Test
+    public void testGetAllLoadsMissingKeysInOneBatch() {
+        List<Map<String, Integer>> batches = new ArrayList<>();
+        LoadingCache4j<String, Integer> cache = new LoadingCache4j<>(10, 1, TimeUnit.MINUTES,
+                new CacheLoader4j<String, Integer>() {
+                    @Override
+                    public Integer load(String key) {
+                        return key.length();
+                    }
+
+                    @Override
+                    public Map<String, Integer> loadAll(Map<String, Integer> keys) {
+                        batches.add(new HashMap<>(keys));
+                        Map<String, Integer> result = new HashMap<>();
+                        keys.keySet().stream().filter(key -> !key.isEmpty()).forEach(key -> result.put(key, key.length()));
+                        return result;
+                    }
+                });
+        cache.get("a");
+
+        Map<String, Integer> values = cache.getAll(Arrays.asList("a", "bb", "ccc", ""));
+
+        assertEquals(3, values.size());
+        assertEquals(Integer.valueOf(3), values.get("ccc"));
+        assertEquals(1, batches.size());
+        assertEquals(new HashSet<>(Arrays.asList("bb", "ccc", "")), batches.get(0).keySet());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testLoadFailure() {
+        LoadingCache4j<String, String> cache = new LoadingCache4j<>(10, 1, TimeUnit.MINUTES, key -> {
+            throw new IOException("unreachable");
+        });
+        cache.get("key");
+    }
+}
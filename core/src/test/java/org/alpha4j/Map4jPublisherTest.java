@@ -0,0 +1,136 @@
+package org.alpha4j;
+
+import org.alpha4j.common.Map4j;
+import org.alpha4j.common.Map4jEvent;
+import org.alpha4j.common.Map4jPublisher;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class Map4jPublisherTest {
+
+    @Test
+    public void testEventsInOrder() throws InterruptedException {
+        List<Map4jEvent<String, Integer>> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(5);
+        Map4j<String, Integer> map4j = new Map4j<>();
+        map4j.subscribe(events -> events.forEach(event -> {
+            received.add(event);
+            latch.countDown();
+        }));
+
+        map4j.put("A", 1)
+                .merge("A", 1, Integer::sum)
+                .computeIfPresent("A", (key, value) -> null)
+                .replace("B", 2) // absent key, no event
+                .put("B", 2)
+                .clear();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(5, received.size());
+        assertEquals(Map4jEvent.Type.PUT, received.get(0).type());
+        assertEquals(Integer.valueOf(2), received.get(1).newValue());
+        assertEquals(Integer.valueOf(1), received.get(1).oldValue());
+        assertEquals(Map4jEvent.Type.REMOVE, received.get(2).type());
+        assertEquals("B", received.get(3).key());
+        assertEquals(Map4jEvent.Type.CLEAR, received.get(4).type());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i).sequence());
+        }
+        map4j.publisher().close();
+    }
+
+    @Test
+    public void testReplicaStaysInSync() throws InterruptedException {
+        Map4j<Integer, Integer> replica = new Map4j<>();
+        Map4j<Integer, Integer> map4j = new Map4j<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        map4j.subscribe(events -> events.forEach(event -> {
+            if (event.key() != null && event.key() == -1) {
+                latch.countDown();
+            } else if (event.type() == Map4jEvent.Type.PUT) {
+                replica.put(event.key(), event.newValue());
+            } else if (event.type() == Map4jEvent.Type.REMOVE) {
+                replica.remove(event.key());
+            }
+        }));
+
+        IntStream.range(0, 10000).parallel().forEach(i -> {
+            map4j.merge(i % 100, 1, Integer::sum);
+            if (i % 7 == 0) {
+                map4j.remove(i % 100);
+            }
+        });
+        map4j.put(-1, 0).remove(-1);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        map4j.publisher().close();
+        assertEquals(map4j.build(), replica.build());
+    }
+
+    @Test
+    public void testBlockPolicyWithSubscriberWritingToTheMap() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1_000);
+        Map4jPublisher<Integer, Integer> publisher = new Map4jPublisher<>(1, 1, Map4jPublisher.OverflowPolicy.BLOCK);
+        Map4j<Integer, Integer> map4j = new Map4j<Integer, Integer>().publishTo(publisher);
+        map4j.subscribe(events -> events.forEach(event -> {
+            map4j.computeIfPresent(event.key(), (key, value) -> value); // Takes the stripe of the key, publishes nothing
+            latch.countDown();
+        }));
+
+        // The writer waits for the dispatcher with the stripe of the key released, so both make progress
+        Thread writer = new Thread(() -> IntStream.range(0, 1_000).forEach(i -> map4j.put(0, i)));
+        writer.start();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        writer.join();
+        assertEquals(0, publisher.dropped());
+        publisher.close();
+    }
+
+    @Test
+    public void testDropPolicyLeavesSequenceGap() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<Integer, Long> sequences = new ConcurrentHashMap<>();
+        Map4jPublisher<Integer, Integer> publisher = new Map4jPublisher<>(1, 16, Map4jPublisher.OverflowPolicy.DROP);
+        Map4j<Integer, Integer> map4j = new Map4j<Integer, Integer>().publishTo(publisher);
+        map4j.subscribe(events -> {
+            events.forEach(event -> sequences.put(event.key(), event.sequence()));
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        map4j.put(0, 0);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 10; i++) {
+            map4j.put(i, i); // only the first fits into the queue while the subscriber is blocked
+        }
+        release.countDown();
+        while (publisher.pending() > 0) {
+            Thread.yield();
+        }
+        map4j.put(11, 11);
+        publisher.close();
+
+        // The gap sits where the events were dropped, after the event enqueued before them
+        assertEquals(9, publisher.dropped());
+        assertEquals(3, sequences.size());
+        assertEquals(Long.valueOf(0), sequences.get(0));
+        assertEquals(Long.valueOf(1), sequences.get(1));
+        assertEquals(Long.valueOf(11), sequences.get(11));
+    }
+}
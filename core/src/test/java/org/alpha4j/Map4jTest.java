@@ -0,0 +1,318 @@
+package org.alpha4j;
+
+import org.alpha4j.common.Map4j;
+import org.alpha4j.common.Map4jEvent;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class Map4jTest {
+
+    @Test
+    public void testPutAndGet() {
+        Map4j<String, Integer> map4j = new Map4j<>();
+
+        map4j.put("A", 1)
+                .put("B", 2)
+                .put("C", 3);
+
+        assertEquals(3, map4j.size());
+        assertEquals(Integer.valueOf(2), map4j.get("B"));
+        assertNull(map4j.get("D"));
+    }
+
+    @Test
+    public void testMapValues() {
+        Map4j<String, Integer> map4j = new Map4j<>();
+        map4j.put("A", 1)
+                .put("B", 2)
+                .put("C", 3);
+
+        Map4j<String, String> mappedMap = map4j.mapValues(Object::toString);
+
+        assertEquals(3, mappedMap.size());
+        assertEquals("1", mappedMap.get("A"));
+        assertEquals("2", mappedMap.get("B"));
+        assertEquals("3", mappedMap.get("C"));
+    }
+
+    @Test
+    public void testFilter() {
+        Map4j<String, Integer> map4j = new Map4j<>();
+        map4j.put("A", 1)
+                .put("B", 2)
+                .put("C", 3)
+                .put("D", 4);
+
+        Map<String, Integer> filteredMap = map4j.filter(entry -> entry.getValue() > 2);
+
+        assertEquals(2, filteredMap.size());
+        assertTrue(filteredMap.containsKey("C"));
+        assertTrue(filteredMap.containsKey("D"));
+        assertFalse(filteredMap.containsKey("A"));
+        assertFalse(filteredMap.containsKey("B"));
+    }
+
+    @Test
+    public void testReduce() {
+        Map4j<String, Integer> map4j = new Map4j<>();
+        map4j.put("A", 1)
+                .put("B", 2)
+                .put("C", 3);
+
+        int sum = map4j.reduce(0, (acc, entry) -> acc + entry.getValue());
+
+        assertEquals(6, sum);
+    }
+
+    @Test
+    public void testBuildUnmodifiable() {
+        Map4j<String, Integer> map4j = new Map4j<>();
+        map4j.put("A", 1)
+                .put("B", 2)
+                .put("C", 3);
+
+        Map<String, Integer> unmodifiableMap = map4j.buildUnmodifiable();
+
+        assertEquals(3, unmodifiableMap.size());
+        assertEquals(Integer.valueOf(2), unmodifiableMap.get("B"));
+        try {
+            unmodifiableMap.put("D", 4); // This should throw UnsupportedOperationException
+            fail("Expected UnsupportedOperationException was not thrown");
+        } catch (UnsupportedOperationException e) {
+            // Expected behavior
+        }
+    }
+
+    @Test
+    public void testCollector() {
+        Map4j<Integer, Integer> map4j = IntStream.range(0, 10000)
+                .parallel()
+                .boxed()
+                .collect(Map4j.collector(i -> i % 100, i -> 1, Integer::sum));
+
+        assertEquals(100, map4j.size());
+        assertEquals(Integer.valueOf(100), map4j.get(42));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCollectorDuplicateKey() {
+        IntStream.of(1, 2, 1)
+                .boxed()
+                .collect(Map4j.collector(i -> i, i -> i));
+    }
+
+    @Test
+    public void testIngest() {
+        Iterator<Map.Entry<Integer, Integer>> iterator = IntStream.range(0, 50000)
+                .mapToObj(i -> (Map.Entry<Integer, Integer>) new AbstractMap.SimpleEntry<>(i % 1000, 1))
+                .iterator();
+        Map4j<Integer, Integer> map4j = new Map4j<Integer, Integer>().ingest(iterator, Integer::sum);
+
+        assertEquals(1000, map4j.size());
+        assertEquals(Integer.valueOf(50), map4j.get(999));
+
+        map4j.ingest(map4j.build().entrySet().spliterator(), null);
+        assertEquals(Integer.valueOf(50), map4j.get(0));
+    }
+
+    @Test
+    public void testWriteToAndReadFrom() throws IOException {
+        Map4j<String, Integer> map4j = new Map4j<>();
+        map4j.put("A", 1)
+                .put("B", 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        map4j.writeTo(out);
+
+        Map4j<String, Integer> copy = new Map4j<String, Integer>()
+                .readFrom(new ByteArrayInputStream(out.toByteArray()), Function.identity(), Integer.class);
+
+        assertEquals(map4j.build(), copy.build());
+    }
+
+    @Test
+    public void testIndexLookup() {
+        Map4j<String, String> map4j = new Map4j<>();
+        map4j.put("A", "active:1")
+                .put("B", "inactive:2")
+                .addIndex("status", value -> value.split(":")[0])
+                .put("C", "active:3");
+
+        assertEquals(2, map4j.lookup("status", "active").size());
+        assertTrue(map4j.lookup("status", "active").containsKey("C"));
+
+        map4j.replace("A", "inactive:1")
+                .merge("B", "x", (oldValue, value) -> "active:2")
+                .compute("D", (key, value) -> "active:4")
+                .remove("C");
+
+        assertEquals(map4j.filter(entry -> entry.getValue().startsWith("active")), map4j.lookup("status", "active"));
+        assertEquals(1, map4j.lookup("status", "inactive").size());
+
+        map4j.clear();
+        assertTrue(map4j.lookup("status", "active").isEmpty());
+        assertEquals(0, map4j.index("status").size());
+    }
+
+    @Test
+    public void testIndexConcurrentUpdates() {
+        Map4j<Integer, Integer> map4j = new Map4j<Integer, Integer>().addIndex("parity", value -> value % 2);
+        IntStream.range(0, 20000).parallel().forEach(i -> map4j.merge(i % 500, 1, Integer::sum));
+
+        assertEquals(map4j.filter(entry -> entry.getValue() % 2 == 0), map4j.lookup("parity", 0));
+        assertEquals(map4j.filter(entry -> entry.getValue() % 2 == 1), map4j.lookup("parity", 1));
+    }
+
+    @Test
+    public void testIndexAddedDuringUpdates() throws InterruptedException {
+        StripedMap4j<Integer, Integer> map4j = new StripedMap4j<>();
+        map4j.put(1, 1).remove(1).clear();
+        assertFalse(map4j.striped()); // Nothing observes the map, so no stripe was created
+
+        Thread writer = new Thread(() -> IntStream.range(0, 200_000).forEach(i -> map4j.merge(i % 500, 1, Integer::sum)));
+        writer.start();
+        map4j.addIndex("parity", value -> value % 2);
+        writer.join();
+
+        assertTrue(map4j.striped());
+        assertEquals(map4j.filter(entry -> entry.getValue() % 2 == 0).keySet(), map4j.index("parity").keys(0));
+        assertEquals(map4j.filter(entry -> entry.getValue() % 2 == 1).keySet(), map4j.index("parity").keys(1));
+    }
+
+    @Test
+    public void testReplaceAllRejectsNull() {
+        Map4j<String, Integer> map4j = new Map4j<String, Integer>().put("A", 1).addIndex("odd", value -> value % 2 == 1);
+        map4j.replaceAll((key, value) -> value + 1);
+        assertEquals(Integer.valueOf(2), map4j.get("A"));
+        assertEquals(1, map4j.lookup("odd", false).size());
+
+        try {
+            map4j.replaceAll((key, value) -> null);
+            fail("Expected NullPointerException was not thrown");
+        } catch (NullPointerException e) {
+            // Like ConcurrentHashMap.replaceAll, the key is kept
+        }
+        assertEquals(Integer.valueOf(2), map4j.get("A"));
+    }
+
+    @Test
+    public void testMutationsThroughViews() throws InterruptedException {
+        Map4j<Integer, Integer> map4j = new Map4j<Integer, Integer>().addIndex("parity", value -> value % 2);
+        IntStream.range(0, 10).forEach(i -> map4j.put(i, i));
+        Map4j<Integer, Integer> replica = new Map4j<Integer, Integer>().putAll(map4j.build());
+        CountDownLatch latch = new CountDownLatch(7);
+        map4j.subscribe(events -> events.forEach(event -> {
+            if (event.type() == Map4jEvent.Type.PUT) {
+                replica.put(event.key(), event.newValue());
+            } else {
+                replica.remove(event.key());
+            }
+            latch.countDown();
+        }));
+
+        assertTrue(map4j.keySet().remove(0));
+        assertFalse(map4j.keySet().remove(0));
+        map4j.keySet().removeIf(key -> key < 4); // Through the iterator
+        assertTrue(map4j.values().remove(9));
+        assertTrue(map4j.entrySet().remove(new AbstractMap.SimpleEntry<>(8, 8)));
+        for (Map.Entry<Integer, Integer> entry : map4j.entrySet()) {
+            if (entry.getKey() == 4) {
+                assertEquals(Integer.valueOf(4), entry.setValue(5));
+            }
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        map4j.publisher().close();
+        assertEquals(map4j.build(), replica.build());
+        assertEquals(Collections.singleton(6), map4j.index("parity").keys(0));
+        assertEquals(new HashSet<>(Arrays.asList(4, 5, 7)), map4j.index("parity").keys(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIndex() {
+        new Map4j<String, Integer>().lookup("missing", 1);
+    }
+
+    @Test
+    public void testInnerJoin() {
+        Map4j<Integer, String> names = new Map4j<>();
+        IntStream.range(0, 10000).forEach(i -> names.put(i, "n" + i));
+        Map4j<Integer, Integer> scores = new Map4j<>(100);
+        IntStream.range(9950, 10050).forEach(i -> scores.put(i, i * 2));
+
+        // The smaller side is iterated either way, but the joiner always sees the values in order
+        Map4j<Integer, String> joined = names.innerJoin(scores, (name, score) -> name + "=" + score);
+        Map4j<Integer, String> reversed = scores.innerJoin(names, (score, name) -> name + "=" + score);
+
+        assertEquals(50, joined.size());
+        assertEquals("n9999=19998", joined.get(9999));
+        assertEquals(joined.build(), reversed.build());
+    }
+
+    @Test
+    public void testLeftJoin() {
+        Map4j<Integer, Integer> left = new Map4j<>();
+        IntStream.range(0, 1000).forEach(i -> left.put(i, i));
+        Map4j<Integer, Integer> right = new Map4j<>();
+        IntStream.range(0, 1000).filter(i -> i % 2 == 0).forEach(i -> right.put(i, -i));
+
+        Map4j<Integer, Integer> joined = left.leftJoin(right, (l, r) -> r == null ? l : r);
+        Map4j<Integer, Integer> dropped = left.leftJoin(right, (l, r) -> r); // A null result leaves the key out
+
+        assertEquals(1000, joined.size());
+        assertEquals(Integer.valueOf(-10), joined.get(10));
+        assertEquals(Integer.valueOf(11), joined.get(11));
+        assertEquals(500, dropped.size());
+    }
+
+    @Test
+    public void testGroupBy() {
+        Map4j<Integer, Integer> map4j = new Map4j<>();
+        IntStream.range(0, 10000).forEach(i -> map4j.put(i, i));
+
+        Map<Integer, Long> counts = map4j.groupBy(entry -> entry.getValue() % 3, Collectors.counting());
+        Map<Boolean, Integer> sums = map4j.groupBy(entry -> entry.getKey() < 100,
+                Collectors.summingInt(Map.Entry::getValue));
+
+        assertEquals(3, counts.size());
+        assertEquals(Long.valueOf(3334), counts.get(0));
+        assertEquals(Long.valueOf(3333), counts.get(2));
+        assertEquals(Integer.valueOf(4950), sums.get(true));
+    }
+
+    @Test
+    public void testPartitionBy() {
+        Map4j<Integer, Integer> map4j = new Map4j<>();
+        IntStream.range(0, 10000).forEach(i -> map4j.put(i, i));
+
+        Map<Boolean, Map<Integer, Integer>> partitions = map4j.partitionBy(entry -> entry.getValue() % 4 == 0);
+
+        assertEquals(2500, partitions.get(true).size());
+        assertEquals(7500, partitions.get(false).size());
+        assertTrue(partitions.get(true).containsKey(8));
+        assertTrue(partitions.get(false).containsKey(9));
+        assertTrue(new Map4j<Integer, Integer>().partitionBy(entry -> true).get(true).isEmpty());
+    }
+
+    // Exposes whether the stripes of the map were created
+    private static final class StripedMap4j<K, V> extends Map4j<K, V> {
+        boolean striped() {
+            return stripes != null;
+        }
+    }
+}
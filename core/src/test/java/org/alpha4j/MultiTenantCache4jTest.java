@@ -0,0 +1,165 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.LRUCache4j;
+import org.alpha4j.ds.MultiTenantCache4j;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MultiTenantCache4jTest {
+
+    @Test
+    public void testIdleTenantLendsItsShare() {
+        MultiTenantCache4j<String, Integer, Integer> cache = new MultiTenantCache4j<>(100);
+        for (int i = 0; i < 10; i++) {
+            cache.put("idle", i, i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("busy", i, i);
+        }
+
+        // The busy tenant uses everything the idle one leaves, but cannot evict its working set
+        assertEquals(10, cache.size("idle"));
+        assertEquals(90, cache.size("busy"));
+        assertEquals(100, cache.weight());
+        assertEquals(910, cache.stats("busy").evictionCount());
+        assertEquals(0, cache.stats("idle").evictionCount());
+    }
+
+    @Test
+    public void testBetterHitRatioThanStaticPartitions() {
+        MultiTenantCache4j<String, Integer, Integer> shared = new MultiTenantCache4j<>(100);
+        LRUCache4j<Integer, Integer> small = new LRUCache4j<>(50);
+        LRUCache4j<Integer, Integer> large = new LRUCache4j<>(50);
+        // One tenant cycles over 10 keys, the other over 80: the latter thrashes in half the budget
+        for (int i = 0; i < 100_000; i++) {
+            int key = i % 80;
+            if (shared.get("large", key) == null) {
+                shared.put("large", key, key);
+            }
+            if (large.get(key) == null) {
+                large.put(key, key);
+            }
+            if (i % 8 == 0) {
+                if (shared.get("small", key % 10) == null) {
+                    shared.put("small", key % 10, key);
+                }
+                if (small.get(key % 10) == null) {
+                    small.put(key % 10, key);
+                }
+            }
+        }
+
+        assertTrue(shared.stats().hitRate() > 0.99);
+        assertTrue(shared.stats("small").hitRate() > 0.99);
+        assertEquals(0, large.stats().hitCount());
+    }
+
+    @Test
+    public void testNoisyNeighbor() {
+        MultiTenantCache4j<String, Integer, Integer> cache = new MultiTenantCache4j<>(100);
+        cache.setQuota("steady", 0, Long.MAX_VALUE); // Registers the tenant before its first read
+        for (int i = 0; i < 10_000; i++) {
+            int key = i % 40;
+            if (cache.get("steady", key) == null) {
+                cache.put("steady", key, key);
+            }
+            for (int j = 0; j < 5; j++) {
+                cache.put("scan", i * 5 + j, i); // Never reused
+            }
+        }
+
+        // Only the 40 compulsory misses, since the working set fits the fair share of 50
+        assertEquals(40, cache.stats("steady").missCount());
+        assertEquals(60, cache.size("scan"));
+    }
+
+    @Test
+    public void testQuotas() {
+        MultiTenantCache4j<String, Integer, Integer> cache = new MultiTenantCache4j<>(100);
+        cache.setQuota("reserved", 50, 100);
+        cache.setQuota("capped", 0, 10);
+        for (int i = 0; i < 50; i++) {
+            cache.put("reserved", i, i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("capped", i, i);
+            cache.put("other", i, i);
+        }
+
+        // The fair share of the others is 33, but the third tenant gets what the capped one leaves
+        assertEquals(50, cache.size("reserved"));
+        assertEquals(10, cache.size("capped"));
+        assertEquals(40, cache.size("other"));
+
+        // Lowering a maximum evicts the least recently used entries of the tenant
+        cache.setQuota("reserved", 0, 20);
+        assertEquals(20, cache.size("reserved"));
+        assertTrue(cache.containsKey("reserved", 49));
+        assertFalse(cache.containsKey("reserved", 29));
+    }
+
+    @Test
+    public void testWeights() {
+        MultiTenantCache4j<String, String, String> cache = new MultiTenantCache4j<>(100);
+        cache.put("a", "x", "1", 40);
+        cache.put("b", "y", "2", 30);
+        assertEquals("1", cache.put("a", "x", "3", 20));
+        assertEquals(50, cache.weight());
+        assertEquals(20, cache.weight("a"));
+
+        // A value heavier than the budget is not cached, and drops the previous one
+        assertEquals("3", cache.put("a", "x", "4", 101));
+        assertFalse(cache.containsKey("a", "x"));
+        assertEquals("2", cache.remove("b", "y"));
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testShrinkAndRemoveTenant() {
+        MultiTenantCache4j<String, Integer, Integer> cache = new MultiTenantCache4j<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("a", i, i);
+            cache.put("b", i, i);
+        }
+        cache.setMaximumWeight(40);
+        assertEquals(20, cache.size("a"));
+        assertEquals(20, cache.size("b"));
+
+        cache.removeTenant("a");
+        assertEquals(1, cache.tenants().size());
+        assertEquals(20, cache.size());
+        cache.clear();
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testReadsDoNotRegisterTenants() {
+        MultiTenantCache4j<String, Integer, Integer> cache = new MultiTenantCache4j<>(100);
+        cache.put("a", 1, 1);
+        for (int i = 0; i < 10; i++) {
+            assertNull(cache.get("unknown" + i, 1));
+        }
+
+        assertEquals(Collections.singleton("a"), cache.tenants());
+        assertEquals(10, cache.stats().missCount());
+        assertEquals(0, cache.stats("a").missCount());
+        assertFalse(cache.containsKey("unknown0", 1));
+        assertNull(cache.remove("unknown0", 1));
+        assertEquals(1, cache.tenants().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinimumsAboveBudget() {
+        MultiTenantCache4j<String, Integer, Integer> cache = new MultiTenantCache4j<>(100);
+        cache.setQuota("a", 60, 100);
+        cache.setQuota("b", 50, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownTenantStats() {
+        new MultiTenantCache4j<String, Integer, Integer>(100).stats("missing");
+    }
+}
@@ -0,0 +1,276 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class NearCache4jTest {
+
+    @Test
+    public void testPutInvalidatesPeers() throws IOException {
+        LocalInvalidationTransport4j.Group group = new LocalInvalidationTransport4j.Group();
+        try (NearCache4j<String, String> node1 = NearCache4j.of(10, group.join());
+             NearCache4j<String, String> node2 = NearCache4j.of(10, group.join())) {
+            node1.putLocal("key", "v1");
+            node2.putLocal("key", "v1");
+
+            node1.put("key", "v2");
+            node1.flush();
+
+            assertEquals("v2", node1.get("key"));
+            assertNull(node2.get("key"));
+        }
+    }
+
+    @Test
+    public void testInvalidationsAreCoalesced() throws IOException {
+        List<Collection<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        InvalidationTransport4j recording = new InvalidationTransport4j() {
+            @Override
+            public void start(Listener listener) {
+            }
+
+            @Override
+            public void broadcast(Collection<String> keys) {
+                batches.add(new ArrayList<>(keys));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (NearCache4j<String, String> node = new NearCache4j<>(new LRUCache4j<>(10), recording,
+                key -> key, key -> key, 60_000, 2)) {
+            node.put("a", "1");
+            node.put("a", "2");
+            node.invalidate("a");
+            node.flush();
+
+            assertEquals(Collections.singletonList(Collections.singletonList("a")), batches);
+        }
+    }
+
+    @Test
+    public void testReconnectClearsCache() throws IOException {
+        LocalInvalidationTransport4j.Group group = new LocalInvalidationTransport4j.Group();
+        LocalInvalidationTransport4j transport = group.join();
+        try (NearCache4j<String, String> node1 = NearCache4j.of(10, group.join());
+             NearCache4j<String, String> node2 = NearCache4j.of(10, transport)) {
+            node2.putLocal("key", "v1");
+            transport.disconnect();
+            node1.put("key", "v2");
+            node1.flush();
+            assertEquals("v1", node2.get("key")); // missed while partitioned
+
+            transport.reconnect();
+
+            assertEquals(0, node2.size());
+        }
+    }
+
+    @Test
+    public void testReconnectClearsPeers() throws IOException {
+        LocalInvalidationTransport4j.Group group = new LocalInvalidationTransport4j.Group();
+        LocalInvalidationTransport4j transport = group.join();
+        try (NearCache4j<String, String> node1 = NearCache4j.of(10, group.join());
+             NearCache4j<String, String> node2 = NearCache4j.of(10, transport)) {
+            node1.putLocal("key", "v1");
+            transport.disconnect();
+            node2.put("key", "v2");
+            node2.flush();
+            assertEquals("v1", node1.get("key")); // missed while node2 was partitioned
+
+            transport.reconnect();
+
+            assertEquals(0, node1.size());
+            assertEquals(0, node2.size());
+        }
+    }
+
+    @Test
+    public void testNioReconnectsPeerThatMissedBatch() throws IOException, InterruptedException {
+        InetSocketAddress address;
+        try (ServerSocket probe = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            address = (InetSocketAddress) probe.getLocalSocketAddress();
+        }
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch reconnected = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        NioInvalidationTransport4j sender = NioInvalidationTransport4j.loopback();
+        NioInvalidationTransport4j receiver = new NioInvalidationTransport4j(address);
+        try {
+            sender.addPeer(address).start(new InvalidationTransport4j.Listener() {
+                @Override
+                public void onInvalidate(Collection<String> keys) {
+                }
+
+                @Override
+                public void onReconnect() {
+                }
+            });
+            sender.broadcast(Collections.singletonList("lost")); // The peer is down
+            sender.broadcast(Collections.singletonList("skipped")); // Backing off, no connect attempt
+
+            receiver.start(new InvalidationTransport4j.Listener() {
+                @Override
+                public void onInvalidate(Collection<String> keys) {
+                    received.addAll(keys);
+                    invalidated.countDown();
+                }
+
+                @Override
+                public void onReconnect() {
+                    reconnected.countDown();
+                }
+            });
+
+            // The sender reconnects on its own, without another broadcast, and the peer clears itself
+            assertTrue(reconnected.await(5, TimeUnit.SECONDS));
+            sender.broadcast(Collections.singletonList("key"));
+            assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("key"), received);
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void testNioTransport() throws IOException, InterruptedException {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch reconnected = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(3);
+        NioInvalidationTransport4j receiver = NioInvalidationTransport4j.loopback();
+        NioInvalidationTransport4j sender = NioInvalidationTransport4j.loopback();
+        try {
+            receiver.start(new InvalidationTransport4j.Listener() {
+                @Override
+                public void onInvalidate(Collection<String> keys) {
+                    received.addAll(keys);
+                    keys.forEach(key -> invalidated.countDown());
+                }
+
+                @Override
+                public void onReconnect() {
+                    reconnected.countDown();
+                }
+            });
+            sender.addPeer(receiver.localAddress()).start(new InvalidationTransport4j.Listener() {
+                @Override
+                public void onInvalidate(Collection<String> keys) {
+                }
+
+                @Override
+                public void onReconnect() {
+                }
+            });
+
+            sender.broadcast(Arrays.asList("a", "b"));
+            sender.broadcast(Collections.singletonList("\u043a\u043b\u044e\u0447"));
+
+            assertTrue(reconnected.await(5, TimeUnit.SECONDS));
+            assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("a", "b", "\u043a\u043b\u044e\u0447"), received);
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void testNioRejectsCorruptFrames() throws IOException, InterruptedException {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch invalidated = new CountDownLatch(1);
+        NioInvalidationTransport4j receiver = NioInvalidationTransport4j.loopback();
+        try {
+            receiver.start(new InvalidationTransport4j.Listener() {
+                @Override
+                public void onInvalidate(Collection<String> keys) {
+                    received.addAll(keys);
+                    invalidated.countDown();
+                }
+
+                @Override
+                public void onReconnect() {
+                }
+            });
+            // A count larger than the frame, a key length larger than the frame, then trailing bytes
+            int[][] corrupt = {{8, 1_000, 0}, {8, 1, Integer.MAX_VALUE}, {12, 1, 0, 7}};
+            for (int[] ints : corrupt) {
+                try (Socket socket = new Socket(receiver.localAddress().getAddress(), receiver.localAddress().getPort())) {
+                    ByteBuffer frame = ByteBuffer.allocate(ints.length * Integer.BYTES);
+                    for (int i : ints) {
+                        frame.putInt(i);
+                    }
+                    socket.getOutputStream().write(frame.array());
+                    socket.setSoTimeout(5_000);
+                    assertEquals(-1, socket.getInputStream().read()); // Closed by the receiver
+                }
+            }
+
+            // The receiver still serves well-formed frames
+            NioInvalidationTransport4j sender = NioInvalidationTransport4j.loopback();
+            try {
+                sender.addPeer(receiver.localAddress()).start(new InvalidationTransport4j.Listener() {
+                    @Override
+                    public void onInvalidate(Collection<String> keys) {
+                    }
+
+                    @Override
+                    public void onReconnect() {
+                    }
+                });
+                sender.broadcast(Collections.singletonList("a"));
+                assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+                assertEquals(Collections.singletonList("a"), received);
+            } finally {
+                sender.close();
+            }
+        } finally {
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void testNioNearCaches() throws IOException, InterruptedException {
+        NioInvalidationTransport4j transport1 = NioInvalidationTransport4j.loopback();
+        NioInvalidationTransport4j transport2 = NioInvalidationTransport4j.loopback();
+        try (NearCache4j<String, String> node1 = NearCache4j.of(10, transport1);
+             NearCache4j<String, String> node2 = NearCache4j.of(10, transport2)) {
+            transport1.addPeer(transport2.localAddress());
+            transport2.addPeer(transport1.localAddress());
+            node2.putLocal("warmup", "x");
+            node1.put("warmup", "x"); // opens the connection, node2 clears itself on accept
+            waitUntilAbsent(node2, "warmup");
+
+            node2.putLocal("key", "v1");
+            node1.put("key", "v2");
+
+            waitUntilAbsent(node2, "key");
+            assertEquals("v2", node1.get("key"));
+        }
+    }
+
+    private static void waitUntilAbsent(NearCache4j<String, String> cache, String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.get(key) != null) {
+            assertTrue("key " + key + " was not invalidated", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PartitionedCache4jTest {
+    private PartitionedCache4j<String, Integer> cache;
+
+    @Before
+    public void setUp() {
+        cache = new PartitionedCache4j<>();
+        cache.addShard("a", Shard4j.of(new LRUCache4j<>(1000)));
+        cache.addShard("b", Shard4j.of(new LFUCache4j<>(1000)));
+        cache.addShard("c", Shard4j.of(new LRUCache4j<>(1000)));
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        cache.put("key", 1);
+        assertEquals(Integer.valueOf(1), cache.get("key"));
+        assertEquals(Integer.valueOf(1), cache.remove("key"));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testKeysAreSpread() {
+        for (int i = 0; i < 900; i++) {
+            cache.put("key" + i, i);
+        }
+        assertEquals(900, cache.size());
+        for (Shard4j<String, Integer> shard : cache.shards().values()) {
+            assertTrue(shard.size() > 150);
+        }
+    }
+
+    @Test
+    public void testGetAll() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, i);
+            keys.add("key" + i);
+        }
+        keys.add("missing");
+
+        Map<String, Integer> values = cache.getAll(keys);
+
+        assertEquals(100, values.size());
+        assertEquals(Integer.valueOf(42), values.get("key42"));
+        assertFalse(values.containsKey("missing"));
+    }
+
+    @Test
+    public void testAddShardMovesOnlyOwnedKeys() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, i);
+        }
+        Shard4j<String, Integer> added = Shard4j.of(new LRUCache4j<>(1000));
+        cache.addShard("d", added);
+
+        assertEquals(1000, cache.size());
+        assertTrue(added.size() > 100 && added.size() < 500);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), cache.get("key" + i));
+        }
+    }
+
+    @Test
+    public void testMigrationKeepsNewerWrites() {
+        for (int i = 1; i <= 1000; i++) {
+            cache.put("key" + i, i);
+        }
+        // Writes reaching the new shard before the old owners hand their entries over
+        Shard4j<String, Integer> added = Shard4j.of(new LRUCache4j<>(2000));
+        for (int i = 1; i <= 1000; i++) {
+            added.put("key" + i, -i);
+        }
+        cache.addShard("d", added);
+
+        int newer = 0;
+        for (int i = 1; i <= 1000; i++) {
+            int value = cache.get("key" + i);
+            if (value == -i) {
+                newer++;
+            } else {
+                assertEquals(i, value);
+            }
+        }
+        assertTrue(newer > 100);
+    }
+
+    @Test
+    public void testWritesDuringMigration() throws InterruptedException {
+        PartitionedCache4j<String, Integer> cache = new PartitionedCache4j<>();
+        for (String id : Arrays.asList("a", "b", "c")) {
+            cache.addShard(id, Shard4j.of(new LRUCache4j<>(30_000)));
+        }
+        for (int i = 0; i < 30_000; i++) {
+            cache.put("key" + i, i);
+        }
+        // Removes the even keys and rewrites the keys ending in 1 while the entries are moved
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 30_000; i++) {
+                if (i % 2 == 0) {
+                    cache.remove("key" + i);
+                } else if (i % 10 == 1) {
+                    cache.put("key" + i, -i);
+                }
+            }
+        });
+        writer.start();
+        cache.addShard("d", Shard4j.of(new LRUCache4j<>(30_000)));
+        cache.removeShard("a");
+        writer.join();
+
+        for (int i = 0; i < 30_000; i++) {
+            Integer expected = i % 2 == 0 ? null : i % 10 == 1 ? -i : i;
+            assertEquals("key" + i, expected, cache.get("key" + i));
+        }
+        assertEquals(15_000, cache.size()); // No entry is left behind in a shard that does not own it
+    }
+
+    @Test
+    public void testRemoveShardKeepsEntries() {
+        for (int i = 0; i < 300; i++) {
+            cache.put("key" + i, i);
+        }
+        Shard4j<String, Integer> removed = cache.removeShard("b");
+
+        assertEquals(0, removed.size());
+        assertEquals(2, cache.shards().size());
+        assertEquals(300, cache.size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(Integer.valueOf(i), cache.get("key" + i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateShard() {
+        cache.addShard("a", Shard4j.of(new LRUCache4j<>(1)));
+    }
+
+    @Test
+    public void testRemoteShards() throws IOException {
+        try (ShardServer4j<String, Integer> server1 = ShardServer4j.loopback(Shard4j.of(new LRUCache4j<>(1000)));
+             ShardServer4j<String, Integer> server2 = ShardServer4j.loopback(Shard4j.of(new LFUCache4j<>(1000)));
+             PartitionedCache4j<String, Integer> remote = new PartitionedCache4j<>()) {
+            remote.addShard("remote1", new RemoteShard4j<>(server1.localAddress()));
+            remote.addShard("remote2", new RemoteShard4j<>(server2.localAddress()));
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                remote.put("key" + i, i);
+                keys.add("key" + i);
+            }
+
+            assertEquals(Integer.valueOf(7), remote.get("key7"));
+            assertEquals(200, remote.getAll(keys).size());
+
+            remote.addShard("local", Shard4j.of(new LRUCache4j<>(1000)));
+            assertEquals(200, remote.size());
+            assertEquals(Integer.valueOf(199), remote.get("key199"));
+
+            remote.removeShard("remote1");
+            assertEquals(200, remote.getAll(keys).size());
+        }
+    }
+
+    @Test
+    public void testRejectsClassesNotAllowed() throws IOException {
+        try (ShardServer4j<String, Date> strict = ShardServer4j.loopback(Shard4j.of(new LRUCache4j<>(10)));
+             ShardServer4j<String, Date> lenient = ShardServer4j.loopback(Shard4j.of(new LRUCache4j<>(10)),
+                     Collections.singleton(Date.class))) {
+            RemoteShard4j<String, Date> shard = new RemoteShard4j<>(strict.localAddress());
+            try {
+                shard.put("key", new Date(0));
+                fail("Date is not part of the protocol");
+            } catch (UncheckedIOException expected) {
+                // The server closes the connection instead of deserializing the value
+            }
+
+            RemoteShard4j<String, Date> allowed = new RemoteShard4j<>(lenient.localAddress(),
+                    Collections.singleton(Date.class), 1000);
+            allowed.put("key", new Date(0));
+            assertEquals(new Date(0), allowed.get("key"));
+            allowed.close();
+        }
+    }
+
+    @Test
+    public void testRemoteEntriesArePaged() throws IOException {
+        try (ShardServer4j<String, Integer> server = ShardServer4j.loopback(Shard4j.of(new LRUCache4j<>(20_000)))) {
+            RemoteShard4j<String, Integer> shard = new RemoteShard4j<>(server.localAddress());
+            for (int i = 0; i < 10_000; i++) {
+                shard.put("key" + i, i);
+            }
+            Map<String, Integer> entries = new HashMap<>();
+            shard.forEach((key, value) -> assertNull(entries.put(key, value)));
+
+            assertEquals(10_000, entries.size());
+            assertEquals(Integer.valueOf(9_999), entries.get("key9999"));
+            shard.close();
+        }
+    }
+
+    @Test
+    public void testRejectsOversizedCollections() throws IOException {
+        // A map of one entry, whose declared number of mappings is then raised to 2^30
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new Object[]{(byte) 4, new HashMap<>(Collections.singletonMap("key", 1))});
+        }
+        byte[] payload = bytes.toByteArray();
+        int mappings = indexOf(payload, new byte[]{0x77, 0x08}) + 6; // After the block header and the bucket count
+        payload[mappings] = 0x40;
+        payload[mappings + 3] = 0;
+
+        try (ShardServer4j<String, Integer> server = ShardServer4j.loopback(Shard4j.of(new LRUCache4j<>(10)));
+             Socket socket = new Socket(server.localAddress().getAddress(), server.localAddress().getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(payload.length);
+            out.write(payload);
+            socket.setSoTimeout(5_000);
+            assertEquals(-1, socket.getInputStream().read()); // Closed instead of allocating the table
+
+            // The server keeps serving
+            RemoteShard4j<String, Integer> shard = new RemoteShard4j<>(server.localAddress());
+            shard.put("key", 1);
+            assertEquals(Integer.valueOf(1), shard.get("key"));
+            shard.close();
+        }
+    }
+
+    @Test
+    public void testPipelinedRequests() throws IOException {
+        try (ShardServer4j<String, Integer> server = ShardServer4j.loopback(Shard4j.of(new LRUCache4j<>(10)));
+             Socket socket = new Socket(server.localAddress().getAddress(), server.localAddress().getPort())) {
+            // Many requests sent before reading any response, all answered in order
+            ByteArrayOutputStream requests = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(requests);
+            for (int i = 0; i < 1_000; i++) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream request = new ObjectOutputStream(bytes)) {
+                    request.writeObject(new Object[]{(byte) 5});
+                }
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
+            socket.getOutputStream().write(requests.toByteArray());
+            socket.setSoTimeout(5_000);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            for (int i = 0; i < 1_000; i++) {
+                byte[] response = new byte[in.readInt()];
+                in.readFully(response);
+            }
+        }
+    }
+
+    @Test
+    public void testReadTimeout() throws IOException {
+        try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            RemoteShard4j<String, Integer> shard = new RemoteShard4j<>(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), silent.getLocalPort()), Collections.emptySet(), 200);
+            long start = System.nanoTime();
+            try {
+                shard.get("key"); // Accepted by the backlog, but never answered
+                fail("The shard server never answers");
+            } catch (UncheckedIOException expected) {
+                assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            }
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= bytes.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + pattern.length), pattern)) {
+                return i;
+            }
+        }
+        throw new AssertionError("pattern not found");
+    }
+}
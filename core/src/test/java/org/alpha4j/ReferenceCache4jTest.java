@@ -0,0 +1,115 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.ReferenceCache4j;
+import org.alpha4j.ds.RemovalCause4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class ReferenceCache4jTest {
+
+    @Test
+    public void testRemovalCauses() {
+        List<String> removals = Collections.synchronizedList(new ArrayList<>());
+        ReferenceCache4j<Integer, String> cache = new ReferenceCache4j<>(2, ReferenceCache4j.Strength.STRONG,
+                ReferenceCache4j.Strength.STRONG, (key, value, cause) -> removals.add(key + "=" + value + ":" + cause));
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertEquals("one", cache.put(1, "uno"));
+        cache.put(3, "three");
+        assertEquals("three", cache.remove(3));
+        cache.clear();
+
+        assertEquals(Arrays.asList("1=one:REPLACED", "2=two:SIZE", "3=three:EXPLICIT", "1=uno:EXPLICIT"), removals);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWeakValuesAreReclaimed() throws InterruptedException {
+        List<RemovalCause4j> causes = Collections.synchronizedList(new ArrayList<>());
+        ReferenceCache4j<Integer, Object> cache = new ReferenceCache4j<>(100, ReferenceCache4j.Strength.STRONG,
+                ReferenceCache4j.Strength.WEAK, (key, value, cause) -> causes.add(cause));
+        Object retained = new Object();
+        cache.put(0, retained);
+        for (int i = 1; i < 10; i++) {
+            cache.put(i, new Object());
+        }
+
+        awaitGc(() -> cache.size() == 1);
+
+        assertSame(retained, cache.get(0));
+        assertEquals(Collections.nCopies(9, RemovalCause4j.COLLECTED), causes);
+    }
+
+    @Test
+    public void testWeakKeysAreReclaimed() throws InterruptedException {
+        ReferenceCache4j<String, String> cache = ReferenceCache4j.weakKeys(100);
+        String retained = new String("retained");
+        cache.put(retained, "value");
+        for (int i = 0; i < 10; i++) {
+            cache.put(new String("key" + i), "value" + i);
+        }
+
+        awaitGc(() -> cache.size() == 1);
+
+        // Weak keys are compared with equals, like the keys of a WeakHashMap
+        assertEquals("value", cache.get("retained"));
+        assertTrue(cache.containsKey(retained));
+    }
+
+    @Test
+    public void testSoftValues() {
+        ReferenceCache4j<Integer, String> cache = ReferenceCache4j.softValues(2);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        // Soft values are only reclaimed under memory pressure, otherwise the cache is a plain LRU
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    public void testSetMaximumSize() {
+        ReferenceCache4j<Integer, Integer> cache = ReferenceCache4j.weakValues(10);
+        Integer[] values = new Integer[10];
+        for (int i = 0; i < 10; i++) {
+            values[i] = 1000 + i;
+            cache.put(i, values[i]);
+        }
+
+        cache.setMaximumSize(4);
+
+        assertEquals(4, cache.getMaximumSize());
+        assertEquals(4, cache.size());
+        assertFalse(cache.containsKey(5));
+        assertTrue(cache.containsKey(9));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSoftKeys() {
+        new ReferenceCache4j<>(10, ReferenceCache4j.Strength.SOFT, ReferenceCache4j.Strength.STRONG, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue() {
+        ReferenceCache4j.<Integer, String>softValues(10).put(1, null);
+    }
+
+    private static void awaitGc(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("references were not reclaimed", System.currentTimeMillis() < deadline);
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.ConcurrentBuffer4j;
+import org.alpha4j.ds.MpscRingBuffer4j;
+import org.alpha4j.ds.SpscRingBuffer4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RingBuffer4jTest {
+
+    @Test
+    public void testFifoAndCapacity() {
+        for (ConcurrentBuffer4j<Integer> buffer : Arrays.<ConcurrentBuffer4j<Integer>>asList(
+                new MpscRingBuffer4j<>(3), new SpscRingBuffer4j<>(3))) {
+            assertEquals(4, buffer.capacity());
+            assertTrue(buffer.isEmpty());
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(i));
+            }
+            assertFalse(buffer.offer(4));
+            assertEquals(4, buffer.size());
+
+            assertEquals(Integer.valueOf(0), buffer.poll());
+            assertTrue(buffer.offer(4)); // The freed slot is reused on the next lap
+            List<Integer> drained = new ArrayList<>();
+            assertEquals(3, buffer.drain(drained::add, 3));
+            assertEquals(Arrays.asList(1, 2, 3), drained);
+            assertEquals(Integer.valueOf(4), buffer.poll());
+            assertNull(buffer.poll());
+            assertEquals(0, buffer.drain(drained::add, 10));
+        }
+    }
+
+    @Test
+    public void testMpscConcurrentProducers() throws InterruptedException {
+        MpscRingBuffer4j<Integer> buffer = new MpscRingBuffer4j<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        // Every element arrives exactly once, and the elements of each producer arrive in order
+        int[] next = new int[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = element / perProducer;
+            assertEquals(next[producer]++, element % perProducer);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testSpscHandOff() throws InterruptedException {
+        SpscRingBuffer4j<Integer> buffer = new SpscRingBuffer4j<>(16);
+        int count = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!buffer.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        List<Integer> received = new ArrayList<>(count);
+        while (received.size() < count) {
+            if (buffer.drain(received::add, 8) == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, received.get(i).intValue());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullElement() {
+        new MpscRingBuffer4j<String>(4).offer(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new SpscRingBuffer4j<String>(0);
+    }
+}
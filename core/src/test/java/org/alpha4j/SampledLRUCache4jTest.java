@@ -0,0 +1,143 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.SampledLRUCache4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SampledLRUCache4jTest {
+    protected SampledLRUCache4j<Integer, String> cache;
+
+    // A cache whose clock ticks on every access, so that every access has a distinct time
+    static class TickingCache<K, V> extends SampledLRUCache4j<K, V> {
+        int clock;
+
+        TickingCache(int capacity, int samples, int poolSize) {
+            super(capacity, samples, poolSize);
+        }
+
+        @Override
+        protected int tick() {
+            return ++clock;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        cache = new TickingCache<>(3, 64, 16);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertNull(cache.put(1, "one"));
+        assertNull(cache.put(2, "two"));
+        assertEquals("one", cache.get(1));
+        assertEquals("one", cache.put(1, "uno"));
+        assertEquals("uno", cache.get(1));
+        assertNull(cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals("two", cache.remove(2));
+        assertFalse(cache.containsKey(2));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // With far more samples than entries the eviction is all but certainly exact
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        cache.get(1);
+        cache.put(4, "four");
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(1));
+    }
+
+    @Test
+    public void testApproximation() {
+        for (int poolSize : new int[]{0, 16}) {
+            SampledLRUCache4j<Integer, Integer> sampled = new TickingCache<>(1000, 5, poolSize);
+            for (int i = 0; i < 1000; i++) {
+                sampled.put(i, i);
+            }
+            for (int i = 0; i < 100; i++) {
+                sampled.get(i);
+            }
+            for (int i = 1000; i < 1500; i++) {
+                sampled.put(i, i);
+            }
+
+            assertEquals(1000, sampled.size());
+            int hot = 0;
+            for (int i = 0; i < 100; i++) {
+                hot += sampled.containsKey(i) ? 1 : 0;
+            }
+            // Without a pool about 5 of them are expected to be evicted, with a pool hardly any
+            int expected = poolSize == 0 ? 80 : 95;
+            assertTrue("only " + hot + " recently used keys survived with a pool of " + poolSize, hot >= expected);
+        }
+    }
+
+    @Test
+    public void testSetMaximumSize() {
+        SampledLRUCache4j<Integer, Integer> sampled = new TickingCache<>(3000, 5, 16);
+        for (int i = 0; i < 3000; i++) {
+            sampled.put(i, i);
+        }
+
+        sampled.setMaximumSize(10);
+        assertEquals(10, sampled.getMaximumSize());
+        assertEquals(3000 - 1024, sampled.size());
+
+        sampled.put(-1, -1);
+        sampled.put(-2, -2);
+        assertEquals(10, sampled.size());
+        assertTrue(sampled.containsKey(-2));
+    }
+
+    @Test
+    public void testClear() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        cache.put(3, "three");
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSamples() {
+        new SampledLRUCache4j<>(10, 0, 16);
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        SampledLRUCache4j<Integer, Integer> shared = new SampledLRUCache4j<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            executor.execute(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    int key = random.nextInt(500);
+                    if (shared.get(key) == null) {
+                        shared.put(key, key);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertTrue(shared.size() <= 100);
+        shared.forEach((key, value) -> assertEquals(key, value));
+    }
+}
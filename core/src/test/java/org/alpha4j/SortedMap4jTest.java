@@ -0,0 +1,75 @@
+package org.alpha4j;
+
+import org.alpha4j.common.SortedMap4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SortedMap4jTest {
+    protected SortedMap4j<Integer, String> map4j;
+
+    @Before
+    public void setUp() {
+        map4j = new SortedMap4j<>();
+        for (int i = 1; i <= 10; i++) {
+            map4j.put(i * 10, "V" + i * 10);
+        }
+    }
+
+    @Test
+    public void testRange() {
+        assertEquals(Arrays.asList(30, 40, 50), map4j.range(30, 60).keySet().stream().collect(Collectors.toList()));
+        assertEquals(2, map4j.head(30).size());
+        assertEquals(Integer.valueOf(90), map4j.tail(90).firstKey());
+    }
+
+    @Test
+    public void testRangeIsLive() {
+        Map<Integer, String> range = map4j.range(30, 60);
+        map4j.put(35, "V35");
+
+        assertEquals(4, range.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRangeIsReadOnly() {
+        map4j.range(30, 60).put(35, "V35");
+    }
+
+    @Test
+    public void testFloorAndCeiling() {
+        assertEquals(Integer.valueOf(30), map4j.floor(35).getKey());
+        assertEquals(Integer.valueOf(40), map4j.ceiling(35).getKey());
+        assertNull(map4j.floor(5));
+        assertNull(map4j.ceiling(105));
+    }
+
+    @Test
+    public void testTopK() {
+        assertEquals(Arrays.asList(100, 90, 80), keys(map4j.topK(3)));
+        assertEquals(Arrays.asList(100, 90, 80), keys(map4j.topK(3, Comparator.naturalOrder())));
+        assertEquals(Arrays.asList(10, 20), keys(map4j.topK(2, Comparator.reverseOrder())));
+        // ranks keys by their tens digit, so 100 ranks lowest
+        assertEquals(Arrays.asList(90, 80), keys(map4j.topK(2, Comparator.comparing(key -> (key / 10) % 10))));
+        assertEquals(10, map4j.topK(20).size());
+    }
+
+    @Test
+    public void testBuildKeepsOrder() {
+        map4j = new SortedMap4j<>(Comparator.reverseOrder());
+        map4j.put(1, "A").put(3, "C").put(2, "B");
+
+        assertEquals(Arrays.asList(3, 2, 1), map4j.build().keySet().stream().collect(Collectors.toList()));
+    }
+
+    private static List<Integer> keys(List<Map.Entry<Integer, String>> entries) {
+        return entries.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+}
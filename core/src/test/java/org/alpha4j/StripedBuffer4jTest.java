@@ -0,0 +1,88 @@
+package org.alpha4j;
+
+import org.alpha4j.ds.StripedBuffer4j;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StripedBuffer4jTest {
+
+    @Test
+    public void testSingleThread() {
+        StripedBuffer4j<Integer> buffer = new StripedBuffer4j<>(3, 4);
+        assertEquals(4, buffer.stripes());
+        assertEquals(16, buffer.capacity());
+
+        // A single thread always offers to the same stripe, so it drops once that stripe is full
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, buffer.drain(drained::add, 10));
+        assertEquals(4, drained.size());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        StripedBuffer4j<Integer> buffer = new StripedBuffer4j<>(4, 64);
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger(producers);
+        AtomicInteger duplicates = new AtomicInteger();
+        BitSet seen = new BitSet();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        added.incrementAndGet();
+                    }
+                }
+                running.decrementAndGet();
+            }));
+        }
+        for (int c = 0; c < 2; c++) {
+            threads.add(new Thread(() -> {
+                while (running.get() > 0 || !buffer.isEmpty()) {
+                    buffer.drain(element -> {
+                        synchronized (seen) {
+                            if (seen.get(element)) {
+                                duplicates.incrementAndGet();
+                            }
+                            seen.set(element);
+                        }
+                    }, 16);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Offers may be dropped, but every accepted element is consumed exactly once
+        assertTrue(added.get() > 0);
+        assertEquals(0, duplicates.get());
+        assertEquals(added.get(), seen.cardinality());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripes() {
+        new StripedBuffer4j<String>(0, 16);
+    }
+}
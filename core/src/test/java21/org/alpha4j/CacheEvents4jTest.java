@@ -0,0 +1,112 @@
+package org.alpha4j;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.alpha4j.ds.LRUCache4j;
+import org.alpha4j.ds.LoadingCache4j;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CacheEvents4jTest {
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.alpha4j.CacheEviction");
+            recording.enable("org.alpha4j.CacheLoad");
+            recording.enable("org.alpha4j.CacheLockWait").withThreshold(Duration.ofMillis(1));
+            recording.enable("org.alpha4j.CacheStatistics").withPeriod(Duration.ofMillis(50));
+            recording.start();
+
+            LRUCache4j<Integer, String> cache = new LRUCache4j<>(2);
+            cache.setName("events");
+            cache.put(1, "one");
+            cache.put(2, "two");
+            cache.put(3, "three");
+            cache.get(3);
+            cache.get(1);
+            this.contend(cache);
+
+            LoadingCache4j<Integer, String> loading = new LoadingCache4j<>(10, 1, TimeUnit.MINUTES, String::valueOf);
+            loading.get(42);
+
+            Thread.sleep(200);
+            recording.stop();
+            Path file = Files.createTempFile("cache-events", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        RecordedEvent eviction = find(events, "org.alpha4j.CacheEviction", "events");
+        assertEquals(Integer.valueOf(1).hashCode(), eviction.getInt("keyHash"));
+        assertEquals("SIZE", eviction.getString("cause"));
+
+        RecordedEvent wait = find(events, "org.alpha4j.CacheLockWait", "events");
+        assertEquals("read", wait.getString("lock"));
+
+        RecordedEvent load = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.alpha4j.CacheLoad"))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(1, load.getInt("keys"));
+        assertTrue(load.getBoolean("success"));
+
+        RecordedEvent statistics = find(events, "org.alpha4j.CacheStatistics", "events");
+        assertEquals(2, statistics.getInt("size"));
+        assertEquals(1, statistics.getLong("hits"));
+        assertEquals(1, statistics.getLong("misses"));
+        assertEquals(1, statistics.getLong("evictions"));
+    }
+
+    // Holds the write lock in another thread while this thread reads
+    private void contend(LRUCache4j<Integer, String> cache) throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                cache.writeTo(new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        writing.countDown();
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        cache.containsKey(2);
+        writer.join();
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String type, String cache) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(type) && cache.equals(event.getString("cache")))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("no " + type + " event for " + cache));
+    }
+}
@@ -0,0 +1,153 @@
+package org.alpha4j.http;
+
+import kong.unirest.GetRequest;
+import kong.unirest.HttpResponse;
+import kong.unirest.Unirest;
+import kong.unirest.UnirestInstance;
+import org.alpha4j.ds.CacheLoader4j;
+import org.alpha4j.ds.LoadingCache4j;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A {@link CacheLoader4j} fetching URLs with unirest, meant to sit behind a
+ * {@link LoadingCache4j} keyed by URL.
+ * <p>
+ * Misses are plain GET requests. Expired entries that carry an {@code ETag} or a
+ * {@code Last-Modified} header are revalidated with a conditional GET; a {@code 304 Not Modified}
+ * answer keeps the cached body, which the cache then keeps for another time-to-live, without the
+ * body being transferred again. Batches are sent as asynchronous requests all at once and are
+ * queued by unirest on its connection pool, whose size is set with the concurrency.
+ * <p>
+ * A {@code 404} or {@code 410} answer means the URL has no value. Any other status outside the
+ * {@code 2xx} range fails the load with an {@link IOException}.
+ */
+public class HttpCacheLoader4j implements CacheLoader4j<String, HttpEntry4j>, AutoCloseable {
+    protected static final int DEFAULT_CONCURRENCY = 16;
+
+    protected final UnirestInstance unirest; // The client requests are sent with
+    protected final boolean owned; // Whether close() shuts the client down
+
+    /**
+     * Constructor that uses a dedicated client with at most 16 connections.
+     */
+    public HttpCacheLoader4j() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Constructor that uses a dedicated client with the given number of connections.
+     *
+     * @param concurrency the maximum number of concurrent connections, in total and per host
+     */
+    public HttpCacheLoader4j(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        this.unirest = Unirest.spawnInstance();
+        this.unirest.config().concurrency(concurrency, concurrency);
+        this.owned = true;
+    }
+
+    /**
+     * Constructor that uses a client configured by the caller, who remains responsible for
+     * shutting it down.
+     *
+     * @param unirest the client requests are sent with
+     */
+    public HttpCacheLoader4j(UnirestInstance unirest) {
+        this.unirest = unirest;
+        this.owned = false;
+    }
+
+    @Override
+    public HttpEntry4j load(String url) throws IOException {
+        return toEntry(url, this.request(url, null).asBytes(), null);
+    }
+
+    @Override
+    public HttpEntry4j reload(String url, HttpEntry4j oldValue) throws IOException {
+        return toEntry(url, this.request(url, oldValue).asBytes(), oldValue);
+    }
+
+    @Override
+    public Map<String, HttpEntry4j> loadAll(Map<String, HttpEntry4j> urls) throws IOException {
+        Map<String, CompletableFuture<HttpEntry4j>> futures = new HashMap<>();
+        for (Map.Entry<String, HttpEntry4j> entry : urls.entrySet()) {
+            String url = entry.getKey();
+            HttpEntry4j oldValue = entry.getValue();
+            futures.put(url, this.request(url, oldValue).asBytesAsync().thenApply(response -> {
+                try {
+                    return toEntry(url, response, oldValue);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        Map<String, HttpEntry4j> result = new HashMap<>();
+        try {
+            for (Map.Entry<String, CompletableFuture<HttpEntry4j>> entry : futures.entrySet()) {
+                HttpEntry4j value = entry.getValue().join();
+                if (value != null) {
+                    result.put(entry.getKey(), value);
+                }
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return result;
+    }
+
+    /**
+     * Shuts the client down, unless it was provided by the caller.
+     */
+    @Override
+    public void close() {
+        if (owned) {
+            unirest.shutDown();
+        }
+    }
+
+    /**
+     * Builds the GET request for a URL, conditional if an expired entry with validators is known.
+     *
+     * @param url      the URL to be fetched
+     * @param oldValue the expired entry, or {@code null}
+     * @return the request, not yet sent
+     */
+    protected GetRequest request(String url, HttpEntry4j oldValue) {
+        GetRequest request = unirest.get(url);
+        if (oldValue != null && oldValue.etag() != null) {
+            request = request.header("If-None-Match", oldValue.etag());
+        }
+        if (oldValue != null && oldValue.lastModified() != null) {
+            request = request.header("If-Modified-Since", oldValue.lastModified());
+        }
+        return request;
+    }
+
+    private static HttpEntry4j toEntry(String url, HttpResponse<byte[]> response, HttpEntry4j oldValue) throws IOException {
+        int status = response.getStatus();
+        if (status == 304 && oldValue != null) {
+            return oldValue;
+        }
+        if (status == 404 || status == 410) {
+            return null;
+        }
+        if (status < 200 || status >= 300) {
+            throw new IOException("GET " + url + " returned status " + status);
+        }
+        return new HttpEntry4j(response.getBody(), header(response, "ETag"), header(response, "Last-Modified"));
+    }
+
+    private static String header(HttpResponse<?> response, String name) {
+        String value = response.getHeaders().getFirst(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
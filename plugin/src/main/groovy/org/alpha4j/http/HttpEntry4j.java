@@ -0,0 +1,71 @@
+package org.alpha4j.http;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A cached HTTP response body together with the validators the server sent with it, which allow
+ * revalidating the body with a conditional request once it expired.
+ */
+public final class HttpEntry4j {
+    private final byte[] body; // The response body
+    private final String etag; // The ETag header, or null
+    private final String lastModified; // The Last-Modified header, or null
+
+    /**
+     * Constructor that initializes the entry.
+     *
+     * @param body         the response body
+     * @param etag         the ETag header, or {@code null} if absent
+     * @param lastModified the Last-Modified header, or {@code null} if absent
+     */
+    public HttpEntry4j(byte[] body, String etag, String lastModified) {
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Returns the response body. The array is shared, not copied, and must not be modified.
+     *
+     * @return the response body
+     */
+    public byte[] body() {
+        return body;
+    }
+
+    /**
+     * Returns the response body decoded as UTF-8.
+     *
+     * @return the response body as text
+     */
+    public String bodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the entity tag of the body.
+     *
+     * @return the ETag header, or {@code null} if the server sent none
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Returns the modification date of the body.
+     *
+     * @return the Last-Modified header, or {@code null} if the server sent none
+     */
+    public String lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Checks whether the entry can be revalidated with a conditional request.
+     *
+     * @return true if the server sent an ETag or a Last-Modified header
+     */
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+}
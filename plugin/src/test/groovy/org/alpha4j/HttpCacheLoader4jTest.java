@@ -0,0 +1,128 @@
+package org.alpha4j;
+
+import com.sun.net.httpserver.HttpServer;
+import org.alpha4j.ds.LoadingCache4j;
+import org.alpha4j.http.HttpCacheLoader4j;
+import org.alpha4j.http.HttpEntry4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HttpCacheLoader4jTest {
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpCacheLoader4j loader;
+    private String base;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile long delayMillis;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = ("body of " + path).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.start();
+        base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        loader = new HttpCacheLoader4j(4);
+    }
+
+    @After
+    public void tearDown() {
+        loader.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentMissesSendOneRequest() throws Exception {
+        delayMillis = 100;
+        LoadingCache4j<String, HttpEntry4j> cache = new LoadingCache4j<>(10, 1, TimeUnit.MINUTES, loader);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HttpEntry4j>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(base + "/item")));
+            }
+            for (Future<HttpEntry4j> result : results) {
+                assertEquals("body of /item", result.get(5, TimeUnit.SECONDS).bodyAsString());
+            }
+            assertEquals(1, requests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNotModifiedRefreshesWithoutBody() throws InterruptedException {
+        LoadingCache4j<String, HttpEntry4j> cache = new LoadingCache4j<>(10, 20, TimeUnit.MILLISECONDS, loader);
+        HttpEntry4j first = cache.get(base + "/item");
+        assertEquals("\"v1\"", first.etag());
+
+        Thread.sleep(30);
+        HttpEntry4j revalidated = cache.get(base + "/item");
+
+        assertSame(first, revalidated);
+        assertEquals(1, notModified.get());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testGetAll() {
+        LoadingCache4j<String, HttpEntry4j> cache = new LoadingCache4j<>(100, 1, TimeUnit.MINUTES, loader);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            urls.add(base + "/item" + i);
+        }
+        urls.add(base + "/missing");
+
+        Map<String, HttpEntry4j> entries = cache.getAll(urls);
+
+        assertEquals(20, entries.size());
+        assertEquals("body of /item7", entries.get(base + "/item7").bodyAsString());
+        assertEquals(21, requests.get());
+        cache.getAll(urls.subList(0, 20));
+        assertEquals(21, requests.get());
+    }
+
+    @Test
+    public void testMissing() {
+        LoadingCache4j<String, HttpEntry4j> cache = new LoadingCache4j<>(10, 1, TimeUnit.MINUTES, loader);
+        assertNull(cache.get(base + "/missing"));
+        assertEquals(0, cache.size());
+    }
+}
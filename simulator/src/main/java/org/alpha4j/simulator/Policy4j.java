@@ -0,0 +1,92 @@
+package org.alpha4j.simulator;
+
+import org.alpha4j.ds.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * A cache policy under simulation: one cache instance of a given capacity, fed one access at a
+ * time. A miss admits the key, as a read-through cache would.
+ */
+public interface Policy4j {
+
+    /**
+     * Replays one access.
+     *
+     * @param key the accessed key
+     * @return true if the key was cached
+     */
+    boolean access(Long key);
+
+    /**
+     * Returns the policies of {@code org.alpha4j.ds} by name, each as a factory taking the capacity.
+     *
+     * @return the policy factories by name, in a stable order
+     */
+    static Map<String, IntFunction<Policy4j>> all() {
+        Map<String, IntFunction<Policy4j>> policies = new LinkedHashMap<>();
+        policies.put("lru", readThrough(LRUCache4j<Long, Long>::new, LRUCache4j::get, LRUCache4j::put));
+        policies.put("lfu", readThrough(LFUCache4j<Long, Long>::new, LFUCache4j::get, LFUCache4j::put));
+        policies.put("lfu-aging", readThrough(capacity -> LFUCache4j.<Long, Long>aging(capacity, 10 * capacity), LFUCache4j::get, LFUCache4j::put));
+        policies.put("lfu-window", readThrough(capacity -> LFUCache4j.<Long, Long>windowed(capacity, 10 * capacity), LFUCache4j::get, LFUCache4j::put));
+        // Every access costs the same, which makes GreedyDual-Size-Frequency an LFU with dynamic aging
+        policies.put("gdsf", readThrough(GreedyDualSizeCache4j<Long, Long>::new, GreedyDualSizeCache4j::get, GreedyDualSizeCache4j::put));
+        policies.put("compact-lru", readThrough(CompactLRUCache4j<Long, Long>::new, CompactLRUCache4j::get, CompactLRUCache4j::put));
+        policies.put("compact-lfu", readThrough(CompactLFUCache4j<Long, Long>::new, CompactLFUCache4j::get, CompactLFUCache4j::put));
+        policies.put("sampled-lru", readThrough(TickingLRUCache4j::new, SampledLRUCache4j::get, SampledLRUCache4j::put));
+        return Collections.unmodifiableMap(policies);
+    }
+
+    /**
+     * Returns a factory of policies that look the key up in a new cache, and put it there on a miss.
+     *
+     * @param cache the factory of the cache, taking the capacity
+     * @param get   the method reading the cache
+     * @param put   the method writing the cache
+     * @param <C>   the type of the cache
+     * @return the policy factory
+     */
+    static <C> IntFunction<Policy4j> readThrough(IntFunction<C> cache, BiFunction<C, Long, ?> get, Put<C> put) {
+        return capacity -> {
+            C instance = cache.apply(capacity);
+            return key -> {
+                if (get.apply(instance, key) != null) {
+                    return true;
+                }
+                put.put(instance, key, key);
+                return false;
+            };
+        };
+    }
+
+    /**
+     * The put method of a cache, whatever it returns.
+     *
+     * @param <C> the type of the cache
+     */
+    @FunctionalInterface
+    interface Put<C> {
+        void put(C cache, Long key, Long value);
+    }
+
+    /**
+     * Accesses are replayed faster than the clock of a {@link SampledLRUCache4j} ticks, so this one
+     * counts them instead.
+     */
+    final class TickingLRUCache4j extends SampledLRUCache4j<Long, Long> {
+        private int accesses; // Accesses replayed so far
+
+        TickingLRUCache4j(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        protected int tick() {
+            return accesses++;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package org.alpha4j.simulator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Replays a trace against every (policy, capacity) pair in a single pass and reports the hit
+ * ratios as CSV, one row per pair, so that the hit-ratio curve of every policy can be plotted.
+ * <p>
+ * The trace is streamed: a reader thread decodes it into batches of keys, boxed once per batch,
+ * while the batches already read are replayed against all pairs in parallel. Each pair only ever
+ * sees the events in trace order, and memory use does not depend on the length of the trace.
+ * <p>
+ * Usage: {@code Simulator4j [--trace format:path]... [--zipf items,exponent,events[,seed]]...
+ * [--scan events]... [--loop length,events]... [--policies name,...]
+ * (--capacities c,... | --sweep min,max,points) [--out file.csv]}. Several traces are replayed one
+ * after the other as a single trace; formats are {@code keys}, {@code arc}, {@code lirs} and
+ * {@code wikipedia}.
+ */
+public class Simulator4j {
+    protected static final int BATCH_SIZE = 1 << 16;
+    protected static final int BUFFERS = 4; // Batches in flight between the reader and the replay
+    protected static final long PROGRESS_EVENTS = 10_000_000L;
+
+    protected final List<Run> runs = new ArrayList<>();
+    protected PrintStream progress; // Receives progress reports, or null
+
+    /**
+     * The outcome of replaying a trace against one policy at one capacity.
+     */
+    public static final class Run {
+        private final String policy;
+        private final int capacity;
+        private final Policy4j cache;
+        private long events;
+        private long hits;
+
+        Run(String policy, int capacity, Policy4j cache) {
+            this.policy = policy;
+            this.capacity = capacity;
+            this.cache = cache;
+        }
+
+        /**
+         * Returns the name of the simulated policy.
+         *
+         * @return the name of the policy
+         */
+        public String policy() {
+            return policy;
+        }
+
+        /**
+         * Returns the capacity of the simulated cache.
+         *
+         * @return the capacity of the cache
+         */
+        public int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Returns the number of replayed events.
+         *
+         * @return the number of replayed events
+         */
+        public long events() {
+            return events;
+        }
+
+        /**
+         * Returns the number of events that found their key cached.
+         *
+         * @return the number of hits
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * Returns the fraction of events that found their key cached.
+         *
+         * @return the hit ratio, between 0 and 1
+         */
+        public double hitRatio() {
+            return events == 0 ? 0 : (double) hits / events;
+        }
+
+        void replay(Long[] keys, int n) {
+            long hits = 0;
+            for (int i = 0; i < n; i++) {
+                if (cache.access(keys[i])) {
+                    hits++;
+                }
+            }
+            this.hits += hits;
+            this.events += n;
+        }
+    }
+
+    /**
+     * Constructor that creates one cache per policy and capacity.
+     *
+     * @param policies   the policy factories by name
+     * @param capacities the capacities to be simulated
+     */
+    public Simulator4j(Map<String, IntFunction<Policy4j>> policies, int[] capacities) {
+        for (Map.Entry<String, IntFunction<Policy4j>> policy : policies.entrySet()) {
+            for (int capacity : capacities) {
+                runs.add(new Run(policy.getKey(), capacity, policy.getValue().apply(capacity)));
+            }
+        }
+    }
+
+    /**
+     * Reports the progress of the replay every ten million events.
+     *
+     * @param progress the stream receiving the reports
+     * @return {@code this} instance for method chaining
+     */
+    public Simulator4j progress(PrintStream progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    /**
+     * Replays the whole trace.
+     *
+     * @param trace the trace to be replayed, not closed
+     * @return the runs, one per policy and capacity
+     * @throws IOException if the trace cannot be read
+     */
+    public List<Run> replay(Trace4j trace) throws IOException {
+        BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BUFFERS);
+        BlockingQueue<Batch> full = new ArrayBlockingQueue<>(BUFFERS + 1); // Room for every batch and the end marker
+        for (int i = 0; i < BUFFERS; i++) {
+            free.add(new Batch());
+        }
+        IOException[] failure = new IOException[1];
+        Thread reader = new Thread(() -> {
+            long[] keys = new long[BATCH_SIZE];
+            try {
+                int n;
+                while ((n = trace.read(keys)) >= 0) {
+                    Batch batch = free.take();
+                    for (int i = 0; i < n; i++) {
+                        batch.keys[i] = keys[i];
+                    }
+                    batch.size = n;
+                    full.put(batch);
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                full.add(Batch.END);
+            }
+        }, "simulator-reader");
+        reader.setDaemon(true);
+        reader.start();
+        long events = 0;
+        long started = System.nanoTime();
+        try {
+            Batch batch;
+            while ((batch = full.take()) != Batch.END) {
+                Batch replayed = batch;
+                runs.parallelStream().forEach(run -> run.replay(replayed.keys, replayed.size));
+                events += batch.size;
+                if (progress != null && events / PROGRESS_EVENTS != (events - batch.size) / PROGRESS_EVENTS) {
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    progress.printf("%,d events in %.1f s (%,.0f events/s)%n", events, seconds, events / seconds);
+                }
+                free.put(batch);
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            reader.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Replay interrupted");
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return Collections.unmodifiableList(runs);
+    }
+
+    /**
+     * Writes the runs as CSV with the header {@code policy,capacity,events,hits,hit_ratio}.
+     *
+     * @param runs the runs to be written
+     * @param out  the destination
+     * @throws IOException if writing fails
+     */
+    public static void writeCsv(List<Run> runs, Appendable out) throws IOException {
+        out.append("policy,capacity,events,hits,hit_ratio\n");
+        for (Run run : runs) {
+            out.append(run.policy()).append(',')
+                    .append(Integer.toString(run.capacity())).append(',')
+                    .append(Long.toString(run.events())).append(',')
+                    .append(Long.toString(run.hits())).append(',')
+                    .append(String.format(Locale.ROOT, "%.6f", run.hitRatio())).append('\n');
+        }
+    }
+
+    /**
+     * Returns capacities spread geometrically between two bounds, inclusive.
+     *
+     * @param min    the smallest capacity
+     * @param max    the largest capacity
+     * @param points the number of capacities
+     * @return the distinct capacities in ascending order
+     */
+    public static int[] sweep(int min, int max, int points) {
+        if (min <= 0 || max < min || points <= 0) {
+            throw new IllegalArgumentException("Invalid sweep " + min + ".." + max + " in " + points + " points");
+        }
+        TreeSet<Integer> capacities = new TreeSet<>();
+        for (int i = 0; i < points; i++) {
+            double fraction = points == 1 ? 1 : (double) i / (points - 1);
+            capacities.add((int) Math.round(min * Math.pow((double) max / min, fraction)));
+        }
+        return capacities.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Runs a simulation from the command line; see the class documentation for the options.
+     *
+     * @param args the command-line options
+     * @throws IOException if a trace cannot be read or the report cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        List<Trace4j> traces = new ArrayList<>();
+        Map<String, IntFunction<Policy4j>> policies = Policy4j.all();
+        int[] capacities = null;
+        String out = null;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of " + option);
+            }
+            String value = args[++i];
+            String[] values = value.split(",");
+            switch (option) {
+                case "--trace": {
+                    int colon = value.indexOf(':');
+                    if (colon < 0) {
+                        throw new IllegalArgumentException("Expected format:path, got " + value);
+                    }
+                    TextTrace4j.Format format = TextTrace4j.Format.valueOf(value.substring(0, colon).toUpperCase(Locale.ROOT));
+                    traces.add(TextTrace4j.open(Paths.get(value.substring(colon + 1)), format));
+                    break;
+                }
+                case "--zipf":
+                    traces.add(SyntheticTrace4j.zipf(Long.parseLong(values[0]), Double.parseDouble(values[1]),
+                            Long.parseLong(values[2]), values.length > 3 ? Long.parseLong(values[3]) : 42));
+                    break;
+                case "--scan":
+                    traces.add(SyntheticTrace4j.scan(Long.parseLong(value)));
+                    break;
+                case "--loop":
+                    traces.add(SyntheticTrace4j.loop(Long.parseLong(values[0]), Long.parseLong(values[1])));
+                    break;
+                case "--policies": {
+                    Map<String, IntFunction<Policy4j>> selected = new LinkedHashMap<>();
+                    for (String name : values) {
+                        IntFunction<Policy4j> policy = Policy4j.all().get(name);
+                        if (policy == null) {
+                            throw new IllegalArgumentException("Unknown policy " + name + ", expected one of " + Policy4j.all().keySet());
+                        }
+                        selected.put(name, policy);
+                    }
+                    policies = selected;
+                    break;
+                }
+                case "--capacities":
+                    capacities = Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--sweep":
+                    capacities = sweep(Integer.parseInt(values[0]), Integer.parseInt(values[1]), Integer.parseInt(values[2]));
+                    break;
+                case "--out":
+                    out = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (traces.isEmpty() || capacities == null) {
+            throw new IllegalArgumentException("At least one trace and the capacities are required");
+        }
+        List<Run> runs;
+        try (Trace4j trace = concat(traces)) {
+            runs = new Simulator4j(policies, capacities).progress(System.err).replay(trace);
+        }
+        if (out == null) {
+            Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            writeCsv(runs, writer);
+            writer.flush();
+        } else {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+                writeCsv(runs, writer);
+            }
+        }
+    }
+
+    /**
+     * Replays several traces one after the other as a single trace.
+     *
+     * @param traces the traces in replay order
+     * @return the concatenated trace, closing every trace when closed
+     */
+    public static Trace4j concat(List<? extends Trace4j> traces) {
+        return new Trace4j() {
+            private int current;
+
+            @Override
+            public int read(long[] buffer) throws IOException {
+                while (current < traces.size()) {
+                    int n = traces.get(current).read(buffer);
+                    if (n >= 0) {
+                        return n;
+                    }
+                    current++;
+                }
+                return -1;
+            }
+
+            @Override
+            public void close() throws IOException {
+                IOException failure = null;
+                for (Trace4j trace : traces) {
+                    try {
+                        trace.close();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        };
+    }
+
+    // A batch of boxed keys travelling from the reader to the replay
+    private static final class Batch {
+        static final Batch END = new Batch();
+
+        final Long[] keys = new Long[BATCH_SIZE];
+        int size;
+    }
+}
@@ -0,0 +1,149 @@
+package org.alpha4j.simulator;
+
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates synthetic traces of a fixed number of events, so that policies can be compared on
+ * well-understood access patterns without recorded data.
+ */
+public class SyntheticTrace4j implements Trace4j {
+    protected final LongSupplier generator; // Produces the next key
+    protected long remaining; // Number of events left
+
+    /**
+     * Constructor that draws a fixed number of keys from a generator.
+     *
+     * @param events    the number of events of the trace
+     * @param generator the generator of keys
+     */
+    public SyntheticTrace4j(long events, LongSupplier generator) {
+        this.remaining = events;
+        this.generator = generator;
+    }
+
+    /**
+     * Creates a trace whose keys follow a Zipf distribution: key {@code k} of {@code 1..items} is
+     * requested with a probability proportional to {@code 1 / k^exponent}.
+     *
+     * @param items    the number of distinct keys
+     * @param exponent the skew of the distribution, typically between 0.6 and 1.2
+     * @param events   the number of events of the trace
+     * @param seed     the seed of the random generator, making the trace reproducible
+     * @return the trace
+     */
+    public static SyntheticTrace4j zipf(long items, double exponent, long events, long seed) {
+        return new SyntheticTrace4j(events, new Zipf(items, exponent, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Creates a trace in which every key is requested exactly once, the worst case for every
+     * policy and a way to test scan resistance when combined with other traces.
+     *
+     * @param events the number of events of the trace
+     * @return the trace
+     */
+    public static SyntheticTrace4j scan(long events) {
+        long[] next = {0};
+        return new SyntheticTrace4j(events, () -> next[0]++);
+    }
+
+    /**
+     * Creates a trace cycling over the same keys in the same order, which defeats LRU as soon as
+     * the loop is longer than the capacity.
+     *
+     * @param length the number of distinct keys in the loop
+     * @param events the number of events of the trace
+     * @return the trace
+     */
+    public static SyntheticTrace4j loop(long length, long events) {
+        long[] next = {0};
+        return new SyntheticTrace4j(events, () -> {
+            long key = next[0];
+            next[0] = key + 1 == length ? 0 : key + 1;
+            return key;
+        });
+    }
+
+    @Override
+    public int read(long[] buffer) {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int n = (int) Math.min(buffer.length, remaining);
+        for (int i = 0; i < n; i++) {
+            buffer[i] = generator.getAsLong();
+        }
+        remaining -= n;
+        return n;
+    }
+
+    /**
+     * Zipf sampling by rejection-inversion (Hormann and Derflinger), which needs constant time
+     * and memory whatever the number of items.
+     */
+    protected static final class Zipf implements LongSupplier {
+        private final long items;
+        private final double exponent;
+        private final SplittableRandom random;
+        private final double hIntegralX1;
+        private final double hIntegralItems;
+        private final double s;
+
+        Zipf(long items, double exponent, SplittableRandom random) {
+            if (items <= 0 || exponent <= 0) {
+                throw new IllegalArgumentException("items and exponent must be positive");
+            }
+            this.items = items;
+            this.exponent = exponent;
+            this.random = random;
+            this.hIntegralX1 = this.hIntegral(1.5) - 1.0;
+            this.hIntegralItems = this.hIntegral(items + 0.5);
+            this.s = 2.0 - this.hIntegralInverse(this.hIntegral(2.5) - this.h(2.0));
+        }
+
+        @Override
+        public long getAsLong() {
+            while (true) {
+                double u = hIntegralItems + random.nextDouble() * (hIntegralX1 - hIntegralItems);
+                double x = this.hIntegralInverse(u);
+                long k = (long) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > items) {
+                    k = items;
+                }
+                if (k - x <= s || u >= this.hIntegral(k + 0.5) - this.h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1.0 - exponent);
+            if (t < -1.0) {
+                t = -1.0; // Limit the value to avoid NaN caused by rounding errors
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log(1 + x) / x, accurate near 0
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        // (exp(x) - 1) / x, accurate near 0
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.alpha4j.simulator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads traces stored as text, one request per line, optionally gzip-compressed when the file
+ * name ends with {@code .gz}. Lines that cannot be parsed, such as comments, are skipped.
+ * Non-numeric keys are hashed to 64 bits, which makes collisions negligible for simulation.
+ */
+public class TextTrace4j implements Trace4j {
+
+    /**
+     * The supported line formats.
+     */
+    public enum Format {
+        /**
+         * One key per line: a number, or any other string which is hashed.
+         */
+        KEYS,
+        /**
+         * ARC traces (Megiddo and Modha): {@code start count ignored request} per line, requesting
+         * the {@code count} blocks starting at {@code start}.
+         */
+        ARC,
+        /**
+         * LIRS traces (Jiang and Zhang): one block number per line; other lines are markers.
+         */
+        LIRS,
+        /**
+         * Wikipedia traces (WikiBench): {@code counter timestamp url flag} per line, keyed by URL.
+         */
+        WIKIPEDIA
+    }
+
+    protected final BufferedReader reader;
+    protected final Format format;
+    protected long pendingStart; // Next block of a partially emitted ARC request
+    protected long pendingCount; // Blocks left in a partially emitted ARC request
+
+    /**
+     * Constructor that reads the given stream.
+     *
+     * @param in     the stream to be read, closed with the trace
+     * @param format the line format
+     */
+    public TextTrace4j(InputStream in, Format format) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+    }
+
+    /**
+     * Opens a trace file.
+     *
+     * @param path   the trace file, decompressed on the fly if its name ends with {@code .gz}
+     * @param format the line format
+     * @return the trace
+     * @throws IOException if the file cannot be opened
+     */
+    public static TextTrace4j open(Path path, Format format) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new TextTrace4j(in, format);
+    }
+
+    @Override
+    public int read(long[] buffer) throws IOException {
+        int n = 0;
+        while (n < buffer.length) {
+            if (pendingCount > 0) {
+                buffer[n++] = pendingStart++;
+                pendingCount--;
+                continue;
+            }
+            String line = reader.readLine();
+            if (line == null) {
+                return n == 0 ? -1 : n;
+            }
+            n = this.parse(line.trim(), buffer, n);
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int parse(String line, long[] buffer, int n) {
+        if (line.isEmpty() || line.charAt(0) == '#') {
+            return n;
+        }
+        switch (format) {
+            case KEYS:
+                buffer[n++] = key(line);
+                return n;
+            case LIRS:
+                try {
+                    long key = Long.parseLong(line);
+                    buffer[n++] = key;
+                } catch (NumberFormatException e) {
+                    // A marker line such as "*"
+                }
+                return n;
+            case ARC: {
+                String[] fields = line.split("\\s+");
+                if (fields.length >= 2) {
+                    try {
+                        pendingStart = Long.parseLong(fields[0]);
+                        pendingCount = Long.parseLong(fields[1]);
+                    } catch (NumberFormatException e) {
+                        pendingCount = 0;
+                    }
+                }
+                return n;
+            }
+            case WIKIPEDIA: {
+                String[] fields = line.split("\\s+");
+                if (fields.length >= 3) {
+                    buffer[n++] = hash(fields[2]);
+                }
+                return n;
+            }
+            default:
+                throw new IllegalStateException("Unknown format " + format);
+        }
+    }
+
+    private static long key(String token) {
+        try {
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            return hash(token);
+        }
+    }
+
+    // FNV-1a, 64 bit
+    private static long hash(String token) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            h ^= token.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
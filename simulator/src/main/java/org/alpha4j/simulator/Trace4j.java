@@ -0,0 +1,28 @@
+package org.alpha4j.simulator;
+
+import java.io.IOException;
+
+/**
+ * A stream of cache accesses, each identified by a {@code long} key. Traces are read in batches
+ * into a caller-provided buffer so that replaying does not allocate per event.
+ */
+public interface Trace4j extends AutoCloseable {
+
+    /**
+     * Reads the next accesses into the buffer.
+     *
+     * @param buffer the buffer to be filled from index 0
+     * @return the number of keys read, or -1 at the end of the trace
+     * @throws IOException if the trace cannot be read
+     */
+    int read(long[] buffer) throws IOException;
+
+    /**
+     * Releases the underlying file, if any.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
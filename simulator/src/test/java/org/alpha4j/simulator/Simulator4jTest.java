@@ -0,0 +1,93 @@
+package org.alpha4j.simulator;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class Simulator4jTest {
+
+    @Test
+    public void testLoopDefeatsLruBelowItsLength() throws IOException {
+        List<Simulator4j.Run> runs = new Simulator4j(Policy4j.all(), new int[]{99, 100})
+                .replay(SyntheticTrace4j.loop(100, 10_000));
+
+        for (Simulator4j.Run run : runs) {
+            assertEquals(10_000, run.events());
+            if (run.policy().equals("sampled-lru")) {
+                // Evicting an approximately oldest entry escapes the cliff of the exact policies
+                assertTrue(run.capacity() == 100 ? run.hits() == 9_900 : run.hits() > 0);
+            } else if (run.policy().endsWith("lru")) {
+                assertEquals(run.capacity() == 100 ? 9_900 : 0, run.hits());
+            }
+        }
+    }
+
+    @Test
+    public void testZipfHitRatioGrowsWithCapacity() throws IOException {
+        List<Simulator4j.Run> runs = new Simulator4j(Policy4j.all(), new int[]{10, 100, 1000})
+                .replay(SyntheticTrace4j.zipf(10_000, 0.9, 200_000, 7));
+
+        Map<String, Double> previous = new HashMap<>();
+        for (Simulator4j.Run run : runs) {
+            Double lower = previous.put(run.policy(), run.hitRatio());
+            assertTrue(run.hitRatio() > 0);
+            assertTrue(lower == null || run.hitRatio() > lower);
+        }
+    }
+
+    @Test
+    public void testCompactPoliciesMatchTheOriginals() throws IOException {
+        Map<String, Long> hits = new HashMap<>();
+        for (Simulator4j.Run run : new Simulator4j(Policy4j.all(), new int[]{500})
+                .replay(SyntheticTrace4j.zipf(5_000, 0.8, 100_000, 3))) {
+            hits.put(run.policy(), run.hits());
+        }
+        assertEquals(hits.get("lru"), hits.get("compact-lru"));
+        assertEquals(hits.get("lfu"), hits.get("compact-lfu"));
+    }
+
+    @Test
+    public void testTextFormats() throws IOException {
+        assertEquals(Arrays.asList(10L, 11L, 12L, 7L), read("10 3 0 1\n7 1 0 2\n", TextTrace4j.Format.ARC));
+        assertEquals(Arrays.asList(5L, 6L), read("5\n*\n6\n", TextTrace4j.Format.LIRS));
+        List<Long> keys = read("1 0.1 http://a/wiki/A -\n2 0.2 http://a/wiki/B -\n3 0.3 http://a/wiki/A save\n",
+                TextTrace4j.Format.WIKIPEDIA);
+        assertEquals(3, keys.size());
+        assertEquals(keys.get(0), keys.get(2));
+        assertNotEquals(keys.get(0), keys.get(1));
+        assertEquals(Arrays.asList(42L, read("key\n", TextTrace4j.Format.KEYS).get(0)),
+                read("42\n# comment\nkey\n", TextTrace4j.Format.KEYS));
+    }
+
+    @Test
+    public void testSweep() {
+        assertArrayEquals(new int[]{10, 100, 1000}, Simulator4j.sweep(10, 1000, 3));
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        Simulator4j.writeCsv(new Simulator4j(Collections.singletonMap("lru", Policy4j.all().get("lru")), new int[]{1})
+                .replay(SyntheticTrace4j.loop(1, 4)), csv);
+        assertEquals("policy,capacity,events,hits,hit_ratio\nlru,1,4,3,0.750000\n", csv.toString());
+    }
+
+    private static List<Long> read(String text, TextTrace4j.Format format) throws IOException {
+        List<Long> keys = new ArrayList<>();
+        try (TextTrace4j trace = new TextTrace4j(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format)) {
+            long[] buffer = new long[2]; // Smaller than an ARC request, to cover requests spanning batches
+            int n;
+            while ((n = trace.read(buffer)) >= 0) {
+                for (int i = 0; i < n; i++) {
+                    keys.add(buffer[i]);
+                }
+            }
+        }
+        return keys;
+    }
+}